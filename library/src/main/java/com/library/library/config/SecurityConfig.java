@@ -1,8 +1,15 @@
 package com.library.library.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.library.controller.dto.Role;
+import com.library.library.controller.filter.AccessTokenContextRepository;
+import com.library.library.controller.filter.AccessTokenFilter;
 import com.library.library.service.impl.UserDetailsServiceImpl;
+import com.library.library.service.security.AccessTokenService;
+import com.library.library.service.security.AuthenticationCache;
+import com.library.library.service.security.CachingAuthenticationProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -11,10 +18,15 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.rememberme.JdbcTokenRepositoryImpl;
 import org.springframework.security.web.authentication.rememberme.PersistentTokenRepository;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.session.HttpSessionEventPublisher;
 
 import javax.sql.DataSource;
 
@@ -26,6 +38,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final UserDetailsServiceImpl userDetailsService;
     private final DataSource dataSource;
+    private final AuthenticationCache authenticationCache;
+    private final AccessTokenService accessTokenService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${auth.cache.enabled:true}")
+    private boolean authenticationCacheEnabled = true;
+
+    @Value("${auth.token.enabled:true}")
+    private boolean accessTokenEnabled = true;
 
     private static final String[] SWAGGER_WHITELIST = {
             "/v2/api-docs/**",
@@ -42,21 +63,30 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
                 .and().withUser("librarian").password(passwordEncoder().encode("librarianPass")).roles(Role.LIBRARIAN.toString())
                 .and().withUser("user").password(passwordEncoder().encode("userPass")).roles(Role.USER.toString());
         auth
-                .authenticationProvider(authenticationProvider());
+                .authenticationProvider(authenticationCacheEnabled
+                        ? new CachingAuthenticationProvider(authenticationProvider(), authenticationCache)
+                        : authenticationProvider());
     }
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
+        if (accessTokenEnabled) {
+            http.addFilterBefore(new AccessTokenFilter(accessTokenService, objectMapper), BasicAuthenticationFilter.class)
+                    .securityContext().securityContextRepository(new AccessTokenContextRepository(new HttpSessionSecurityContextRepository()));
+        }
         http.csrf()
                 .disable()
                 .authorizeRequests()
+                .antMatchers("/auth/token/refresh", "/auth/token/revoke").access(accessTokenEnabled ? "permitAll" : "denyAll")
+                .antMatchers("/auth/token").access(accessTokenEnabled ? "authenticated" : "denyAll")
                 .antMatchers("/admin/**").hasRole(Role.ADMIN.toString())
                 .antMatchers("/librarian/**", "/authors/**", "/books/**").hasAnyRole(Role.LIBRARIAN.toString(), Role.ADMIN.toString())
                 .antMatchers("/registration", "/libraries/**", "/actuator/**").permitAll()
                 .antMatchers(SWAGGER_WHITELIST).permitAll()
                 .anyRequest().authenticated()
                 .and().httpBasic()
-                .and().formLogin().defaultSuccessUrl("/libraries");
+                .and().formLogin().defaultSuccessUrl("/libraries")
+                .and().sessionManagement().maximumSessions(-1).sessionRegistry(sessionRegistry());
     }
 
     @Bean
@@ -74,6 +104,16 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
         return repo;
     }
 
+    @Bean
+    public SessionRegistry sessionRegistry() {
+        return new SessionRegistryImpl();
+    }
+
+    @Bean
+    public HttpSessionEventPublisher httpSessionEventPublisher() {
+        return new HttpSessionEventPublisher();
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
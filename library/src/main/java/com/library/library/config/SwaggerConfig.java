@@ -12,6 +12,7 @@ import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.builders.ResponseMessageBuilder;
 import springfox.documentation.service.ApiInfo;
+import springfox.documentation.service.ApiKey;
 import springfox.documentation.service.BasicAuth;
 import springfox.documentation.service.Contact;
 import springfox.documentation.service.ResponseMessage;
@@ -61,6 +62,7 @@ public class SwaggerConfig {
     private List<SecurityScheme> basicScheme() {
         List<SecurityScheme> schemeList = new ArrayList<>();
         schemeList.add(new BasicAuth("basicAuth"));
+        schemeList.add(new ApiKey("bearerAuth", "Authorization", "header"));
         return schemeList;
     }
 
@@ -1,26 +1,47 @@
 package com.library.library.controller;
 
+import com.library.library.controller.dto.AutocompleteReportDto;
+import com.library.library.controller.dto.AvailabilityReportDto;
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportReportDto;
+import com.library.library.controller.dto.SearchIndexReportDto;
 import com.library.library.controller.dto.UserDto;
 import com.library.library.controller.validation.EmailValid;
 import com.library.library.controller.validation.IsEmailUser;
 import com.library.library.controller.validation.PatchGroup;
+import com.library.library.service.BookService;
+import com.library.library.service.ExportService;
+import com.library.library.service.ImportService;
+import com.library.library.service.LibraryService;
 import com.library.library.service.UserService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 
 @Validated
 @RestController
@@ -28,7 +49,13 @@ import javax.validation.Valid;
 @RequiredArgsConstructor
 public class AdminController {
 
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final UserService userService;
+    private final LibraryService libraryService;
+    private final BookService bookService;
+    private final ExportService exportService;
+    private final ImportService importService;
 
     @ApiOperation(value = "Update all fields user", authorizations = {@Authorization(value = "basicAuth")})
     @ResponseStatus(HttpStatus.OK)
@@ -50,4 +77,57 @@ public class AdminController {
         userService.deleteUser(email);
         return ResponseEntity.noContent().build();
     }
+
+    @ApiOperation(value = "Compare availability index with database", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/availability/consistency")
+    public AvailabilityReportDto checkAvailability(@RequestParam(defaultValue = "false") boolean repair) {
+        return libraryService.checkAvailability(repair);
+    }
+
+    @ApiOperation(value = "Report search index size and query latency", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/search/report")
+    public SearchIndexReportDto getSearchReport() {
+        return bookService.getSearchReport();
+    }
+
+    @ApiOperation(value = "Report autocomplete index size and lookup latency", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/autocomplete/report")
+    public AutocompleteReportDto getAutocompleteReport() {
+        return bookService.getAutocompleteReport();
+    }
+
+    @ApiOperation(value = "Report existence registry size and false-positive rate", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/existence/report")
+    public List<ExistenceReportDto> getExistenceReport() {
+        return bookService.getExistenceReport();
+    }
+
+    @ApiOperation(value = "Stream a catalog dataset as NDJSON or CSV", authorizations = {@Authorization(value = "basicAuth")})
+    @GetMapping(value = "/export/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable ExportDataset dataset,
+                                                        @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        String fileName = dataset.name().toLowerCase() + (format == ExportFormat.CSV ? ".csv" : ".ndjson") + (gzip ? ".gz" : "");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(format == ExportFormat.CSV ? TEXT_CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> exportService.export(dataset, format, gzip, out));
+    }
+
+    @ApiOperation(value = "Bulk import books from a CSV or JSON stream", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/import/books")
+    public ImportReportDto importBooks(@RequestParam(defaultValue = "CSV") ImportFormat format,
+                                       @RequestParam(required = false) String libraryName,
+                                       @RequestParam(defaultValue = "false") boolean gzip,
+                                       InputStream body) throws IOException {
+        return importService.importBooks(format, libraryName, gzip, body);
+    }
 }
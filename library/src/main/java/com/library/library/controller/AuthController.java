@@ -0,0 +1,62 @@
+package com.library.library.controller;
+
+import com.library.library.controller.dto.TokenDto;
+import com.library.library.service.exception.InvalidTokenException;
+import com.library.library.service.security.AccessToken;
+import com.library.library.service.security.AccessTokenService;
+import com.library.library.service.security.TokenPair;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.Authorization;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.NotBlank;
+
+@Validated
+@RestController
+@RequestMapping("/auth/token")
+@RequiredArgsConstructor
+public class AuthController {
+
+    private final AccessTokenService accessTokenService;
+
+    @ApiOperation(value = "Exchange credentials for an access token", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping
+    public TokenDto createToken(Authentication authentication) {
+        if (authentication.getDetails() instanceof AccessToken) {
+            throw new InvalidTokenException("Access token cannot be exchanged for a new token, use refresh");
+        }
+        return mapTokenDto(accessTokenService.issue(authentication));
+    }
+
+    @ApiOperation("Exchange a refresh token for a new token pair")
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/refresh")
+    public TokenDto refreshToken(@RequestParam @NotBlank String refreshToken) {
+        return mapTokenDto(accessTokenService.refresh(refreshToken));
+    }
+
+    @ApiOperation("Revoke an access or refresh token")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @PostMapping(value = "/revoke")
+    public void revokeToken(@RequestParam @NotBlank String token) {
+        accessTokenService.revoke(token);
+    }
+
+    private TokenDto mapTokenDto(TokenPair tokens) {
+        return TokenDto.builder()
+                .accessToken(tokens.getAccessToken())
+                .refreshToken(tokens.getRefreshToken())
+                .tokenType(AccessTokenService.TOKEN_TYPE)
+                .expiresIn(tokens.getExpiresInSeconds())
+                .build();
+    }
+}
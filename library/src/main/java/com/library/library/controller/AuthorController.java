@@ -2,6 +2,7 @@ package com.library.library.controller;
 
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.controller.validation.IsNickName;
 import com.library.library.service.AuthorService;
 import io.swagger.annotations.ApiOperation;
@@ -16,11 +17,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
 import java.util.Set;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 
 @Validated
 @RestController
@@ -44,6 +48,14 @@ public class AuthorController {
         return authorService.getAllAuthors(pageable);
     }
 
+    @ApiOperation(value = "Scroll authors by cursor (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/cursor")
+    public CursorPageDto<AuthorDto> scrollAuthors(@RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return authorService.scrollAuthors(cursor, size);
+    }
+
     @Validated
     @ApiOperation(value = "Get all books by author (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
     @ResponseStatus(HttpStatus.OK)
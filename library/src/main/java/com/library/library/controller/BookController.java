@@ -2,6 +2,12 @@ package com.library.library.controller;
 
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.FacetedBooksDto;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.filter.ConditionalGet;
+import com.library.library.controller.filter.VersionedResource;
 import com.library.library.controller.validation.IsNickName;
 import com.library.library.controller.validation.IsTitleBook;
 import com.library.library.controller.validation.PatchGroup;
@@ -21,10 +27,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.util.Set;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 
 @Validated
 @RestController
@@ -37,6 +47,7 @@ public class BookController {
     @ApiOperation(value = "Get book (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(value = "/{bookTitle}")
+    @ConditionalGet(value = VersionedResource.BOOK, pathVariable = "bookTitle")
     public BookDto getBook(@PathVariable @IsTitleBook String bookTitle) {
         return bookService.getBook(bookTitle);
     }
@@ -48,6 +59,23 @@ public class BookController {
         return bookService.getAllBooks(pageable);
     }
 
+    @ApiOperation(value = "Scroll books by cursor (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/cursor")
+    public CursorPageDto<BookDto> scrollBooks(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return bookService.scrollBooks(cursor, size);
+    }
+
+    @ApiOperation(value = "Filter books by genre, status, year and library with facet counts (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/facets")
+    public FacetedBooksDto getFacetedBooks(@RequestParam(required = false) Set<Genre> genre, @RequestParam(required = false) Set<BookStatus> status,
+                                           @RequestParam(required = false) Integer yearFrom, @RequestParam(required = false) Integer yearTo,
+                                           @RequestParam(required = false) String libraryName, Pageable pageable) {
+        return bookService.getFacetedBooks(genre, status, yearFrom, yearTo, libraryName, pageable);
+    }
+
     @ApiOperation(value = "Create book (LIBRARIAN, ADMIN)", authorizations = {@Authorization(value = "basicAuth")})
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping(value = "/{nickname}")
@@ -3,6 +3,7 @@ package com.library.library.controller;
 import com.library.library.service.exception.BookNotAvailableException;
 import com.library.library.service.exception.BorrowedException;
 import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.exception.InvalidTokenException;
 import com.library.library.service.exception.LibraryException;
 import com.library.library.service.exception.ReservedException;
 import com.library.library.service.exception.UserAlreadyExistsException;
@@ -78,5 +79,11 @@ public class ErrorHandler {
         log.error("handleBorrowedException: exception {}", ex.getMessage(), ex);
         return new Error(ex.getMessage());
     }
-}
 
+    @ExceptionHandler(InvalidTokenException.class)
+    @ResponseStatus(HttpStatus.UNAUTHORIZED)
+    public Error handleInvalidTokenException(InvalidTokenException ex) {
+        log.error("handleInvalidTokenException: exception {}", ex.getMessage(), ex);
+        return new Error(ex.getMessage());
+    }
+}
@@ -1,5 +1,7 @@
 package com.library.library.controller;
 
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
 import com.library.library.controller.dto.LibraryDto;
 import com.library.library.controller.validation.EmailValid;
 import com.library.library.controller.validation.IsEmailUser;
@@ -25,6 +27,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
 
 @Validated
 @RestController
@@ -101,6 +105,27 @@ public class LibrarianController {
     @ResponseStatus(HttpStatus.OK)
     @PostMapping(value = "/return")
     public void returnBookControl(@RequestParam @EmailValid @IsEmailUser String userEmail, @RequestParam @IsTitleBook String bookTitle, @RequestParam @IsNameLibrary String libraryName) throws Exception {
-        libraryService.returnBook(bookTitle, userEmail, libraryName, null);
+        libraryService.returnBook(bookTitle, userEmail, libraryName);
+    }
+
+    @ApiOperation(value = "Reserve books in batch", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/batch/reserve")
+    public List<CirculationResultDto> reserveBooksControl(@RequestParam @IsNameLibrary String libraryName, @RequestBody @NotEmpty List<@Valid CirculationItemDto> items) {
+        return libraryService.reserveBooks(libraryName, items);
+    }
+
+    @ApiOperation(value = "Borrow books in batch", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/batch/borrow")
+    public List<CirculationResultDto> borrowBooksControl(@RequestParam @IsNameLibrary String libraryName, @RequestBody @NotEmpty List<@Valid CirculationItemDto> items) {
+        return libraryService.borrowBooks(libraryName, items);
+    }
+
+    @ApiOperation(value = "Return books in batch", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/batch/return")
+    public List<CirculationResultDto> returnBooksControl(@RequestParam @IsNameLibrary String libraryName, @RequestBody @NotEmpty List<@Valid CirculationItemDto> items) {
+        return libraryService.returnBooks(libraryName, items);
     }
 }
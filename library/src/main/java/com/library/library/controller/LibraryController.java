@@ -1,9 +1,20 @@
 package com.library.library.controller;
 
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookSearchHitDto;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.HoldDto;
 import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.dto.NearbyLibraryDto;
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
+import com.library.library.controller.filter.ConditionalGet;
+import com.library.library.controller.filter.VersionedResource;
 import com.library.library.controller.validation.IsNameLibrary;
 import com.library.library.controller.validation.IsTitleBook;
+import com.library.library.service.BookService;
 import com.library.library.service.LibraryService;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.Authorization;
@@ -25,8 +36,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.servlet.http.HttpServletRequest;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
 import java.security.Principal;
+import java.util.List;
 import java.util.Set;
 
 @Validated
@@ -36,17 +53,62 @@ import java.util.Set;
 public class LibraryController {
 
     private final LibraryService libraryService;
+    private final BookService bookService;
 
     @ApiOperation("All libraries page")
     @ResponseStatus(HttpStatus.OK)
     @GetMapping
+    @ConditionalGet(VersionedResource.LIBRARIES)
     public Page<LibraryDto> getAllLibraries(Pageable pageable) {
         return libraryService.getPageLibraries(pageable);
     }
 
+    @ApiOperation("Scroll libraries by cursor")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/cursor")
+    public CursorPageDto<LibraryDto> scrollLibraries(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return libraryService.scrollLibraries(cursor, size);
+    }
+
+    @ApiOperation("Search books by title and description")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/books/search")
+    public List<BookSearchHitDto> searchBooks(@RequestParam @NotBlank String query, @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return bookService.searchBooks(query, limit);
+    }
+
+    @ApiOperation("Complete book titles, author nicknames and library names by prefix")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/autocomplete")
+    public List<CompletionDto> autocomplete(@RequestParam @NotBlank String prefix, @RequestParam(required = false) CompletionType type,
+                                            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        return bookService.autocomplete(prefix, type, limit);
+    }
+
+    @ApiOperation("Suggest book titles and author names similar to a misspelled query")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/suggestions")
+    public List<SuggestionDto> suggest(@RequestParam @NotBlank String query, @RequestParam(required = false) SuggestionType type,
+                                       @RequestParam(defaultValue = "5") @Min(1) @Max(20) int limit) {
+        return bookService.suggest(query, type, limit);
+    }
+
+    @ApiOperation("Nearest libraries with an available copy of the book")
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping("/nearest")
+    public List<NearbyLibraryDto> getNearestLibraries(@RequestParam @NotBlank String bookTitle,
+                                                      @RequestParam(required = false) @Pattern(regexp = "^\\d{5}$") String postalCode,
+                                                      @RequestParam(required = false) @DecimalMin("-90.0") @DecimalMax("90.0") Double latitude,
+                                                      @RequestParam(required = false) @DecimalMin("-180.0") @DecimalMax("180.0") Double longitude,
+                                                      @RequestParam(defaultValue = "5") @Min(1) @Max(50) int limit) {
+        return libraryService.getNearestLibraries(bookTitle, postalCode, latitude, longitude, limit);
+    }
+
     @ApiOperation("Get library")
     @ResponseStatus(HttpStatus.OK)
     @GetMapping("/{name}")
+    @ConditionalGet(value = VersionedResource.LIBRARY, pathVariable = "name")
     public LibraryDto getLibrary(@PathVariable @IsNameLibrary String name) {
         return libraryService.getLibrary(name);
     }
@@ -77,6 +139,7 @@ public class LibraryController {
     @ApiOperation("Show all books in library")
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(value = "/books/{libraryName}")
+    @ConditionalGet(value = VersionedResource.LIBRARY_BOOKS, pathVariable = "libraryName")
     public Set<BookDto> getAllBooks(@PathVariable @IsNameLibrary String libraryName) {
         return libraryService.getAllBooks(libraryName);
     }
@@ -101,7 +164,23 @@ public class LibraryController {
     @PreAuthorize("hasAnyRole('USER')")
     @ResponseStatus(HttpStatus.OK)
     @PostMapping(value = "/return")
-    public void returnBook(@RequestParam @IsTitleBook String bookTitle, @RequestParam @IsNameLibrary String libraryName, @AuthenticationPrincipal UserDetails activeUser, HttpServletRequest request) {
-        libraryService.returnBook(bookTitle, activeUser.getUsername(), libraryName, request);
+    public void returnBook(@RequestParam @IsTitleBook String bookTitle, @RequestParam @IsNameLibrary String libraryName, @AuthenticationPrincipal UserDetails activeUser) {
+        libraryService.returnBook(bookTitle, activeUser.getUsername(), libraryName);
+    }
+
+    @ApiOperation(value = "Wait for book (USER)", authorizations = {@Authorization(value = "basicAuth")})
+    @PreAuthorize("hasAnyRole('USER')")
+    @ResponseStatus(HttpStatus.OK)
+    @PostMapping(value = "/holds")
+    public HoldDto holdBook(@RequestParam @IsTitleBook String bookTitle, @RequestParam @IsNameLibrary String libraryName, Principal principal) {
+        return libraryService.holdBook(bookTitle, principal.getName(), libraryName);
+    }
+
+    @ApiOperation(value = "Stop waiting for book (USER)", authorizations = {@Authorization(value = "basicAuth")})
+    @PreAuthorize("hasAnyRole('USER')")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @DeleteMapping(value = "/holds")
+    public void cancelHold(@RequestParam @IsTitleBook String bookTitle, @RequestParam @IsNameLibrary String libraryName, Principal principal) {
+        libraryService.cancelHold(bookTitle, principal.getName(), libraryName);
     }
 }
@@ -1,5 +1,6 @@
 package com.library.library.controller;
 
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.controller.dto.UserDto;
 import com.library.library.controller.validation.EmailValid;
 import com.library.library.controller.validation.IsEmailUser;
@@ -14,9 +15,13 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
 @Validated
 @RestController
 @RequestMapping("/users")
@@ -32,6 +37,14 @@ public class UserController {
         return userService.pageUsers(pageable);
     }
 
+    @ApiOperation(value = "Scroll users by cursor", authorizations = {@Authorization(value = "basicAuth")})
+    @ResponseStatus(HttpStatus.OK)
+    @GetMapping(value = "/cursor")
+    public CursorPageDto<UserDto> scrollUsers(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size) {
+        return userService.scrollUsers(cursor, size);
+    }
+
     @ApiOperation(value = "Get user", authorizations = {@Authorization(value = "basicAuth")})
     @ResponseStatus(HttpStatus.OK)
     @GetMapping(value = "/{email}")
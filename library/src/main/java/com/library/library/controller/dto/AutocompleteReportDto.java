@@ -0,0 +1,19 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AutocompleteReportDto {
+    private boolean ready;
+    private long keys;
+    private long nodes;
+    private long estimatedBytes;
+    private long bytesPerMillionKeys;
+    private long lookups;
+    private double meanMicros;
+    private double p50Micros;
+    private double p99Micros;
+    private double maxMicros;
+}
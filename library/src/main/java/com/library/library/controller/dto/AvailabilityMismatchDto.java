@@ -0,0 +1,14 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class AvailabilityMismatchDto {
+    private Long libraryId;
+    private String title;
+    private BookStatus status;
+    private long indexed;
+    private long actual;
+}
@@ -0,0 +1,15 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class AvailabilityReportDto {
+    private int checked;
+    private boolean consistent;
+    private boolean repaired;
+    private List<AvailabilityMismatchDto> mismatches;
+}
@@ -0,0 +1,12 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookSearchHitDto {
+    private Long bookId;
+    private String title;
+    private double score;
+}
@@ -0,0 +1,17 @@
+package com.library.library.controller.dto;
+
+import com.library.library.controller.validation.EmailValid;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+
+@Data
+@Builder
+public class CirculationItemDto {
+    @EmailValid
+    @NotEmpty(message = "User email may not be empty")
+    private String userEmail;
+    @NotEmpty(message = "Book title may not be empty")
+    private String bookTitle;
+}
@@ -0,0 +1,13 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CirculationResultDto {
+    private String userEmail;
+    private String bookTitle;
+    private boolean success;
+    private String message;
+}
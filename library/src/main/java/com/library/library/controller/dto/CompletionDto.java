@@ -0,0 +1,12 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CompletionDto {
+    private String text;
+    private CompletionType type;
+    private long weight;
+}
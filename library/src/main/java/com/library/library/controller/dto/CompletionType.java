@@ -0,0 +1,5 @@
+package com.library.library.controller.dto;
+
+public enum CompletionType {
+    TITLE, AUTHOR, LIBRARY
+}
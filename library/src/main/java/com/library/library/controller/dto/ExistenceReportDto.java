@@ -0,0 +1,25 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ExistenceReportDto {
+    private String type;
+    private boolean ready;
+    private long keys;
+    private long bloomCapacity;
+    private long bloomBits;
+    private int bloomHashes;
+    private long bloomBytes;
+    private long estimatedBytes;
+    private long bytesPerMillionKeys;
+    private double expectedFpp;
+    private double observedFpp;
+    private long lookups;
+    private long bloomNegatives;
+    private long confirmedHits;
+    private long dbFallbacks;
+    private long falsePositives;
+}
@@ -0,0 +1,20 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+public class FacetedBooksDto {
+    private long total;
+    private int page;
+    private int size;
+    private List<BookDto> books;
+    private Map<Genre, Long> genres;
+    private Map<BookStatus, Long> statuses;
+    private Map<Integer, Long> years;
+    private Map<String, Long> libraries;
+}
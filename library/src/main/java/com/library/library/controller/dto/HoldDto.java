@@ -0,0 +1,13 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class HoldDto {
+    private String libraryName;
+    private String bookTitle;
+    private boolean reserved;
+    private long position;
+}
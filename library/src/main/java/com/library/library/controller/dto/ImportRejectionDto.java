@@ -0,0 +1,11 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class ImportRejectionDto {
+    private long row;
+    private String reason;
+}
@@ -0,0 +1,17 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportReportDto {
+    private long imported;
+    private long rejected;
+    private int chunks;
+    private long millis;
+    private double rowsPerSecond;
+    private List<ImportRejectionDto> rejections;
+}
@@ -9,6 +9,8 @@ import com.library.library.controller.validation.UniqueNameLibrary;
 import lombok.Builder;
 import lombok.Data;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.groups.Default;
 
@@ -32,4 +34,10 @@ public class LibraryDto {
     @PostalCodeValid(groups = {PatchGroup.class, Default.class})
     @NotEmpty(message = "Library postal code may not be empty")
     private String postalCode;
+    @DecimalMin(value = "-90.0", groups = {PatchGroup.class, Default.class})
+    @DecimalMax(value = "90.0", groups = {PatchGroup.class, Default.class})
+    private Double latitude;
+    @DecimalMin(value = "-180.0", groups = {PatchGroup.class, Default.class})
+    @DecimalMax(value = "180.0", groups = {PatchGroup.class, Default.class})
+    private Double longitude;
 }
@@ -0,0 +1,11 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class NearbyLibraryDto {
+    private LibraryDto library;
+    private double distanceKm;
+}
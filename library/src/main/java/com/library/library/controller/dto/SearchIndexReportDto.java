@@ -0,0 +1,20 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SearchIndexReportDto {
+    private boolean ready;
+    private long documents;
+    private long deletedDocuments;
+    private long terms;
+    private long postings;
+    private long estimatedBytes;
+    private long queries;
+    private double meanMicros;
+    private double p50Micros;
+    private double p99Micros;
+    private double maxMicros;
+}
@@ -0,0 +1,13 @@
+package com.library.library.controller.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SuggestionDto {
+    private String text;
+    private SuggestionType type;
+    private int distance;
+    private double similarity;
+}
@@ -0,0 +1,36 @@
+package com.library.library.controller.filter;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpRequestResponseHolder;
+import org.springframework.security.web.context.SecurityContextRepository;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+@RequiredArgsConstructor
+public class AccessTokenContextRepository implements SecurityContextRepository {
+
+    private final SecurityContextRepository delegate;
+
+    @Override
+    public SecurityContext loadContext(HttpRequestResponseHolder requestResponseHolder) {
+        if (AccessTokenFilter.hasBearerToken(requestResponseHolder.getRequest())) {
+            return SecurityContextHolder.createEmptyContext();
+        }
+        return delegate.loadContext(requestResponseHolder);
+    }
+
+    @Override
+    public void saveContext(SecurityContext context, HttpServletRequest request, HttpServletResponse response) {
+        if (!AccessTokenFilter.hasBearerToken(request)) {
+            delegate.saveContext(context, request, response);
+        }
+    }
+
+    @Override
+    public boolean containsContext(HttpServletRequest request) {
+        return AccessTokenFilter.hasBearerToken(request) || delegate.containsContext(request);
+    }
+}
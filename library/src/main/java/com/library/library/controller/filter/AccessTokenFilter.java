@@ -0,0 +1,80 @@
+package com.library.library.controller.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.service.exception.InvalidTokenException;
+import com.library.library.service.security.AccessToken;
+import com.library.library.service.security.AccessTokenService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+
+@Slf4j
+@RequiredArgsConstructor
+public class AccessTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = AccessTokenService.TOKEN_TYPE + " ";
+
+    private final AccessTokenService accessTokenService;
+    private final ObjectMapper objectMapper;
+
+    public static boolean hasBearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return Objects.nonNull(header) && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !hasBearerToken(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AccessToken token;
+        try {
+            token = accessTokenService.verify(request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER_PREFIX.length()).trim(),
+                    AccessToken.Type.ACCESS);
+        } catch (InvalidTokenException ex) {
+            log.info("Rejected access token: {}", ex.getMessage());
+            SecurityContextHolder.clearContext();
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, format("%s error=\"invalid_token\"", AccessTokenService.TOKEN_TYPE));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(objectMapper.writeValueAsString(Collections.singletonMap("message", ex.getMessage())));
+            return;
+        }
+        List<GrantedAuthority> authorities = token.getAuthorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        User principal = new User(token.getUsername(), "", authorities);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(principal, null, authorities);
+        authentication.setDetails(token);
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,116 @@
+package com.library.library.controller.filter;
+
+import com.library.library.service.cache.ResourceVersions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+
+    private final ResourceVersions resourceVersions;
+    private final Counter notModified;
+    private final Counter modified;
+
+    public ConditionalGetInterceptor(ResourceVersions resourceVersions, MeterRegistry meterRegistry) {
+        this.resourceVersions = resourceVersions;
+        this.notModified = Counter.builder("conditional.get")
+                .tag("result", "not_modified")
+                .description("Catalog reads answered 304 from the version counters")
+                .register(meterRegistry);
+        this.modified = Counter.builder("conditional.get")
+                .tag("result", "modified")
+                .description("Catalog reads served in full with a fresh ETag")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ConditionalGet conditionalGet = ((HandlerMethod) handler).getMethodAnnotation(ConditionalGet.class);
+        if (Objects.isNull(conditionalGet)) {
+            return true;
+        }
+        String etag = etag(conditionalGet, request);
+        if (Objects.isNull(etag)) {
+            return true;
+        }
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, conditionalGet.value().getCacheControl());
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.increment();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return false;
+        }
+        modified.increment();
+        return true;
+    }
+
+    private String etag(ConditionalGet conditionalGet, HttpServletRequest request) {
+        if (conditionalGet.value() == VersionedResource.LIBRARIES) {
+            return resourceVersions.librariesTag(query(request));
+        }
+        String name = variable(request, conditionalGet.pathVariable());
+        if (Objects.isNull(name)) {
+            return null;
+        }
+        switch (conditionalGet.value()) {
+            case LIBRARY:
+                return resourceVersions.libraryTag(name);
+            case LIBRARY_BOOKS:
+                return resourceVersions.libraryBooksTag(name);
+            case BOOK:
+                return resourceVersions.bookTag(name);
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String variable(HttpServletRequest request, String name) {
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return Objects.isNull(variables) ? null : variables.get(name);
+    }
+
+    private static String query(HttpServletRequest request) {
+        StringJoiner query = new StringJoiner("&");
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) -> {
+            for (String value : values) {
+                query.add(UriUtils.encode(name, StandardCharsets.UTF_8) + "=" + UriUtils.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return query.toString();
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (Objects.isNull(ifNoneMatch)) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
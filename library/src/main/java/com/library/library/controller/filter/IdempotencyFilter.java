@@ -0,0 +1,230 @@
+package com.library.library.controller.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static java.lang.String.format;
+
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final List<String> CIRCULATION_PATHS = Arrays.asList(
+            "/libraries/reserve", "/libraries/borrow", "/libraries/return", "/libraries/holds",
+            "/librarian/libraries/reserve", "/librarian/libraries/borrow", "/librarian/libraries/return",
+            "/librarian/libraries/batch/*");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+    private final long waitMillis;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyFilter(ObjectMapper objectMapper,
+                             @Value("${idempotency.ttl.seconds:3600}") long ttlSeconds,
+                             @Value("${idempotency.max.size:10000}") long maxSize,
+                             @Value("${idempotency.wait.ms:10000}") long waitMillis) {
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build();
+        this.waitMillis = waitMillis;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || Objects.isNull(request.getHeader(IDEMPOTENCY_KEY))) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return CIRCULATION_PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (Objects.isNull(authentication) || authentication instanceof AnonymousAuthenticationToken) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String key = authentication.getName() + ":" + request.getHeader(IDEMPOTENCY_KEY);
+        BodyCachingRequest cachedRequest = new BodyCachingRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = responses.asMap().putIfAbsent(key, pending);
+        if (Objects.nonNull(existing)) {
+            replay(existing, fingerprint, response);
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(cachedRequest, wrapper);
+            StoredResponse stored = new StoredResponse(fingerprint, wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getContentAsByteArray());
+            if (stored.status >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                responses.invalidate(key);
+            }
+            pending.complete(stored);
+            wrapper.copyBodyToResponse();
+        } catch (IOException | ServletException | RuntimeException ex) {
+            responses.invalidate(key);
+            pending.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    private void replay(CompletableFuture<StoredResponse> existing, String fingerprint, HttpServletResponse response) throws IOException {
+        StoredResponse stored;
+        try {
+            stored = existing.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ex) {
+            writeError(response, HttpStatus.CONFLICT, format("Request with this %s is still in progress or failed, retry later", IDEMPOTENCY_KEY));
+            return;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.CONFLICT, format("Request with this %s is still in progress, retry later", IDEMPOTENCY_KEY));
+            return;
+        }
+        if (!stored.fingerprint.equals(fingerprint)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, format("%s was already used for a different request", IDEMPOTENCY_KEY));
+            return;
+        }
+        log.info("Replay stored response for {} {}", IDEMPOTENCY_KEY, fingerprint);
+        response.setStatus(stored.status);
+        response.setHeader(IDEMPOTENT_REPLAYED, Boolean.TRUE.toString());
+        if (Objects.nonNull(stored.contentType)) {
+            response.setContentType(stored.contentType);
+        }
+        response.setContentLength(stored.body.length);
+        response.getOutputStream().write(stored.body);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write(objectMapper.writeValueAsString(Collections.singletonMap("message", message)));
+    }
+
+    private String fingerprint(BodyCachingRequest request) {
+        Map<String, List<String>> params = new TreeMap<>();
+        request.getParameterMap().forEach((name, values) -> params.put(name, Arrays.asList(values)));
+        return request.getRequestURI() + params + ":" + request.digest();
+    }
+
+    private static class BodyCachingRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private BodyCachingRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            // form parameters are parsed from the body, so read them before it is consumed
+            request.getParameterMap();
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        private String digest() {
+            try {
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(MessageDigest.getInstance("SHA-256").digest(body));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    // the body is already buffered, so every callback is due right away
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException ex) {
+                        listener.onError(ex);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            String encoding = Objects.isNull(getCharacterEncoding()) ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+        }
+    }
+
+    @AllArgsConstructor
+    private static class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+    }
+}
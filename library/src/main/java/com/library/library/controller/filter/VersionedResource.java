@@ -0,0 +1,15 @@
+package com.library.library.controller.filter;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum VersionedResource {
+    LIBRARIES("no-cache"),
+    LIBRARY("no-cache"),
+    LIBRARY_BOOKS("no-cache"),
+    BOOK("private, no-cache");
+
+    private final String cacheControl;
+}
@@ -2,6 +2,7 @@ package com.library.library.service;
 
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.CursorPageDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -13,6 +14,8 @@ public interface AuthorService {
 
     Page<AuthorDto> getAllAuthors(Pageable pageable);
 
+    CursorPageDto<AuthorDto> scrollAuthors(String cursor, int size);
+
     Set<BookDto> getAuthorBooks(String nickname);
 
     boolean isNicknameAlreadyInUse(String nickname);
@@ -1,16 +1,33 @@
 package com.library.library.service;
 
 import com.library.library.controller.dto.AuthorDto;
+import com.library.library.controller.dto.AutocompleteReportDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookSearchHitDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.controller.dto.FacetedBooksDto;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.SearchIndexReportDto;
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.Set;
+
 public interface BookService {
 
     BookDto getBook(String bookTitle);
 
     Page<BookDto> getAllBooks(Pageable pageable);
 
+    CursorPageDto<BookDto> scrollBooks(String cursor, int size);
+
     BookDto createBook(String nickname, BookDto bookDto);
 
     BookDto updateBook(Long id, BookDto bookDto);
@@ -20,4 +37,19 @@ public interface BookService {
     boolean isExistBookTitle(String bookTitle);
 
     void deleteBook(Long id);
+
+    List<BookSearchHitDto> searchBooks(String query, int limit);
+
+    SearchIndexReportDto getSearchReport();
+
+    List<CompletionDto> autocomplete(String prefix, CompletionType type, int limit);
+
+    AutocompleteReportDto getAutocompleteReport();
+
+    List<ExistenceReportDto> getExistenceReport();
+
+    List<SuggestionDto> suggest(String query, SuggestionType type, int limit);
+
+    FacetedBooksDto getFacetedBooks(Set<Genre> genres, Set<BookStatus> statuses, Integer yearFrom, Integer yearTo,
+                                    String libraryName, Pageable pageable);
 }
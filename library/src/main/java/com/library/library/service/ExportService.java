@@ -0,0 +1,12 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    long export(ExportDataset dataset, ExportFormat format, boolean gzip, OutputStream out) throws IOException;
+}
@@ -0,0 +1,12 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportReportDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ImportService {
+
+    ImportReportDto importBooks(ImportFormat format, String libraryName, boolean gzip, InputStream in) throws IOException;
+}
@@ -1,11 +1,17 @@
 package com.library.library.service;
 
+import com.library.library.controller.dto.AvailabilityReportDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.HoldDto;
 import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.dto.NearbyLibraryDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
-import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 import java.util.Set;
 
 public interface LibraryService {
@@ -18,6 +24,8 @@ public interface LibraryService {
 
     Page<LibraryDto> getPageLibraries(Pageable pageable);
 
+    CursorPageDto<LibraryDto> scrollLibraries(String cursor, int size);
+
     LibraryDto addBook(String libraryName, String bookTitle);
 
     void addUser(String libraryName, String email);
@@ -26,6 +34,8 @@ public interface LibraryService {
 
     Set<LibraryDto> getAllLibrariesByBookTitle(String bookTitle);
 
+    List<NearbyLibraryDto> getNearestLibraries(String bookTitle, String postalCode, Double latitude, Double longitude, int limit);
+
     Set<BookDto> getAllBooks(String libraryName);
 
     void deleteLibrary(String libraryName);
@@ -38,5 +48,17 @@ public interface LibraryService {
 
     void borrowBook(String bookTitle, String userEmail, String libraryName);
 
-    void returnBook(String bookTitle, String userEmail, String libraryName, HttpServletRequest request);
+    void returnBook(String bookTitle, String userEmail, String libraryName);
+
+    List<CirculationResultDto> reserveBooks(String libraryName, List<CirculationItemDto> items);
+
+    List<CirculationResultDto> borrowBooks(String libraryName, List<CirculationItemDto> items);
+
+    List<CirculationResultDto> returnBooks(String libraryName, List<CirculationItemDto> items);
+
+    HoldDto holdBook(String bookTitle, String userEmail, String libraryName);
+
+    void cancelHold(String bookTitle, String userEmail, String libraryName);
+
+    AvailabilityReportDto checkAvailability(boolean repair);
 }
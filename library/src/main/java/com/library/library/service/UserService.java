@@ -1,5 +1,6 @@
 package com.library.library.service;
 
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.controller.dto.UserDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +13,8 @@ public interface UserService {
 
     Page<UserDto> pageUsers(Pageable pageable);
 
+    CursorPageDto<UserDto> scrollUsers(String cursor, int size);
+
     UserDto createUser(UserDto userDto);
 
     UserDto updateUser(String email, UserDto userDto);
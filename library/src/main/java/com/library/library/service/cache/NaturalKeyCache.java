@@ -0,0 +1,203 @@
+package com.library.library.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
+import com.library.library.service.model.Author;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.repository.NaturalKey;
+import com.library.library.service.repository.UserRepository;
+import com.library.library.service.repository.UserSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Slf4j
+@Component
+public class NaturalKeyCache {
+
+    private final LibraryRepository libraryRepo;
+    private final UserRepository userRepo;
+    private final AuthorRepository authorRepo;
+    private final Lookup<LibrarySummary> libraries;
+    private final Lookup<UserSummary> users;
+    private final Lookup<NaturalKey> authors;
+
+    public NaturalKeyCache(LibraryRepository libraryRepo, UserRepository userRepo, AuthorRepository authorRepo,
+                           MeterRegistry meterRegistry,
+                           @Value("${lookup.cache.ttl.seconds:600}") long ttlSeconds,
+                           @Value("${lookup.cache.max.size:10000}") long maxSize) {
+        this.libraryRepo = libraryRepo;
+        this.userRepo = userRepo;
+        this.authorRepo = authorRepo;
+        this.libraries = new Lookup<>("library.names", libraryRepo::findSummaryByLibraryName, LibrarySummary::getId,
+                meterRegistry, ttlSeconds, maxSize);
+        this.users = new Lookup<>("user.emails", userRepo::findSummaryByEmail, UserSummary::getId,
+                meterRegistry, ttlSeconds, maxSize);
+        this.authors = new Lookup<>("author.nicknames", authorRepo::findKeyByNickname, NaturalKey::getId,
+                meterRegistry, ttlSeconds, maxSize);
+    }
+
+    public LibrarySummary library(String libraryName) {
+        return libraries.get(libraryName);
+    }
+
+    public UserSummary user(String email) {
+        return users.get(email);
+    }
+
+    public Library libraryReference(String libraryName) {
+        LibrarySummary library = libraries.get(libraryName);
+        return Objects.isNull(library) ? null : libraryRepo.getById(library.getId());
+    }
+
+    public User userReference(String email) {
+        UserSummary user = users.get(email);
+        return Objects.isNull(user) ? null : userRepo.getById(user.getId());
+    }
+
+    public Author authorReference(String nickname) {
+        NaturalKey author = authors.get(nickname);
+        return Objects.isNull(author) ? null : authorRepo.getById(author.getId());
+    }
+
+    public void evictLibrary(Long id) {
+        libraries.evict(id);
+    }
+
+    public void evictUser(Long id) {
+        users.evict(id);
+    }
+
+    public void evictAuthor(Long id) {
+        authors.evict(id);
+    }
+
+    public void invalidateAll() {
+        libraries.invalidateAll();
+        users.invalidateAll();
+        authors.invalidateAll();
+    }
+
+    public long size() {
+        return libraries.snapshots.estimatedSize() + users.snapshots.estimatedSize() + authors.snapshots.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryChanged(LibraryChangedEvent event) {
+        evictLibrary(event.getLibraryId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        evictUser(event.getUserId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        event.getUserIds().forEach(this::evictUser);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        evictAuthor(event.getAuthorId());
+    }
+
+    private static class Lookup<T> {
+
+        private final String name;
+        private final Cache<String, T> snapshots;
+        private final Map<Long, Set<String>> keysById = new ConcurrentHashMap<>();
+        private final Function<String, T> loader;
+        private final Function<T, Long> id;
+        private final AtomicLong evictions = new AtomicLong();
+
+        Lookup(String name, Function<String, T> loader, Function<T, Long> id, MeterRegistry meterRegistry,
+               long ttlSeconds, long maxSize) {
+            this.name = name;
+            this.loader = loader;
+            this.id = id;
+            this.snapshots = Caffeine.newBuilder()
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                    .maximumSize(maxSize)
+                    .executor(Runnable::run)
+                    .<String, T>removalListener((key, snapshot, cause) -> unindex(key, snapshot))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, snapshots, name);
+        }
+
+        T get(String key) {
+            if (Objects.isNull(key)) {
+                return loader.apply(null);
+            }
+            T cached = snapshots.getIfPresent(key);
+            if (Objects.nonNull(cached)) {
+                return cached;
+            }
+            long generation = evictions.get();
+            T loaded = loader.apply(key);
+            if (Objects.nonNull(loaded)) {
+                snapshots.put(key, loaded);
+                keysById.compute(id.apply(loaded), (entityId, keys) -> {
+                    Set<String> indexed = Objects.isNull(keys) ? new HashSet<>() : keys;
+                    indexed.add(key);
+                    return indexed;
+                });
+                // a change committed while loading may have been read before it, so do not keep that row
+                if (generation != evictions.get()) {
+                    snapshots.invalidate(key);
+                }
+            }
+            return loaded;
+        }
+
+        void evict(Long entityId) {
+            evictions.incrementAndGet();
+            Set<String> keys = keysById.remove(entityId);
+            if (Objects.nonNull(keys)) {
+                snapshots.invalidateAll(keys);
+            }
+            log.info("Natural key cache {} evicted id {}", name, entityId);
+        }
+
+        void invalidateAll() {
+            evictions.incrementAndGet();
+            snapshots.invalidateAll();
+            keysById.clear();
+        }
+
+        private void unindex(String key, T snapshot) {
+            if (Objects.isNull(key) || Objects.isNull(snapshot)) {
+                return;
+            }
+            Long removedId = id.apply(snapshot);
+            keysById.computeIfPresent(removedId, (entityId, keys) -> {
+                T current = snapshots.asMap().get(key);
+                if (Objects.isNull(current) || !removedId.equals(id.apply(current))) {
+                    keys.remove(key);
+                }
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+}
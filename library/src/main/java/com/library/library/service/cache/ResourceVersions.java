@@ -0,0 +1,114 @@
+package com.library.library.service.cache;
+
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.String.format;
+
+@Component
+public class ResourceVersions {
+
+    private final ExistenceRegistry existenceRegistry;
+    private final String epoch;
+    private final AtomicLong libraries = new AtomicLong();
+    private final AtomicLongArray library;
+    private final AtomicLongArray libraryBooks;
+    private final AtomicLongArray book;
+
+    public ResourceVersions(ExistenceRegistry existenceRegistry, @Value("${etag.stripes:4096}") int stripes) {
+        this.existenceRegistry = existenceRegistry;
+        this.epoch = Long.toHexString(new SecureRandom().nextLong() & Long.MAX_VALUE);
+        this.library = new AtomicLongArray(stripes);
+        this.libraryBooks = new AtomicLongArray(stripes);
+        this.book = new AtomicLongArray(stripes);
+    }
+
+    public String librariesTag(String query) {
+        return tag("l" + DigestUtils.md5DigestAsHex(query.getBytes(StandardCharsets.UTF_8)), libraries.get());
+    }
+
+    public String libraryTag(String libraryName) {
+        Long id = libraryId(libraryName);
+        return Objects.isNull(id) ? null : tag("L" + id, library.get(stripe(id)));
+    }
+
+    public String libraryBooksTag(String libraryName) {
+        Long id = libraryId(libraryName);
+        return Objects.isNull(id) ? null : tag("B" + id, libraryBooks.get(stripe(id)));
+    }
+
+    public String bookTag(String bookTitle) {
+        if (Objects.isNull(existenceRegistry.ids(ExistenceType.BOOK_TITLE, bookTitle))) {
+            return null;
+        }
+        return tag("b", book.get(stripe(ExistenceRegistry.normalize(bookTitle))));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryChanged(LibraryChangedEvent event) {
+        libraries.incrementAndGet();
+        library.incrementAndGet(stripe(event.getLibraryId()));
+        libraryBooks.incrementAndGet(stripe(event.getLibraryId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (Objects.nonNull(event.getLibraryId())) {
+            libraryBooks.incrementAndGet(stripe(event.getLibraryId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        if (Objects.nonNull(event.getLibraryId())) {
+            libraryBooks.incrementAndGet(stripe(event.getLibraryId()));
+        }
+        bookChanged(event.getTitle());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        bookChanged(event.getTitle());
+        bookChanged(event.getPreviousTitle());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        event.getBooks().forEach(imported -> bookChanged(imported.getTitle()));
+    }
+
+    private void bookChanged(String title) {
+        if (Objects.nonNull(title)) {
+            book.incrementAndGet(stripe(ExistenceRegistry.normalize(title)));
+        }
+    }
+
+    private Long libraryId(String libraryName) {
+        long[] ids = existenceRegistry.ids(ExistenceType.LIBRARY_NAME, libraryName);
+        return Objects.isNull(ids) || ids.length != 1 ? null : ids[0];
+    }
+
+    private String tag(String resource, long version) {
+        return format("\"%s-%s-%x\"", epoch, resource, version);
+    }
+
+    private int stripe(Object key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), library.length());
+    }
+}
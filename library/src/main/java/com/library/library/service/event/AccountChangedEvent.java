@@ -0,0 +1,19 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Collection;
+import java.util.Collections;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccountChangedEvent {
+    private final Collection<Long> userIds;
+
+    public static AccountChangedEvent of(Long userId) {
+        return new AccountChangedEvent(Collections.singletonList(userId));
+    }
+}
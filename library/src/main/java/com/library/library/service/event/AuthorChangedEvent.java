@@ -0,0 +1,16 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthorChangedEvent {
+    private final Long authorId;
+    private final String previousNickname;
+    private final String nickname;
+    private final String previousAuthorName;
+    private final String authorName;
+}
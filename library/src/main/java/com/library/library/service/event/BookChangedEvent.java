@@ -0,0 +1,33 @@
+package com.library.library.service.event;
+
+import com.library.library.service.model.Book;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class BookChangedEvent {
+    private final Long bookId;
+    private final String title;
+    private final String previousTitle;
+    private final String description;
+    private final boolean deleted;
+
+    public static BookChangedEvent saved(Book book) {
+        return new BookChangedEvent(book.getId(), book.getTitle(), null, book.getDescription(), false);
+    }
+
+    public static BookChangedEvent imported(Long bookId, String title, String description) {
+        return new BookChangedEvent(bookId, title, null, description, false);
+    }
+
+    public static BookChangedEvent updated(Book book, String previousTitle) {
+        return new BookChangedEvent(book.getId(), book.getTitle(), previousTitle, book.getDescription(), false);
+    }
+
+    public static BookChangedEvent deleted(Book book) {
+        return new BookChangedEvent(book.getId(), book.getTitle(), null, null, true);
+    }
+}
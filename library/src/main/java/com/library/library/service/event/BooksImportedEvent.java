@@ -0,0 +1,12 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BooksImportedEvent {
+    private final List<BookChangedEvent> books;
+}
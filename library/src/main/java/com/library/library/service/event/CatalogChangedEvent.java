@@ -0,0 +1,12 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class CatalogChangedEvent {
+    private final Long libraryId;
+}
@@ -0,0 +1,28 @@
+package com.library.library.service.event;
+
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Objects;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class CirculationEvent {
+    private final CirculationOperation operation;
+    private final Long userId;
+    private final Long bookId;
+    private final Long libraryId;
+    private final String title;
+    private final Instant timestamp;
+
+    public static CirculationEvent of(CirculationOperation operation, User user, Book book, Library library) {
+        return new CirculationEvent(operation, Objects.isNull(user) ? null : user.getId(), book.getId(),
+                library.getId(), book.getTitle(), Instant.now());
+    }
+}
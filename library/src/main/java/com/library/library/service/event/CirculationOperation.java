@@ -0,0 +1,18 @@
+package com.library.library.service.event;
+
+import com.library.library.controller.dto.BookStatus;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CirculationOperation {
+    ADD(null, BookStatus.AVAILABLE),
+    RESERVE(BookStatus.AVAILABLE, BookStatus.RESERVED),
+    BORROW(BookStatus.RESERVED, BookStatus.BORROWED),
+    RETURN(BookStatus.BORROWED, BookStatus.AVAILABLE),
+    EXPIRE(BookStatus.RESERVED, BookStatus.AVAILABLE);
+
+    private final BookStatus from;
+    private final BookStatus to;
+}
@@ -0,0 +1,20 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class LateReturnEvent {
+    private final Long borrowedId;
+    private final Long userId;
+    private final String userEmail;
+    private final Long bookId;
+    private final Long libraryId;
+    private final Date dueDate;
+    private final Date returnedOn;
+}
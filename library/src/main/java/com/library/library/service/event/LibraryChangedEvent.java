@@ -0,0 +1,14 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class LibraryChangedEvent {
+    private final Long libraryId;
+    private final String previousName;
+    private final String libraryName;
+}
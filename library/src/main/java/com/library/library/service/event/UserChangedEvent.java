@@ -0,0 +1,14 @@
+package com.library.library.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class UserChangedEvent {
+    private final Long userId;
+    private final String previousEmail;
+    private final String email;
+}
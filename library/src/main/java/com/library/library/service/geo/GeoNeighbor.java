@@ -0,0 +1,13 @@
+package com.library.library.service.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class GeoNeighbor {
+    private final long libraryId;
+    private final double distanceKm;
+}
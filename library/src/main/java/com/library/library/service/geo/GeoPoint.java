@@ -0,0 +1,42 @@
+package com.library.library.service.geo;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString(of = {"latitude", "longitude"})
+public class GeoPoint {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final double latitude;
+    private final double longitude;
+    private final double x;
+    private final double y;
+    private final double z;
+
+    public GeoPoint(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        this.x = Math.cos(lat) * Math.cos(lon);
+        this.y = Math.cos(lat) * Math.sin(lon);
+        this.z = Math.sin(lat);
+    }
+
+    public double chordSquared(GeoPoint other) {
+        double dx = x - other.x;
+        double dy = y - other.y;
+        double dz = z - other.z;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    public double distanceKm(GeoPoint other) {
+        return toKilometers(chordSquared(other));
+    }
+
+    static double toKilometers(double chordSquared) {
+        return 2 * Math.asin(Math.min(1, Math.sqrt(chordSquared) / 2)) * EARTH_RADIUS_KM;
+    }
+}
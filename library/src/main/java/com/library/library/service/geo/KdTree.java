@@ -0,0 +1,213 @@
+package com.library.library.service.geo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+public final class KdTree {
+
+    private static final int DIMENSIONS = 3;
+
+    private final long[] ids;
+    private final double[] coordinates;
+    private final byte[] axes;
+
+    private KdTree(long[] ids, double[] coordinates, byte[] axes) {
+        this.ids = ids;
+        this.coordinates = coordinates;
+        this.axes = axes;
+    }
+
+    public static KdTree build(Map<Long, GeoPoint> points) {
+        int size = points.size();
+        long[] ids = new long[size];
+        double[] coordinates = new double[size * DIMENSIONS];
+        int position = 0;
+        for (Map.Entry<Long, GeoPoint> entry : points.entrySet()) {
+            GeoPoint point = entry.getValue();
+            ids[position] = entry.getKey();
+            coordinates[position * DIMENSIONS] = point.getX();
+            coordinates[position * DIMENSIONS + 1] = point.getY();
+            coordinates[position * DIMENSIONS + 2] = point.getZ();
+            position++;
+        }
+        KdTree tree = new KdTree(ids, coordinates, new byte[size]);
+        tree.split(0, size);
+        return tree;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public List<GeoNeighbor> nearest(GeoPoint origin, int limit, LongPredicate filter) {
+        Neighbors neighbors = new Neighbors(limit);
+        if (limit > 0) {
+            search(0, ids.length, new double[]{origin.getX(), origin.getY(), origin.getZ()}, filter, neighbors);
+        }
+        return neighbors.sorted();
+    }
+
+    private void split(int from, int to) {
+        if (to - from <= 1) {
+            return;
+        }
+        int axis = widestAxis(from, to);
+        int median = (from + to) >>> 1;
+        select(from, to - 1, median, axis);
+        axes[median] = (byte) axis;
+        split(from, median);
+        split(median + 1, to);
+    }
+
+    private void search(int from, int to, double[] query, LongPredicate filter, Neighbors neighbors) {
+        if (from >= to) {
+            return;
+        }
+        int node = (from + to) >>> 1;
+        if (filter.test(ids[node])) {
+            neighbors.offer(ids[node], distanceSquared(node, query));
+        }
+        if (to - from == 1) {
+            return;
+        }
+        double delta = query[axes[node]] - coordinates[node * DIMENSIONS + axes[node]];
+        if (delta < 0) {
+            search(from, node, query, filter, neighbors);
+            if (delta * delta < neighbors.bound()) {
+                search(node + 1, to, query, filter, neighbors);
+            }
+        } else {
+            search(node + 1, to, query, filter, neighbors);
+            if (delta * delta < neighbors.bound()) {
+                search(from, node, query, filter, neighbors);
+            }
+        }
+    }
+
+    private int widestAxis(int from, int to) {
+        int widest = 0;
+        double widestSpread = -1;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int i = from; i < to; i++) {
+                double value = coordinates[i * DIMENSIONS + axis];
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    private void select(int left, int right, int target, int axis) {
+        while (left < right) {
+            double pivot = coordinates[((left + right) >>> 1) * DIMENSIONS + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinates[i * DIMENSIONS + axis] < pivot) {
+                    i++;
+                }
+                while (coordinates[j * DIMENSIONS + axis] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            if (target <= j) {
+                right = j;
+            } else if (target >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double value = coordinates[a * DIMENSIONS + axis];
+            coordinates[a * DIMENSIONS + axis] = coordinates[b * DIMENSIONS + axis];
+            coordinates[b * DIMENSIONS + axis] = value;
+        }
+    }
+
+    private double distanceSquared(int node, double[] query) {
+        double dx = coordinates[node * DIMENSIONS] - query[0];
+        double dy = coordinates[node * DIMENSIONS + 1] - query[1];
+        double dz = coordinates[node * DIMENSIONS + 2] - query[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    static final class Neighbors {
+        private final long[] libraryIds;
+        private final double[] distances;
+        private int size;
+
+        Neighbors(int limit) {
+            this.libraryIds = new long[limit];
+            this.distances = new double[limit];
+        }
+
+        double bound() {
+            return size < libraryIds.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(long libraryId, double distance) {
+            if (size < libraryIds.length) {
+                int i = size++;
+                while (i > 0 && distances[(i - 1) >>> 1] < distance) {
+                    int parent = (i - 1) >>> 1;
+                    libraryIds[i] = libraryIds[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                libraryIds[i] = libraryId;
+                distances[i] = distance;
+            } else if (libraryIds.length > 0 && distance < distances[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && distances[child + 1] > distances[child]) {
+                        child++;
+                    }
+                    if (distances[child] <= distance) {
+                        break;
+                    }
+                    libraryIds[i] = libraryIds[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                libraryIds[i] = libraryId;
+                distances[i] = distance;
+            }
+        }
+
+        List<GeoNeighbor> sorted() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Double.compare(distances[a], distances[b]));
+            List<GeoNeighbor> result = new ArrayList<>(size);
+            for (int i : order) {
+                result.add(new GeoNeighbor(libraryIds[i], GeoPoint.toKilometers(distances[i])));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.library.service.geo;
+
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.repository.LibraryLocation;
+import com.library.library.service.repository.LibraryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class LibraryLocationIndex {
+
+    private static final int CANDIDATE_SCAN_RATIO = 64;
+
+    private final LibraryRepository libraryRepo;
+    private final PostalCodeLocator postalCodeLocator;
+    private final Timer queryTimer;
+
+    private volatile Snapshot snapshot = new Snapshot(new HashMap<>());
+    private volatile boolean ready;
+
+    public LibraryLocationIndex(LibraryRepository libraryRepo, PostalCodeLocator postalCodeLocator, MeterRegistry meterRegistry) {
+        this.libraryRepo = libraryRepo;
+        this.postalCodeLocator = postalCodeLocator;
+        this.queryTimer = Timer.builder("library.nearest.latency")
+                .description("Nearest library lookup latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("library.nearest.locations", this, index -> index.snapshot.tree.size())
+                .description("Libraries held by the location index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<Long, GeoPoint> points = new HashMap<>();
+        for (LibraryLocation location : libraryRepo.findLocations()) {
+            locate(location).ifPresent(point -> points.put(location.getId(), point));
+        }
+        snapshot = new Snapshot(points);
+        ready = true;
+        log.info("Library location index built with {} libraries in {} ms", points.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryChanged(LibraryChangedEvent event) {
+        Long libraryId = event.getLibraryId();
+        if (Objects.isNull(libraryId)) {
+            return;
+        }
+        Optional<GeoPoint> point = Objects.isNull(event.getLibraryName()) ? Optional.empty()
+                : libraryRepo.findLocationById(libraryId).flatMap(this::locate);
+        synchronized (this) {
+            Map<Long, GeoPoint> points = new HashMap<>(snapshot.points);
+            if (point.isPresent()) {
+                points.put(libraryId, point.get());
+            } else {
+                points.remove(libraryId);
+            }
+            snapshot = new Snapshot(points);
+        }
+    }
+
+    public List<GeoNeighbor> nearest(GeoPoint origin, int limit, Set<Long> candidates) {
+        long start = System.nanoTime();
+        try {
+            Snapshot current = snapshot;
+            if ((long) candidates.size() * CANDIDATE_SCAN_RATIO < current.tree.size()) {
+                KdTree.Neighbors neighbors = new KdTree.Neighbors(limit);
+                for (Long libraryId : candidates) {
+                    GeoPoint point = current.points.get(libraryId);
+                    if (Objects.nonNull(point)) {
+                        neighbors.offer(libraryId, origin.chordSquared(point));
+                    }
+                }
+                return neighbors.sorted();
+            }
+            return current.tree.nearest(origin, limit, candidates::contains);
+        } finally {
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Optional<GeoPoint> locate(LibraryLocation location) {
+        if (Objects.nonNull(location.getLatitude()) && Objects.nonNull(location.getLongitude())) {
+            return Optional.of(new GeoPoint(location.getLatitude(), location.getLongitude()));
+        }
+        return postalCodeLocator.locate(location.getPostalCode());
+    }
+
+    private static class Snapshot {
+        private final Map<Long, GeoPoint> points;
+        private final KdTree tree;
+
+        private Snapshot(Map<Long, GeoPoint> points) {
+            this.points = points;
+            this.tree = KdTree.build(points);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.library.library.service.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+@Slf4j
+@Component
+public class PostalCodeLocator {
+
+    private final Map<String, GeoPoint> prefixes = new HashMap<>();
+    private int longestPrefix;
+
+    public PostalCodeLocator(@Value("${geo.postal-codes:classpath:geo/postal-codes.csv}") Resource table) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(table.getInputStream(), StandardCharsets.UTF_8))) {
+            reader.readLine();
+            String line;
+            while (Objects.nonNull(line = reader.readLine())) {
+                String[] columns = line.split(",");
+                if (columns.length < 3) {
+                    continue;
+                }
+                String prefix = columns[0].trim();
+                prefixes.put(prefix, new GeoPoint(Double.parseDouble(columns[1]), Double.parseDouble(columns[2])));
+                longestPrefix = Math.max(longestPrefix, prefix.length());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read postal code table " + table, e);
+        }
+        log.info("Postal code table loaded with {} prefixes", prefixes.size());
+    }
+
+    public Optional<GeoPoint> locate(String postalCode) {
+        if (Objects.isNull(postalCode)) {
+            return Optional.empty();
+        }
+        String code = postalCode.trim();
+        for (int length = Math.min(longestPrefix, code.length()); length > 0; length--) {
+            GeoPoint point = prefixes.get(code.substring(0, length));
+            if (Objects.nonNull(point)) {
+                return Optional.of(point);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return prefixes.size();
+    }
+}
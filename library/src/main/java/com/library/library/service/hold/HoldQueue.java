@@ -0,0 +1,65 @@
+package com.library.library.service.hold;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.HoldRequest;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.Reserved;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.HoldRequestRepository;
+import com.library.library.service.repository.ReservedRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Calendar;
+import java.util.Optional;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HoldQueue {
+
+    private static final int HAND_OFF_SCAN = 16;
+
+    private final HoldRequestRepository holdRepo;
+    private final ReservedRepository reservedRepo;
+    private final BorrowedRepository borrowedRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${expiration.days.reserved:3}")
+    private int reservedExpirationDays = 3;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Reserved> handOff(Book book) {
+        Library library = book.getLibrary();
+        for (HoldRequest hold : holdRepo.lockQueue(library, book.getTitle(), PageRequest.of(0, HAND_OFF_SCAN))) {
+            User user = hold.getUser();
+            if (reservedRepo.existsReservedByUser(user) || borrowedRepo.existsBorrowedByUser(user)) {
+                log.info("User with email {} is waiting for {} but can't reserve another book yet", user.getEmail(), book.getTitle());
+                continue;
+            }
+            book.setStatus(BookStatus.RESERVED);
+            Reserved reserved = reservedRepo.save(new Reserved(expiration().getTime(), book, user, library));
+            holdRepo.delete(hold);
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.RESERVE, user, book, library));
+            log.info("Book with title {} handed to waiting user with email {}", book.getTitle(), user.getEmail());
+            return Optional.of(reserved);
+        }
+        return Optional.empty();
+    }
+
+    private Calendar expiration() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_YEAR, reservedExpirationDays);
+        return calendar;
+    }
+}
@@ -2,18 +2,26 @@ package com.library.library.service.impl;
 
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.service.AuthorService;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.AuthorMapper;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.model.Author;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.AuthorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Set;
 
 @Slf4j
@@ -22,11 +30,15 @@ import java.util.Set;
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepo;
+    private final ExistenceRegistry existenceRegistry;
+    private final NaturalKeyCache naturalKeyCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public AuthorDto createAuthor(AuthorDto authorDto) {
         Author newAuthor = authorRepo.save(AuthorMapper.INSTANCE.mapAuthor(authorDto));
+        eventPublisher.publishEvent(new AuthorChangedEvent(newAuthor.getId(), null, newAuthor.getNickname(), null, newAuthor.getAuthorName()));
         log.info("Author with nickname {} successfully created", authorDto.getNickname());
         return AuthorMapper.INSTANCE.mapAuthorDto(newAuthor);
     }
@@ -38,16 +50,24 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    public CursorPageDto<AuthorDto> scrollAuthors(String cursor, int size) {
+        log.info("Scroll authors after cursor {}", cursor);
+        List<Author> authors = authorRepo.findPageAfter(KeysetCursor.decode(cursor), KeysetCursor.request(size));
+        return KeysetCursor.page(authors, size, Author::getId, this::mapAuthorDto);
+    }
+
+    @Override
+    @Transactional
     public Set<BookDto> getAuthorBooks(String nickname) {
         log.info("Get all books by author {}", nickname);
-        Author author = authorRepo.findAuthorByNickname(nickname);
+        Author author = naturalKeyCache.authorReference(nickname);
         return BookMapper.INSTANCE.mapBookDtos(author.getBooks());
     }
 
     @Override
     public boolean isNicknameAlreadyInUse(String nickname) {
         log.info("Checking nickname {}", nickname);
-        return authorRepo.existsAuthorByNickname(nickname);
+        return existenceRegistry.exists(ExistenceType.AUTHOR_NICKNAME, nickname);
     }
 
     private AuthorDto mapAuthorDto(Author author) {
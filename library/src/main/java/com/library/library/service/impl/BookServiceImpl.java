@@ -1,24 +1,56 @@
 package com.library.library.service.impl;
 
 import com.library.library.controller.dto.AuthorDto;
+import com.library.library.controller.dto.AutocompleteReportDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookSearchHitDto;
 import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.controller.dto.FacetedBooksDto;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.SearchIndexReportDto;
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
 import com.library.library.service.BookService;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.CatalogChangedEvent;
 import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.AuthorMapper;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.model.Author;
 import com.library.library.service.model.Book;
-import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.model.Library;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.search.AutocompleteIndex;
+import com.library.library.service.search.BookSearchIndex;
+import com.library.library.service.search.FacetIndex;
+import com.library.library.service.search.FuzzyIndex;
+import com.library.library.service.search.FacetResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 
@@ -28,8 +60,15 @@ import static java.lang.String.format;
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
 
-    private final AuthorRepository authorRepo;
     private final BookRepository bookRepo;
+    private final LibraryRepository libraryRepo;
+    private final BookSearchIndex searchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final FacetIndex facetIndex;
+    private final FuzzyIndex fuzzyIndex;
+    private final ExistenceRegistry existenceRegistry;
+    private final NaturalKeyCache naturalKeyCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public BookDto getBook(String bookTitle) {
@@ -45,14 +84,23 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    public CursorPageDto<BookDto> scrollBooks(String cursor, int size) {
+        log.info("Scroll books after cursor {}", cursor);
+        List<Book> books = bookRepo.findPageAfter(KeysetCursor.decode(cursor), KeysetCursor.request(size));
+        return KeysetCursor.page(books, size, Book::getId, this::mapBookDto);
+    }
+
+    @Override
+    @Transactional
     public BookDto createBook(String nickname, BookDto bookDto) {
         log.info("Create book with title {} and author nickname {}", bookDto.getTitle(), nickname);
         Book newBook = BookMapper.INSTANCE.mapBook(bookDto);
-        Author author = authorRepo.findAuthorByNickname(nickname);
+        Author author = naturalKeyCache.authorReference(nickname);
         newBook.setStatus(BookStatus.AVAILABLE);
         newBook.setAuthor(author);
         author.getBooks().add(newBook);
         bookRepo.save(newBook);
+        eventPublisher.publishEvent(BookChangedEvent.saved(newBook));
         log.info("Book with title {} successfully created" + newBook.getTitle());
         return BookMapper.INSTANCE.mapBookDto(newBook);
     }
@@ -63,8 +111,13 @@ public class BookServiceImpl implements BookService {
         log.info("Updating book with id {}", id);
         Book book = bookRepo.findById(id).orElseThrow(() ->
                 new BookNotAvailableException(format("Book with id %s not available", id)));
+        String previousTitle = book.getTitle();
         populatedFields(book, bookDto);
         bookRepo.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(book, previousTitle));
+        if (Objects.nonNull(book.getLibrary())) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(book.getLibrary().getId()));
+        }
         log.info("Book with id {} successfully updated", id);
         return BookMapper.INSTANCE.mapBookDto(book);
     }
@@ -78,7 +131,7 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public boolean isExistBookTitle(String bookTitle) {
-        return bookRepo.existsBookByTitle(bookTitle);
+        return existenceRegistry.exists(ExistenceType.BOOK_TITLE, bookTitle);
     }
 
     @Override
@@ -87,9 +140,81 @@ public class BookServiceImpl implements BookService {
         Book book = bookRepo.findById(id).orElseThrow(() ->
                 new BookNotAvailableException(format("Book with id %s not available", id)));
         bookRepo.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(book));
+        if (Objects.nonNull(book.getLibrary())) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(book.getLibrary().getId()));
+        }
         log.info("Book with id {} successfully deleted", id);
     }
 
+    @Override
+    public List<BookSearchHitDto> searchBooks(String query, int limit) {
+        log.info("Search books by query {}", query);
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    public SearchIndexReportDto getSearchReport() {
+        return searchIndex.report();
+    }
+
+    @Override
+    public List<CompletionDto> autocomplete(String prefix, CompletionType type, int limit) {
+        log.info("Autocomplete prefix {}", prefix);
+        return autocompleteIndex.complete(prefix, type, limit);
+    }
+
+    @Override
+    public List<SuggestionDto> suggest(String query, SuggestionType type, int limit) {
+        log.info("Suggest titles and authors similar to {}", query);
+        return fuzzyIndex.suggest(query, type, limit);
+    }
+
+    @Override
+    public AutocompleteReportDto getAutocompleteReport() {
+        return autocompleteIndex.report();
+    }
+
+    @Override
+    public List<ExistenceReportDto> getExistenceReport() {
+        return existenceRegistry.report();
+    }
+
+    @Override
+    public FacetedBooksDto getFacetedBooks(Set<Genre> genres, Set<BookStatus> statuses, Integer yearFrom, Integer yearTo,
+                                           String libraryName, Pageable pageable) {
+        log.info("Get faceted books page {}", pageable.getPageNumber());
+        Long libraryId = null;
+        if (Objects.nonNull(libraryName)) {
+            LibrarySummary library = naturalKeyCache.library(libraryName);
+            if (Objects.isNull(library)) {
+                throw new EntityNotFoundException(format("Library with name %s doesn't exist", libraryName));
+            }
+            libraryId = library.getId();
+        }
+        FacetResult result = facetIndex.search(genres, statuses, yearFrom, yearTo, libraryId, pageable.getOffset(), pageable.getPageSize());
+        Map<Long, Book> books = bookRepo.findAllById(result.getBookIds()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, String> libraryNames = libraryRepo.findAllById(result.getLibraries().keySet()).stream()
+                .collect(Collectors.toMap(Library::getId, Library::getLibraryName));
+        Map<String, Long> libraries = new LinkedHashMap<>();
+        result.getLibraries().forEach((id, count) -> libraries.put(libraryNames.getOrDefault(id, String.valueOf(id)), count));
+        return FacetedBooksDto.builder()
+                .total(result.getTotal())
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .books(result.getBookIds().stream()
+                        .map(books::get)
+                        .filter(Objects::nonNull)
+                        .map(this::mapBookDto)
+                        .collect(Collectors.toList()))
+                .genres(result.getGenres())
+                .statuses(result.getStatuses())
+                .years(result.getYears())
+                .libraries(libraries)
+                .build();
+    }
+
     private void populatedFields(Book book, BookDto bookDto) {
         if (Objects.nonNull(bookDto.getTitle())) {
             book.setTitle(bookDto.getTitle());
@@ -0,0 +1,213 @@
+package com.library.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+import com.library.library.service.ExportService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Map<ExportDataset, String> QUERIES = new EnumMap<>(ExportDataset.class);
+
+    static {
+        QUERIES.put(ExportDataset.BOOKS, "select b.id, b.title, b.description, b.pages, b.publication_year, b.genre, b.status, " +
+                "b.author_id, b.library_id from book b order by b.id");
+        QUERIES.put(ExportDataset.AUTHORS, "select a.id, a.nickname, a.author_name from author a order by a.id");
+        QUERIES.put(ExportDataset.LIBRARIES, "select l.id, l.library_name, l.email, l.phone, l.country, l.city, l.address, " +
+                "l.postal_code, l.latitude, l.longitude from library l order by l.id");
+        QUERIES.put(ExportDataset.LOANS, "select b.id, b.book_id, b.user_id, b.library_id, b.dated, b.due_date from borrowed b order by b.id");
+    }
+
+    private final JdbcTemplate streaming;
+    private final MeterRegistry meterRegistry;
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    public ExportServiceImpl(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                             @Value("${export.fetch.size:1000}") int fetchSize) {
+        this.streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streaming.setFetchSize(fetchSize);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public long export(ExportDataset dataset, ExportFormat format, boolean gzip, OutputStream out) throws IOException {
+        log.info("Export {} as {}", dataset, format);
+        long start = System.currentTimeMillis();
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+        RowWriter writer = format == ExportFormat.CSV
+                ? new CsvWriter(Objects.isNull(compressed) ? out : compressed)
+                : new NdjsonWriter(jsonFactory.createGenerator(Objects.isNull(compressed) ? out : compressed));
+        long rows;
+        try {
+            rows = streaming.query(QUERIES.get(dataset), (ResultSetExtractor<Long>) rs -> {
+                long count = 0;
+                try {
+                    writer.header(columns(rs.getMetaData()));
+                    while (rs.next()) {
+                        writer.row(rs);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Export of {} aborted after {} rows: {}", dataset, count, e.getMessage());
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+        if (Objects.nonNull(compressed)) {
+            compressed.finish();
+        }
+        out.flush();
+        Counter.builder("catalog.export.rows")
+                .description("Rows streamed by catalog exports")
+                .tag("dataset", dataset.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment(rows);
+        log.info("Exported {} {} rows in {} ms", rows, dataset, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private static String[] columns(ResultSetMetaData metaData) throws SQLException {
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+        }
+        return columns;
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toInstant().toString();
+        }
+        if (Objects.isNull(value) || value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private interface RowWriter {
+
+        void header(String[] columns) throws IOException;
+
+        void row(ResultSet rs) throws IOException, SQLException;
+
+        void finish() throws IOException;
+    }
+
+    private static class NdjsonWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private String[] columns;
+
+        private NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header(String[] columns) {
+            this.columns = columns;
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = value(rs, i + 1);
+                if (Objects.isNull(value)) {
+                    generator.writeNull();
+                } else if (value instanceof Number) {
+                    generator.writeNumber(value.toString());
+                } else if (value instanceof Boolean) {
+                    generator.writeBoolean((Boolean) value);
+                } else {
+                    generator.writeString((String) value);
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvWriter implements RowWriter {
+        private final Writer writer;
+        private int columns;
+
+        private CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public void header(String[] columns) throws IOException {
+            this.columns = columns.length;
+            for (int i = 0; i < columns.length; i++) {
+                cell(i, columns[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void row(ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < columns; i++) {
+                Object value = value(rs, i + 1);
+                cell(i, Objects.isNull(value) ? "" : value.toString());
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void cell(int column, String value) throws IOException {
+            if (column > 0) {
+                writer.write(',');
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
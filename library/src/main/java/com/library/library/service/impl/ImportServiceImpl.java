@@ -0,0 +1,458 @@
+package com.library.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportRejectionDto;
+import com.library.library.controller.dto.ImportReportDto;
+import com.library.library.service.ImportService;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.model.Library;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.sequence.IdBlockAllocator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static java.lang.String.format;
+
+@Slf4j
+@Service
+public class ImportServiceImpl implements ImportService {
+
+    private static final String INSERT_BOOK = "insert into book (id, title, description, pages, publication_year, genre, status, " +
+            "author_id, library_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int AUTHOR_LOOKUP_BATCH = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdBlockAllocator idAllocator;
+    private final AuthorRepository authorRepo;
+    private final LibraryRepository libraryRepo;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonFactory jsonFactory = new JsonFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    private final Counter importedCounter;
+    private final Counter rejectedCounter;
+
+    @Value("${import.chunk.size:5000}")
+    private int chunkSize = 5000;
+    @Value("${import.rejections.reported:1000}")
+    private int reportedRejections = 1000;
+
+    public ImportServiceImpl(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, IdBlockAllocator idAllocator,
+                             AuthorRepository authorRepo, LibraryRepository libraryRepo, Validator validator,
+                             ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = idAllocator;
+        this.authorRepo = authorRepo;
+        this.libraryRepo = libraryRepo;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.importedCounter = Counter.builder("catalog.import.rows")
+                .description("Rows handled by catalog imports")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("catalog.import.rows")
+                .description("Rows handled by catalog imports")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ImportReportDto importBooks(ImportFormat format, String libraryName, boolean gzip, InputStream in) throws IOException {
+        log.info("Import books as {} into library {}", format, libraryName);
+        Long libraryId = null;
+        if (Objects.nonNull(libraryName)) {
+            Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+            if (Objects.isNull(library)) {
+                throw new EntityNotFoundException(format("Library with name %s doesn't exist", libraryName));
+            }
+            libraryId = library.getId();
+        }
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(libraryId);
+        InputStream source = gzip ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+        RowReader reader = format == ImportFormat.CSV ? new CsvReader(source) : new JsonReader(jsonFactory.createParser(source));
+        try {
+            for (ImportRow row = reader.next(); Objects.nonNull(row); row = reader.next()) {
+                run.rows++;
+                accept(run, row);
+                if (run.pending.size() == chunkSize) {
+                    writeChunk(run);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            reject(run, run.rows + 1, "Malformed JSON, import stopped: " + e.getOriginalMessage());
+        }
+        if (!run.pending.isEmpty()) {
+            writeChunk(run);
+        }
+        if (Objects.nonNull(libraryId) && run.imported > 0) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(libraryId));
+        }
+        long nanos = Math.max(1, System.nanoTime() - start);
+        log.info("Imported {} books and rejected {} rows in {} chunks in {} ms", run.imported, run.rejected, run.chunks, nanos / 1_000_000);
+        return ImportReportDto.builder()
+                .imported(run.imported)
+                .rejected(run.rejected)
+                .chunks(run.chunks)
+                .millis(nanos / 1_000_000)
+                .rowsPerSecond(run.imported * 1e9 / nanos)
+                .rejections(run.rejections)
+                .build();
+    }
+
+    private void accept(ImportRun run, ImportRow row) {
+        if (Objects.nonNull(row.error)) {
+            reject(run, run.rows, row.error);
+            return;
+        }
+        BookDto book;
+        try {
+            book = BookDto.builder()
+                    .title(row.fields.get("title"))
+                    .description(row.fields.get("description"))
+                    .pages(number(row.fields.get("pages"), "pages"))
+                    .publicationYear(number(row.fields.get("publicationyear"), "publication year"))
+                    .genre(genre(row.fields.get("genre")))
+                    .status(BookStatus.AVAILABLE)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            reject(run, run.rows, e.getMessage());
+            return;
+        }
+        Set<ConstraintViolation<BookDto>> violations = validator.validate(book);
+        if (!violations.isEmpty()) {
+            reject(run, run.rows, violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+            return;
+        }
+        String nickname = row.fields.getOrDefault("author", row.fields.get("nickname"));
+        if (Objects.isNull(nickname) || nickname.isEmpty()) {
+            reject(run, run.rows, "Author nickname may not be empty");
+            return;
+        }
+        run.pending.add(new PendingBook(run.rows, book, nickname, null, null));
+    }
+
+    private void writeChunk(ImportRun run) {
+        resolveAuthors(run);
+        List<PendingBook> resolved = new ArrayList<>(run.pending.size());
+        for (PendingBook book : run.pending) {
+            book.authorId = run.authorIds.get(book.nickname);
+            if (Objects.isNull(book.authorId)) {
+                reject(run, book.row, format("Author with nickname %s doesn't exist", book.nickname));
+            } else {
+                resolved.add(book);
+            }
+        }
+        run.pending.clear();
+        run.chunks++;
+        if (resolved.isEmpty()) {
+            return;
+        }
+        long[] ids = idAllocator.allocate(resolved.size());
+        for (int i = 0; i < ids.length; i++) {
+            resolved.get(i).id = ids[i];
+        }
+        try {
+            insert(resolved, run.libraryId);
+            imported(run, resolved.size());
+        } catch (DataAccessException e) {
+            log.warn("Import chunk {} failed, retrying its {} rows one by one: {}", run.chunks, resolved.size(), e.getMostSpecificCause().getMessage());
+            for (PendingBook book : resolved) {
+                try {
+                    insert(Collections.singletonList(book), run.libraryId);
+                    imported(run, 1);
+                } catch (DataAccessException rowFailure) {
+                    reject(run, book.row, rowFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        log.info("Import chunk {} written, {} books imported so far", run.chunks, run.imported);
+    }
+
+    private void resolveAuthors(ImportRun run) {
+        List<String> missing = run.pending.stream()
+                .map(book -> book.nickname)
+                .filter(nickname -> !run.authorIds.containsKey(nickname) && !run.unknownAuthors.contains(nickname))
+                .distinct()
+                .collect(Collectors.toList());
+        for (int from = 0; from < missing.size(); from += AUTHOR_LOOKUP_BATCH) {
+            List<String> batch = missing.subList(from, Math.min(from + AUTHOR_LOOKUP_BATCH, missing.size()));
+            authorRepo.findKeysByNicknames(batch).forEach(author -> run.authorIds.put(author.getNickname(), author.getId()));
+            batch.stream().filter(nickname -> !run.authorIds.containsKey(nickname)).forEach(run.unknownAuthors::add);
+        }
+    }
+
+    private void insert(List<PendingBook> books, Long libraryId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_BOOK, books, books.size(), (ps, book) -> {
+                ps.setLong(1, book.id);
+                ps.setString(2, book.book.getTitle());
+                ps.setString(3, book.book.getDescription());
+                ps.setInt(4, book.book.getPages());
+                ps.setInt(5, book.book.getPublicationYear());
+                ps.setString(6, Objects.isNull(book.book.getGenre()) ? null : book.book.getGenre().name());
+                ps.setString(7, book.book.getStatus().name());
+                ps.setLong(8, book.authorId);
+                if (Objects.isNull(libraryId)) {
+                    ps.setNull(9, Types.BIGINT);
+                } else {
+                    ps.setLong(9, libraryId);
+                }
+            });
+            eventPublisher.publishEvent(new BooksImportedEvent(books.stream()
+                    .map(book -> BookChangedEvent.imported(book.id, book.book.getTitle(), book.book.getDescription()))
+                    .collect(Collectors.toList())));
+        });
+    }
+
+    private void imported(ImportRun run, int count) {
+        run.imported += count;
+        importedCounter.increment(count);
+    }
+
+    private void reject(ImportRun run, long row, String reason) {
+        run.rejected++;
+        rejectedCounter.increment();
+        if (run.rejections.size() < reportedRejections) {
+            run.rejections.add(ImportRejectionDto.builder().row(row).reason(reason).build());
+        }
+    }
+
+    private static int number(String value, String name) {
+        if (Objects.isNull(value) || value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(format("Book %s must be a number but was %s", name, value));
+        }
+    }
+
+    private static Genre genre(String value) {
+        if (Objects.isNull(value) || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return Genre.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("Unknown genre %s", value));
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace("_", "");
+    }
+
+    private static class ImportRun {
+        private final Long libraryId;
+        private final List<PendingBook> pending = new ArrayList<>();
+        private final Map<String, Long> authorIds = new HashMap<>();
+        private final Set<String> unknownAuthors = new HashSet<>();
+        private final List<ImportRejectionDto> rejections = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long rejected;
+        private int chunks;
+
+        private ImportRun(Long libraryId) {
+            this.libraryId = libraryId;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class PendingBook {
+        private final long row;
+        private final BookDto book;
+        private final String nickname;
+        private Long authorId;
+        private Long id;
+    }
+
+    @AllArgsConstructor
+    private static class ImportRow {
+        private final Map<String, String> fields;
+        private final String error;
+    }
+
+    private interface RowReader {
+
+        ImportRow next() throws IOException;
+    }
+
+    private static class JsonReader implements RowReader {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean array;
+
+        private JsonReader(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (!started) {
+                started = true;
+                if (token == JsonToken.START_ARRAY) {
+                    array = true;
+                    token = parser.nextToken();
+                }
+            }
+            if (Objects.isNull(token) || (array && token == JsonToken.END_ARRAY)) {
+                return null;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                return new ImportRow(null, "Expected a JSON object but found " + token);
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                String name = key(parser.getCurrentName());
+                JsonToken value = parser.nextToken();
+                if (value.isScalarValue()) {
+                    if (value != JsonToken.VALUE_NULL) {
+                        fields.put(name, parser.getText());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return new ImportRow(fields, null);
+        }
+    }
+
+    private static class CsvReader implements RowReader {
+        private final Reader reader;
+        private String[] header;
+        private int lookahead = -2;
+
+        private CsvReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+
+        @Override
+        public ImportRow next() throws IOException {
+            if (Objects.isNull(header)) {
+                List<String> names = record();
+                if (Objects.isNull(names)) {
+                    return null;
+                }
+                header = names.stream().map(ImportServiceImpl::key).toArray(String[]::new);
+            }
+            List<String> cells = record();
+            while (Objects.nonNull(cells) && cells.size() == 1 && cells.get(0).isEmpty()) {
+                cells = record();
+            }
+            if (Objects.isNull(cells)) {
+                return null;
+            }
+            if (cells.size() != header.length) {
+                return new ImportRow(null, format("Expected %d columns but found %d", header.length, cells.size()));
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                fields.put(header[i], cells.get(i));
+            }
+            return new ImportRow(fields, null);
+        }
+
+        private List<String> record() throws IOException {
+            int c = read();
+            if (Objects.isNull(header) && c == '\uFEFF') {
+                c = read();
+            }
+            if (c < 0) {
+                return null;
+            }
+            List<String> cells = new ArrayList<>();
+            StringBuilder cell = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c < 0) {
+                        cells.add(cell.toString());
+                        return cells;
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    cell.append((char) c);
+                } else if (c == '"' && cell.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    cells.add(cell.toString());
+                    cell.setLength(0);
+                } else if (c == '\r' || c == '\n' || c < 0) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            lookahead = next;
+                        }
+                    }
+                    cells.add(cell.toString());
+                    return cells;
+                } else {
+                    cell.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            if (lookahead != -2) {
+                int c = lookahead;
+                lookahead = -2;
+                return c;
+            }
+            return reader.read();
+        }
+    }
+}
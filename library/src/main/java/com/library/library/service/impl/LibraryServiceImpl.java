@@ -1,45 +1,77 @@
 package com.library.library.service.impl;
 
+import com.library.library.controller.dto.AvailabilityReportDto;
 import com.library.library.controller.dto.BookDto;
 import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.HoldDto;
 import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.dto.NearbyLibraryDto;
 import com.library.library.service.LibraryService;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.event.LateReturnEvent;
+import com.library.library.service.event.LibraryChangedEvent;
 import com.library.library.service.exception.BookNotAvailableException;
 import com.library.library.service.exception.BorrowedException;
 import com.library.library.service.exception.EntityNotFoundException;
 import com.library.library.service.exception.LibraryException;
 import com.library.library.service.exception.ReservedException;
+import com.library.library.service.geo.GeoNeighbor;
+import com.library.library.service.geo.GeoPoint;
+import com.library.library.service.geo.LibraryLocationIndex;
+import com.library.library.service.geo.PostalCodeLocator;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.mapper.LibraryMapper;
 import com.library.library.service.model.Book;
-import com.library.library.service.model.BookPenalty;
 import com.library.library.service.model.Borrowed;
+import com.library.library.service.model.HoldRequest;
 import com.library.library.service.model.Library;
+import com.library.library.service.model.PendingPenalty;
 import com.library.library.service.model.Reserved;
 import com.library.library.service.model.User;
-import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.BookRepository;
 import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.HoldRequestRepository;
 import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.repository.PendingPenaltyRepository;
 import com.library.library.service.repository.ReservedRepository;
 import com.library.library.service.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import javax.servlet.http.HttpServletRequest;
 import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 
@@ -53,12 +85,21 @@ public class LibraryServiceImpl implements LibraryService {
     private final UserRepository userRepo;
     private final ReservedRepository reservedRepo;
     private final BorrowedRepository borrowedRepo;
-    private final BookPenaltyRepository penaltyRepo;
+    private final HoldRequestRepository holdRepo;
+    private final PendingPenaltyRepository pendingPenaltyRepo;
+    private final HoldQueue holdQueue;
+    private final AvailabilityIndex availabilityIndex;
+    private final PostalCodeLocator postalCodeLocator;
+    private final LibraryLocationIndex locationIndex;
+    private final ExistenceRegistry existenceRegistry;
+    private final NaturalKeyCache naturalKeyCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${expiration.days.reserved}")
     private final int RESERVED_EXPIRATION_DAYS = 3;
     @Value("${expiration.days.borrowed}")
     private final int BORROWED_EXPIRATION_DAYS = 10;
+    private static final int CLAIM_BATCH_SIZE = 16;
 
     @Override
     @Transactional
@@ -66,17 +107,23 @@ public class LibraryServiceImpl implements LibraryService {
         log.info("create Library with name {}", newLibrary.getName());
         Library library = LibraryMapper.INSTANCE.mapLibrary(newLibrary);
         library.setWrittenOn(Instant.now());
+        locate(library);
         libraryRepo.save(library);
+        eventPublisher.publishEvent(new LibraryChangedEvent(library.getId(), null, library.getLibraryName()));
         log.info("Library with name {} successfully created", library.getLibraryName());
         return LibraryMapper.INSTANCE.mapLibraryDto(library);
     }
 
     @Override
+    @Transactional
     public LibraryDto updateLibrary(String libraryName, LibraryDto newLibrary) {
         log.info("Library with name {} update", libraryName);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        String previousName = library.getLibraryName();
         populatedFields(library, newLibrary);
+        locate(library);
         libraryRepo.save(library);
+        eventPublisher.publishEvent(new LibraryChangedEvent(library.getId(), previousName, library.getLibraryName()));
         log.info("Library successfully updated");
         return LibraryMapper.INSTANCE.mapLibraryDto(library);
     }
@@ -84,7 +131,7 @@ public class LibraryServiceImpl implements LibraryService {
     @Override
     public LibraryDto getLibrary(String libraryName) {
         log.info("Get library with name {}", libraryName);
-        return LibraryMapper.INSTANCE.mapLibraryDto(libraryRepo.findLibraryByLibraryName(libraryName));
+        return LibraryMapper.INSTANCE.mapLibrarySummary(naturalKeyCache.library(libraryName));
     }
 
     @Override
@@ -93,15 +140,28 @@ public class LibraryServiceImpl implements LibraryService {
         return libraryRepo.findAll(pageable).map(this::mapLibraryDto);
     }
 
+    @Override
+    public CursorPageDto<LibraryDto> scrollLibraries(String cursor, int size) {
+        log.info("Scroll libraries after cursor {}", cursor);
+        List<Library> libraries = libraryRepo.findPageAfter(KeysetCursor.decode(cursor), KeysetCursor.request(size));
+        return KeysetCursor.page(libraries, size, Library::getId, this::mapLibraryDto);
+    }
+
     @Override
     @Transactional
     public LibraryDto addBook(String libraryName, String bookTitle) {
         Book book = bookRepo.findBookByTitleAndLibraryIsNull(bookTitle).stream().findFirst().orElseThrow(() ->
                 new BookNotAvailableException(format("The book with this title %s isn't available", bookTitle)));
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         book.setLibrary(library);
         libraryRepo.save(library);
         library.getBooks().add(book);
+        if (BookStatus.AVAILABLE.equals(book.getStatus())) {
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.ADD, null, book, library));
+            holdQueue.handOff(book);
+        } else {
+            eventPublisher.publishEvent(new CatalogChangedEvent(library.getId()));
+        }
         log.info("library {} successfully added book {}", library.getLibraryName(), book.getTitle());
         return LibraryMapper.INSTANCE.mapLibraryDto(library);
     }
@@ -110,8 +170,8 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public void addUser(String libraryName, String email) {
         log.info("Library with name {} add user with email {}", libraryName, email);
-        User user = userRepo.findUserByEmail(email);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        User user = naturalKeyCache.userReference(email);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         if (library.getUsers().contains(user) && user.getLibraries().contains(library)) {
             log.error("User with email {} already exists in this library", email);
             throw new LibraryException(format("User with email %s already exists in this library", email));
@@ -125,8 +185,8 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public void deleteUser(String libraryName, String email) {
         log.info("Library with name {} delete user with email {}", libraryName, email);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
-        User user = userRepo.findUserByEmail(email);
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        User user = naturalKeyCache.userReference(email);
         if (!library.getUsers().contains(user) && !user.getLibraries().contains(library)) {
             log.error("No user with email {} in this library", email);
             throw new LibraryException(format("User with email %s already exists in this library", email));
@@ -140,29 +200,91 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public Set<LibraryDto> getAllLibrariesByBookTitle(String bookTitle) {
         log.info("Get all Libraries by book title {}", bookTitle);
-        List<Book> books = bookRepo.findBookByTitleAndLibraryNotNull(bookTitle);
-        if (books.isEmpty()) {
+        if (availabilityIndex.isReady()) {
+            return getAllLibrariesByIndexedTitle(bookTitle);
+        }
+        List<LibrarySummary> libraries = libraryRepo.findSummariesByBookTitle(bookTitle, BookStatus.AVAILABLE);
+        if (!libraries.isEmpty()) {
+            return LibraryMapper.INSTANCE.mapLibrarySummaries(libraries);
+        }
+        if (!bookRepo.existsBookByTitleAndLibraryNotNull(bookTitle)) {
             log.error("The book with this title {} isn't available", bookTitle);
             throw new BookNotAvailableException(format("The book with this title %s isn't available", bookTitle));
         }
-        Set<Library> libraries = new HashSet<>();
-        log.info("Search for available books by title {} in all libraries", bookTitle);
-        for (Book book :
-                books) {
-            if (book.getStatus().equals(BookStatus.AVAILABLE) && Objects.nonNull(book.getLibrary())) {
-                libraries.add(book.getLibrary());
-            }
+        log.error("Available book with this title {} doesn't exist in any library", bookTitle);
+        throw new EntityNotFoundException(format("Available book with this title %s doesn't exist in any library", bookTitle));
+    }
+
+    private Set<LibraryDto> getAllLibrariesByIndexedTitle(String bookTitle) {
+        return LibraryMapper.INSTANCE.mapLibrarySummaries(libraryRepo.findSummariesByIds(indexedLibraryIds(bookTitle)));
+    }
+
+    private Set<Long> indexedLibraryIds(String bookTitle) {
+        if (!availabilityIndex.containsTitle(bookTitle)) {
+            log.error("The book with this title {} isn't available", bookTitle);
+            throw new BookNotAvailableException(format("The book with this title %s isn't available", bookTitle));
+        }
+        Set<Long> libraryIds = availabilityIndex.librariesWithAvailable(bookTitle);
+        if (libraryIds.isEmpty()) {
+            log.error("Available book with this title {} doesn't exist in any library", bookTitle);
+            throw new EntityNotFoundException(format("Available book with this title %s doesn't exist in any library", bookTitle));
+        }
+        return libraryIds;
+    }
+
+    @Override
+    public List<NearbyLibraryDto> getNearestLibraries(String bookTitle, String postalCode, Double latitude, Double longitude, int limit) {
+        log.info("Get {} nearest libraries with available book {}", limit, bookTitle);
+        GeoPoint origin = origin(postalCode, latitude, longitude);
+        Set<Long> libraryIds = availabilityIndex.isReady() ? indexedLibraryIds(bookTitle) : queriedLibraryIds(bookTitle);
+        List<GeoNeighbor> neighbors = locationIndex.nearest(origin, limit, libraryIds);
+        if (neighbors.isEmpty()) {
+            return new ArrayList<>();
         }
-        if (libraries.isEmpty()) {
+        Map<Long, LibrarySummary> summaries = libraryRepo.findSummariesByIds(neighbors.stream()
+                        .map(GeoNeighbor::getLibraryId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(LibrarySummary::getId, Function.identity()));
+        return neighbors.stream()
+                .filter(neighbor -> summaries.containsKey(neighbor.getLibraryId()))
+                .map(neighbor -> NearbyLibraryDto.builder()
+                        .library(LibraryMapper.INSTANCE.mapLibrarySummary(summaries.get(neighbor.getLibraryId())))
+                        .distanceKm(neighbor.getDistanceKm())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private Set<Long> queriedLibraryIds(String bookTitle) {
+        Set<Long> libraryIds = new HashSet<>(libraryRepo.findIdsByBookTitle(bookTitle, BookStatus.AVAILABLE));
+        if (libraryIds.isEmpty()) {
+            if (!bookRepo.existsBookByTitleAndLibraryNotNull(bookTitle)) {
+                log.error("The book with this title {} isn't available", bookTitle);
+                throw new BookNotAvailableException(format("The book with this title %s isn't available", bookTitle));
+            }
             log.error("Available book with this title {} doesn't exist in any library", bookTitle);
             throw new EntityNotFoundException(format("Available book with this title %s doesn't exist in any library", bookTitle));
         }
-        return LibraryMapper.INSTANCE.mapLibraryDtos(libraries);
+        return libraryIds;
+    }
+
+    private GeoPoint origin(String postalCode, Double latitude, Double longitude) {
+        if (Objects.nonNull(latitude) && Objects.nonNull(longitude)) {
+            return new GeoPoint(latitude, longitude);
+        }
+        if (Objects.isNull(postalCode)) {
+            log.error("Neither postal code nor coordinates are given");
+            throw new LibraryException("Postal code or both latitude and longitude are required");
+        }
+        return postalCodeLocator.locate(postalCode).orElseThrow(() -> {
+            log.error("Location of postal code {} is not found", postalCode);
+            return new EntityNotFoundException(format("Location of postal code %s is not found", postalCode));
+        });
     }
 
     @Override
+    @Transactional
     public Set<BookDto> getAllBooks(String libraryName) {
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         return BookMapper.INSTANCE.mapBookDtos(library.getBooks());
     }
 
@@ -170,15 +292,17 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public void deleteLibrary(String libraryName) {
         log.info("Delete user with address {}", libraryName);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         libraryRepo.delete(library);
+        eventPublisher.publishEvent(new CatalogChangedEvent(library.getId()));
+        eventPublisher.publishEvent(new LibraryChangedEvent(library.getId(), libraryName, null));
         log.info("Library with name {} successfully deleted", libraryName);
     }
 
     @Override
     public boolean isNameAlreadyInUse(String name) {
         log.info("Checking name {}", name);
-        return libraryRepo.existsLibraryByLibraryName(name);
+        return existenceRegistry.exists(ExistenceType.LIBRARY_NAME, name);
     }
 
     @Override
@@ -191,7 +315,7 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public void reserveBook(String bookTitle, String userEmail, String libraryName) {
         log.info("User with email {} reserve book with title {} in library {}", userEmail, bookTitle, libraryName);
-        User user = userRepo.findUserByEmail(userEmail);
+        User user = naturalKeyCache.userReference(userEmail);
         if (reservedRepo.existsReservedByUser(user)) {
             log.error("User with email {} already had a book reserved", userEmail);
             throw new ReservedException(format("User with email %s already had a book reserved", userEmail));
@@ -200,11 +324,11 @@ public class LibraryServiceImpl implements LibraryService {
             log.error("User with email {} didn't return the last book", userEmail);
             throw new ReservedException(format("User with email %s didn't return the last book", userEmail));
         }
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
-        Book book = library.getBooks().stream().filter(b -> b.getTitle().equals(bookTitle) && b.getStatus().equals(BookStatus.AVAILABLE))
-                .findFirst().orElseThrow(() -> new BookNotAvailableException(format("Available book with this title %s doesn't exist in library with this name %s", bookTitle, libraryName)));
-        book.setStatus(BookStatus.RESERVED);
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        Book book = claimBook(library, bookTitle).orElseThrow(() ->
+                new BookNotAvailableException(format("Available book with this title %s doesn't exist in library with this name %s", bookTitle, libraryName)));
         reservedRepo.save(new Reserved(expiration(RESERVED_EXPIRATION_DAYS).getTime(), book, user, library));
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.RESERVE, user, book, library));
         log.info("Book with title {} successfully reserved for {} days", bookTitle, RESERVED_EXPIRATION_DAYS);
     }
 
@@ -212,52 +336,255 @@ public class LibraryServiceImpl implements LibraryService {
     @Transactional
     public void borrowBook(String bookTitle, String userEmail, String libraryName) {
         log.info("User with email {} borrow book with title {} in library {}", userEmail, bookTitle, libraryName);
-        User user = userRepo.findUserByEmail(userEmail);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        User user = naturalKeyCache.userReference(userEmail);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         Reserved reserved = reservedRepo.findByUserAndLibrary(user, library).orElseThrow(() ->
                 new ReservedException(format("Reserved with book %s is not found", bookTitle)));
         Book book = reserved.getBook();
         book.setStatus(BookStatus.BORROWED);
         reservedRepo.delete(reserved);
         borrowedRepo.save(new Borrowed(expiration(BORROWED_EXPIRATION_DAYS).getTime(), book, user, library));
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.BORROW, user, book, library));
         log.info("Book with title {} successfully borrowed for {} days", bookTitle, BORROWED_EXPIRATION_DAYS);
     }
 
     @Override
     @Transactional
-    public void returnBook(String bookTitle, String userEmail, String libraryName, HttpServletRequest request) {
-        returnBookToLib(bookTitle, userEmail, libraryName, request);
+    public void returnBook(String bookTitle, String userEmail, String libraryName) {
+        returnBookToLib(bookTitle, userEmail, libraryName);
     }
 
-    private void returnBookToLib(String bookTitle, String userEmail, String libraryName, HttpServletRequest request) {
+    private void returnBookToLib(String bookTitle, String userEmail, String libraryName) {
         log.info("User with email {} return book with title {} in library {}", userEmail, bookTitle, libraryName);
-        User user = userRepo.findUserByEmail(userEmail);
-        Library library = libraryRepo.findLibraryByLibraryName(libraryName);
+        User user = naturalKeyCache.userReference(userEmail);
+        Library library = naturalKeyCache.libraryReference(libraryName);
         Borrowed borrowed = borrowedRepo.findBorrowedByUserAndLibrary(user, library).orElseThrow(() ->
                 new BorrowedException(format("Borrowed with book %s is not found", bookTitle)));
         Book book = borrowed.getBook();
         book.setStatus(BookStatus.AVAILABLE);
         borrowedRepo.delete(borrowed);
+        eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.RETURN, user, book, library));
         log.info("Book with title {} successfully returned to library {}", bookTitle, libraryName);
+        holdQueue.handOff(book);
 
-        addUserPenalty(borrowed.getDueDate(), book, library, user, request);
+        publishIfLate(borrowed, book, library, user);
     }
 
-    private void addUserPenalty(Date dueDate, Book book, Library library, User user, HttpServletRequest request) {
-        Calendar calendar = Calendar.getInstance();
-        Date currentDate = calendar.getTime();
+    private void publishIfLate(Borrowed borrowed, Book book, Library library, User user) {
+        Date currentDate = Calendar.getInstance().getTime();
+        Date dueDate = borrowed.getDueDate();
         if (currentDate.after(dueDate)) {
-            BookPenalty penalty = new BookPenalty(dueDate, currentDate, book, library, user);
-            penaltyRepo.save(penalty);
-            if (penaltyRepo.countAllByUser(user) >= 5) {
-                user.setIsAccountNonLocked(false);
-                if (Objects.nonNull(request)) {
-                    new SecurityContextLogoutHandler().logout(request, null, null);
+            pendingPenaltyRepo.save(new PendingPenalty(borrowed.getId(), user.getId(), user.getEmail(),
+                    book.getId(), library.getId(), dueDate, currentDate, currentDate));
+            eventPublisher.publishEvent(new LateReturnEvent(borrowed.getId(), user.getId(), user.getEmail(),
+                    book.getId(), library.getId(), dueDate, currentDate));
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<CirculationResultDto> reserveBooks(String libraryName, List<CirculationItemDto> items) {
+        log.info("Library with name {} reserve {} books", libraryName, items.size());
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        Map<String, User> users = findUsers(items);
+        Set<Long> reservedUsers = new HashSet<>();
+        Set<Long> borrowedUsers = new HashSet<>();
+        if (!users.isEmpty()) {
+            reservedUsers.addAll(reservedRepo.findUserIds(users.values()));
+            borrowedUsers.addAll(borrowedRepo.findUserIds(users.values()));
+        }
+        Set<String> titles = items.stream().map(CirculationItemDto::getBookTitle).collect(Collectors.toSet());
+        Map<String, Deque<Long>> candidates = new HashMap<>();
+        bookRepo.findBookCandidates(library, titles, BookStatus.AVAILABLE).forEach(candidate ->
+                candidates.computeIfAbsent(candidate.getTitle(), title -> new ArrayDeque<>()).add(candidate.getId()));
+        List<Reserved> reservations = new ArrayList<>();
+        List<CirculationResultDto> results = new ArrayList<>();
+        for (CirculationItemDto item : items) {
+            User user = users.get(item.getUserEmail());
+            if (Objects.isNull(user)) {
+                results.add(failed(item, format("User with email %s is not found", item.getUserEmail())));
+            } else if (reservedUsers.contains(user.getId())) {
+                results.add(failed(item, format("User with email %s already had a book reserved", item.getUserEmail())));
+            } else if (borrowedUsers.contains(user.getId())) {
+                results.add(failed(item, format("User with email %s didn't return the last book", item.getUserEmail())));
+            } else {
+                Optional<Book> book = claimBook(candidates.getOrDefault(item.getBookTitle(), new ArrayDeque<>()));
+                if (book.isPresent()) {
+                    reservedUsers.add(user.getId());
+                    reservations.add(new Reserved(expiration(RESERVED_EXPIRATION_DAYS).getTime(), book.get(), user, library));
+                    eventPublisher.publishEvent(new CirculationEvent(CirculationOperation.RESERVE, user.getId(),
+                            book.get().getId(), library.getId(), item.getBookTitle(), Instant.now()));
+                    results.add(succeeded(item));
+                } else {
+                    results.add(failed(item, format("Available book with this title %s doesn't exist in library with this name %s", item.getBookTitle(), libraryName)));
                 }
-                log.info("User with email {} has been locked account", user.getEmail());
             }
-            log.info("User with email {} gets fined", user.getEmail());
         }
+        reservedRepo.saveAll(reservations);
+        log.info("Library with name {} reserved {} of {} books", libraryName, reservations.size(), items.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<CirculationResultDto> borrowBooks(String libraryName, List<CirculationItemDto> items) {
+        log.info("Library with name {} borrow {} books", libraryName, items.size());
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        Map<String, User> users = findUsers(items);
+        Map<Long, Reserved> reservations = users.isEmpty() ? new HashMap<>() :
+                reservedRepo.findAllByLibraryAndUsers(library, users.values()).stream()
+                        .collect(Collectors.toMap(r -> r.getUser().getId(), Function.identity()));
+        List<Reserved> completed = new ArrayList<>();
+        List<Borrowed> borrowings = new ArrayList<>();
+        List<CirculationResultDto> results = new ArrayList<>();
+        for (CirculationItemDto item : items) {
+            User user = users.get(item.getUserEmail());
+            Reserved reserved = Objects.isNull(user) ? null : reservations.get(user.getId());
+            if (Objects.isNull(reserved) || !reserved.getBook().getTitle().equals(item.getBookTitle())) {
+                results.add(failed(item, format("Reserved with book %s is not found", item.getBookTitle())));
+                continue;
+            }
+            reservations.remove(user.getId());
+            Book book = reserved.getBook();
+            book.setStatus(BookStatus.BORROWED);
+            completed.add(reserved);
+            borrowings.add(new Borrowed(expiration(BORROWED_EXPIRATION_DAYS).getTime(), book, user, library));
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.BORROW, user, book, library));
+            results.add(succeeded(item));
+        }
+        reservedRepo.deleteAllInBatch(completed);
+        borrowedRepo.saveAll(borrowings);
+        log.info("Library with name {} borrowed {} of {} books", libraryName, borrowings.size(), items.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public List<CirculationResultDto> returnBooks(String libraryName, List<CirculationItemDto> items) {
+        log.info("Library with name {} return {} books", libraryName, items.size());
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        Map<String, User> users = findUsers(items);
+        Map<Long, Borrowed> borrowings = users.isEmpty() ? new HashMap<>() :
+                borrowedRepo.findAllByLibraryAndUsers(library, users.values()).stream()
+                        .collect(Collectors.toMap(b -> b.getUser().getId(), Function.identity()));
+        List<Borrowed> completed = new ArrayList<>();
+        List<Book> returned = new ArrayList<>();
+        List<CirculationResultDto> results = new ArrayList<>();
+        for (CirculationItemDto item : items) {
+            User user = users.get(item.getUserEmail());
+            Borrowed borrowed = Objects.isNull(user) ? null : borrowings.get(user.getId());
+            if (Objects.isNull(borrowed) || !borrowed.getBook().getTitle().equals(item.getBookTitle())) {
+                results.add(failed(item, format("Borrowed with book %s is not found", item.getBookTitle())));
+                continue;
+            }
+            borrowings.remove(user.getId());
+            Book book = borrowed.getBook();
+            book.setStatus(BookStatus.AVAILABLE);
+            completed.add(borrowed);
+            returned.add(book);
+            eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.RETURN, user, book, library));
+            publishIfLate(borrowed, book, library, user);
+            results.add(succeeded(item));
+        }
+        borrowedRepo.deleteAllInBatch(completed);
+        returned.forEach(holdQueue::handOff);
+        log.info("Library with name {} returned {} of {} books", libraryName, completed.size(), items.size());
+        return results;
+    }
+
+    @Override
+    @Transactional
+    public HoldDto holdBook(String bookTitle, String userEmail, String libraryName) {
+        log.info("User with email {} hold book with title {} in library {}", userEmail, bookTitle, libraryName);
+        User user = naturalKeyCache.userReference(userEmail);
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        Optional<HoldRequest> existing = holdRepo.findByUserAndLibraryAndTitle(user, library, bookTitle);
+        if (existing.isPresent()) {
+            log.info("User with email {} is already waiting for book with title {}", userEmail, bookTitle);
+            return mapHoldDto(existing.get(), libraryName);
+        }
+        if (!reservedRepo.existsReservedByUser(user) && !borrowedRepo.existsBorrowedByUser(user)) {
+            Optional<Book> book = claimBook(library, bookTitle);
+            if (book.isPresent()) {
+                reservedRepo.save(new Reserved(expiration(RESERVED_EXPIRATION_DAYS).getTime(), book.get(), user, library));
+                eventPublisher.publishEvent(CirculationEvent.of(CirculationOperation.RESERVE, user, book.get(), library));
+                log.info("Book with title {} was available and reserved for {} days", bookTitle, RESERVED_EXPIRATION_DAYS);
+                return HoldDto.builder().libraryName(libraryName).bookTitle(bookTitle).reserved(true).build();
+            }
+        }
+        HoldRequest hold = holdRepo.save(new HoldRequest(bookTitle, user, library));
+        HoldDto holdDto = mapHoldDto(hold, libraryName);
+        log.info("User with email {} is waiting for book with title {} at position {}", userEmail, bookTitle, holdDto.getPosition());
+        return holdDto;
+    }
+
+    @Override
+    @Transactional
+    public void cancelHold(String bookTitle, String userEmail, String libraryName) {
+        log.info("User with email {} cancel hold on book with title {} in library {}", userEmail, bookTitle, libraryName);
+        User user = naturalKeyCache.userReference(userEmail);
+        Library library = naturalKeyCache.libraryReference(libraryName);
+        HoldRequest hold = holdRepo.findByUserAndLibraryAndTitle(user, library, bookTitle).orElseThrow(() ->
+                new ReservedException(format("Hold with book %s is not found", bookTitle)));
+        holdRepo.delete(hold);
+        log.info("Hold on book with title {} successfully cancelled", bookTitle);
+    }
+
+    @Override
+    public AvailabilityReportDto checkAvailability(boolean repair) {
+        log.info("Check availability index against database, repair {}", repair);
+        return availabilityIndex.check(repair);
+    }
+
+    private Map<String, User> findUsers(List<CirculationItemDto> items) {
+        Set<String> emails = items.stream().map(CirculationItemDto::getUserEmail).collect(Collectors.toSet());
+        return userRepo.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(User::getEmail, Function.identity()));
+    }
+
+    private Optional<Book> claimBook(Deque<Long> candidates) {
+        while (!candidates.isEmpty()) {
+            Long id = candidates.poll();
+            if (bookRepo.updateStatus(id, BookStatus.AVAILABLE, BookStatus.RESERVED) == 1) {
+                return Optional.of(bookRepo.getById(id));
+            }
+            log.info("Book with id {} was claimed by another reservation", id);
+        }
+        return Optional.empty();
+    }
+
+    private CirculationResultDto succeeded(CirculationItemDto item) {
+        return CirculationResultDto.builder()
+                .userEmail(item.getUserEmail())
+                .bookTitle(item.getBookTitle())
+                .success(true)
+                .build();
+    }
+
+    private CirculationResultDto failed(CirculationItemDto item, String message) {
+        log.error(message);
+        return CirculationResultDto.builder()
+                .userEmail(item.getUserEmail())
+                .bookTitle(item.getBookTitle())
+                .success(false)
+                .message(message)
+                .build();
+    }
+
+    private Optional<Book> claimBook(Library library, String bookTitle) {
+        Long afterId = 0L;
+        List<Long> ids;
+        do {
+            ids = bookRepo.findBookIds(library, bookTitle, BookStatus.AVAILABLE, afterId, PageRequest.of(0, CLAIM_BATCH_SIZE));
+            for (Long id : ids) {
+                if (bookRepo.updateStatus(id, BookStatus.AVAILABLE, BookStatus.RESERVED) == 1) {
+                    return Optional.of(bookRepo.getById(id));
+                }
+                log.info("Book with id {} was claimed by another reservation", id);
+                afterId = id;
+            }
+        } while (ids.size() == CLAIM_BATCH_SIZE);
+        return Optional.empty();
     }
 
     private Calendar expiration(int dueDay) {
@@ -289,9 +616,31 @@ public class LibraryServiceImpl implements LibraryService {
         }
         if (Objects.nonNull(libraryDto.getPostalCode())) {
             library.setPostalCode(libraryDto.getPostalCode());
+            library.setLatitude(null);
+            library.setLongitude(null);
+        }
+        if (Objects.nonNull(libraryDto.getLatitude()) && Objects.nonNull(libraryDto.getLongitude())) {
+            library.setLatitude(libraryDto.getLatitude());
+            library.setLongitude(libraryDto.getLongitude());
+        }
+    }
+
+    private void locate(Library library) {
+        if (Objects.isNull(library.getLatitude()) || Objects.isNull(library.getLongitude())) {
+            Optional<GeoPoint> point = postalCodeLocator.locate(library.getPostalCode());
+            library.setLatitude(point.map(GeoPoint::getLatitude).orElse(null));
+            library.setLongitude(point.map(GeoPoint::getLongitude).orElse(null));
         }
     }
 
+    private HoldDto mapHoldDto(HoldRequest hold, String libraryName) {
+        return HoldDto.builder()
+                .libraryName(libraryName)
+                .bookTitle(hold.getTitle())
+                .position(holdRepo.countByLibraryAndTitleAndIdLessThan(hold.getLibrary(), hold.getTitle(), hold.getId()) + 1)
+                .build();
+    }
+
     private LibraryDto mapLibraryDto(Library library) {
         return LibraryDto.builder()
                 .name(library.getLibraryName())
@@ -1,14 +1,22 @@
 package com.library.library.service.impl;
 
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.controller.dto.Role;
 import com.library.library.controller.dto.UserDto;
 import com.library.library.service.UserService;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
 import com.library.library.service.exception.UserAlreadyExistsException;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.UserMapper;
 import com.library.library.service.model.User;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -16,6 +24,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 
 import static java.lang.String.format;
@@ -27,18 +36,20 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ExistenceRegistry existenceRegistry;
+    private final NaturalKeyCache naturalKeyCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public boolean isEmailAlreadyInUse(String email) {
         log.info("Checking email {}", email);
-        return userRepository.existsUserByEmail(email);
+        return existenceRegistry.exists(ExistenceType.USER_EMAIL, email);
     }
 
     @Override
     public UserDto getUser(String email) {
         log.info("Search User by email {}", email);
-        User user = getUserByEmail(email);
-        return UserMapper.INSTANCE.mapUserDto(user);
+        return UserMapper.INSTANCE.mapUserSummary(naturalKeyCache.user(email));
     }
 
     @Override
@@ -47,6 +58,13 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(pageable).map(this::mapUserDto);
     }
 
+    @Override
+    public CursorPageDto<UserDto> scrollUsers(String cursor, int size) {
+        log.info("Scroll users after cursor {}", cursor);
+        List<User> users = userRepository.findPageAfter(KeysetCursor.decode(cursor), KeysetCursor.request(size));
+        return KeysetCursor.page(users, size, User::getId, this::mapUserDto);
+    }
+
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) {
@@ -61,6 +79,7 @@ public class UserServiceImpl implements UserService {
         user.setIsAccountNonLocked(true);
         user.setWrittenOn(Instant.now());
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), null, user.getEmail()));
         log.info("User with email {} successfully created", email);
         return UserMapper.INSTANCE.mapUserDto(user);
     }
@@ -70,8 +89,11 @@ public class UserServiceImpl implements UserService {
     public UserDto updateUser(String email, UserDto userDto) {
         log.info("Updating user with email {}", email);
         User user = getUserByEmail(email);
+        String previousEmail = user.getEmail();
         populatedFields(user, userDto);
         userRepository.save(user);
+        eventPublisher.publishEvent(AccountChangedEvent.of(user.getId()));
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), previousEmail, user.getEmail()));
         log.info("User with email {} successfully updated", user.getEmail());
         return UserMapper.INSTANCE.mapUserDto(user);
     }
@@ -82,11 +104,13 @@ public class UserServiceImpl implements UserService {
         log.info("Delete User with email {}", email);
         User user = getUserByEmail(email);
         userRepository.delete(user);
+        eventPublisher.publishEvent(AccountChangedEvent.of(user.getId()));
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId(), user.getEmail(), null));
         log.info("User with email {} successfully deleted", email);
     }
 
     private User getUserByEmail(String email) {
-        return userRepository.findUserByEmail(email);
+        return naturalKeyCache.userReference(email);
     }
 
     private UserDto mapUserDto(User user) {
@@ -0,0 +1,182 @@
+package com.library.library.service.index;
+
+import com.library.library.controller.dto.AvailabilityMismatchDto;
+import com.library.library.controller.dto.AvailabilityReportDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.repository.BookRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+    private static final int STATUSES = BookStatus.values().length;
+
+    private final BookRepository bookRepo;
+    private final AtomicLong drift = new AtomicLong();
+
+    private volatile ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> counts = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    public AvailabilityIndex(BookRepository bookRepo, MeterRegistry meterRegistry) {
+        this.bookRepo = bookRepo;
+        Gauge.builder("availability.index.titles", this, index -> index.counts.size())
+                .description("Titles held by the availability index")
+                .register(meterRegistry);
+        Gauge.builder("availability.index.drift", drift, AtomicLong::get)
+                .description("Mismatches found by the last availability consistency check")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long count(Long libraryId, String title, BookStatus status) {
+        return get(counts.getOrDefault(ExistenceRegistry.normalize(title), new ConcurrentHashMap<>()).get(libraryId), status);
+    }
+
+    public long available(Long libraryId, String title) {
+        return count(libraryId, title, BookStatus.AVAILABLE);
+    }
+
+    public boolean containsTitle(String title) {
+        return counts.getOrDefault(ExistenceRegistry.normalize(title), new ConcurrentHashMap<>()).values().stream().anyMatch(slots -> total(slots) > 0);
+    }
+
+    public Set<Long> librariesWithAvailable(String title) {
+        return counts.getOrDefault(ExistenceRegistry.normalize(title), new ConcurrentHashMap<>()).entrySet().stream()
+                .filter(e -> e.getValue().get(BookStatus.AVAILABLE.ordinal()) > 0)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> fresh = load();
+        counts = fresh;
+        ready = true;
+        log.info("Availability index rebuilt with {} titles in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        CirculationOperation operation = event.getOperation();
+        AtomicLongArray slots = slots(counts, event.getLibraryId(), event.getTitle());
+        if (Objects.nonNull(operation.getFrom())) {
+            slots.decrementAndGet(operation.getFrom().ordinal());
+        }
+        if (Objects.nonNull(operation.getTo())) {
+            slots.incrementAndGet(operation.getTo().ordinal());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Long libraryId = event.getLibraryId();
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> current = counts;
+        Map<String, AtomicLongArray> reloaded = new HashMap<>();
+        bookRepo.countAvailability(libraryId).forEach(count -> reloaded
+                .computeIfAbsent(ExistenceRegistry.normalize(count.getTitle()), title -> new AtomicLongArray(STATUSES))
+                .addAndGet(count.getStatus().ordinal(), count.getTotal()));
+        reloaded.forEach((title, slots) -> current.computeIfAbsent(title, key -> new ConcurrentHashMap<>()).put(libraryId, slots));
+        current.forEach((title, libraries) -> {
+            if (!reloaded.containsKey(title)) {
+                libraries.remove(libraryId);
+            }
+        });
+        log.info("Availability index reloaded library with id {}", libraryId);
+    }
+
+    public AvailabilityReportDto check(boolean repair) {
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> actual = load();
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> indexed = counts;
+        Set<String> titles = new HashSet<>(indexed.keySet());
+        titles.addAll(actual.keySet());
+        List<AvailabilityMismatchDto> mismatches = new ArrayList<>();
+        int checked = 0;
+        for (String title : titles) {
+            Map<Long, AtomicLongArray> indexedLibraries = indexed.getOrDefault(title, new ConcurrentHashMap<>());
+            Map<Long, AtomicLongArray> actualLibraries = actual.getOrDefault(title, new ConcurrentHashMap<>());
+            Set<Long> libraryIds = new HashSet<>(indexedLibraries.keySet());
+            libraryIds.addAll(actualLibraries.keySet());
+            for (Long libraryId : libraryIds) {
+                checked++;
+                for (BookStatus status : BookStatus.values()) {
+                    long indexedCount = get(indexedLibraries.get(libraryId), status);
+                    long actualCount = get(actualLibraries.get(libraryId), status);
+                    if (indexedCount != actualCount) {
+                        mismatches.add(AvailabilityMismatchDto.builder()
+                                .libraryId(libraryId)
+                                .title(title)
+                                .status(status)
+                                .indexed(indexedCount)
+                                .actual(actualCount)
+                                .build());
+                    }
+                }
+            }
+        }
+        drift.set(mismatches.size());
+        if (!mismatches.isEmpty()) {
+            log.warn("Availability index differs from database in {} counters", mismatches.size());
+            if (repair) {
+                rebuild();
+            }
+        }
+        return AvailabilityReportDto.builder()
+                .checked(checked)
+                .consistent(mismatches.isEmpty())
+                .repaired(repair && !mismatches.isEmpty())
+                .mismatches(mismatches)
+                .build();
+    }
+
+    private ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> load() {
+        ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> loaded = new ConcurrentHashMap<>();
+        bookRepo.countAvailability().forEach(count -> slots(loaded, count.getLibraryId(), count.getTitle())
+                .addAndGet(count.getStatus().ordinal(), count.getTotal()));
+        return loaded;
+    }
+
+    private static AtomicLongArray slots(ConcurrentMap<String, ConcurrentMap<Long, AtomicLongArray>> target,
+                                         Long libraryId, String title) {
+        return target.computeIfAbsent(ExistenceRegistry.normalize(title), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(libraryId, key -> new AtomicLongArray(STATUSES));
+    }
+
+    private static long get(AtomicLongArray slots, BookStatus status) {
+        return Objects.isNull(slots) ? 0 : slots.get(status.ordinal());
+    }
+
+    private static long total(AtomicLongArray slots) {
+        long total = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            total += slots.get(i);
+        }
+        return total;
+    }
+}
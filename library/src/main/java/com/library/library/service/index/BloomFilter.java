@@ -0,0 +1,82 @@
+package com.library.library.service.index;
+
+import java.nio.charset.StandardCharsets;
+
+public class BloomFilter {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final long[] words;
+    private final long bits;
+    private final int hashes;
+    private final long capacity;
+
+    public BloomFilter(long capacity, double fpp) {
+        this.capacity = Math.max(1, capacity);
+        long optimalBits = (long) Math.ceil(-this.capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.words = new long[(int) Math.max(1, (optimalBits + 63) >>> 6)];
+        this.bits = (long) words.length << 6;
+        this.hashes = (int) Math.max(1, Math.round((double) bits / this.capacity * Math.log(2)));
+    }
+
+    public void put(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = mix(hash ^ C2);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = hash;
+        long h2 = mix(hash ^ C2);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    public long estimateBytes() {
+        return 16 + (long) words.length * Long.BYTES;
+    }
+
+    public double expectedFpp(long insertions) {
+        return Math.pow(1 - Math.exp(-(double) hashes * insertions / bits), hashes);
+    }
+
+    private static long hash(String key) {
+        long hash = C1;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ b) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,466 @@
+package com.library.library.service.index;
+
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.NaturalKey;
+import com.library.library.service.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ExistenceRegistry {
+
+    private final Map<ExistenceType, KeySet> sets = new EnumMap<>(ExistenceType.class);
+    private final double fpp;
+    private final long minCapacity;
+
+    public ExistenceRegistry(BookRepository bookRepo, LibraryRepository libraryRepo, AuthorRepository authorRepo,
+                             UserRepository userRepo,
+                             @Value("${existence.bloom.fpp:0.01}") double fpp,
+                             @Value("${existence.bloom.min.capacity:1024}") long minCapacity) {
+        this.fpp = fpp;
+        this.minCapacity = minCapacity;
+        sets.put(ExistenceType.BOOK_TITLE, new KeySet(bookRepo::findTitleKeys, bookRepo::existsBookByTitle));
+        sets.put(ExistenceType.LIBRARY_NAME, new KeySet(libraryRepo::findNameKeys, libraryRepo::existsLibraryByLibraryName));
+        sets.put(ExistenceType.AUTHOR_NICKNAME, new KeySet(authorRepo::findNicknameKeys, authorRepo::existsAuthorByNickname));
+        sets.put(ExistenceType.USER_EMAIL, new KeySet(userRepo::findEmailKeys, userRepo::existsUserByEmail));
+    }
+
+    public boolean isReady(ExistenceType type) {
+        return sets.get(type).ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${existence.rebuild.cron:0 45 3 * * *}")
+    public void rebuild() {
+        for (ExistenceType type : ExistenceType.values()) {
+            rebuild(type);
+        }
+    }
+
+    public synchronized void rebuild(ExistenceType type) {
+        long start = System.currentTimeMillis();
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            set.journal = new ArrayList<>(set.pending.keySet());
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+        Map<String, long[]> fresh = new HashMap<>();
+        try {
+            for (NaturalKey key : set.loader.get()) {
+                addId(fresh, key.getName(), key.getId());
+            }
+        } catch (RuntimeException ex) {
+            set.lock.writeLock().lock();
+            try {
+                set.journal = null;
+            } finally {
+                set.lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+        set.lock.writeLock().lock();
+        try {
+            for (Change change : set.journal) {
+                if (change.added) {
+                    addId(fresh, change.key, change.id);
+                } else {
+                    removeId(fresh, change.key, change.id);
+                }
+            }
+            set.journal = null;
+            set.ids = fresh;
+            resizeBloom(set);
+            set.ready = true;
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+        log.info("Existence registry {} built with {} keys in {} ms", type, fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean exists(ExistenceType type, String key) {
+        if (Objects.isNull(key)) {
+            return false;
+        }
+        KeySet set = sets.get(type);
+        set.lookups.increment();
+        if (!set.ready) {
+            set.fallbacks.increment();
+            return set.fallback.test(key);
+        }
+        boolean maybe;
+        boolean confirmed;
+        set.lock.readLock().lock();
+        try {
+            maybe = set.bloom.mightContain(normalize(key));
+            confirmed = maybe && set.ids.containsKey(key);
+        } finally {
+            set.lock.readLock().unlock();
+        }
+        if (!maybe) {
+            set.negatives.increment();
+            return false;
+        }
+        if (confirmed) {
+            set.hits.increment();
+            return true;
+        }
+        set.fallbacks.increment();
+        boolean exists = set.fallback.test(key);
+        if (!exists) {
+            set.falsePositives.increment();
+        }
+        return exists;
+    }
+
+    public long[] ids(ExistenceType type, String key) {
+        KeySet set = sets.get(type);
+        if (Objects.isNull(key) || !set.ready) {
+            return null;
+        }
+        set.lock.readLock().lock();
+        try {
+            long[] ids = set.ids.get(key);
+            return Objects.isNull(ids) ? null : ids.clone();
+        } finally {
+            set.lock.readLock().unlock();
+        }
+    }
+
+    public void add(ExistenceType type, String key, long id) {
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            add(set, key, id);
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(ExistenceType type, String key, long id) {
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            remove(set, key, id);
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookWriting(BookChangedEvent event) {
+        beforeCommit(ExistenceType.BOOK_TITLE, event.getBookId(), previousTitle(event), currentTitle(event));
+    }
+
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookCommitted(BookChangedEvent event) {
+        afterCommit(ExistenceType.BOOK_TITLE, event.getBookId(), previousTitle(event), currentTitle(event));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onBookRolledBack(BookChangedEvent event) {
+        afterRollback(ExistenceType.BOOK_TITLE, event.getBookId(), previousTitle(event), currentTitle(event));
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBooksImporting(BooksImportedEvent event) {
+        event.getBooks().forEach(book -> beforeCommit(ExistenceType.BOOK_TITLE, book.getBookId(), null, book.getTitle()));
+    }
+
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        event.getBooks().forEach(book -> afterCommit(ExistenceType.BOOK_TITLE, book.getBookId(), null, book.getTitle()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onBooksImportRolledBack(BooksImportedEvent event) {
+        event.getBooks().forEach(book -> afterRollback(ExistenceType.BOOK_TITLE, book.getBookId(), null, book.getTitle()));
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLibraryWriting(LibraryChangedEvent event) {
+        beforeCommit(ExistenceType.LIBRARY_NAME, event.getLibraryId(), event.getPreviousName(), event.getLibraryName());
+    }
+
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryCommitted(LibraryChangedEvent event) {
+        afterCommit(ExistenceType.LIBRARY_NAME, event.getLibraryId(), event.getPreviousName(), event.getLibraryName());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onLibraryRolledBack(LibraryChangedEvent event) {
+        afterRollback(ExistenceType.LIBRARY_NAME, event.getLibraryId(), event.getPreviousName(), event.getLibraryName());
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onAuthorWriting(AuthorChangedEvent event) {
+        beforeCommit(ExistenceType.AUTHOR_NICKNAME, event.getAuthorId(), event.getPreviousNickname(), event.getNickname());
+    }
+
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorCommitted(AuthorChangedEvent event) {
+        afterCommit(ExistenceType.AUTHOR_NICKNAME, event.getAuthorId(), event.getPreviousNickname(), event.getNickname());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onAuthorRolledBack(AuthorChangedEvent event) {
+        afterRollback(ExistenceType.AUTHOR_NICKNAME, event.getAuthorId(), event.getPreviousNickname(), event.getNickname());
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onUserWriting(UserChangedEvent event) {
+        beforeCommit(ExistenceType.USER_EMAIL, event.getUserId(), event.getPreviousEmail(), event.getEmail());
+    }
+
+    @Order(2)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserCommitted(UserChangedEvent event) {
+        afterCommit(ExistenceType.USER_EMAIL, event.getUserId(), event.getPreviousEmail(), event.getEmail());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onUserRolledBack(UserChangedEvent event) {
+        afterRollback(ExistenceType.USER_EMAIL, event.getUserId(), event.getPreviousEmail(), event.getEmail());
+    }
+
+    public List<ExistenceReportDto> report() {
+        return Arrays.stream(ExistenceType.values()).map(this::report).collect(Collectors.toList());
+    }
+
+    private ExistenceReportDto report(ExistenceType type) {
+        KeySet set = sets.get(type);
+        set.lock.readLock().lock();
+        try {
+            long keys = set.ids.size();
+            long bloomBytes = set.bloom.estimateBytes();
+            long bytes = bloomBytes + estimateBytes(set.ids);
+            long negatives = set.negatives.sum();
+            long falsePositives = set.falsePositives.sum();
+            return ExistenceReportDto.builder()
+                    .type(type.toString())
+                    .ready(set.ready)
+                    .keys(keys)
+                    .bloomCapacity(set.bloom.capacity())
+                    .bloomBits(set.bloom.bitSize())
+                    .bloomHashes(set.bloom.hashCount())
+                    .bloomBytes(bloomBytes)
+                    .estimatedBytes(bytes)
+                    .bytesPerMillionKeys(keys == 0 ? 0 : bytes * 1_000_000 / keys)
+                    .expectedFpp(set.bloom.expectedFpp(set.bloomInsertions))
+                    .observedFpp(negatives + falsePositives == 0 ? 0 : (double) falsePositives / (negatives + falsePositives))
+                    .lookups(set.lookups.sum())
+                    .bloomNegatives(negatives)
+                    .confirmedHits(set.hits.sum())
+                    .dbFallbacks(set.fallbacks.sum())
+                    .falsePositives(falsePositives)
+                    .build();
+        } finally {
+            set.lock.readLock().unlock();
+        }
+    }
+
+    private void beforeCommit(ExistenceType type, Long id, String previous, String current) {
+        if (!adds(previous, current)) {
+            return;
+        }
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            add(set, current, id);
+            set.pending.merge(new Change(true, current, id), 1, Integer::sum);
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(ExistenceType type, Long id, String previous, String current) {
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            if (adds(previous, current)) {
+                complete(set, current, id);
+            }
+            if (Objects.nonNull(previous) && !previous.equals(current)) {
+                remove(set, previous, id);
+            }
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+    }
+
+    private void afterRollback(ExistenceType type, Long id, String previous, String current) {
+        if (!adds(previous, current)) {
+            return;
+        }
+        KeySet set = sets.get(type);
+        set.lock.writeLock().lock();
+        try {
+            complete(set, current, id);
+            remove(set, current, id);
+        } finally {
+            set.lock.writeLock().unlock();
+        }
+    }
+
+    private void add(KeySet set, String key, long id) {
+        if (addId(set.ids, key, id)) {
+            set.bloom.put(normalize(key));
+            if (++set.bloomInsertions > set.bloom.capacity()) {
+                resizeBloom(set);
+            }
+        }
+        if (Objects.nonNull(set.journal)) {
+            set.journal.add(new Change(true, key, id));
+        }
+    }
+
+    private void remove(KeySet set, String key, long id) {
+        removeId(set.ids, key, id);
+        if (Objects.nonNull(set.journal)) {
+            set.journal.add(new Change(false, key, id));
+        }
+    }
+
+    private static void complete(KeySet set, String key, long id) {
+        set.pending.computeIfPresent(new Change(true, key, id), (change, count) -> count == 1 ? null : count - 1);
+    }
+
+    private static boolean adds(String previous, String current) {
+        return Objects.nonNull(current) && !current.equals(previous);
+    }
+
+    private void resizeBloom(KeySet set) {
+        BloomFilter bloom = new BloomFilter(Math.max(minCapacity, set.ids.size() * 2L), fpp);
+        set.ids.keySet().forEach(key -> bloom.put(normalize(key)));
+        set.bloom = bloom;
+        set.bloomInsertions = set.ids.size();
+    }
+
+    private static String previousTitle(BookChangedEvent event) {
+        return event.isDeleted() ? event.getTitle() : event.getPreviousTitle();
+    }
+
+    private static String currentTitle(BookChangedEvent event) {
+        return event.isDeleted() ? null : event.getTitle();
+    }
+
+    private static boolean addId(Map<String, long[]> ids, String key, long id) {
+        long[] existing = ids.get(key);
+        if (Objects.isNull(existing)) {
+            ids.put(key, new long[]{id});
+            return true;
+        }
+        for (long value : existing) {
+            if (value == id) {
+                return false;
+            }
+        }
+        long[] grown = Arrays.copyOf(existing, existing.length + 1);
+        grown[existing.length] = id;
+        ids.put(key, grown);
+        return false;
+    }
+
+    private static void removeId(Map<String, long[]> ids, String key, long id) {
+        long[] existing = ids.get(key);
+        if (Objects.isNull(existing)) {
+            return;
+        }
+        long[] kept = Arrays.stream(existing).filter(value -> value != id).toArray();
+        if (kept.length == 0) {
+            ids.remove(key);
+        } else if (kept.length != existing.length) {
+            ids.put(key, kept);
+        }
+    }
+
+    private static long estimateBytes(Map<String, long[]> ids) {
+        long bytes = 16 + 8L * ids.size() * 4 / 3;
+        for (Map.Entry<String, long[]> entry : ids.entrySet()) {
+            bytes += 32 + 40 + entry.getKey().length() + 16 + 8L * entry.getValue().length;
+        }
+        return bytes;
+    }
+
+    public static String normalize(String key) {
+        int end = key.length();
+        while (end > 0 && key.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return key.substring(0, end).toLowerCase(Locale.ROOT);
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Change {
+        private final boolean added;
+        private final String key;
+        private final long id;
+    }
+
+    private class KeySet {
+        private final Supplier<List<NaturalKey>> loader;
+        private final Predicate<String> fallback;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder negatives = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder falsePositives = new LongAdder();
+
+        private Map<String, long[]> ids = new HashMap<>();
+        private BloomFilter bloom = new BloomFilter(minCapacity, fpp);
+        private long bloomInsertions;
+        private final Map<Change, Integer> pending = new HashMap<>();
+        private List<Change> journal;
+        private volatile boolean ready;
+
+        private KeySet(Supplier<List<NaturalKey>> loader, Predicate<String> fallback) {
+            this.loader = loader;
+            this.fallback = fallback;
+        }
+    }
+}
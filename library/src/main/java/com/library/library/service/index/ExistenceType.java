@@ -0,0 +1,5 @@
+package com.library.library.service.index;
+
+public enum ExistenceType {
+    BOOK_TITLE, LIBRARY_NAME, AUTHOR_NICKNAME, USER_EMAIL
+}
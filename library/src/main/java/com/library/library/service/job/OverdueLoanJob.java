@@ -0,0 +1,160 @@
+package com.library.library.service.job;
+
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.penalty.PenaltyCounters;
+import com.library.library.service.repository.OverdueLoanRepository;
+import com.library.library.service.repository.UserPenaltyCount;
+import com.library.library.service.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class OverdueLoanJob {
+
+    private static final String SELECT_OVERDUE = "select b.id, b.user_id, b.book_id, b.library_id, b.due_date from borrowed b " +
+            "where b.due_date < ? and not exists (select 1 from overdue_loan o where o.borrowed_id = b.id) order by b.id";
+    private static final String INSERT_OVERDUE = "insert into overdue_loan (borrowed_id, user_id, book_id, library_id, due_date, detected_on) " +
+            "values (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OverdueLoanRepository overdueRepo;
+    private final PenaltyCounters penaltyCounters;
+    private final UserRepository userRepo;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scannedInRun = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final Counter recordedCounter;
+    private final Counter lockedCounter;
+
+    @Value("${overdue.detection.chunk.size:1000}")
+    private int chunkSize = 1000;
+    @Value("${overdue.detection.fetch.size:1000}")
+    private int fetchSize = 1000;
+    @Value("${penalty.lock.threshold:5}")
+    private int lockThreshold = 5;
+
+    public OverdueLoanJob(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          OverdueLoanRepository overdueRepo, PenaltyCounters penaltyCounters,
+                          UserRepository userRepo, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.overdueRepo = overdueRepo;
+        this.penaltyCounters = penaltyCounters;
+        this.userRepo = userRepo;
+        this.eventPublisher = eventPublisher;
+        this.recordedCounter = Counter.builder("overdue.detection.recorded")
+                .description("Overdue loans recorded")
+                .register(meterRegistry);
+        this.lockedCounter = Counter.builder("overdue.detection.locked")
+                .description("Accounts locked by overdue detection")
+                .register(meterRegistry);
+        Gauge.builder("overdue.detection.progress", scannedInRun, AtomicLong::get)
+                .description("Overdue loans scanned by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder("overdue.detection.running", running, r -> r.get() ? 1 : 0)
+                .description("Whether overdue detection is running")
+                .register(meterRegistry);
+        TimeGauge.builder("overdue.detection.last.run.duration", lastRunMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Duration of the last overdue detection run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${overdue.detection.cron:0 0 2 * * *}")
+    public void detectOverdueLoans() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Overdue detection is already running");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Timestamp now = new Timestamp(start);
+            scannedInRun.set(0);
+            List<OverdueRow> chunk = new ArrayList<>(chunkSize);
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(fetchSize);
+            streaming.query(SELECT_OVERDUE, (RowCallbackHandler) rs -> {
+                chunk.add(new OverdueRow(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getTimestamp(5)));
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, now);
+                    chunk.clear();
+                }
+            }, now);
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, now);
+            }
+            lastRunMillis.set(System.currentTimeMillis() - start);
+            log.info("Overdue detection scanned {} loans in {} ms", scannedInRun.get(), lastRunMillis.get());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void writeChunk(List<OverdueRow> chunk, Timestamp now) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_OVERDUE, chunk, chunk.size(), (ps, row) -> {
+                ps.setLong(1, row.borrowedId);
+                ps.setLong(2, row.userId);
+                ps.setLong(3, row.bookId);
+                ps.setLong(4, row.libraryId);
+                ps.setTimestamp(5, row.dueDate);
+                ps.setTimestamp(6, now);
+            });
+            Set<Long> userIds = chunk.stream().map(row -> row.userId).collect(Collectors.toSet());
+            Map<Long, Long> totals = new HashMap<>();
+            addCounts(totals, penaltyCounters.count(userIds));
+            addCounts(totals, overdueRepo.countByUserIds(userIds));
+            List<Long> toLock = totals.entrySet().stream()
+                    .filter(e -> e.getValue() >= lockThreshold)
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!toLock.isEmpty()) {
+                int locked = userRepo.lockUsers(toLock);
+                eventPublisher.publishEvent(new AccountChangedEvent(toLock));
+                lockedCounter.increment(locked);
+                log.info("Overdue detection locked {} accounts", locked);
+            }
+        });
+        recordedCounter.increment(chunk.size());
+        log.info("Overdue detection recorded {} loans, {} so far", chunk.size(), scannedInRun.addAndGet(chunk.size()));
+    }
+
+    private void addCounts(Map<Long, Long> totals, List<UserPenaltyCount> counts) {
+        counts.forEach(count -> totals.merge(count.getUserId(), count.getTotal(), Long::sum));
+    }
+
+    @AllArgsConstructor
+    private static class OverdueRow {
+        private final long borrowedId;
+        private final long userId;
+        private final long bookId;
+        private final long libraryId;
+        private final Timestamp dueDate;
+    }
+}
@@ -0,0 +1,69 @@
+package com.library.library.service.job;
+
+import com.library.library.service.model.PenaltyCounter;
+import com.library.library.service.model.PenaltyCounterId;
+import com.library.library.service.penalty.PenaltyCounters;
+import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.PenaltyCounterRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class PenaltyCounterReconciliationJob {
+
+    private final BookPenaltyRepository penaltyRepo;
+    private final PenaltyCounterRepository counterRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong drift = new AtomicLong();
+
+    public PenaltyCounterReconciliationJob(BookPenaltyRepository penaltyRepo, PenaltyCounterRepository counterRepo,
+                                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.penaltyRepo = penaltyRepo;
+        this.counterRepo = counterRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("penalty.counter.drift", drift, AtomicLong::get)
+                .description("Penalty counters corrected by the last reconciliation")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${penalty.counter.reconcile.cron:0 30 3 * * *}")
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        Integer corrected = transactionTemplate.execute(status -> {
+            Map<PenaltyCounterId, PenaltyCounter> counters = new HashMap<>();
+            counterRepo.findAll().forEach(counter -> counters.put(new PenaltyCounterId(counter.getUserId(), counter.getPeriod()), counter));
+            List<PenaltyCounter> changed = new ArrayList<>();
+            penaltyRepo.countByUserAndMonth().forEach(count -> {
+                int period = PenaltyCounters.period(count.getYear(), count.getMonth());
+                PenaltyCounter counter = counters.remove(new PenaltyCounterId(count.getUserId(), period));
+                if (counter == null) {
+                    changed.add(new PenaltyCounter(count.getUserId(), period, count.getTotal()));
+                } else if (counter.getPenalties() != count.getTotal()) {
+                    counter.setPenalties(count.getTotal());
+                    changed.add(counter);
+                }
+            });
+            counterRepo.saveAll(changed);
+            counterRepo.deleteAllInBatch(counters.values());
+            return changed.size() + counters.size();
+        });
+        drift.set(corrected == null ? 0 : corrected);
+        log.info("Penalty counters reconciled in {} ms, {} corrected", System.currentTimeMillis() - start, drift.get());
+    }
+}
@@ -0,0 +1,142 @@
+package com.library.library.service.job;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.ExpiredReservation;
+import com.library.library.service.repository.HoldRequestRepository;
+import com.library.library.service.repository.QueuedTitle;
+import com.library.library.service.repository.ReservedRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class ReservationExpiryJob {
+
+    private final ReservedRepository reservedRepo;
+    private final BookRepository bookRepo;
+    private final HoldRequestRepository holdRepo;
+    private final HoldQueue holdQueue;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong lastRunMillis = new AtomicLong();
+    private final AtomicLong lastRunProcessed = new AtomicLong();
+    private final AtomicLong totalProcessed = new AtomicLong();
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Value("${reservation.expiry.batch.size:500}")
+    private int batchSize = 500;
+    @Value("${reservation.expiry.max.batches:20}")
+    private int maxBatches = 20;
+
+    public ReservationExpiryJob(ReservedRepository reservedRepo, BookRepository bookRepo,
+                                HoldRequestRepository holdRepo, HoldQueue holdQueue,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
+        this.reservedRepo = reservedRepo;
+        this.bookRepo = bookRepo;
+        this.holdRepo = holdRepo;
+        this.holdQueue = holdQueue;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        TimeGauge.builder("reservation.expiry.last.run.duration", lastRunMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Duration of the last reservation expiry run")
+                .register(meterRegistry);
+        Gauge.builder("reservation.expiry.last.run.processed", lastRunProcessed, AtomicLong::get)
+                .description("Reservations expired by the last run")
+                .register(meterRegistry);
+        Gauge.builder("reservation.expiry.processed", totalProcessed, AtomicLong::get)
+                .description("Reservations expired since startup")
+                .register(meterRegistry);
+        Gauge.builder("reservation.expiry.backlog", backlog, AtomicLong::get)
+                .description("Expired reservations left after the last run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${reservation.expiry.delay.ms:60000}")
+    public void expireReservations() {
+        long start = System.currentTimeMillis();
+        Date now = new Date(start);
+        long processed = 0;
+        Long afterId = 0L;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<ExpiredReservation> expired = reservedRepo.findExpired(now, afterId, PageRequest.of(0, batchSize));
+            if (expired.isEmpty()) {
+                break;
+            }
+            processed += expireBatch(expired);
+            afterId = expired.get(expired.size() - 1).getId();
+            if (expired.size() < batchSize) {
+                break;
+            }
+        }
+        long remaining = reservedRepo.countByDueDateBefore(now);
+        lastRunMillis.set(System.currentTimeMillis() - start);
+        lastRunProcessed.set(processed);
+        totalProcessed.addAndGet(processed);
+        backlog.set(remaining);
+        if (processed > 0 || remaining > 0) {
+            log.info("Expired {} reservations in {} ms, {} left in backlog", processed, lastRunMillis.get(), remaining);
+        }
+    }
+
+    private int expireBatch(List<ExpiredReservation> expired) {
+        List<Long> ids = expired.stream().map(ExpiredReservation::getId).collect(Collectors.toList());
+        Integer deleted = transactionTemplate.execute(status -> {
+            Set<Long> bookIds = new HashSet<>(bookRepo.lockReservedBookIds(ids, BookStatus.RESERVED));
+            if (!bookIds.isEmpty()) {
+                bookRepo.updateStatusByIds(bookIds, BookStatus.RESERVED, BookStatus.AVAILABLE);
+            }
+            List<ExpiredReservation> released = expired.stream()
+                    .filter(reservation -> bookIds.contains(reservation.getBookId()))
+                    .collect(Collectors.toList());
+            log.info("Released {} of {} reserved books back to available", released.size(), expired.size());
+            Instant now = Instant.now();
+            released.forEach(reservation -> eventPublisher.publishEvent(new CirculationEvent(CirculationOperation.EXPIRE,
+                    reservation.getUserId(), reservation.getBookId(), reservation.getLibraryId(), reservation.getTitle(), now)));
+            int removed = reservedRepo.deleteByIds(ids);
+            handOff(released);
+            return removed;
+        });
+        return deleted == null ? 0 : deleted;
+    }
+
+    private void handOff(List<ExpiredReservation> released) {
+        if (released.isEmpty()) {
+            return;
+        }
+        Set<String> titles = released.stream().map(ExpiredReservation::getTitle).collect(Collectors.toSet());
+        List<QueuedTitle> queued = holdRepo.findQueuedTitles(titles);
+        if (queued.isEmpty()) {
+            return;
+        }
+        long handedOff = released.stream()
+                .filter(reservation -> queued.stream().anyMatch(q -> q.getLibraryId().equals(reservation.getLibraryId())
+                        && q.getTitle().equals(reservation.getTitle())))
+                .filter(reservation -> holdQueue.handOff(bookRepo.getById(reservation.getBookId())).isPresent())
+                .count();
+        log.info("Handed {} released books to waiting users", handedOff);
+    }
+}
@@ -0,0 +1,217 @@
+package com.library.library.service.journal;
+
+import com.library.library.service.event.CirculationEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+public class CirculationJournal {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final Path directory;
+    private final int segmentCapacity;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<CirculationEvent> queue;
+    private final NavigableMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong committed = new AtomicLong();
+    private final Counter writtenCounter;
+    private final Counter inlineCounter;
+    private final Object writeLock = new Object();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private JournalSegment active;
+
+    public CirculationJournal(@Value("${journal.dir:journal}") String directory,
+                              @Value("${journal.segment.records:1048576}") int segmentCapacity,
+                              @Value("${journal.queue.capacity:65536}") int queueCapacity,
+                              @Value("${journal.batch.size:4096}") int batchSize,
+                              @Value("${journal.offer.timeout.ms:50}") long offerTimeoutMillis,
+                              MeterRegistry meterRegistry) {
+        this.directory = Paths.get(directory);
+        this.segmentCapacity = segmentCapacity;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writtenCounter = Counter.builder("journal.events.written")
+                .description("Circulation events written to the journal")
+                .register(meterRegistry);
+        this.inlineCounter = Counter.builder("journal.events.inline")
+                .description("Circulation events written by the caller because the journal queue stayed full")
+                .register(meterRegistry);
+        Gauge.builder("journal.queue.size", queue, BlockingQueue::size)
+                .description("Circulation events waiting to be written to the journal")
+                .register(meterRegistry);
+        Gauge.builder("journal.committed", committed, AtomicLong::get)
+                .description("Circulation events durably written to the journal")
+                .register(meterRegistry);
+        recover();
+        this.writer = new Thread(this::writeLoop, "circulation-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        append(event);
+    }
+
+    public void append(CirculationEvent event) {
+        try {
+            if (queue.offer(event, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        inlineCounter.increment();
+        log.warn("Journal queue stayed full, writing {} inline", event);
+        synchronized (writeLock) {
+            try {
+                write(Collections.singletonList(event));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    public long committedSequence() {
+        return committed.get();
+    }
+
+    public long replay(long fromSequence, long limit, Consumer<JournalEntry> consumer) {
+        if (segments.isEmpty()) {
+            return fromSequence;
+        }
+        long end = committed.get();
+        long to = limit >= end - fromSequence ? end : fromSequence + limit;
+        long sequence = Math.max(fromSequence, segments.firstKey());
+        try {
+            while (sequence < to) {
+                Map.Entry<Long, Path> segment = segments.floorEntry(sequence);
+                if (Objects.isNull(segment)) {
+                    break;
+                }
+                long next = JournalSegment.read(segment.getValue(), segment.getKey(), sequence, to, consumer);
+                if (next == sequence) {
+                    break;
+                }
+                sequence = next;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return sequence;
+    }
+
+    public List<JournalEntry> read(long fromSequence, int limit) {
+        List<JournalEntry> entries = new ArrayList<>(Math.min(limit, batchSize));
+        replay(fromSequence, limit, entries::add);
+        return entries;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException, IOException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        synchronized (writeLock) {
+            if (Objects.nonNull(active)) {
+                active.close();
+            }
+        }
+    }
+
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(file -> file.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                        .collect(Collectors.toList());
+            }
+            files.forEach(file -> segments.put(JournalSegment.baseSequence(file), file));
+            if (!segments.isEmpty()) {
+                active = JournalSegment.open(directory, segments.lastKey(), segmentCapacity);
+                committed.set(active.nextSequence());
+                log.info("Recovered circulation journal with {} segments, next sequence {}", segments.size(), committed.get());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLoop() {
+        List<CirculationEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                CirculationEvent first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first)) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                synchronized (writeLock) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write {} circulation events to the journal", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<CirculationEvent> batch) throws IOException {
+        for (CirculationEvent event : batch) {
+            if (Objects.isNull(active) || active.isFull()) {
+                roll();
+            }
+            active.append(event.getOperation(), event.getUserId(), event.getBookId(), event.getLibraryId(), event.getTimestamp());
+        }
+        active.force();
+        committed.set(active.nextSequence());
+        writtenCounter.increment(batch.size());
+    }
+
+    private void roll() throws IOException {
+        long base = committed.get();
+        if (Objects.nonNull(active)) {
+            base = active.nextSequence();
+            active.close();
+        }
+        active = JournalSegment.open(directory, base, segmentCapacity);
+        segments.put(base, JournalSegment.file(directory, base));
+    }
+}
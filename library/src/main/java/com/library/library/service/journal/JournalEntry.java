@@ -0,0 +1,20 @@
+package com.library.library.service.journal;
+
+import com.library.library.service.event.CirculationOperation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalEntry {
+    private final long sequence;
+    private final CirculationOperation operation;
+    private final Long userId;
+    private final Long bookId;
+    private final Long libraryId;
+    private final Instant timestamp;
+}
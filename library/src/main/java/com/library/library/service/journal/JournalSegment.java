@@ -0,0 +1,105 @@
+package com.library.library.service.journal;
+
+import com.library.library.service.event.CirculationOperation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+class JournalSegment implements Closeable {
+
+    static final int RECORD_SIZE = Byte.BYTES + 4 * Long.BYTES;
+    static final String SUFFIX = ".journal";
+
+    private static final long NO_ID = -1L;
+    private static final CirculationOperation[] OPERATIONS = CirculationOperation.values();
+
+    private final long baseSequence;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+
+    private JournalSegment(long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.baseSequence = baseSequence;
+        this.capacity = buffer.capacity() / RECORD_SIZE;
+        this.channel = channel;
+        this.buffer = buffer;
+        while (position < capacity && buffer.get(position * RECORD_SIZE) != 0) {
+            position++;
+        }
+    }
+
+    static JournalSegment open(Path directory, long baseSequence, int capacity) throws IOException {
+        Path file = file(directory, baseSequence);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size() > 0 ? channel.size() : (long) capacity * RECORD_SIZE;
+        return new JournalSegment(baseSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    static Path file(Path directory, long baseSequence) {
+        return directory.resolve(String.format("%020d%s", baseSequence, SUFFIX));
+    }
+
+    static long baseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    static long read(Path file, long baseSequence, long fromSequence, long toSequence, Consumer<JournalEntry> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long end = Math.min(toSequence, baseSequence + buffer.capacity() / RECORD_SIZE);
+            long sequence = fromSequence;
+            for (; sequence < end; sequence++) {
+                int offset = (int) (sequence - baseSequence) * RECORD_SIZE;
+                byte operation = buffer.get(offset);
+                if (operation == 0) {
+                    break;
+                }
+                consumer.accept(new JournalEntry(sequence, OPERATIONS[operation - 1], id(buffer.getLong(offset + 1)),
+                        id(buffer.getLong(offset + 9)), id(buffer.getLong(offset + 17)),
+                        Instant.ofEpochMilli(buffer.getLong(offset + 25))));
+            }
+            return sequence;
+        }
+    }
+
+    void append(CirculationOperation operation, Long userId, Long bookId, Long libraryId, Instant timestamp) {
+        int offset = position * RECORD_SIZE;
+        buffer.putLong(offset + 1, Objects.isNull(userId) ? NO_ID : userId);
+        buffer.putLong(offset + 9, Objects.isNull(bookId) ? NO_ID : bookId);
+        buffer.putLong(offset + 17, Objects.isNull(libraryId) ? NO_ID : libraryId);
+        buffer.putLong(offset + 25, timestamp.toEpochMilli());
+        buffer.put(offset, (byte) (operation.ordinal() + 1));
+        position++;
+    }
+
+    boolean isFull() {
+        return position >= capacity;
+    }
+
+    long nextSequence() {
+        return baseSequence + position;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    private static Long id(long value) {
+        return value == NO_ID ? null : value;
+    }
+}
@@ -2,10 +2,12 @@ package com.library.library.service.mapper;
 
 import com.library.library.controller.dto.LibraryDto;
 import com.library.library.service.model.Library;
+import com.library.library.service.repository.LibrarySummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -24,4 +26,9 @@ public interface LibraryMapper {
 
     @Mapping(target = "name", source = "libraryName")
     List<LibraryDto> mapPageLibraryDto(List<Library> libraries);
+
+    @Mapping(target = "name", source = "libraryName")
+    LibraryDto mapLibrarySummary(LibrarySummary summary);
+
+    Set<LibraryDto> mapLibrarySummaries(Collection<LibrarySummary> summaries);
 }
@@ -2,6 +2,7 @@ package com.library.library.service.mapper;
 
 import com.library.library.controller.dto.UserDto;
 import com.library.library.service.model.User;
+import com.library.library.service.repository.UserSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
@@ -11,5 +12,7 @@ public interface UserMapper {
 
     UserDto mapUserDto(User user);
 
+    UserDto mapUserSummary(UserSummary summary);
+
     User mapUser(UserDto userDto);
 }
\ No newline at end of file
@@ -13,12 +13,16 @@ import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 
 @Data
 @Entity
 @NoArgsConstructor
+@Table(indexes = {@Index(name = "idx_book_library_title_status", columnList = "library_id, title, status"),
+        @Index(name = "idx_book_title_status_library", columnList = "title, status, library_id")})
 @EqualsAndHashCode(exclude = "library")
 public class Book {
     @Id
@@ -0,0 +1,46 @@
+package com.library.library.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.sql.Timestamp;
+
+@Data
+@Entity
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_hold_request_library_title", columnList = "library_id, title, id"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_hold_request_user_library_title", columnNames = {"user_id", "library_id", "title"}))
+public class HoldRequest {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    private String title;
+    private Timestamp requestedOn;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "library_id")
+    private Library library;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    public HoldRequest(String title, User user, Library library) {
+        this.requestedOn = new Timestamp(System.currentTimeMillis());
+        this.title = title;
+        this.user = user;
+        this.library = library;
+    }
+}
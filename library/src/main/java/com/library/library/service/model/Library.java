@@ -30,6 +30,8 @@ public class Library {
     @Column(nullable = false)
     private String address;
     private String postalCode;
+    private Double latitude;
+    private Double longitude;
     private Instant writtenOn;
     @ManyToMany(mappedBy = "libraries")
     private List<User> users = new ArrayList<>();
@@ -0,0 +1,22 @@
+package com.library.library.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(PenaltyCounterId.class)
+public class PenaltyCounter {
+    @Id
+    private Long userId;
+    @Id
+    private int period;
+    private long penalties;
+}
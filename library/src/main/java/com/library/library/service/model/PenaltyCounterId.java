@@ -0,0 +1,15 @@
+package com.library.library.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PenaltyCounterId implements Serializable {
+    private Long userId;
+    private int period;
+}
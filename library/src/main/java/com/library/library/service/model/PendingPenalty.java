@@ -0,0 +1,39 @@
+package com.library.library.service.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.util.Date;
+
+@Data
+@Entity
+@NoArgsConstructor
+@Table(indexes = @Index(name = "idx_pending_penalty_next_attempt", columnList = "nextAttemptOn"))
+public class PendingPenalty {
+    @Id
+    private Long borrowedId;
+    private Long userId;
+    private String userEmail;
+    private Long bookId;
+    private Long libraryId;
+    private Date dueDate;
+    private Date returnedOn;
+    private int attempts;
+    private Date nextAttemptOn;
+
+    public PendingPenalty(Long borrowedId, Long userId, String userEmail, Long bookId, Long libraryId,
+                          Date dueDate, Date returnedOn, Date nextAttemptOn) {
+        this.borrowedId = borrowedId;
+        this.userId = userId;
+        this.userEmail = userEmail;
+        this.bookId = bookId;
+        this.libraryId = libraryId;
+        this.dueDate = dueDate;
+        this.returnedOn = returnedOn;
+        this.nextAttemptOn = nextAttemptOn;
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.library.service.page;
+
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.service.exception.LibraryException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+public final class KeysetCursor {
+
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    public static long decode(String cursor) {
+        if (Objects.isNull(cursor) || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!key.startsWith(PREFIX)) {
+                throw invalid(cursor);
+            }
+            return Long.parseLong(key.substring(PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw invalid(cursor);
+        }
+    }
+
+    public static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Pageable request(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    public static <E, D> CursorPageDto<D> page(List<E> rows, int size, ToLongFunction<E> id, Function<E, D> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageDto.<D>builder()
+                .content(content.stream().map(mapper).collect(Collectors.toList()))
+                .size(content.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encode(id.applyAsLong(content.get(content.size() - 1))) : null)
+                .build();
+    }
+
+    private static LibraryException invalid(String cursor) {
+        return new LibraryException("Page cursor " + cursor + " is not valid");
+    }
+}
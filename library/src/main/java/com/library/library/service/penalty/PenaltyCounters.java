@@ -0,0 +1,56 @@
+package com.library.library.service.penalty;
+
+import com.library.library.service.model.PenaltyCounter;
+import com.library.library.service.repository.PenaltyCounterRepository;
+import com.library.library.service.repository.UserPenaltyCount;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class PenaltyCounters {
+
+    private final PenaltyCounterRepository counterRepo;
+
+    @Value("${penalty.window.months:0}")
+    private int windowMonths = 0;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long userId, Date returnDate) {
+        int period = period(returnDate);
+        if (counterRepo.increment(userId, period) == 0) {
+            counterRepo.save(new PenaltyCounter(userId, period, 1));
+        }
+    }
+
+    public long count(Long userId) {
+        return counterRepo.sumPenalties(userId, windowStart());
+    }
+
+    public List<UserPenaltyCount> count(Collection<Long> userIds) {
+        return counterRepo.sumByUserIds(userIds, windowStart());
+    }
+
+    public int windowStart() {
+        return windowMonths <= 0 ? 0 : period(new Date()) - windowMonths + 1;
+    }
+
+    public static int period(Date date) {
+        LocalDate day = Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+        return period(day.getYear(), day.getMonthValue());
+    }
+
+    public static int period(int year, int month) {
+        return year * 12 + month - 1;
+    }
+}
@@ -0,0 +1,242 @@
+package com.library.library.service.penalty;
+
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.event.LateReturnEvent;
+import com.library.library.service.model.BookPenalty;
+import com.library.library.service.model.PendingPenalty;
+import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.OverdueLoanRepository;
+import com.library.library.service.repository.PendingPenaltyRepository;
+import com.library.library.service.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class PenaltyPipeline {
+
+    private final BookPenaltyRepository penaltyRepo;
+    private final PendingPenaltyRepository pendingRepo;
+    private final OverdueLoanRepository overdueRepo;
+    private final BookRepository bookRepo;
+    private final LibraryRepository libraryRepo;
+    private final UserRepository userRepo;
+    private final PenaltyCounters penaltyCounters;
+    private final SessionRegistry sessionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter processedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Counter deferredCounter;
+    private final Counter sweptCounter;
+    private final Counter lockedCounter;
+
+    @Value("${penalty.lock.threshold:5}")
+    private int lockThreshold = 5;
+    @Value("${penalty.pipeline.max.attempts:5}")
+    private int maxAttempts = 5;
+    @Value("${penalty.pipeline.retry.backoff.ms:200}")
+    private long retryBackoffMillis = 200;
+    @Value("${penalty.outbox.grace.ms:60000}")
+    private long outboxGraceMillis = 60000;
+    @Value("${penalty.outbox.batch.size:500}")
+    private int outboxBatchSize = 500;
+
+    public PenaltyPipeline(BookPenaltyRepository penaltyRepo, PendingPenaltyRepository pendingRepo, OverdueLoanRepository overdueRepo,
+                           BookRepository bookRepo, LibraryRepository libraryRepo, UserRepository userRepo,
+                           PenaltyCounters penaltyCounters, SessionRegistry sessionRegistry, ApplicationEventPublisher eventPublisher,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${penalty.pipeline.threads:2}") int threads,
+                           @Value("${penalty.pipeline.queue.capacity:1000}") int queueCapacity) {
+        this.penaltyRepo = penaltyRepo;
+        this.pendingRepo = pendingRepo;
+        this.overdueRepo = overdueRepo;
+        this.bookRepo = bookRepo;
+        this.libraryRepo = libraryRepo;
+        this.userRepo = userRepo;
+        this.penaltyCounters = penaltyCounters;
+        this.sessionRegistry = sessionRegistry;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.processedCounter = Counter.builder("penalty.pipeline.processed")
+                .description("Late returns processed by the penalty pipeline")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("penalty.pipeline.retried")
+                .description("Penalty pipeline attempts that failed and were retried")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("penalty.pipeline.failed")
+                .description("Late returns left to the outbox sweeper after exhausting retries")
+                .register(meterRegistry);
+        this.deferredCounter = Counter.builder("penalty.pipeline.deferred")
+                .description("Late returns left to the outbox sweeper because the pipeline queue was full")
+                .register(meterRegistry);
+        this.sweptCounter = Counter.builder("penalty.pipeline.swept")
+                .description("Late returns picked up from the outbox by the sweeper")
+                .register(meterRegistry);
+        this.lockedCounter = Counter.builder("penalty.pipeline.locked")
+                .description("Accounts locked by the penalty pipeline")
+                .register(meterRegistry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "penalty-pipeline-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, e) -> deferredCounter.increment());
+        Gauge.builder("penalty.pipeline.queue.depth", executor, e -> e.getQueue().size())
+                .description("Late returns waiting for the penalty pipeline")
+                .register(meterRegistry);
+        TimeGauge.builder("penalty.pipeline.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from return to penalty decision for the last processed late return")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLateReturn(LateReturnEvent event) {
+        executor.execute(() -> process(event));
+    }
+
+    @Scheduled(fixedDelayString = "${penalty.outbox.sweep.delay.ms:30000}")
+    public void sweep() {
+        List<PendingPenalty> due = pendingRepo.findDue(new Date(System.currentTimeMillis() - outboxGraceMillis),
+                PageRequest.of(0, outboxBatchSize));
+        for (PendingPenalty pending : due) {
+            LateReturnEvent event = new LateReturnEvent(pending.getBorrowedId(), pending.getUserId(), pending.getUserEmail(),
+                    pending.getBookId(), pending.getLibraryId(), pending.getDueDate(), pending.getReturnedOn());
+            sweptCounter.increment();
+            try {
+                attempt(event);
+            } catch (RuntimeException e) {
+                log.warn("Penalty for {} failed in the outbox sweep, attempt {}", event, pending.getAttempts() + 1, e);
+                postpone(event, pending.getAttempts() + 1);
+            }
+        }
+        if (!due.isEmpty()) {
+            log.info("Penalty outbox sweep processed {} late returns", due.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Penalty pipeline stopped with {} late returns left in the outbox", executor.getQueue().size());
+        }
+    }
+
+    private void process(LateReturnEvent event) {
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                attempt(event);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == maxAttempts) {
+                    failedCounter.increment();
+                    log.error("Penalty for {} failed after {} attempts, left in the outbox", event, attempt, e);
+                    postpone(event, attempt);
+                    return;
+                }
+                retriedCounter.increment();
+                log.warn("Penalty for {} failed on attempt {}, retrying", event, attempt, e);
+                if (!backOff(attempt)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void attempt(LateReturnEvent event) {
+        Boolean locked = transactionTemplate.execute(status -> applyPenalty(event));
+        if (Objects.isNull(locked)) {
+            return;
+        }
+        if (locked) {
+            expireSessions(event.getUserEmail());
+        }
+        processedCounter.increment();
+        lagMillis.set(System.currentTimeMillis() - event.getReturnedOn().getTime());
+    }
+
+    private void postpone(LateReturnEvent event, int attempts) {
+        try {
+            long delay = retryBackoffMillis * (1L << Math.min(attempts, 16));
+            transactionTemplate.executeWithoutResult(status ->
+                    pendingRepo.postpone(event.getBorrowedId(), attempts, new Date(System.currentTimeMillis() + delay)));
+        } catch (RuntimeException e) {
+            log.warn("Penalty for {} could not be postponed, the sweeper retries it as due", event, e);
+        }
+    }
+
+    private Boolean applyPenalty(LateReturnEvent event) {
+        if (pendingRepo.claim(event.getBorrowedId()) == 0) {
+            log.info("Penalty for borrowed {} is already applied", event.getBorrowedId());
+            return null;
+        }
+        penaltyRepo.save(new BookPenalty(event.getDueDate(), event.getReturnedOn(), bookRepo.getById(event.getBookId()),
+                libraryRepo.getById(event.getLibraryId()), userRepo.getById(event.getUserId())));
+        penaltyCounters.record(event.getUserId(), event.getReturnedOn());
+        overdueRepo.deleteByBorrowedId(event.getBorrowedId());
+        log.info("User with email {} gets fined", event.getUserEmail());
+        if (penaltyCounters.count(event.getUserId()) < lockThreshold
+                || userRepo.lockUsers(Collections.singletonList(event.getUserId())) == 0) {
+            return false;
+        }
+        eventPublisher.publishEvent(AccountChangedEvent.of(event.getUserId()));
+        lockedCounter.increment();
+        log.info("User with email {} has been locked account", event.getUserEmail());
+        return true;
+    }
+
+    private void expireSessions(String email) {
+        sessionRegistry.getAllPrincipals().stream()
+                .filter(principal -> principal instanceof UserDetails && ((UserDetails) principal).getUsername().equals(email))
+                .flatMap(principal -> sessionRegistry.getAllSessions(principal, false).stream())
+                .forEach(SessionInformation::expireNow);
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMillis * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failedCounter.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.library.library.service.repository;
+
+public interface AuthorKey {
+
+    Long getId();
+
+    String getNickname();
+}
@@ -1,13 +1,37 @@
 package com.library.library.service.repository;
 
 import com.library.library.service.model.Author;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
     boolean existsAuthorByNickname(String nickname);
 
     Author findAuthorByNickname(String nickname);
+
+    @Query("select a.nickname as name, count(b) as weight from Author a left join a.books b where a.nickname is not null group by a.nickname")
+    List<CompletionWeight> findNicknameWeights();
+
+    @Query("select a.nickname as name, a.id as id from Author a where a.nickname is not null")
+    List<NaturalKey> findNicknameKeys();
+
+    @Query("select a.nickname as name, a.id as id from Author a where a.nickname = :nickname")
+    NaturalKey findKeyByNickname(@Param("nickname") String nickname);
+
+    @Query("select a.authorName as name, count(a) as weight from Author a where a.authorName is not null group by a.authorName")
+    List<CompletionWeight> findAuthorNameWeights();
+
+    @Query("select a.id as id, a.nickname as nickname from Author a where a.nickname in :nicknames")
+    List<AuthorKey> findKeysByNicknames(@Param("nicknames") Collection<String> nicknames);
+
+    @Query("select a from Author a where a.id > :afterId order by a.id")
+    List<Author> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,14 @@
+package com.library.library.service.repository;
+
+import com.library.library.controller.dto.BookStatus;
+
+public interface AvailabilityCount {
+
+    Long getLibraryId();
+
+    String getTitle();
+
+    BookStatus getStatus();
+
+    long getTotal();
+}
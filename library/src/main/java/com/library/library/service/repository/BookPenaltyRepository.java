@@ -3,10 +3,17 @@ package com.library.library.service.repository;
 import com.library.library.service.model.BookPenalty;
 import com.library.library.service.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface BookPenaltyRepository extends JpaRepository<BookPenalty, Long> {
 
     int countAllByUser(User user);
+
+    @Query("select p.user.id as userId, year(p.returnDate) as year, month(p.returnDate) as month, count(p) as total " +
+            "from BookPenalty p where p.user is not null group by p.user.id, year(p.returnDate), month(p.returnDate)")
+    List<PenaltyPeriodCount> countByUserAndMonth();
 }
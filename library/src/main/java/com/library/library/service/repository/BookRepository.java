@@ -1,10 +1,20 @@
 package com.library.library.service.repository;
 
+import com.library.library.controller.dto.BookStatus;
 import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -13,8 +23,57 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     List<Book> findBookByTitleAndLibraryIsNull(String bookTitle);
 
-    List<Book> findBookByTitleAndLibraryNotNull(String bookTitle);
-
     boolean existsBookByTitle(String title);
-}
 
+    boolean existsBookByTitleAndLibraryNotNull(String title);
+
+    @Query("select b.id from Book b where b.library = :library and b.title = :title and b.status = :status and b.id > :afterId order by b.id")
+    List<Long> findBookIds(@Param("library") Library library, @Param("title") String title,
+                           @Param("status") BookStatus status, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select b.id as id, b.title as title, b.description as description from Book b where b.id > :afterId order by b.id")
+    List<SearchDocument> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select b.id as id, b.genre as genre, b.status as status, b.publicationYear as publicationYear, l.id as libraryId " +
+            "from Book b left join b.library l where b.id > :afterId order by b.id")
+    List<FacetDocument> findFacetDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("select b.id as id, b.genre as genre, b.status as status, b.publicationYear as publicationYear, l.id as libraryId " +
+            "from Book b left join b.library l where b.id = :id")
+    Optional<FacetDocument> findFacetDocument(@Param("id") Long id);
+
+    @Query("select b.title as name, count(b) as weight from Book b where b.title is not null group by b.title")
+    List<CompletionWeight> findTitleWeights();
+
+    @Query("select b.title as name, b.id as id from Book b where b.title is not null")
+    List<NaturalKey> findTitleKeys();
+
+    @Query("select b.id as id, b.title as title from Book b where b.library = :library and b.title in :titles and b.status = :status order by b.id")
+    List<BookCandidate> findBookCandidates(@Param("library") Library library, @Param("titles") Collection<String> titles,
+                                           @Param("status") BookStatus status);
+
+    @Query("select b.library.id as libraryId, b.title as title, b.status as status, count(b) as total from Book b " +
+            "where b.library is not null group by b.library.id, b.title, b.status")
+    List<AvailabilityCount> countAvailability();
+
+    @Query("select b.library.id as libraryId, b.title as title, b.status as status, count(b) as total from Book b " +
+            "where b.library.id = :libraryId group by b.library.id, b.title, b.status")
+    List<AvailabilityCount> countAvailability(@Param("libraryId") Long libraryId);
+
+    @Modifying
+    @Query("update Book b set b.status = :status where b.id = :id and b.status = :expected")
+    int updateStatus(@Param("id") Long id, @Param("expected") BookStatus expected, @Param("status") BookStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.id from Book b where b.status = :status and b.id in " +
+            "(select r.book.id from Reserved r where r.id in :reservedIds)")
+    List<Long> lockReservedBookIds(@Param("reservedIds") Collection<Long> reservedIds, @Param("status") BookStatus status);
+
+    @Modifying
+    @Query("update Book b set b.status = :status where b.status = :expected and b.id in :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("expected") BookStatus expected,
+                          @Param("status") BookStatus status);
+
+    @Query("select b from Book b where b.id > :afterId order by b.id")
+    List<Book> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
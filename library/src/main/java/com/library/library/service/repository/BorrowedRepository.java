@@ -4,8 +4,12 @@ import com.library.library.service.model.Borrowed;
 import com.library.library.service.model.Library;
 import com.library.library.service.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +18,10 @@ public interface BorrowedRepository extends JpaRepository<Borrowed, Long> {
     Optional<Borrowed> findBorrowedByUserAndLibrary(User user, Library library);
 
     boolean existsBorrowedByUser(User user);
+
+    @Query("select b.user.id from Borrowed b where b.user in :users")
+    List<Long> findUserIds(@Param("users") Collection<User> users);
+
+    @Query("select b from Borrowed b join fetch b.book where b.library = :library and b.user in :users")
+    List<Borrowed> findAllByLibraryAndUsers(@Param("library") Library library, @Param("users") Collection<User> users);
 }
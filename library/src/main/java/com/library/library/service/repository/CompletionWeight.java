@@ -0,0 +1,8 @@
+package com.library.library.service.repository;
+
+public interface CompletionWeight {
+
+    String getName();
+
+    Long getWeight();
+}
@@ -0,0 +1,14 @@
+package com.library.library.service.repository;
+
+public interface ExpiredReservation {
+
+    Long getId();
+
+    Long getUserId();
+
+    Long getBookId();
+
+    Long getLibraryId();
+
+    String getTitle();
+}
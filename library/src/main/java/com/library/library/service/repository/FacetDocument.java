@@ -0,0 +1,17 @@
+package com.library.library.service.repository;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+
+public interface FacetDocument {
+
+    Long getId();
+
+    Genre getGenre();
+
+    BookStatus getStatus();
+
+    Integer getPublicationYear();
+
+    Long getLibraryId();
+}
@@ -0,0 +1,31 @@
+package com.library.library.service.repository;
+
+import com.library.library.service.model.HoldRequest;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HoldRequestRepository extends JpaRepository<HoldRequest, Long> {
+
+    Optional<HoldRequest> findByUserAndLibraryAndTitle(User user, Library library, String title);
+
+    long countByLibraryAndTitleAndIdLessThan(Library library, String title, Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select h from HoldRequest h join fetch h.user where h.library = :library and h.title = :title order by h.id")
+    List<HoldRequest> lockQueue(@Param("library") Library library, @Param("title") String title, Pageable pageable);
+
+    @Query("select distinct h.library.id as libraryId, h.title as title from HoldRequest h where h.title in :titles")
+    List<QueuedTitle> findQueuedTitles(@Param("titles") Collection<String> titles);
+}
@@ -0,0 +1,12 @@
+package com.library.library.service.repository;
+
+public interface LibraryLocation {
+
+    Long getId();
+
+    Double getLatitude();
+
+    Double getLongitude();
+
+    String getPostalCode();
+}
@@ -1,9 +1,17 @@
 package com.library.library.service.repository;
 
+import com.library.library.controller.dto.BookStatus;
 import com.library.library.service.model.Library;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface LibraryRepository extends JpaRepository<Library, Long> {
 
@@ -13,4 +21,36 @@ public interface LibraryRepository extends JpaRepository<Library, Long> {
 
     boolean existsLibrariesByEmail(String email);
 
+    @Query("select l.libraryName as name, count(b) as weight from Library l left join l.books b where l.libraryName is not null group by l.libraryName")
+    List<CompletionWeight> findNameWeights();
+
+    @Query("select l.libraryName as name, l.id as id from Library l where l.libraryName is not null")
+    List<NaturalKey> findNameKeys();
+
+    @Query("select distinct l.id as id, l.libraryName as libraryName, l.email as email, l.phone as phone, l.country as country, " +
+            "l.city as city, l.address as address, l.postalCode as postalCode, l.latitude as latitude, l.longitude as longitude " +
+            "from Book b join b.library l where b.title = :title and b.status = :status")
+    List<LibrarySummary> findSummariesByBookTitle(@Param("title") String title, @Param("status") BookStatus status);
+
+    @Query("select l.id as id, l.libraryName as libraryName, l.email as email, l.phone as phone, l.country as country, " +
+            "l.city as city, l.address as address, l.postalCode as postalCode, l.latitude as latitude, l.longitude as longitude " +
+            "from Library l where l.id in :ids")
+    List<LibrarySummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select l.id as id, l.libraryName as libraryName, l.email as email, l.phone as phone, l.country as country, " +
+            "l.city as city, l.address as address, l.postalCode as postalCode, l.latitude as latitude, l.longitude as longitude " +
+            "from Library l where l.libraryName = :libraryName")
+    LibrarySummary findSummaryByLibraryName(@Param("libraryName") String libraryName);
+
+    @Query("select distinct l.id from Book b join b.library l where b.title = :title and b.status = :status")
+    List<Long> findIdsByBookTitle(@Param("title") String title, @Param("status") BookStatus status);
+
+    @Query("select l.id as id, l.latitude as latitude, l.longitude as longitude, l.postalCode as postalCode from Library l")
+    List<LibraryLocation> findLocations();
+
+    @Query("select l.id as id, l.latitude as latitude, l.longitude as longitude, l.postalCode as postalCode from Library l where l.id = :id")
+    Optional<LibraryLocation> findLocationById(@Param("id") Long id);
+
+    @Query("select l from Library l where l.id > :afterId order by l.id")
+    List<Library> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,24 @@
+package com.library.library.service.repository;
+
+public interface LibrarySummary {
+
+    Long getId();
+
+    String getLibraryName();
+
+    String getEmail();
+
+    String getPhone();
+
+    String getCountry();
+
+    String getCity();
+
+    String getAddress();
+
+    String getPostalCode();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
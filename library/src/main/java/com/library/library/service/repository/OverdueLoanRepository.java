@@ -0,0 +1,22 @@
+package com.library.library.service.repository;
+
+import com.library.library.service.model.OverdueLoan;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OverdueLoanRepository extends JpaRepository<OverdueLoan, Long> {
+
+    @Modifying
+    @Query("delete from OverdueLoan o where o.borrowedId = :borrowedId")
+    int deleteByBorrowedId(@Param("borrowedId") Long borrowedId);
+
+    @Query("select o.user.id as userId, count(o) as total from OverdueLoan o where o.user.id in :userIds group by o.user.id")
+    List<UserPenaltyCount> countByUserIds(@Param("userIds") Collection<Long> userIds);
+}
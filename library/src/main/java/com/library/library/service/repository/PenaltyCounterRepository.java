@@ -0,0 +1,27 @@
+package com.library.library.service.repository;
+
+import com.library.library.service.model.PenaltyCounter;
+import com.library.library.service.model.PenaltyCounterId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PenaltyCounterRepository extends JpaRepository<PenaltyCounter, PenaltyCounterId> {
+
+    @Modifying
+    @Query("update PenaltyCounter c set c.penalties = c.penalties + 1 where c.userId = :userId and c.period = :period")
+    int increment(@Param("userId") Long userId, @Param("period") int period);
+
+    @Query("select coalesce(sum(c.penalties), 0) from PenaltyCounter c where c.userId = :userId and c.period >= :fromPeriod")
+    long sumPenalties(@Param("userId") Long userId, @Param("fromPeriod") int fromPeriod);
+
+    @Query("select c.userId as userId, sum(c.penalties) as total from PenaltyCounter c " +
+            "where c.userId in :userIds and c.period >= :fromPeriod group by c.userId")
+    List<UserPenaltyCount> sumByUserIds(@Param("userIds") Collection<Long> userIds, @Param("fromPeriod") int fromPeriod);
+}
@@ -0,0 +1,12 @@
+package com.library.library.service.repository;
+
+public interface PenaltyPeriodCount {
+
+    Long getUserId();
+
+    int getYear();
+
+    int getMonth();
+
+    long getTotal();
+}
@@ -0,0 +1,27 @@
+package com.library.library.service.repository;
+
+import com.library.library.service.model.PendingPenalty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface PendingPenaltyRepository extends JpaRepository<PendingPenalty, Long> {
+
+    @Query("select p from PendingPenalty p where p.nextAttemptOn <= :now order by p.nextAttemptOn")
+    List<PendingPenalty> findDue(@Param("now") Date now, Pageable pageable);
+
+    @Modifying
+    @Query("delete from PendingPenalty p where p.borrowedId = :borrowedId")
+    int claim(@Param("borrowedId") Long borrowedId);
+
+    @Modifying
+    @Query("update PendingPenalty p set p.attempts = :attempts, p.nextAttemptOn = :nextAttemptOn where p.borrowedId = :borrowedId")
+    int postpone(@Param("borrowedId") Long borrowedId, @Param("attempts") int attempts, @Param("nextAttemptOn") Date nextAttemptOn);
+}
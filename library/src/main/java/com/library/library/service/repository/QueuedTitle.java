@@ -0,0 +1,8 @@
+package com.library.library.service.repository;
+
+public interface QueuedTitle {
+
+    Long getLibraryId();
+
+    String getTitle();
+}
@@ -3,8 +3,15 @@ package com.library.library.service.repository;
 import com.library.library.service.model.Library;
 import com.library.library.service.model.Reserved;
 import com.library.library.service.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 public interface ReservedRepository extends JpaRepository<Reserved, Long> {
@@ -12,4 +19,20 @@ public interface ReservedRepository extends JpaRepository<Reserved, Long> {
     Optional<Reserved> findByUserAndLibrary(User user, Library library);
 
     boolean existsReservedByUser(User user);
+
+    @Query("select r.user.id from Reserved r where r.user in :users")
+    List<Long> findUserIds(@Param("users") Collection<User> users);
+
+    @Query("select r from Reserved r join fetch r.book where r.library = :library and r.user in :users")
+    List<Reserved> findAllByLibraryAndUsers(@Param("library") Library library, @Param("users") Collection<User> users);
+
+    long countByDueDateBefore(Date date);
+
+    @Query("select r.id as id, r.user.id as userId, r.book.id as bookId, r.library.id as libraryId, r.book.title as title " +
+            "from Reserved r where r.dueDate < :date and r.id > :afterId order by r.id")
+    List<ExpiredReservation> findExpired(@Param("date") Date date, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Reserved r where r.id in :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
 }
@@ -0,0 +1,10 @@
+package com.library.library.service.repository;
+
+public interface SearchDocument {
+
+    Long getId();
+
+    String getTitle();
+
+    String getDescription();
+}
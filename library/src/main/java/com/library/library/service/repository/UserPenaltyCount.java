@@ -0,0 +1,8 @@
+package com.library.library.service.repository;
+
+public interface UserPenaltyCount {
+
+    Long getUserId();
+
+    long getTotal();
+}
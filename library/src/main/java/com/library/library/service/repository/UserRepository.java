@@ -1,10 +1,16 @@
 package com.library.library.service.repository;
 
 import com.library.library.service.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -13,4 +19,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
     User findUserByEmail(String email);
 
     boolean existsUserByEmail(String email);
-}
\ No newline at end of file
+
+    @Query("select u.id as id, u.firstName as firstName, u.lastName as lastName, u.email as email, u.password as password, " +
+            "u.role as role, u.isAccountNonLocked as isAccountNonLocked, u.phone as phone, u.birthday as birthday, " +
+            "u.country as country, u.city as city, u.address as address, u.postalCode as postalCode from User u where u.email = :email")
+    UserSummary findSummaryByEmail(@Param("email") String email);
+
+    @Query("select u.email as name, u.id as id from User u")
+    List<NaturalKey> findEmailKeys();
+
+    List<User> findAllByEmailIn(Collection<String> emails);
+
+    @Modifying
+    @Query("update User u set u.isAccountNonLocked = false where u.id in :ids and u.isAccountNonLocked = true")
+    int lockUsers(@Param("ids") Collection<Long> ids);
+
+    @Query("select u from User u where u.id > :afterId order by u.id")
+    List<User> findPageAfter(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.library.library.service.repository;
+
+import com.library.library.controller.dto.Role;
+
+import java.util.Date;
+
+public interface UserSummary {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getPassword();
+
+    Role getRole();
+
+    Boolean getIsAccountNonLocked();
+
+    String getPhone();
+
+    Date getBirthday();
+
+    String getCountry();
+
+    String getCity();
+
+    String getAddress();
+
+    String getPostalCode();
+}
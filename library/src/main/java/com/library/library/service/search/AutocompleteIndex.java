@@ -0,0 +1,229 @@
+package com.library.library.service.search;
+
+import com.library.library.controller.dto.AutocompleteReportDto;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.CompletionWeight;
+import com.library.library.service.repository.LibraryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class AutocompleteIndex {
+
+    private final BookRepository bookRepo;
+    private final AuthorRepository authorRepo;
+    private final LibraryRepository libraryRepo;
+    private final Timer lookupTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<CompletionType, CompletionTrie> tries = emptyTries();
+    private volatile boolean ready;
+
+    public AutocompleteIndex(BookRepository bookRepo, AuthorRepository authorRepo, LibraryRepository libraryRepo,
+                             MeterRegistry meterRegistry) {
+        this.bookRepo = bookRepo;
+        this.authorRepo = authorRepo;
+        this.libraryRepo = libraryRepo;
+        this.lookupTimer = Timer.builder("autocomplete.latency")
+                .description("Autocomplete lookup latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${autocomplete.rebuild.cron:0 15 * * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<CompletionType, CompletionTrie> rebuilt = emptyTries();
+        load(rebuilt.get(CompletionType.TITLE), bookRepo.findTitleWeights(), true);
+        load(rebuilt.get(CompletionType.AUTHOR), authorRepo.findNicknameWeights(), false);
+        load(rebuilt.get(CompletionType.LIBRARY), libraryRepo.findNameWeights(), false);
+        lock.writeLock().lock();
+        try {
+            tries = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Autocomplete index built with {} keys in {} ms", keys(rebuilt), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            CompletionTrie titles = tries.get(CompletionType.TITLE);
+            if (event.isDeleted()) {
+                titles.remove(event.getTitle(), 1, 1);
+            } else if (Objects.isNull(event.getPreviousTitle())) {
+                titles.add(event.getTitle(), 1, 1);
+            } else if (!event.getPreviousTitle().equals(event.getTitle())) {
+                titles.remove(event.getPreviousTitle(), 1, 1);
+                titles.add(event.getTitle(), 1, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            CompletionTrie titles = tries.get(CompletionType.TITLE);
+            event.getBooks().forEach(book -> titles.add(book.getTitle(), 1, 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        changeName(CompletionType.AUTHOR, event.getPreviousNickname(), event.getNickname());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryChanged(LibraryChangedEvent event) {
+        changeName(CompletionType.LIBRARY, event.getPreviousName(), event.getLibraryName());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        if (event.getOperation() != CirculationOperation.RESERVE && event.getOperation() != CirculationOperation.BORROW) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            tries.get(CompletionType.TITLE).bump(event.getTitle(), 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<CompletionDto> complete(String prefix, CompletionType type, int limit) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<CompletionDto> completions = new ArrayList<>();
+            for (Map.Entry<CompletionType, CompletionTrie> trie : tries.entrySet()) {
+                if (Objects.isNull(type) || type == trie.getKey()) {
+                    trie.getValue().complete(prefix, limit).forEach(completion -> completions.add(CompletionDto.builder()
+                            .text(completion.getText())
+                            .type(trie.getKey())
+                            .weight(completion.getWeight())
+                            .build()));
+                }
+            }
+            if (Objects.isNull(type)) {
+                completions.sort(Comparator.comparingLong(CompletionDto::getWeight).reversed());
+                return completions.size() > limit ? new ArrayList<>(completions.subList(0, limit)) : completions;
+            }
+            return completions;
+        } finally {
+            lock.readLock().unlock();
+            lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public AutocompleteReportDto report() {
+        HistogramSnapshot snapshot = lookupTimer.takeSnapshot();
+        double p50 = 0;
+        double p99 = 0;
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.5) {
+                p50 = percentile.value(TimeUnit.MICROSECONDS);
+            } else if (percentile.percentile() == 0.99) {
+                p99 = percentile.value(TimeUnit.MICROSECONDS);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            long keys = keys(tries);
+            long nodes = tries.values().stream().mapToLong(CompletionTrie::nodeCount).sum();
+            long bytes = tries.values().stream().mapToLong(CompletionTrie::estimateBytes).sum();
+            return AutocompleteReportDto.builder()
+                    .ready(ready)
+                    .keys(keys)
+                    .nodes(nodes)
+                    .estimatedBytes(bytes)
+                    .bytesPerMillionKeys(keys == 0 ? 0 : bytes * 1_000_000 / keys)
+                    .lookups(snapshot.count())
+                    .meanMicros(snapshot.mean(TimeUnit.MICROSECONDS))
+                    .p50Micros(p50)
+                    .p99Micros(p99)
+                    .maxMicros(snapshot.max(TimeUnit.MICROSECONDS))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void changeName(CompletionType type, String previousName, String name) {
+        lock.writeLock().lock();
+        try {
+            CompletionTrie trie = tries.get(type);
+            if (Objects.isNull(previousName)) {
+                trie.add(name, 1, 0);
+            } else if (Objects.isNull(name)) {
+                CompletionTrie.Completion completion = trie.get(previousName);
+                if (Objects.nonNull(completion)) {
+                    trie.remove(previousName, completion.getReferences(), completion.getWeight());
+                }
+            } else if (!previousName.equals(name)) {
+                trie.rename(previousName, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void load(CompletionTrie trie, List<CompletionWeight> weights, boolean countReferences) {
+        for (CompletionWeight weight : weights) {
+            trie.add(weight.getName(), countReferences ? weight.getWeight().intValue() : 1, weight.getWeight());
+        }
+    }
+
+    private static long keys(Map<CompletionType, CompletionTrie> tries) {
+        return tries.values().stream().mapToLong(CompletionTrie::size).sum();
+    }
+
+    private static Map<CompletionType, CompletionTrie> emptyTries() {
+        Map<CompletionType, CompletionTrie> tries = new EnumMap<>(CompletionType.class);
+        for (CompletionType type : CompletionType.values()) {
+            tries.put(type, new CompletionTrie());
+        }
+        return tries;
+    }
+}
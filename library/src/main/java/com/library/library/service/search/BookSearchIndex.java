@@ -0,0 +1,476 @@
+package com.library.library.service.search;
+
+import com.library.library.controller.dto.BookSearchHitDto;
+import com.library.library.controller.dto.SearchIndexReportDto;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.SearchDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 2;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+    private static final int MIN_DELETED_TO_COMPACT = 1000;
+
+    private final BookRepository bookRepo;
+    private final Timer queryTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<float[]> scratch = ThreadLocal.withInitial(() -> new float[0]);
+
+    private Map<String, Postings> postings = new HashMap<>();
+    private Map<Long, Integer> docsByBookId = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private String[] titles = new String[1024];
+    private int[] lengths = new int[1024];
+    private BitSet deleted = new BitSet();
+    private int maxDoc;
+    private long totalLength;
+    private long postingCount;
+    private volatile boolean ready;
+
+    public BookSearchIndex(BookRepository bookRepo, MeterRegistry meterRegistry) {
+        this.bookRepo = bookRepo;
+        this.queryTimer = Timer.builder("book.search.latency")
+                .description("Full-text book search latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("book.search.documents", this, index -> index.docsByBookId.size())
+                .description("Books held by the full-text search index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            clear();
+            Long afterId = 0L;
+            List<SearchDocument> documents;
+            do {
+                documents = bookRepo.findSearchDocuments(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (SearchDocument document : documents) {
+                    add(document.getId(), document.getTitle(), document.getDescription());
+                }
+                if (!documents.isEmpty()) {
+                    afterId = documents.get(documents.size() - 1).getId();
+                }
+            } while (documents.size() == REBUILD_BATCH_SIZE);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} books and {} terms in {} ms", docsByBookId.size(), postings.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getBookId());
+        } else {
+            index(event.getBookId(), event.getTitle(), event.getDescription());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (BookChangedEvent book : event.getBooks()) {
+                delete(book.getBookId());
+                add(book.getBookId(), book.getTitle(), book.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(long bookId, String title, String description) {
+        lock.writeLock().lock();
+        try {
+            delete(bookId);
+            add(bookId, title, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            delete(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BookSearchHitDto> search(String query, int limit) {
+        long start = System.nanoTime();
+        Set<String> terms = new LinkedHashSet<>(TextAnalyzer.analyze(query));
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty() || maxDoc == 0) {
+                return new ArrayList<>();
+            }
+            Query scored = score(terms, limit);
+            List<BookSearchHitDto> hits = new ArrayList<>();
+            for (int doc : top(scored, limit)) {
+                hits.add(BookSearchHitDto.builder().bookId(bookIds[doc]).title(titles[doc]).score(scored.scores[doc]).build());
+            }
+            scored.reset();
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public SearchIndexReportDto report() {
+        HistogramSnapshot snapshot = queryTimer.takeSnapshot();
+        double p50 = 0;
+        double p99 = 0;
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.5) {
+                p50 = percentile.value(TimeUnit.MICROSECONDS);
+            } else if (percentile.percentile() == 0.99) {
+                p99 = percentile.value(TimeUnit.MICROSECONDS);
+            }
+        }
+        lock.readLock().lock();
+        try {
+            return SearchIndexReportDto.builder()
+                    .ready(ready)
+                    .documents(docsByBookId.size())
+                    .deletedDocuments(deleted.cardinality())
+                    .terms(postings.size())
+                    .postings(postingCount)
+                    .estimatedBytes(estimateBytes())
+                    .queries(snapshot.count())
+                    .meanMicros(snapshot.mean(TimeUnit.MICROSECONDS))
+                    .p50Micros(p50)
+                    .p99Micros(p99)
+                    .maxMicros(snapshot.max(TimeUnit.MICROSECONDS))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Query score(Set<String> terms, int limit) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (Objects.nonNull(list)) {
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        double[] idf = new double[lists.size()];
+        double[] remainingMax = new double[lists.size() + 1];
+        for (int i = lists.size() - 1; i >= 0; i--) {
+            idf[i] = Math.log(1 + (maxDoc - lists.get(i).size + 0.5) / (lists.get(i).size + 0.5));
+            remainingMax[i] = remainingMax[i + 1] + idf[i] * (K1 + 1);
+        }
+        float[] scores = scratch.get();
+        if (scores.length < maxDoc) {
+            scores = new float[bookIds.length];
+            scratch.set(scores);
+        }
+        Query query = new Query(scores);
+        double averageLength = (double) totalLength / maxDoc;
+        boolean candidatesOnly = false;
+        for (int i = 0; i < lists.size(); i++) {
+            Postings list = lists.get(i);
+            if (!candidatesOnly && i > 0 && query.touchedCount >= limit) {
+                int[] best = top(query, limit);
+                candidatesOnly = best.length == limit && remainingMax[i] <= query.scores[best[best.length - 1]];
+            }
+            if (candidatesOnly && (long) query.touchedCount * 20 < list.size) {
+                for (int t = 0; t < query.touchedCount; t++) {
+                    int doc = query.touched[t];
+                    int position = Arrays.binarySearch(list.docs, 0, list.size, doc);
+                    if (position >= 0) {
+                        query.scores[doc] += weight(idf[i], list.frequencies[position], doc, averageLength);
+                    }
+                }
+                continue;
+            }
+            for (int p = 0; p < list.size; p++) {
+                int doc = list.docs[p];
+                if (deleted.get(doc) || (candidatesOnly && query.scores[doc] == 0)) {
+                    continue;
+                }
+                query.add(doc, weight(idf[i], list.frequencies[p], doc, averageLength));
+            }
+        }
+        return query;
+    }
+
+    private float weight(double idf, int frequency, int doc, double averageLength) {
+        double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+        return (float) (idf * frequency * (K1 + 1) / (frequency + norm));
+    }
+
+    private int[] top(Query query, int limit) {
+        int want = limit;
+        while (true) {
+            int[] candidates = query.best(want);
+            Set<String> seen = new HashSet<>();
+            int[] hits = new int[limit];
+            int size = 0;
+            for (int i = 0; i < candidates.length && size < limit; i++) {
+                if (seen.add(titles[candidates[i]])) {
+                    hits[size++] = candidates[i];
+                }
+            }
+            if (size == limit || candidates.length == query.touchedCount) {
+                return Arrays.copyOf(hits, size);
+            }
+            want *= 4;
+        }
+    }
+
+    private void add(long bookId, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextAnalyzer.analyze(title).forEach(term -> frequencies.merge(term, TITLE_BOOST, Integer::sum));
+        TextAnalyzer.analyze(description).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        int doc = maxDoc++;
+        if (doc == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, doc * 2);
+            titles = Arrays.copyOf(titles, doc * 2);
+            lengths = Arrays.copyOf(lengths, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        bookIds[doc] = bookId;
+        titles[doc] = title;
+        lengths[doc] = length;
+        totalLength += length;
+        postingCount += frequencies.size();
+        docsByBookId.put(bookId, doc);
+    }
+
+    private void delete(long bookId) {
+        Integer doc = docsByBookId.remove(bookId);
+        if (Objects.isNull(doc)) {
+            return;
+        }
+        deleted.set(doc);
+        int deletedDocs = deleted.cardinality();
+        if (deletedDocs >= MIN_DELETED_TO_COMPACT && deletedDocs * 4 > maxDoc) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] remap = new int[maxDoc];
+        int live = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            remap[doc] = deleted.get(doc) ? -1 : live++;
+        }
+        long[] liveBookIds = new long[Math.max(live, 1024)];
+        String[] liveTitles = new String[liveBookIds.length];
+        int[] liveLengths = new int[liveBookIds.length];
+        Map<Long, Integer> liveDocs = new HashMap<>();
+        long liveLength = 0;
+        for (int doc = 0; doc < maxDoc; doc++) {
+            if (remap[doc] >= 0) {
+                liveBookIds[remap[doc]] = bookIds[doc];
+                liveTitles[remap[doc]] = titles[doc];
+                liveLengths[remap[doc]] = lengths[doc];
+                liveDocs.put(bookIds[doc], remap[doc]);
+                liveLength += lengths[doc];
+            }
+        }
+        Map<String, Postings> livePostings = new HashMap<>();
+        long livePostingCount = 0;
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            Postings compacted = entry.getValue().remap(remap);
+            if (compacted.size > 0) {
+                livePostings.put(entry.getKey(), compacted);
+                livePostingCount += compacted.size;
+            }
+        }
+        log.info("Search index compacted from {} to {} documents", maxDoc, live);
+        bookIds = liveBookIds;
+        titles = liveTitles;
+        lengths = liveLengths;
+        docsByBookId = liveDocs;
+        postings = livePostings;
+        deleted = new BitSet();
+        maxDoc = live;
+        totalLength = liveLength;
+        postingCount = livePostingCount;
+    }
+
+    private void clear() {
+        postings = new HashMap<>();
+        docsByBookId = new HashMap<>();
+        bookIds = new long[1024];
+        titles = new String[1024];
+        lengths = new int[1024];
+        deleted = new BitSet();
+        maxDoc = 0;
+        totalLength = 0;
+        postingCount = 0;
+    }
+
+    private long estimateBytes() {
+        long bytes = (long) bookIds.length * (Long.BYTES + Integer.BYTES + 8) + deleted.size() / 8;
+        bytes += docsByBookId.size() * 64L;
+        for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+            bytes += 56 + 2L * entry.getKey().length() + 2L * Integer.BYTES * entry.getValue().docs.length;
+        }
+        return bytes;
+    }
+
+    private static class Query {
+        private final float[] scores;
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        private Query(float[] scores) {
+            this.scores = scores;
+        }
+
+        private void add(int doc, float score) {
+            if (scores[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            scores[doc] += score;
+        }
+
+        private int[] best(int count) {
+            int size = Math.min(count, touchedCount);
+            int[] heap = new int[size];
+            int filled = 0;
+            for (int t = 0; t < touchedCount; t++) {
+                int doc = touched[t];
+                if (filled < size) {
+                    heap[filled] = doc;
+                    siftUp(heap, filled++);
+                } else if (scores[doc] > scores[heap[0]]) {
+                    heap[0] = doc;
+                    siftDown(heap, size);
+                }
+            }
+            for (int end = size - 1; end > 0; end--) {
+                int first = heap[0];
+                heap[0] = heap[end];
+                heap[end] = first;
+                siftDown(heap, end);
+            }
+            return heap;
+        }
+
+        private void siftUp(int[] heap, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (scores[heap[parent]] <= scores[heap[index]]) {
+                    return;
+                }
+                swap(heap, parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int index = 0;
+            while (true) {
+                int smallest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && scores[heap[left]] < scores[heap[smallest]]) {
+                    smallest = left;
+                }
+                if (right < size && scores[heap[right]] < scores[heap[smallest]]) {
+                    smallest = right;
+                }
+                if (smallest == index) {
+                    return;
+                }
+                swap(heap, smallest, index);
+                index = smallest;
+            }
+        }
+
+        private void swap(int[] heap, int left, int right) {
+            int value = heap[left];
+            heap[left] = heap[right];
+            heap[right] = value;
+        }
+
+        private void reset() {
+            for (int t = 0; t < touchedCount; t++) {
+                scores[touched[t]] = 0;
+            }
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size++] = frequency;
+        }
+
+        private Postings remap(int[] remap) {
+            Postings compacted = new Postings();
+            for (int i = 0; i < size; i++) {
+                if (remap[docs[i]] >= 0) {
+                    compacted.add(remap[docs[i]], frequencies[i]);
+                }
+            }
+            return compacted;
+        }
+    }
+}
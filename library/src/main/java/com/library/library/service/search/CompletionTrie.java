@@ -0,0 +1,323 @@
+package com.library.library.service.search;
+
+import lombok.Getter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+public class CompletionTrie {
+
+    private static final char[] EMPTY_LABEL = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node(EMPTY_LABEL);
+    private int size;
+    private int nodeCount = 1;
+
+    public static String normalize(String text) {
+        if (Objects.isNull(text)) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+            } else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public void add(String text, int references, long weight) {
+        String key = normalize(text);
+        if (!key.isEmpty()) {
+            insert(root, key, 0, text, references, weight);
+        }
+    }
+
+    public void remove(String text, int references, long weight) {
+        update(root, normalize(text), 0, -references, -weight);
+    }
+
+    public void bump(String text, long weight) {
+        update(root, normalize(text), 0, 0, weight);
+    }
+
+    public Completion get(String text) {
+        Node node = find(normalize(text), true);
+        return Objects.isNull(node) ? null : node.completion;
+    }
+
+    public void rename(String previousText, String text) {
+        Completion completion = get(previousText);
+        if (Objects.nonNull(completion)) {
+            int references = completion.references;
+            long weight = completion.weight;
+            remove(previousText, references, weight);
+            add(text, references, weight);
+        }
+    }
+
+    public List<Completion> complete(String prefix, int limit) {
+        List<Completion> completions = new ArrayList<>(limit);
+        Node start = find(normalize(prefix), false);
+        if (Objects.isNull(start)) {
+            return completions;
+        }
+        PriorityQueue<Candidate> queue = new PriorityQueue<>();
+        queue.add(new Candidate(start.best, start, null));
+        while (!queue.isEmpty() && completions.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (Objects.nonNull(candidate.completion)) {
+                completions.add(candidate.completion);
+                continue;
+            }
+            Node node = candidate.node;
+            if (Objects.nonNull(node.completion)) {
+                queue.add(new Candidate(node.completion.weight, null, node.completion));
+            }
+            for (Node child : node.children) {
+                queue.add(new Candidate(child.best, child, null));
+            }
+        }
+        return completions;
+    }
+
+    public long estimateBytes() {
+        long bytes = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            bytes += 32 + align(16 + 2L * node.label.length);
+            if (node.children.length > 0) {
+                bytes += align(16 + 4L * node.children.length);
+            }
+            if (Objects.nonNull(node.completion)) {
+                bytes += 32 + 24 + align(16 + node.completion.text.length());
+            }
+            for (Node child : node.children) {
+                stack.push(child);
+            }
+        }
+        return bytes;
+    }
+
+    private void insert(Node node, String key, int offset, String text, int references, long weight) {
+        if (offset == key.length()) {
+            if (Objects.isNull(node.completion)) {
+                node.completion = new Completion(text);
+                size++;
+            }
+            node.completion.references += references;
+            node.completion.weight += weight;
+        } else {
+            int index = node.find(key.charAt(offset));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(offset).toCharArray());
+                leaf.completion = new Completion(text);
+                leaf.completion.references = references;
+                leaf.completion.weight = weight;
+                leaf.best = weight;
+                node.insertChild(-index - 1, leaf);
+                nodeCount++;
+                size++;
+            } else {
+                Node child = node.children[index];
+                int common = commonPrefix(child.label, key, offset);
+                if (common < child.label.length) {
+                    Node split = new Node(Arrays.copyOf(child.label, common));
+                    child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                    split.children = new Node[]{child};
+                    split.best = child.best;
+                    node.children[index] = split;
+                    nodeCount++;
+                    child = split;
+                }
+                insert(child, key, offset + common, text, references, weight);
+            }
+        }
+        node.updateBest();
+    }
+
+    private boolean update(Node node, String key, int offset, int references, long weight) {
+        if (offset == key.length()) {
+            Completion completion = node.completion;
+            if (Objects.isNull(completion) || key.isEmpty()) {
+                return false;
+            }
+            completion.references += references;
+            completion.weight = Math.max(0, completion.weight + weight);
+            if (completion.references <= 0) {
+                node.completion = null;
+                size--;
+            }
+            node.updateBest();
+            return true;
+        }
+        int index = node.find(key.charAt(offset));
+        if (index < 0) {
+            return false;
+        }
+        Node child = node.children[index];
+        int common = commonPrefix(child.label, key, offset);
+        if (common < child.label.length || !update(child, key, offset + common, references, weight)) {
+            return false;
+        }
+        if (Objects.isNull(child.completion) && child.children.length == 0) {
+            node.removeChild(index);
+            nodeCount--;
+        } else if (Objects.isNull(child.completion) && child.children.length == 1) {
+            Node grandchild = child.children[0];
+            char[] label = Arrays.copyOf(child.label, child.label.length + grandchild.label.length);
+            System.arraycopy(grandchild.label, 0, label, child.label.length, grandchild.label.length);
+            grandchild.label = label;
+            node.children[index] = grandchild;
+            nodeCount--;
+        }
+        node.updateBest();
+        return true;
+    }
+
+    private Node find(String key, boolean exact) {
+        Node node = root;
+        int offset = 0;
+        while (offset < key.length()) {
+            int index = node.find(key.charAt(offset));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, offset);
+            if (offset + common == key.length() && (!exact || common == child.label.length)) {
+                return child;
+            }
+            if (common < child.label.length) {
+                return null;
+            }
+            offset += common;
+            node = child;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(char[] label, String key, int offset) {
+        int length = Math.min(label.length, key.length() - offset);
+        int common = 0;
+        while (common < length && label[common] == key.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    @Getter
+    public static class Completion {
+        private final String text;
+        private int references;
+        private long weight;
+
+        private Completion(String text) {
+            this.text = text;
+        }
+    }
+
+    private static class Node {
+        private char[] label;
+        private Node[] children = NO_CHILDREN;
+        private Completion completion;
+        private long best;
+
+        private Node(char[] label) {
+            this.label = label;
+        }
+
+        private int find(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char value = children[middle].label[0];
+                if (value < first) {
+                    low = middle + 1;
+                } else if (value > first) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void insertChild(int index, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, index);
+            grown[index] = child;
+            System.arraycopy(children, index, grown, index + 1, children.length - index);
+            children = grown;
+        }
+
+        private void removeChild(int index) {
+            if (children.length == 1) {
+                children = NO_CHILDREN;
+                return;
+            }
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        private void updateBest() {
+            long value = Objects.isNull(completion) ? -1 : completion.weight;
+            for (Node child : children) {
+                value = Math.max(value, child.best);
+            }
+            best = value;
+        }
+    }
+
+    private static class Candidate implements Comparable<Candidate> {
+        private final long weight;
+        private final Node node;
+        private final Completion completion;
+
+        private Candidate(long weight, Node node, Completion completion) {
+            this.weight = weight;
+            this.node = node;
+            this.completion = completion;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int order = Long.compare(other.weight, weight);
+            if (order == 0) {
+                return Boolean.compare(Objects.isNull(completion), Objects.isNull(other.completion));
+            }
+            return order;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.library.library.service.search;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.FacetDocument;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.LongSummaryStatistics;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+@Slf4j
+@Component
+public class FacetIndex {
+
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    private final BookRepository bookRepo;
+    private final Timer queryTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Facets facets = new Facets();
+    private volatile boolean ready;
+
+    public FacetIndex(BookRepository bookRepo, MeterRegistry meterRegistry) {
+        this.bookRepo = bookRepo;
+        this.queryTimer = Timer.builder("book.facets.latency")
+                .description("Faceted catalog filtering latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("book.facets.documents", this, index -> index.facets.docsByBookId.size())
+                .description("Books held by the facet index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${facet.rebuild.cron:0 45 * * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Facets rebuilt = new Facets();
+        Long afterId = 0L;
+        List<FacetDocument> documents;
+        do {
+            documents = bookRepo.findFacetDocuments(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+            documents.forEach(rebuilt::put);
+            if (!documents.isEmpty()) {
+                afterId = documents.get(documents.size() - 1).getId();
+            }
+        } while (documents.size() == REBUILD_BATCH_SIZE);
+        lock.writeLock().lock();
+        try {
+            facets = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Facet index built with {} books in {} ms", rebuilt.docsByBookId.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getBookId());
+        } else {
+            bookRepo.findFacetDocument(event.getBookId()).ifPresent(this::index);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        LongSummaryStatistics ids = event.getBooks().stream().mapToLong(BookChangedEvent::getBookId).summaryStatistics();
+        if (ids.getCount() == 0) {
+            return;
+        }
+        List<FacetDocument> documents = bookRepo.findFacetDocuments(ids.getMin() - 1,
+                PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, ids.getMax() - ids.getMin() + 1)));
+        lock.writeLock().lock();
+        try {
+            documents.forEach(facets::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCirculation(CirculationEvent event) {
+        CirculationOperation operation = event.getOperation();
+        lock.writeLock().lock();
+        try {
+            Integer doc = facets.docsByBookId.get(event.getBookId());
+            if (Objects.nonNull(doc)) {
+                facets.statuses.set(doc, operation.getTo());
+                if (operation == CirculationOperation.ADD) {
+                    facets.libraries.set(doc, event.getLibraryId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(FacetDocument document) {
+        lock.writeLock().lock();
+        try {
+            facets.put(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long bookId) {
+        lock.writeLock().lock();
+        try {
+            facets.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetResult search(Collection<Genre> genres, Collection<BookStatus> statuses, Integer yearFrom, Integer yearTo,
+                              Long libraryId, long offset, int limit) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            Facets current = facets;
+            CompressedBitmap genreFilter = Objects.isNull(genres) || genres.isEmpty() ? null : current.genres.union(genres::contains);
+            CompressedBitmap statusFilter = Objects.isNull(statuses) || statuses.isEmpty() ? null : current.statuses.union(statuses::contains);
+            CompressedBitmap yearFilter = Objects.isNull(yearFrom) && Objects.isNull(yearTo) ? null : current.years.union(year ->
+                    (Objects.isNull(yearFrom) || year >= yearFrom) && (Objects.isNull(yearTo) || year <= yearTo));
+            CompressedBitmap libraryFilter = Objects.isNull(libraryId) ? null : current.libraries.union(libraryId::equals);
+
+            CompressedBitmap matches = current.intersect(genreFilter, statusFilter, yearFilter, libraryFilter);
+            List<Long> bookIds = new ArrayList<>(limit);
+            long[] position = {0};
+            matches.forEach(doc -> {
+                if (position[0]++ >= offset) {
+                    bookIds.add(current.bookIds[doc]);
+                }
+                return bookIds.size() < limit;
+            });
+            return FacetResult.builder()
+                    .total(matches.cardinality())
+                    .bookIds(bookIds)
+                    .genres(current.genres.count(current.intersect(statusFilter, yearFilter, libraryFilter), current.all))
+                    .statuses(current.statuses.count(current.intersect(genreFilter, yearFilter, libraryFilter), current.all))
+                    .years(new TreeMap<>(current.years.count(current.intersect(genreFilter, statusFilter, libraryFilter), current.all)))
+                    .libraries(current.libraries.count(current.intersect(genreFilter, statusFilter, yearFilter), current.all))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+            queryTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public long estimateBytes() {
+        lock.readLock().lock();
+        try {
+            return facets.estimateBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static class Facets {
+        private final CompressedBitmap all = new CompressedBitmap();
+        private final Dimension<Genre> genres = new Dimension<>();
+        private final Dimension<BookStatus> statuses = new Dimension<>();
+        private final Dimension<Integer> years = new Dimension<>();
+        private final Dimension<Long> libraries = new Dimension<>();
+        private final Map<Long, Integer> docsByBookId = new HashMap<>();
+        private long[] bookIds = new long[1024];
+        private int maxDoc;
+
+        private void put(FacetDocument document) {
+            Integer doc = docsByBookId.get(document.getId());
+            if (Objects.isNull(doc)) {
+                doc = maxDoc++;
+                if (doc == bookIds.length) {
+                    bookIds = Arrays.copyOf(bookIds, doc * 2);
+                }
+                bookIds[doc] = document.getId();
+                docsByBookId.put(document.getId(), doc);
+                all.add(doc);
+            }
+            Integer publicationYear = document.getPublicationYear();
+            genres.set(doc, document.getGenre());
+            statuses.set(doc, document.getStatus());
+            years.set(doc, Objects.nonNull(publicationYear) && publicationYear > 0 ? publicationYear : null);
+            libraries.set(doc, document.getLibraryId());
+        }
+
+        private void remove(long bookId) {
+            Integer doc = docsByBookId.remove(bookId);
+            if (Objects.nonNull(doc)) {
+                genres.set(doc, null);
+                statuses.set(doc, null);
+                years.set(doc, null);
+                libraries.set(doc, null);
+                all.remove(doc);
+            }
+        }
+
+        private CompressedBitmap intersect(CompressedBitmap... filters) {
+            CompressedBitmap result = null;
+            for (CompressedBitmap filter : filters) {
+                if (Objects.nonNull(filter)) {
+                    result = Objects.isNull(result) ? filter : result.and(filter);
+                }
+            }
+            return Objects.isNull(result) ? all : result;
+        }
+
+        private long estimateBytes() {
+            return all.estimateBytes() + 8L * bookIds.length + 64L * docsByBookId.size()
+                    + genres.estimateBytes() + statuses.estimateBytes() + years.estimateBytes() + libraries.estimateBytes();
+        }
+    }
+
+    private static class Dimension<K> {
+        private final Map<K, Integer> ordinals = new HashMap<>();
+        private final List<K> values = new ArrayList<>();
+        private final List<CompressedBitmap> bitmaps = new ArrayList<>();
+        private int[] docOrdinals = new int[1024];
+
+        private void set(int doc, K value) {
+            if (doc >= docOrdinals.length) {
+                docOrdinals = Arrays.copyOf(docOrdinals, Math.max(doc + 1, docOrdinals.length * 2));
+            }
+            int previous = docOrdinals[doc] - 1;
+            if (previous >= 0) {
+                bitmaps.get(previous).remove(doc);
+            }
+            if (Objects.isNull(value)) {
+                docOrdinals[doc] = 0;
+                return;
+            }
+            int ordinal = ordinals.computeIfAbsent(value, key -> {
+                values.add(key);
+                bitmaps.add(new CompressedBitmap());
+                return values.size() - 1;
+            });
+            bitmaps.get(ordinal).add(doc);
+            docOrdinals[doc] = ordinal + 1;
+        }
+
+        private CompressedBitmap union(Predicate<K> selected) {
+            List<CompressedBitmap> union = new ArrayList<>();
+            for (int ordinal = 0; ordinal < values.size(); ordinal++) {
+                if (selected.test(values.get(ordinal))) {
+                    union.add(bitmaps.get(ordinal));
+                }
+            }
+            return CompressedBitmap.or(union);
+        }
+
+        private Map<K, Long> count(CompressedBitmap base, CompressedBitmap all) {
+            long[] counts = new long[values.size()];
+            if (base == all) {
+                for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                    counts[ordinal] = bitmaps.get(ordinal).cardinality();
+                }
+            } else if (base.cardinality() < bitmaps.stream().mapToLong(CompressedBitmap::intersectionCost).sum()) {
+                int[] docOrdinals = this.docOrdinals;
+                base.forEach(doc -> {
+                    int ordinal = docOrdinals[doc] - 1;
+                    if (ordinal >= 0) {
+                        counts[ordinal]++;
+                    }
+                    return true;
+                });
+            } else {
+                for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                    counts[ordinal] = base.andCardinality(bitmaps.get(ordinal));
+                }
+            }
+            Map<K, Long> result = new LinkedHashMap<>();
+            for (int ordinal = 0; ordinal < counts.length; ordinal++) {
+                if (counts[ordinal] > 0) {
+                    result.put(values.get(ordinal), counts[ordinal]);
+                }
+            }
+            return result;
+        }
+
+        private long estimateBytes() {
+            long bytes = 4L * docOrdinals.length + 64L * values.size();
+            for (CompressedBitmap bitmap : bitmaps) {
+                bytes += bitmap.estimateBytes();
+            }
+            return bytes;
+        }
+    }
+}
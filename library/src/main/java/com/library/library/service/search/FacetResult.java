@@ -0,0 +1,20 @@
+package com.library.library.service.search;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Builder
+public class FacetResult {
+    private final long total;
+    private final List<Long> bookIds;
+    private final Map<Genre, Long> genres;
+    private final Map<BookStatus, Long> statuses;
+    private final Map<Integer, Long> years;
+    private final Map<Long, Long> libraries;
+}
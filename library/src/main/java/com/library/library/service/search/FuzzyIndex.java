@@ -0,0 +1,182 @@
+package com.library.library.service.search;
+
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.BooksImportedEvent;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.CompletionWeight;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Slf4j
+@Component
+public class FuzzyIndex {
+
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final BookRepository bookRepo;
+    private final AuthorRepository authorRepo;
+    private final Timer lookupTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<SuggestionType, TrigramIndex> indexes = emptyIndexes();
+    private volatile boolean ready;
+
+    public FuzzyIndex(BookRepository bookRepo, AuthorRepository authorRepo, MeterRegistry meterRegistry) {
+        this.bookRepo = bookRepo;
+        this.authorRepo = authorRepo;
+        this.lookupTimer = Timer.builder("fuzzy.latency")
+                .description("Fuzzy title and author lookup latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("fuzzy.terms", this, FuzzyIndex::size)
+                .description("Titles and author names held by the fuzzy index")
+                .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${fuzzy.rebuild.cron:0 30 * * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Map<SuggestionType, TrigramIndex> rebuilt = emptyIndexes();
+        load(rebuilt.get(SuggestionType.TITLE), bookRepo.findTitleWeights());
+        load(rebuilt.get(SuggestionType.AUTHOR), authorRepo.findAuthorNameWeights());
+        lock.writeLock().lock();
+        try {
+            indexes = rebuilt;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Fuzzy index built with {} terms in {} ms", size(rebuilt), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.isDeleted()) {
+            change(SuggestionType.TITLE, event.getTitle(), null);
+        } else if (!Objects.equals(event.getPreviousTitle(), event.getTitle())) {
+            change(SuggestionType.TITLE, event.getPreviousTitle(), event.getTitle());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksImported(BooksImportedEvent event) {
+        lock.writeLock().lock();
+        try {
+            TrigramIndex titles = indexes.get(SuggestionType.TITLE);
+            event.getBooks().forEach(book -> titles.add(book.getTitle(), 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAuthorChanged(AuthorChangedEvent event) {
+        if (!Objects.equals(event.getPreviousAuthorName(), event.getAuthorName())) {
+            change(SuggestionType.AUTHOR, event.getPreviousAuthorName(), event.getAuthorName());
+        }
+    }
+
+    public List<SuggestionDto> suggest(String query, SuggestionType type, int limit) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            List<SuggestionDto> suggestions = new ArrayList<>();
+            for (Map.Entry<SuggestionType, TrigramIndex> index : indexes.entrySet()) {
+                if (Objects.isNull(type) || type == index.getKey()) {
+                    index.getValue().search(query, limit).forEach(match -> suggestions.add(SuggestionDto.builder()
+                            .text(match.getText())
+                            .type(index.getKey())
+                            .distance(match.getDistance())
+                            .similarity(match.getSimilarity())
+                            .build()));
+                }
+            }
+            if (Objects.isNull(type)) {
+                suggestions.sort(Comparator.comparingInt(SuggestionDto::getDistance)
+                        .thenComparing(Comparator.comparingDouble(SuggestionDto::getSimilarity).reversed()));
+                return suggestions.size() > limit ? new ArrayList<>(suggestions.subList(0, limit)) : suggestions;
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+            lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public long estimateBytes() {
+        lock.readLock().lock();
+        try {
+            return indexes.values().stream().mapToLong(TrigramIndex::estimateBytes).sum();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void change(SuggestionType type, String previousText, String text) {
+        lock.writeLock().lock();
+        try {
+            TrigramIndex index = indexes.get(type);
+            if (Objects.nonNull(previousText)) {
+                index.remove(previousText, 1);
+            }
+            if (Objects.nonNull(text)) {
+                index.add(text, 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private long size() {
+        lock.readLock().lock();
+        try {
+            return size(indexes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void load(TrigramIndex index, List<CompletionWeight> weights) {
+        for (CompletionWeight weight : weights) {
+            index.add(weight.getName(), weight.getWeight().intValue());
+        }
+    }
+
+    private static long size(Map<SuggestionType, TrigramIndex> indexes) {
+        return indexes.values().stream().mapToLong(TrigramIndex::size).sum();
+    }
+
+    private static Map<SuggestionType, TrigramIndex> emptyIndexes() {
+        Map<SuggestionType, TrigramIndex> indexes = new EnumMap<>(SuggestionType.class);
+        for (SuggestionType type : SuggestionType.values()) {
+            indexes.put(type, new TrigramIndex(MIN_SIMILARITY));
+        }
+        return indexes;
+    }
+}
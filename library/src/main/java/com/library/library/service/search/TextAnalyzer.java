@@ -0,0 +1,64 @@
+package com.library.library.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "he", "in", "is", "it",
+            "its", "of", "on", "or", "she", "that", "the", "their", "they", "this", "to", "was", "were", "will", "with"));
+
+    private TextAnalyzer() {
+    }
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (Objects.isNull(text)) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                String token = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    terms.add(stem(token));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    static String stem(String token) {
+        int length = token.length();
+        if (length > 4 && token.endsWith("ies") && !token.endsWith("eies") && !token.endsWith("aies")) {
+            return token.substring(0, length - 3) + "y";
+        }
+        if (length > 4 && (token.endsWith("sses") || token.endsWith("ches") || token.endsWith("shes") || token.endsWith("xes"))) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 3 && token.endsWith("s") && !token.endsWith("ss") && !token.endsWith("us") && !token.endsWith("is")) {
+            token = token.substring(0, length - 1);
+            length--;
+        }
+        if (length > 5 && token.endsWith("ing")) {
+            return token.substring(0, length - 3);
+        }
+        if (length > 4 && token.endsWith("ed")) {
+            return token.substring(0, length - 2);
+        }
+        if (length > 4 && token.endsWith("ly")) {
+            return token.substring(0, length - 2);
+        }
+        return token;
+    }
+}
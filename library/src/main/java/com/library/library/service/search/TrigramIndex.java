@@ -0,0 +1,348 @@
+package com.library.library.service.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class TrigramIndex {
+
+    private static final int MIN_COMPACTION = 1024;
+    private static final int MAX_EDITS = 2;
+    private static final int GRAMS_PER_EDIT = 4;
+    private static final int SEED_SLACK = 3;
+    private static final int PROBE_COST = 16;
+    private static final int RERANK_FACTOR = 8;
+    private static final int MIN_RERANK = 32;
+
+    private final double minSimilarity;
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private String[] texts = new String[1024];
+    private String[] keys = new String[1024];
+    private int[] references = new int[1024];
+    private int[] gramCounts = new int[1024];
+    private int termCount;
+    private int live;
+
+    public TrigramIndex(double minSimilarity) {
+        this.minSimilarity = minSimilarity;
+    }
+
+    public static String normalize(String text) {
+        if (Objects.isNull(text)) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(Character.toLowerCase(c));
+            } else {
+                space = key.length() > 0;
+            }
+        }
+        return key.toString();
+    }
+
+    public static long[] trigrams(String key) {
+        long[] grams = new long[key.length() * 3 + 3];
+        int count = 0;
+        int start = 0;
+        while (start < key.length()) {
+            int end = key.indexOf(' ', start);
+            if (end < 0) {
+                end = key.length();
+            }
+            char previous2 = ' ';
+            char previous1 = ' ';
+            for (int i = start; i <= end; i++) {
+                char c = i < end ? key.charAt(i) : ' ';
+                grams[count++] = ((long) previous2 << 32) | ((long) previous1 << 16) | c;
+                previous2 = previous1;
+                previous1 = c;
+            }
+            start = end + 1;
+        }
+        long[] distinct = Arrays.copyOf(grams, count);
+        Arrays.sort(distinct);
+        int size = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) {
+                distinct[size++] = distinct[i];
+            }
+        }
+        return Arrays.copyOf(distinct, size);
+    }
+
+    public static int editDistance(String a, String b) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previous2[j - 2] + 1);
+                }
+                current[j] = distance;
+            }
+            int[] rotated = previous2;
+            previous2 = previous;
+            previous = current;
+            current = rotated;
+        }
+        return previous[b.length()];
+    }
+
+    public int size() {
+        return live;
+    }
+
+    public int gramCount() {
+        return postings.size();
+    }
+
+    public void add(String text, int count) {
+        if (count <= 0) {
+            return;
+        }
+        Integer id = termIds.get(text);
+        if (Objects.nonNull(id)) {
+            if (references[id] == 0) {
+                live++;
+            }
+            references[id] += count;
+            return;
+        }
+        String key = normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        int termId = termCount++;
+        if (termId == texts.length) {
+            int capacity = termId * 2;
+            texts = Arrays.copyOf(texts, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            references = Arrays.copyOf(references, capacity);
+            gramCounts = Arrays.copyOf(gramCounts, capacity);
+        }
+        long[] grams = trigrams(key);
+        texts[termId] = text;
+        keys[termId] = key;
+        references[termId] = count;
+        gramCounts[termId] = grams.length;
+        termIds.put(text, termId);
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, g -> new Postings()).add(termId);
+        }
+        live++;
+    }
+
+    public void remove(String text, int count) {
+        Integer id = termIds.get(text);
+        if (Objects.isNull(id) || references[id] == 0) {
+            return;
+        }
+        references[id] = Math.max(0, references[id] - count);
+        if (references[id] == 0) {
+            live--;
+            if (termCount - live > MIN_COMPACTION && termCount - live > live) {
+                compact();
+            }
+        }
+    }
+
+    public List<FuzzyMatch> search(String query, int limit) {
+        String key = normalize(query);
+        if (key.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        long[] grams = trigrams(key);
+        Postings[] lists = new Postings[grams.length];
+        int found = 0;
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (Objects.nonNull(list)) {
+                lists[found++] = list;
+            }
+        }
+        int required = Math.max(1, (int) Math.ceil(grams.length * minSimilarity));
+        required = Math.max(required, grams.length - MAX_EDITS * GRAMS_PER_EDIT);
+        if (found < required) {
+            return new ArrayList<>();
+        }
+        lists = Arrays.copyOf(lists, found);
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+        Scratch work = scratch.get();
+        work.reset(termCount);
+        short[] overlaps = work.overlaps;
+        int seeding = Math.min(found, found - required + 1 + SEED_SLACK);
+        for (int l = 0; l < seeding; l++) {
+            Postings list = lists[l];
+            for (int i = 0; i < list.size; i++) {
+                int id = list.ids[i];
+                if (overlaps[id]++ == 0) {
+                    work.touch(id);
+                }
+            }
+        }
+
+        int minSeed = required - (found - seeding);
+        int[] candidates = new int[16];
+        int candidateCount = 0;
+        for (int t = 0; t < work.touchedCount; t++) {
+            int id = work.touched[t];
+            if (overlaps[id] < minSeed || references[id] == 0) {
+                overlaps[id] = 0;
+            } else {
+                if (candidateCount == candidates.length) {
+                    candidates = Arrays.copyOf(candidates, candidateCount * 2);
+                }
+                candidates[candidateCount++] = id;
+            }
+        }
+        for (int l = seeding; l < found && candidateCount > 0; l++) {
+            Postings list = lists[l];
+            if ((long) candidateCount * PROBE_COST > list.size) {
+                for (int i = 0; i < list.size; i++) {
+                    int id = list.ids[i];
+                    if (overlaps[id] > 0) {
+                        overlaps[id]++;
+                    }
+                }
+            } else {
+                for (int c = 0; c < candidateCount; c++) {
+                    if (Arrays.binarySearch(list.ids, 0, list.size, candidates[c]) >= 0) {
+                        overlaps[candidates[c]]++;
+                    }
+                }
+            }
+            int remaining = found - l - 1;
+            int kept = 0;
+            for (int c = 0; c < candidateCount; c++) {
+                int id = candidates[c];
+                if (overlaps[id] + remaining >= required) {
+                    candidates[kept++] = id;
+                } else {
+                    overlaps[id] = 0;
+                }
+            }
+            candidateCount = kept;
+        }
+
+        List<FuzzyMatch> matches = new ArrayList<>();
+        for (int c = 0; c < candidateCount; c++) {
+            int id = candidates[c];
+            int overlap = overlaps[id];
+            double similarity = (double) overlap / (grams.length + gramCounts[id] - overlap);
+            if (similarity >= minSimilarity) {
+                matches.add(new FuzzyMatch(texts[id], -1, similarity, references[id]));
+            }
+        }
+        matches.sort(Comparator.comparingDouble(FuzzyMatch::getSimilarity).reversed());
+        List<FuzzyMatch> reranked = new ArrayList<>();
+        for (FuzzyMatch match : matches.subList(0, Math.min(matches.size(), Math.max(MIN_RERANK, limit * RERANK_FACTOR)))) {
+            reranked.add(new FuzzyMatch(match.text, editDistance(key, normalize(match.text)), match.similarity, match.references));
+        }
+        reranked.sort(Comparator.comparingInt(FuzzyMatch::getDistance)
+                .thenComparing(Comparator.comparingDouble(FuzzyMatch::getSimilarity).reversed())
+                .thenComparing(Comparator.comparingInt(FuzzyMatch::getReferences).reversed())
+                .thenComparing(FuzzyMatch::getText));
+        return reranked.size() > limit ? new ArrayList<>(reranked.subList(0, limit)) : reranked;
+    }
+
+    public long estimateBytes() {
+        long bytes = 16L * texts.length + 8L * references.length + 4L * gramCounts.length + 64L * termIds.size() + 64L * postings.size();
+        for (int id = 0; id < termCount; id++) {
+            bytes += 2L * keys[id].length() + (keys[id].equals(texts[id]) ? 0 : 2L * texts[id].length());
+        }
+        for (Postings list : postings.values()) {
+            bytes += 4L * list.ids.length;
+        }
+        return bytes;
+    }
+
+    private void compact() {
+        List<String> liveTexts = new ArrayList<>(live);
+        List<Integer> liveReferences = new ArrayList<>(live);
+        for (int id = 0; id < termCount; id++) {
+            if (references[id] > 0) {
+                liveTexts.add(texts[id]);
+                liveReferences.add(references[id]);
+            }
+        }
+        termIds.clear();
+        postings.clear();
+        termCount = 0;
+        live = 0;
+        for (int i = 0; i < liveTexts.size(); i++) {
+            add(liveTexts.get(i), liveReferences.get(i));
+        }
+    }
+
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static class FuzzyMatch {
+        private final String text;
+        private final int distance;
+        private final double similarity;
+        private final int references;
+    }
+
+    private static class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static class Scratch {
+        private short[] overlaps = new short[0];
+        private int[] touched = new int[1024];
+        private int touchedCount;
+
+        private void reset(int capacity) {
+            if (overlaps.length < capacity) {
+                overlaps = new short[Math.max(capacity, overlaps.length * 2)];
+            } else {
+                for (int t = 0; t < touchedCount; t++) {
+                    overlaps[touched[t]] = 0;
+                }
+            }
+            touchedCount = 0;
+        }
+
+        private void touch(int id) {
+            if (touchedCount == touched.length) {
+                touched = Arrays.copyOf(touched, touchedCount * 2);
+            }
+            touched[touchedCount++] = id;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.library.library.service.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AccessToken {
+
+    public enum Type {
+        ACCESS, REFRESH
+    }
+
+    private final Type type;
+    private final long id;
+    private final Long userId;
+    private final String username;
+    private final List<String> authorities;
+    private final long issuedAt;
+    private final long expiresAt;
+}
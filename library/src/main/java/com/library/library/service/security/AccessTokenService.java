@@ -0,0 +1,262 @@
+package com.library.library.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.exception.InvalidTokenException;
+import com.library.library.service.impl.UserDetailsServiceImpl;
+import com.library.library.service.model.MyUserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class AccessTokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String HMAC = "HmacSHA256";
+    private static final byte VERSION = 1;
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final SecretKeySpec secret;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::mac);
+    private final SecureRandom random = new SecureRandom();
+    private final long accessTtlMillis;
+    private final long refreshTtlMillis;
+    private final Cache<Long, Long> revokedTokens;
+    private final Cache<Long, Long> revokedUsers;
+
+    public AccessTokenService(UserDetailsServiceImpl userDetailsService,
+                              @Value("${auth.token.secret:}") String secret,
+                              @Value("${auth.token.access.ttl.seconds:900}") long accessTtlSeconds,
+                              @Value("${auth.token.refresh.ttl.seconds:86400}") long refreshTtlSeconds) {
+        this.userDetailsService = userDetailsService;
+        byte[] key;
+        if (secret.isEmpty()) {
+            key = new byte[32];
+            random.nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.secret = new SecretKeySpec(key, HMAC);
+        this.accessTtlMillis = TimeUnit.SECONDS.toMillis(accessTtlSeconds);
+        this.refreshTtlMillis = TimeUnit.SECONDS.toMillis(refreshTtlSeconds);
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfter(new UntilTokenExpires())
+                .build();
+        this.revokedUsers = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(Math.max(accessTtlMillis, refreshTtlMillis)))
+                .build();
+    }
+
+    public TokenPair issue(Authentication authentication) {
+        Long userId = authentication.getPrincipal() instanceof MyUserPrincipal
+                ? ((MyUserPrincipal) authentication.getPrincipal()).getId()
+                : null;
+        TokenPair token = issue(userId, authentication.getName(), authorities(authentication.getAuthorities()));
+        log.info("Issued access token for {}", authentication.getName());
+        return token;
+    }
+
+    public TokenPair refresh(String refreshToken) {
+        AccessToken token = verify(refreshToken, AccessToken.Type.REFRESH);
+        if (Objects.nonNull(revokedTokens.asMap().putIfAbsent(token.getId(), token.getExpiresAt()))) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+        if (Objects.isNull(token.getUserId())) {
+            return issue(null, token.getUsername(), token.getAuthorities());
+        }
+        MyUserPrincipal user = reload(token);
+        return issue(user.getId(), user.getUsername(), authorities(user.getAuthorities()));
+    }
+
+    public AccessToken verify(String value, AccessToken.Type type) {
+        AccessToken token = decode(value);
+        if (token.getType() != type) {
+            throw new InvalidTokenException("Token is not an " + type.toString().toLowerCase() + " token");
+        }
+        if (token.getExpiresAt() <= System.currentTimeMillis()) {
+            throw new InvalidTokenException("Token has expired");
+        }
+        Long revokedBefore = Objects.isNull(token.getUserId()) ? null : revokedUsers.getIfPresent(token.getUserId());
+        if (Objects.nonNull(revokedTokens.getIfPresent(token.getId()))
+                || (Objects.nonNull(revokedBefore) && token.getIssuedAt() <= revokedBefore)) {
+            throw new InvalidTokenException("Token has been revoked");
+        }
+        return token;
+    }
+
+    public void revoke(String value) {
+        revoke(decode(value));
+    }
+
+    public void revoke(AccessToken token) {
+        revokedTokens.put(token.getId(), token.getExpiresAt());
+        log.info("Revoked {} token of {}", token.getType(), token.getUsername());
+    }
+
+    public void revokeUsers(Iterable<Long> userIds) {
+        long now = System.currentTimeMillis();
+        userIds.forEach(userId -> revokedUsers.put(userId, now));
+        log.info("Revoked tokens of users with ids {}", userIds);
+    }
+
+    public long revokedSize() {
+        return revokedTokens.estimatedSize() + revokedUsers.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        revokeUsers(event.getUserIds());
+    }
+
+    private MyUserPrincipal reload(AccessToken token) {
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(token.getUsername());
+        } catch (UsernameNotFoundException e) {
+            log.info("Refresh rejected, account of {} no longer exists", token.getUsername());
+            throw new InvalidTokenException("Account no longer exists");
+        }
+        if (!(user instanceof MyUserPrincipal) || !token.getUserId().equals(((MyUserPrincipal) user).getId())) {
+            log.info("Refresh rejected, account of {} no longer exists", token.getUsername());
+            throw new InvalidTokenException("Account no longer exists");
+        }
+        if (!user.isAccountNonLocked()) {
+            log.info("Refresh rejected, account of {} is locked", token.getUsername());
+            throw new InvalidTokenException("Account is locked");
+        }
+        return (MyUserPrincipal) user;
+    }
+
+    private static List<String> authorities(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+    }
+
+    private TokenPair issue(Long userId, String username, List<String> authorities) {
+        long now = System.currentTimeMillis();
+        AccessToken access = new AccessToken(AccessToken.Type.ACCESS, random.nextLong(), userId, username, authorities,
+                now, now + accessTtlMillis);
+        AccessToken refresh = new AccessToken(AccessToken.Type.REFRESH, random.nextLong(), userId, username, authorities,
+                now, now + refreshTtlMillis);
+        return new TokenPair(encode(access), encode(refresh), TimeUnit.MILLISECONDS.toSeconds(accessTtlMillis));
+    }
+
+    private String encode(AccessToken token) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(token.getType().ordinal());
+            out.writeLong(token.getId());
+            out.writeLong(Objects.isNull(token.getUserId()) ? -1 : token.getUserId());
+            out.writeLong(token.getIssuedAt());
+            out.writeLong(token.getExpiresAt());
+            out.writeUTF(token.getUsername());
+            out.writeUTF(String.join(",", token.getAuthorities()));
+        } catch (IOException e) {
+            throw new IllegalStateException("Token could not be encoded", e);
+        }
+        byte[] payload = bytes.toByteArray();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload) + "." + encoder.encodeToString(sign(payload));
+    }
+
+    private AccessToken decode(String value) {
+        int dot = Objects.isNull(value) ? -1 : value.indexOf('.');
+        if (dot < 0) {
+            throw new InvalidTokenException("Token is malformed");
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(value.substring(0, dot));
+            signature = decoder.decode(value.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTokenException("Token is malformed");
+        }
+        if (!MessageDigest.isEqual(sign(payload), signature)) {
+            throw new InvalidTokenException("Token signature is invalid");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            if (in.readByte() != VERSION) {
+                throw new InvalidTokenException("Token version is not supported");
+            }
+            AccessToken.Type type = AccessToken.Type.values()[in.readByte()];
+            long id = in.readLong();
+            long userId = in.readLong();
+            long issuedAt = in.readLong();
+            long expiresAt = in.readLong();
+            String username = in.readUTF();
+            String authorities = in.readUTF();
+            return new AccessToken(type, id, userId < 0 ? null : userId, username,
+                    authorities.isEmpty() ? Collections.emptyList() : Arrays.asList(authorities.split(",")),
+                    issuedAt, expiresAt);
+        } catch (IOException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidTokenException("Token is malformed");
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private Mac mac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<Long, Long> {
+
+        @Override
+        public long expireAfterCreate(Long id, Long expiresAt, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiresAt - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(Long id, Long expiresAt, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, expiresAt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long id, Long expiresAt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.library.library.service.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.model.MyUserPrincipal;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class AuthenticationCache {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Cache<String, Authentication> authentications;
+    private final Map<Long, Set<String>> keysByUserId = new ConcurrentHashMap<>();
+    private final SecretKeySpec secret;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::mac);
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthenticationCache(MeterRegistry meterRegistry,
+                               @Value("${auth.cache.ttl.seconds:300}") long ttlSeconds,
+                               @Value("${auth.cache.max.size:10000}") long maxSize) {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secret = new SecretKeySpec(key, HMAC);
+        this.authentications = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .executor(Runnable::run)
+                .<String, Authentication>removalListener((cacheKey, authentication, cause) -> unindex(cacheKey, authentication))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authentications, "authentication");
+    }
+
+    public String key(String username, String password) {
+        Mac mac = macs.get();
+        mac.update(username.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public Authentication get(String key) {
+        return authentications.getIfPresent(key);
+    }
+
+    public void put(String key, Authentication authentication, long generation) {
+        authentications.put(key, authentication);
+        Long userId = userId(authentication);
+        if (Objects.nonNull(userId)) {
+            keysByUserId.compute(userId, (id, keys) -> {
+                Set<String> indexed = Objects.isNull(keys) ? new HashSet<>() : keys;
+                indexed.add(key);
+                return indexed;
+            });
+        }
+        if (this.generation.get() != generation) {
+            authentications.invalidate(key);
+        }
+    }
+
+    public void evict(Collection<Long> userIds) {
+        generation.incrementAndGet();
+        for (Long userId : userIds) {
+            Set<String> keys = keysByUserId.remove(userId);
+            if (Objects.nonNull(keys)) {
+                authentications.invalidateAll(keys);
+            }
+        }
+        log.info("Authentication cache evicted users with ids {}", userIds);
+    }
+
+    public long size() {
+        return authentications.estimatedSize();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAccountChanged(AccountChangedEvent event) {
+        evict(event.getUserIds());
+    }
+
+    private void unindex(String key, Authentication authentication) {
+        Long removedId = userId(authentication);
+        if (Objects.isNull(key) || Objects.isNull(removedId)) {
+            return;
+        }
+        keysByUserId.computeIfPresent(removedId, (id, keys) -> {
+            if (!removedId.equals(userId(authentications.asMap().get(key)))) {
+                keys.remove(key);
+            }
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static Long userId(Authentication authentication) {
+        return Objects.nonNull(authentication) && authentication.getPrincipal() instanceof MyUserPrincipal
+                ? ((MyUserPrincipal) authentication.getPrincipal()).getId()
+                : null;
+    }
+
+    private Mac mac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC);
+            mac.init(secret);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.library.service.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Objects;
+
+@RequiredArgsConstructor
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) {
+        if (Objects.isNull(authentication.getCredentials())) {
+            return delegate.authenticate(authentication);
+        }
+        String key = cache.key(authentication.getName(), authentication.getCredentials().toString());
+        Authentication cached = cache.get(key);
+        if (Objects.nonNull(cached)) {
+            UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(cached.getPrincipal(), null,
+                    cached.getAuthorities());
+            result.setDetails(authentication.getDetails());
+            return result;
+        }
+        long generation = cache.generation();
+        Authentication result = delegate.authenticate(authentication);
+        if (Objects.nonNull(result) && result.isAuthenticated()) {
+            cache.put(key, result, generation);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
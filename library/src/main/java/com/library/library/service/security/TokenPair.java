@@ -0,0 +1,13 @@
+package com.library.library.service.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TokenPair {
+
+    private final String accessToken;
+    private final String refreshToken;
+    private final long expiresInSeconds;
+}
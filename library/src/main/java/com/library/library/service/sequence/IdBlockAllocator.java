@@ -0,0 +1,49 @@
+package com.library.library.service.sequence;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+import java.util.stream.LongStream;
+
+@Slf4j
+@Component
+public class IdBlockAllocator {
+
+    private static final String SEQUENCE = "hibernate_sequence";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean sequence;
+
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sequence = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect().supportsSequences();
+    }
+
+    public long[] allocate(int count) {
+        if (count <= 0) {
+            return new long[0];
+        }
+        if (sequence) {
+            return jdbcTemplate.queryForList("select next value for " + SEQUENCE + " from system_range(1, ?)", Long.class, count)
+                    .stream().mapToLong(Long::longValue).toArray();
+        }
+        Long first = transactionTemplate.execute(status -> {
+            Long next = jdbcTemplate.queryForObject("select next_val from " + SEQUENCE + " for update", Long.class);
+            jdbcTemplate.update("update " + SEQUENCE + " set next_val = ?", Objects.requireNonNull(next) + count);
+            return next;
+        });
+        log.debug("Allocated ids {} to {}", first, first + count - 1);
+        return LongStream.range(first, first + count).toArray();
+    }
+}
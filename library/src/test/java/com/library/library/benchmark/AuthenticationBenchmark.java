@@ -0,0 +1,171 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@Slf4j
+@Tag("benchmark")
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:authentication;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.library=WARN",
+        "logging.level.org.springframework.orm.jpa=WARN",
+        "logging.level.org.springframework.transaction=WARN",
+        "journal.dir=target/benchmark/journal"
+})
+public class AuthenticationBenchmark {
+
+    private static final String PASSWORD = "benchPass1";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${auth.cache.enabled:true}")
+    private boolean cacheEnabled;
+    @Value("${benchmark.threads:8}")
+    private int threads;
+    @Value("${benchmark.warmup.seconds:5}")
+    private int warmupSeconds;
+    @Value("${benchmark.duration.seconds:20}")
+    private int durationSeconds;
+    @Value("${benchmark.label:local}")
+    private String label;
+    @Value("${benchmark.output.dir:target/benchmark}")
+    private String outputDir;
+
+    @Test
+    void authenticatedRequests() throws Exception {
+        List<String> emails = seedUsers();
+
+        run(emails, TimeUnit.SECONDS.toNanos(warmupSeconds));
+        long duration = TimeUnit.SECONDS.toNanos(durationSeconds);
+        long cpuStart = processCpuNanos();
+        OperationStats stats = run(emails, duration);
+        long cpuNanos = processCpuNanos() - cpuStart;
+
+        String mode = cacheEnabled ? "cached" : "uncached";
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "authentication");
+        result.put("label", label);
+        result.put("mode", mode);
+        result.put("timestamp", Instant.now().toString());
+        result.put("threads", threads);
+        result.put("durationSeconds", durationSeconds);
+        result.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        result.put("cpuMillis", cpuNanos / 1_000_000);
+        result.put("cpuMicrosPerRequest", stats.getCompleted() == 0 ? 0 : cpuNanos / 1e3 / stats.getCompleted());
+        result.put("requests", stats.report(duration));
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("authentication-" + mode + "-" + label + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Authentication benchmark result written to {}", file.toAbsolutePath());
+
+        assertEquals(0, stats.getErrors());
+    }
+
+    private OperationStats run(List<String> emails, long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OperationStats>> futures = new ArrayList<>();
+        try {
+            for (String email : emails) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return requests(email, System.nanoTime() + durationNanos);
+                }));
+            }
+            start.countDown();
+            OperationStats total = new OperationStats();
+            for (Future<OperationStats> future : futures) {
+                total.merge(future.get());
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private OperationStats requests(String email, long deadline) {
+        OperationStats stats = new OperationStats();
+        while (System.nanoTime() < deadline) {
+            long start = System.nanoTime();
+            try {
+                int status = mockMvc.perform(get("/users/{email}", email).with(httpBasic(email, PASSWORD)))
+                        .andReturn().getResponse().getStatus();
+                if (status == 200) {
+                    stats.completed(System.nanoTime() - start, 0);
+                } else {
+                    stats.error();
+                }
+            } catch (Exception e) {
+                stats.error();
+                log.error("Benchmark request failed", e);
+            }
+        }
+        return stats;
+    }
+
+    private List<String> seedUsers() {
+        String password = passwordEncoder.encode(PASSWORD);
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            users.add(User.builder()
+                    .firstName("Bench")
+                    .lastName("User")
+                    .email("bench" + i + "@test.com")
+                    .password(password)
+                    .role(Role.USER)
+                    .isAccountNonLocked(true)
+                    .build());
+        }
+        List<String> emails = new ArrayList<>();
+        userRepository.saveAll(users).forEach(user -> emails.add(user.getEmail()));
+        return emails;
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getProcessCpuTime();
+    }
+}
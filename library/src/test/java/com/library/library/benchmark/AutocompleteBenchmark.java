@@ -0,0 +1,112 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.service.search.CompletionTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+public class AutocompleteBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ru", "sa", "ti", "vo", "ze", "an", "bel", "cor",
+            "dra", "en", "fal", "gor", "har", "is", "jun", "kev", "lum", "mor", "nor", "os", "pel", "quin", "ros", "sel"};
+
+    private final int keys = Integer.getInteger("benchmark.autocomplete.keys", 1_000_000);
+    private final int lookups = Integer.getInteger("benchmark.autocomplete.lookups", 50_000);
+    private final int limit = Integer.getInteger("benchmark.autocomplete.limit", 10);
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void completeMillionKeys() throws Exception {
+        Random random = new Random(42);
+        String[] texts = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            texts[i] = text(random, i);
+        }
+        long heapBefore = usedHeap();
+        CompletionTrie trie = new CompletionTrie();
+        long buildStart = System.nanoTime();
+        for (String text : texts) {
+            trie.add(text, 1, (long) Math.exp(random.nextDouble() * Math.log(100_000)));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        long heapBytes = usedHeap() - heapBefore;
+
+        for (int i = 0; i < lookups / 10; i++) {
+            trie.complete(prefix(random, texts), limit);
+        }
+        long[] latencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String prefix = prefix(random, texts);
+            long start = System.nanoTime();
+            trie.complete(prefix, limit);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        long estimatedBytes = trie.estimateBytes();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "autocomplete");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("keys", trie.size());
+        result.put("nodes", trie.nodeCount());
+        result.put("buildMillis", buildMillis);
+        result.put("estimatedBytesPerMillionKeys", estimatedBytes * 1_000_000 / trie.size());
+        result.put("heapBytesPerMillionKeys", heapBytes * 1_000_000 / trie.size());
+        result.put("lookups", lookups);
+        result.put("p50Micros", latencies[lookups / 2] / 1e3);
+        result.put("p99Micros", latencies[(int) (lookups * 0.99)] / 1e3);
+        result.put("p999Micros", latencies[(int) (lookups * 0.999)] / 1e3);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("autocomplete-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Autocomplete benchmark result written to {}", file.toAbsolutePath());
+
+        assertTrue(trie.size() > 0);
+    }
+
+    private String text(Random random, int serial) {
+        StringBuilder text = new StringBuilder();
+        int words = 1 + random.nextInt(4);
+        for (int word = 0; word < words; word++) {
+            if (word > 0) {
+                text.append(' ');
+            }
+            int syllables = 1 + random.nextInt(3);
+            for (int i = 0; i < syllables; i++) {
+                text.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (word == 0) {
+                text.setCharAt(0, Character.toUpperCase(text.charAt(0)));
+            }
+        }
+        return text.append(' ').append(serial % 1000).toString();
+    }
+
+    private String prefix(Random random, String[] texts) {
+        String text = texts[random.nextInt(texts.length)];
+        return text.substring(0, Math.min(text.length(), 1 + random.nextInt(6)));
+    }
+
+    private long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
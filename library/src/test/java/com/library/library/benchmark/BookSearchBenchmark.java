@@ -0,0 +1,85 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.SearchIndexReportDto;
+import com.library.library.service.search.BookSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+public class BookSearchBenchmark {
+
+    private final int books = Integer.getInteger("benchmark.search.books", 1_000_000);
+    private final int vocabulary = Integer.getInteger("benchmark.search.vocabulary", 50_000);
+    private final int descriptionWords = Integer.getInteger("benchmark.search.description.words", 12);
+    private final int queries = Integer.getInteger("benchmark.search.queries", 20_000);
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void searchMillionBookCatalog() throws Exception {
+        Random random = new Random(42);
+        BookSearchIndex index = new BookSearchIndex(null, new SimpleMeterRegistry());
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= books; id++) {
+            index.index(id, text(random, 3), text(random, descriptionWords));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < queries / 10; i++) {
+            index.search(text(random, 1 + random.nextInt(3)), 20);
+        }
+        long[] latencies = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            String query = text(random, 1 + random.nextInt(3));
+            long start = System.nanoTime();
+            index.search(query, 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        SearchIndexReportDto report = index.report();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "search");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("books", books);
+        result.put("vocabulary", vocabulary);
+        result.put("buildMillis", buildMillis);
+        result.put("queries", queries);
+        result.put("p50Micros", latencies[queries / 2] / 1e3);
+        result.put("p99Micros", latencies[(int) (queries * 0.99)] / 1e3);
+        result.put("p999Micros", latencies[(int) (queries * 0.999)] / 1e3);
+        result.put("terms", report.getTerms());
+        result.put("postings", report.getPostings());
+        result.put("estimatedBytes", report.getEstimatedBytes());
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("search-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Search benchmark result written to {}", file.toAbsolutePath());
+
+        assertTrue(report.getDocuments() == books);
+    }
+
+    private String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int word = (int) Math.exp(random.nextDouble() * Math.log(vocabulary)) - 1;
+            text.append('w').append(word).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,265 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.LibraryService;
+import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.exception.BorrowedException;
+import com.library.library.service.exception.ReservedException;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.library.library.benchmark.StatementCounter",
+        "logging.level.root=WARN",
+        "logging.level.com.library=WARN",
+        "logging.level.com.library.library.service.impl=OFF",
+        "logging.level.org.springframework.orm.jpa=WARN",
+        "logging.level.org.springframework.transaction=WARN",
+        "journal.dir=target/benchmark/journal",
+        "reservation.expiry.delay.ms=3600000"
+})
+public class CirculationBenchmark {
+
+    private static final String BESTSELLER = "BESTSELLER";
+    private static final String DOUBLE_ALLOCATIONS = "select count(*) from (select book_id from reserved group by book_id having count(*) > 1 " +
+            "union all select book_id from borrowed group by book_id having count(*) > 1 " +
+            "union all select r.book_id from reserved r join borrowed b on b.book_id = r.book_id) d";
+    private static final String LOST_UPDATES = "select count(*) from book k where " +
+            "(k.status = ? and not exists (select 1 from reserved r where r.book_id = k.id)) or " +
+            "(k.status = ? and not exists (select 1 from borrowed b where b.book_id = k.id)) or " +
+            "(k.status = ? and (exists (select 1 from reserved r where r.book_id = k.id) or exists (select 1 from borrowed b where b.book_id = k.id)))";
+
+    private enum Operation {RESERVE, BORROW, RETURN}
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${benchmark.libraries:4}")
+    private int libraries;
+    @Value("${benchmark.titles:20}")
+    private int titles;
+    @Value("${benchmark.copies:2}")
+    private int copies;
+    @Value("${benchmark.threads:32}")
+    private int threads;
+    @Value("${benchmark.warmup.seconds:5}")
+    private int warmupSeconds;
+    @Value("${benchmark.duration.seconds:30}")
+    private int durationSeconds;
+    @Value("${benchmark.hot.ratio:0.8}")
+    private double hotRatio;
+    @Value("${benchmark.label:local}")
+    private String label;
+    @Value("${benchmark.output.dir:target/benchmark}")
+    private String outputDir;
+
+    @Test
+    void reserveBorrowReturnCycle() throws Exception {
+        List<String> libraryNames = seedLibraries();
+        List<String> emails = seedUsers();
+        availabilityIndex.rebuild();
+
+        run(libraryNames, emails, TimeUnit.SECONDS.toNanos(warmupSeconds));
+        long duration = TimeUnit.SECONDS.toNanos(durationSeconds);
+        Map<Operation, OperationStats> stats = run(libraryNames, emails, duration);
+
+        long doubleAllocations = jdbcTemplate.queryForObject(DOUBLE_ALLOCATIONS, Long.class);
+        long lostUpdates = jdbcTemplate.queryForObject(LOST_UPDATES, Long.class,
+                BookStatus.RESERVED.name(), BookStatus.BORROWED.name(), BookStatus.AVAILABLE.name());
+        Path result = writeResult(stats, duration, doubleAllocations, lostUpdates);
+        log.warn("Circulation benchmark result written to {}", result.toAbsolutePath());
+
+        assertEquals(0, doubleAllocations);
+        assertEquals(0, lostUpdates);
+        assertEquals(0, stats.values().stream().mapToLong(OperationStats::getErrors).sum());
+    }
+
+    private Map<Operation, OperationStats> run(List<String> libraryNames, List<String> emails, long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<Operation, OperationStats>>> futures = new ArrayList<>();
+        try {
+            for (String email : emails) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cycle(email, libraryNames, System.nanoTime() + durationNanos);
+                }));
+            }
+            start.countDown();
+            Map<Operation, OperationStats> total = stats();
+            for (Future<Map<Operation, OperationStats>> future : futures) {
+                future.get().forEach((operation, stats) -> total.get(operation).merge(stats));
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Map<Operation, OperationStats> cycle(String email, List<String> libraryNames, long deadline) {
+        Map<Operation, OperationStats> stats = stats();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            String libraryName = libraryNames.get(random.nextInt(libraryNames.size()));
+            String title = random.nextDouble() < hotRatio ? BESTSELLER : title(1 + random.nextInt(titles - 1));
+            if (!execute(stats.get(Operation.RESERVE), () -> libraryService.reserveBook(title, email, libraryName))) {
+                continue;
+            }
+            if (!execute(stats.get(Operation.BORROW), () -> libraryService.borrowBook(title, email, libraryName))
+                    || !execute(stats.get(Operation.RETURN), () -> libraryService.returnBook(title, email, libraryName))) {
+                break;
+            }
+        }
+        return stats;
+    }
+
+    private boolean execute(OperationStats stats, Runnable operation) {
+        StatementCounter.reset();
+        long start = System.nanoTime();
+        try {
+            operation.run();
+            stats.completed(System.nanoTime() - start, StatementCounter.count());
+            return true;
+        } catch (BookNotAvailableException | ReservedException | BorrowedException e) {
+            stats.rejected();
+        } catch (RuntimeException e) {
+            stats.error();
+            log.error("Benchmark operation failed", e);
+        }
+        return false;
+    }
+
+    private Path writeResult(Map<Operation, OperationStats> stats, long duration, long doubleAllocations, long lostUpdates) throws Exception {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("libraries", libraries);
+        config.put("titles", titles);
+        config.put("copies", copies);
+        config.put("threads", threads);
+        config.put("warmupSeconds", warmupSeconds);
+        config.put("durationSeconds", durationSeconds);
+        config.put("hotRatio", hotRatio);
+        Map<String, Object> operations = new LinkedHashMap<>();
+        stats.forEach((operation, operationStats) -> operations.put(operation.name().toLowerCase(), operationStats.report(duration)));
+        Map<String, Object> anomalies = new LinkedHashMap<>();
+        anomalies.put("doubleAllocations", doubleAllocations);
+        anomalies.put("lostUpdates", lostUpdates);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "circulation");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("config", config);
+        result.put("cyclesPerSec", stats.get(Operation.RETURN).getCompleted() * 1e9 / duration);
+        result.put("operations", operations);
+        result.put("anomalies", anomalies);
+        Path directory = Files.createDirectories(Paths.get(outputDir));
+        Path file = directory.resolve("circulation-" + label + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        return file;
+    }
+
+    private List<String> seedLibraries() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < libraries; i++) {
+            Library library = new Library();
+            library.setLibraryName("BENCH LIB " + i);
+            library.setEmail("bench" + i + "@lib.com");
+            library.setAddress("LVIV");
+            library.setWrittenOn(Instant.now());
+            library = libraryRepository.save(library);
+            List<Book> books = new ArrayList<>();
+            for (int t = 0; t < titles; t++) {
+                for (int c = 0; c < copies; c++) {
+                    Book book = new Book();
+                    book.setTitle(t == 0 ? BESTSELLER : title(t));
+                    book.setStatus(BookStatus.AVAILABLE);
+                    book.setLibrary(library);
+                    books.add(book);
+                }
+            }
+            bookRepository.saveAll(books);
+            names.add(library.getLibraryName());
+        }
+        return names;
+    }
+
+    private List<String> seedUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            users.add(User.builder()
+                    .firstName("Bench")
+                    .lastName("User")
+                    .email("bench" + i + "@test.com")
+                    .role(Role.USER)
+                    .isAccountNonLocked(true)
+                    .build());
+        }
+        List<String> emails = new ArrayList<>();
+        userRepository.saveAll(users).forEach(user -> emails.add(user.getEmail()));
+        return emails;
+    }
+
+    private static String title(int index) {
+        return "TITLE " + index;
+    }
+
+    private static Map<Operation, OperationStats> stats() {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,126 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.NaturalKey;
+import com.library.library.service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@Tag("benchmark")
+public class ExistenceBenchmark {
+
+    private final int keys = Integer.getInteger("benchmark.existence.keys", 1_000_000);
+    private final int lookups = Integer.getInteger("benchmark.existence.lookups", 1_000_000);
+    private final double fpp = Double.parseDouble(System.getProperty("benchmark.existence.fpp", "0.01"));
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void millionEmails() throws Exception {
+        List<NaturalKey> rows = new ArrayList<>(keys);
+        for (long i = 0; i < keys; i++) {
+            rows.add(key("reader." + i + "@library.com", i));
+        }
+        AtomicLong queries = new AtomicLong();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findEmailKeys()).thenReturn(rows);
+        when(userRepository.existsUserByEmail(any())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            return false;
+        });
+        ExistenceRegistry registry = new ExistenceRegistry(mock(BookRepository.class), mock(LibraryRepository.class),
+                mock(AuthorRepository.class), userRepository, fpp, 1024);
+        long buildStart = System.nanoTime();
+        registry.rebuild(ExistenceType.USER_EMAIL);
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        Random random = new Random(42);
+        long[] hitLatencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String email = "reader." + random.nextInt(keys) + "@library.com";
+            long start = System.nanoTime();
+            boolean exists = registry.exists(ExistenceType.USER_EMAIL, email);
+            hitLatencies[i] = System.nanoTime() - start;
+            assertTrue(exists, email);
+        }
+        long[] missLatencies = new long[lookups];
+        for (int i = 0; i < lookups; i++) {
+            String email = "visitor." + i + "@library.com";
+            long start = System.nanoTime();
+            registry.exists(ExistenceType.USER_EMAIL, email);
+            missLatencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(hitLatencies);
+        Arrays.sort(missLatencies);
+        ExistenceReportDto report = registry.report().stream()
+                .filter(dto -> dto.getType().equals(ExistenceType.USER_EMAIL.toString()))
+                .findFirst()
+                .get();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "existence");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("keys", report.getKeys());
+        result.put("buildMillis", buildMillis);
+        result.put("targetFpp", fpp);
+        result.put("expectedFpp", report.getExpectedFpp());
+        result.put("observedFpp", report.getObservedFpp());
+        result.put("absentLookups", lookups);
+        result.put("dbQueries", queries.get());
+        result.put("bloomBits", report.getBloomBits());
+        result.put("bloomHashes", report.getBloomHashes());
+        result.put("bloomBytesPerMillionKeys", report.getBloomBytes() * 1_000_000 / report.getKeys());
+        result.put("bytesPerMillionKeys", report.getBytesPerMillionKeys());
+        result.put("hitP50Nanos", hitLatencies[lookups / 2]);
+        result.put("hitP99Nanos", hitLatencies[(int) (lookups * 0.99)]);
+        result.put("missP50Nanos", missLatencies[lookups / 2]);
+        result.put("missP99Nanos", missLatencies[(int) (lookups * 0.99)]);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("existence-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Existence benchmark result written to {}", file.toAbsolutePath());
+
+        assertEquals(report.getFalsePositives(), queries.get());
+        assertTrue(report.getObservedFpp() < fpp * 2, "observed fpp " + report.getObservedFpp());
+    }
+
+    private static NaturalKey key(String name, Long id) {
+        return new NaturalKey() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+        };
+    }
+}
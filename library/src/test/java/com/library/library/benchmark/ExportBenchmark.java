@@ -0,0 +1,157 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/benchmark/export-db;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.library=WARN",
+        "journal.dir=target/benchmark/journal"
+})
+public class ExportBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final long MB = 1024 * 1024;
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${benchmark.export.rows:10000000}")
+    private int rows;
+    @Value("${benchmark.export.format:NDJSON}")
+    private ExportFormat format;
+    @Value("${benchmark.export.gzip:false}")
+    private boolean gzip;
+    @Value("${benchmark.export.sample.mb:256}")
+    private long sampleMegabytes;
+    @Value("${benchmark.label:local}")
+    private String label;
+    @Value("${benchmark.output.dir:target/benchmark}")
+    private String outputDir;
+
+    @Test
+    void exportTenMillionBooks() throws Exception {
+        long seedStart = System.nanoTime();
+        seedBooks();
+        long seedMillis = (System.nanoTime() - seedStart) / 1_000_000;
+
+        HeapSampler out = new HeapSampler(sampleMegabytes * MB);
+        long start = System.nanoTime();
+        long exported = exportService.export(ExportDataset.BOOKS, format, gzip, out);
+        long exportNanos = System.nanoTime() - start;
+        out.sample();
+
+        long baseline = out.samples.get(0);
+        long peak = out.samples.stream().mapToLong(Long::longValue).max().orElse(baseline);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "export");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("rows", exported);
+        result.put("format", format);
+        result.put("gzip", gzip);
+        result.put("seedMillis", seedMillis);
+        result.put("exportMillis", exportNanos / 1_000_000);
+        result.put("rowsPerSec", exported * 1e9 / exportNanos);
+        result.put("bytesWritten", out.bytes);
+        result.put("maxHeapMb", Runtime.getRuntime().maxMemory() / MB);
+        result.put("retainedHeapBaselineMb", baseline / MB);
+        result.put("retainedHeapPeakMb", peak / MB);
+        result.put("retainedHeapSamplesMb", out.samples.stream().map(bytes -> bytes / MB).toArray());
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("export-" + label + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Export benchmark result written to {}", file.toAbsolutePath());
+
+        assertEquals(rows, exported);
+        assertTrue(peak - baseline < 64 * MB);
+    }
+
+    private void seedBooks() {
+        Genre[] genres = Genre.values();
+        BookStatus[] statuses = BookStatus.values();
+        for (int from = 1; from <= rows; from += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (long id = from; id < Math.min(from + BATCH_SIZE, rows + 1L); id++) {
+                batch.add(new Object[]{id, "Title " + id, "Description of title " + id, 100 + (int) (id % 400),
+                        1900 + (int) (id % 120), genres[(int) (id % genres.length)].name(), statuses[(int) (id % statuses.length)].name()});
+            }
+            jdbcTemplate.batchUpdate("insert into book (id, title, description, pages, publication_year, genre, status) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+
+    private static class HeapSampler extends OutputStream {
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final List<Long> samples = new ArrayList<>();
+        private final long interval;
+        private long bytes;
+        private long next;
+
+        private HeapSampler(long interval) {
+            this.interval = interval;
+            sample();
+        }
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(long written) {
+            bytes += written;
+            if (bytes >= next) {
+                sample();
+            }
+        }
+
+        private void sample() {
+            System.gc();
+            samples.add(memory.getHeapMemoryUsage().getUsed());
+            next = bytes + interval;
+        }
+    }
+}
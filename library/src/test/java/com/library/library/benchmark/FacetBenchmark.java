@@ -0,0 +1,115 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.repository.FacetDocument;
+import com.library.library.service.search.FacetIndex;
+import com.library.library.service.search.FacetResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+public class FacetBenchmark {
+
+    private final int books = Integer.getInteger("benchmark.facet.books", 2_000_000);
+    private final int libraries = Integer.getInteger("benchmark.facet.libraries", 200);
+    private final int queries = Integer.getInteger("benchmark.facet.queries", 2_000);
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void facetMillionBookCatalog() throws Exception {
+        Random random = new Random(42);
+        FacetIndex index = new FacetIndex(null, new SimpleMeterRegistry());
+        long buildStart = System.nanoTime();
+        for (long id = 1; id <= books; id++) {
+            index.index(document(id, Genre.values()[random.nextInt(Genre.values().length)],
+                    BookStatus.values()[random.nextInt(BookStatus.values().length)],
+                    1900 + random.nextInt(125), 1L + random.nextInt(libraries)));
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < queries / 10; i++) {
+            query(index, random);
+        }
+        long[] latencies = new long[queries];
+        long matched = 0;
+        for (int i = 0; i < queries; i++) {
+            long start = System.nanoTime();
+            matched += query(index, random).getTotal();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "facet");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("books", books);
+        result.put("libraries", libraries);
+        result.put("buildMillis", buildMillis);
+        result.put("queries", queries);
+        result.put("meanMatches", matched / queries);
+        result.put("p50Micros", latencies[queries / 2] / 1e3);
+        result.put("p99Micros", latencies[(int) (queries * 0.99)] / 1e3);
+        result.put("estimatedBytes", index.estimateBytes());
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("facet-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Facet benchmark result written to {}", file.toAbsolutePath());
+
+        assertTrue(matched > 0);
+    }
+
+    private FacetResult query(FacetIndex index, Random random) {
+        EnumSet<Genre> genres = random.nextBoolean() ? EnumSet.of(Genre.values()[random.nextInt(Genre.values().length)]) : null;
+        EnumSet<BookStatus> statuses = random.nextBoolean() ? EnumSet.of(BookStatus.AVAILABLE) : null;
+        Integer yearFrom = random.nextBoolean() ? 1900 + random.nextInt(100) : null;
+        Long libraryId = random.nextInt(4) == 0 ? 1L + random.nextInt(libraries) : null;
+        return index.search(genres, statuses, yearFrom, null, libraryId, 0, 20);
+    }
+
+    private FacetDocument document(Long id, Genre genre, BookStatus status, Integer year, Long libraryId) {
+        return new FacetDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Genre getGenre() {
+                return genre;
+            }
+
+            @Override
+            public BookStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Integer getPublicationYear() {
+                return year;
+            }
+
+            @Override
+            public Long getLibraryId() {
+                return libraryId;
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.service.search.TrigramIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("benchmark")
+public class FuzzyBenchmark {
+
+    private static final String[] STOP_WORDS = {"the", "of", "and", "a", "in", "to"};
+    private static final String CONSONANTS = "bcdfghjklmnprstvwz";
+    private static final String VOWELS = "aeiouy";
+
+    private final int titles = Integer.getInteger("benchmark.fuzzy.titles", 1_000_000);
+    private final int lookups = Integer.getInteger("benchmark.fuzzy.lookups", 20_000);
+    private final int limit = Integer.getInteger("benchmark.fuzzy.limit", 5);
+    private final int vocabulary = Integer.getInteger("benchmark.fuzzy.vocabulary", 50_000);
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void suggestMillionTitles() throws Exception {
+        Random random = new Random(42);
+        String[] words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            words[i] = word(random);
+        }
+        String[] texts = new String[titles];
+        for (int i = 0; i < titles; i++) {
+            texts[i] = title(random, words);
+        }
+        TrigramIndex index = new TrigramIndex(0.3);
+        long buildStart = System.nanoTime();
+        for (String text : texts) {
+            index.add(text, 1);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < lookups / 5; i++) {
+            index.search(typo(random, texts[random.nextInt(titles)]), limit);
+        }
+        long[] latencies = new long[lookups];
+        int hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            String expected = texts[random.nextInt(titles)];
+            String query = typo(random, expected);
+            long start = System.nanoTime();
+            List<TrigramIndex.FuzzyMatch> matches = index.search(query, limit);
+            latencies[i] = System.nanoTime() - start;
+            if (matches.stream().anyMatch(match -> match.getText().equals(expected))) {
+                hits++;
+            }
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "fuzzy");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("titles", index.size());
+        result.put("trigrams", index.gramCount());
+        result.put("buildMillis", buildMillis);
+        result.put("estimatedBytes", index.estimateBytes());
+        result.put("lookups", lookups);
+        result.put("recallAtLimit", (double) hits / lookups);
+        result.put("p50Micros", latencies[lookups / 2] / 1e3);
+        result.put("p99Micros", latencies[(int) (lookups * 0.99)] / 1e3);
+        result.put("p999Micros", latencies[(int) (lookups * 0.999)] / 1e3);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("fuzzy-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Fuzzy benchmark result written to {}", file.toAbsolutePath());
+
+        assertTrue(hits > 0);
+    }
+
+    private String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 1 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())))
+                    .append(VOWELS.charAt(random.nextInt(VOWELS.length())));
+            if (random.nextBoolean()) {
+                word.append(CONSONANTS.charAt(random.nextInt(CONSONANTS.length())));
+            }
+        }
+        return word.toString();
+    }
+
+    private String title(Random random, String[] words) {
+        StringBuilder title = new StringBuilder();
+        int count = 2 + random.nextInt(4);
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            if (i > 0 && random.nextInt(5) == 0) {
+                title.append(STOP_WORDS[random.nextInt(STOP_WORDS.length)]);
+            } else {
+                title.append(words[(int) Math.pow(words.length, random.nextDouble()) - 1]);
+            }
+        }
+        title.setCharAt(0, Character.toUpperCase(title.charAt(0)));
+        return title.toString();
+    }
+
+    private String typo(Random random, String text) {
+        StringBuilder query = new StringBuilder(text.toLowerCase());
+        int edits = 1 + random.nextInt(2);
+        for (int edit = 0; edit < edits && query.length() > 2; edit++) {
+            int position = random.nextInt(query.length() - 1);
+            switch (random.nextInt(3)) {
+                case 0:
+                    query.setCharAt(position, (char) ('a' + random.nextInt(26)));
+                    break;
+                case 1:
+                    char c = query.charAt(position);
+                    query.setCharAt(position, query.charAt(position + 1));
+                    query.setCharAt(position + 1, c);
+                    break;
+                default:
+                    query.deleteCharAt(position);
+            }
+        }
+        return query.toString();
+    }
+}
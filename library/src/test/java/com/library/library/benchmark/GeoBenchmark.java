@@ -0,0 +1,131 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.service.geo.GeoPoint;
+import com.library.library.service.geo.LibraryLocationIndex;
+import com.library.library.service.geo.PostalCodeLocator;
+import com.library.library.service.repository.LibraryLocation;
+import com.library.library.service.repository.LibraryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@Tag("benchmark")
+public class GeoBenchmark {
+
+    private static final double[] AVAILABILITY = {1.0, 0.3, 0.05, 0.005};
+
+    private final int libraries = Integer.getInteger("benchmark.geo.libraries", 50_000);
+    private final int titles = Integer.getInteger("benchmark.geo.titles", 40);
+    private final int queries = Integer.getInteger("benchmark.geo.queries", 100_000);
+    private final int limit = Integer.getInteger("benchmark.geo.limit", 5);
+    private final String label = System.getProperty("benchmark.label", "local");
+    private final String outputDir = System.getProperty("benchmark.output.dir", "target/benchmark");
+
+    @Test
+    void nearestAmongTensOfThousandsOfBranches() throws Exception {
+        Random random = new Random(42);
+        List<LibraryLocation> locations = new ArrayList<>(libraries);
+        for (long id = 1; id <= libraries; id++) {
+            locations.add(location(id, 44.5 + random.nextDouble() * 7.5, 22.2 + random.nextDouble() * 17.8));
+        }
+        List<Set<Long>> availability = new ArrayList<>(titles);
+        for (int title = 0; title < titles; title++) {
+            double share = AVAILABILITY[title % AVAILABILITY.length];
+            Set<Long> libraryIds = new HashSet<>();
+            for (long id = 1; id <= libraries; id++) {
+                if (random.nextDouble() < share) {
+                    libraryIds.add(id);
+                }
+            }
+            availability.add(libraryIds);
+        }
+        LibraryRepository libraryRepository = mock(LibraryRepository.class);
+        when(libraryRepository.findLocations()).thenReturn(locations);
+        LibraryLocationIndex index = new LibraryLocationIndex(libraryRepository,
+                new PostalCodeLocator(new ClassPathResource("geo/postal-codes.csv")), new SimpleMeterRegistry());
+        long buildStart = System.nanoTime();
+        index.rebuild();
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+
+        for (int i = 0; i < queries / 10; i++) {
+            index.nearest(origin(random), limit, availability.get(random.nextInt(titles)));
+        }
+        long[] latencies = new long[queries];
+        long found = 0;
+        for (int i = 0; i < queries; i++) {
+            GeoPoint origin = origin(random);
+            Set<Long> libraryIds = availability.get(random.nextInt(titles));
+            long start = System.nanoTime();
+            found += index.nearest(origin, limit, libraryIds).size();
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "geo");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("libraries", libraries);
+        result.put("titles", titles);
+        result.put("limit", limit);
+        result.put("buildMillis", buildMillis);
+        result.put("queries", queries);
+        result.put("p50Micros", latencies[queries / 2] / 1e3);
+        result.put("p99Micros", latencies[(int) (queries * 0.99)] / 1e3);
+        result.put("p999Micros", latencies[(int) (queries * 0.999)] / 1e3);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("geo-" + label + ".json");
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Geo benchmark result written to {}", file.toAbsolutePath());
+
+        assertTrue(found > 0);
+    }
+
+    private GeoPoint origin(Random random) {
+        return new GeoPoint(44.5 + random.nextDouble() * 7.5, 22.2 + random.nextDouble() * 17.8);
+    }
+
+    private LibraryLocation location(Long id, Double latitude, Double longitude) {
+        return new LibraryLocation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+
+            @Override
+            public String getPostalCode() {
+                return null;
+            }
+        };
+    }
+}
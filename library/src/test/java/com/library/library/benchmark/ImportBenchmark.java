@@ -0,0 +1,137 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportReportDto;
+import com.library.library.service.BookService;
+import com.library.library.service.ImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:import;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "logging.level.com.library=WARN",
+        "journal.dir=target/benchmark/journal"
+})
+public class ImportBenchmark {
+
+    private static final String DESCRIPTION = "Imported during branch onboarding number ";
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${benchmark.import.books:300000}")
+    private int books;
+    @Value("${benchmark.import.authors:1000}")
+    private int authors;
+    @Value("${benchmark.import.baseline:5000}")
+    private int baseline;
+    @Value("${benchmark.import.rejected.every:1000}")
+    private int rejectedEvery;
+    @Value("${import.chunk.size:5000}")
+    private int chunkSize;
+    @Value("${benchmark.label:local}")
+    private String label;
+    @Value("${benchmark.output.dir:target/benchmark}")
+    private String outputDir;
+
+    @Test
+    void bulkImportAgainstCreateBook() throws Exception {
+        List<Object[]> rows = new ArrayList<>(authors);
+        for (long id = 1; id <= authors; id++) {
+            rows.add(new Object[]{id, "author" + id, "Author " + id});
+        }
+        jdbcTemplate.batchUpdate("insert into author (id, nickname, author_name) values (?, ?, ?)", rows);
+        jdbcTemplate.execute("alter sequence hibernate_sequence restart with " + (authors + 1));
+
+        Genre[] genres = Genre.values();
+        TransactionTemplate request = new TransactionTemplate(transactionManager);
+        long start = System.nanoTime();
+        for (int i = 0; i < baseline; i++) {
+            int book = i;
+            request.executeWithoutResult(status -> bookService.createBook("author" + (1 + book % authors), BookDto.builder()
+                    .title("Baseline " + book)
+                    .description(DESCRIPTION + book)
+                    .pages(100 + book % 400)
+                    .publicationYear(1900 + book % 120)
+                    .genre(genres[book % genres.length])
+                    .build()));
+        }
+        long baselineNanos = System.nanoTime() - start;
+
+        StringBuilder csv = new StringBuilder("title,description,pages,publication_year,genre,author\n");
+        for (int i = 0; i < books; i++) {
+            String author = rejectedEvery > 0 && i % rejectedEvery == 0 ? "missing" : "author" + (1 + i % authors);
+            csv.append("Title ").append(i).append(',').append(DESCRIPTION).append(i).append(',').append(100 + i % 400).append(',')
+                    .append(1900 + i % 120).append(',').append(genres[i % genres.length]).append(',').append(author).append('\n');
+        }
+        byte[] payload = csv.toString().getBytes(StandardCharsets.UTF_8);
+        ImportReportDto report = importService.importBooks(ImportFormat.CSV, null, false, new ByteArrayInputStream(payload));
+
+        double baselineRowsPerSec = baseline * 1e9 / baselineNanos;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "import");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("books", books);
+        result.put("authors", authors);
+        result.put("chunkSize", chunkSize);
+        result.put("payloadBytes", payload.length);
+        result.put("imported", report.getImported());
+        result.put("rejected", report.getRejected());
+        result.put("chunks", report.getChunks());
+        result.put("importMillis", report.getMillis());
+        result.put("importRowsPerSec", report.getRowsPerSecond());
+        result.put("createBookRows", baseline);
+        result.put("createBookMillis", baselineNanos / 1_000_000);
+        result.put("createBookRowsPerSec", baselineRowsPerSec);
+        result.put("speedup", report.getRowsPerSecond() / baselineRowsPerSec);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("import-" + label + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Import benchmark result written to {}", file.toAbsolutePath());
+
+        long expectedRejected = rejectedEvery > 0 ? (books + rejectedEvery - 1) / rejectedEvery : 0;
+        assertEquals(expectedRejected, report.getRejected());
+        assertEquals(books - expectedRejected, report.getImported());
+        assertEquals(books - expectedRejected + baseline, jdbcTemplate.queryForObject("select count(*) from book", Long.class));
+    }
+}
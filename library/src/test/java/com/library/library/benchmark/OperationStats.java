@@ -0,0 +1,71 @@
+package com.library.library.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+class OperationStats {
+
+    private long[] latencies = new long[1024];
+    private int completed;
+    private long statements;
+    private long rejected;
+    private long errors;
+
+    void completed(long latencyNanos, long statementCount) {
+        if (completed == latencies.length) {
+            latencies = Arrays.copyOf(latencies, completed * 2);
+        }
+        latencies[completed++] = latencyNanos;
+        statements += statementCount;
+    }
+
+    void rejected() {
+        rejected++;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    void merge(OperationStats other) {
+        for (int i = 0; i < other.completed; i++) {
+            completed(other.latencies[i], 0);
+        }
+        statements += other.statements;
+        rejected += other.rejected;
+        errors += other.errors;
+    }
+
+    Map<String, Object> report(long durationNanos) {
+        long[] sorted = Arrays.copyOf(latencies, completed);
+        Arrays.sort(sorted);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("completed", completed);
+        report.put("rejected", rejected);
+        report.put("errors", errors);
+        report.put("throughputPerSec", completed * 1e9 / durationNanos);
+        report.put("p50Ms", percentile(sorted, 0.5));
+        report.put("p99Ms", percentile(sorted, 0.99));
+        report.put("p999Ms", percentile(sorted, 0.999));
+        report.put("maxMs", completed == 0 ? 0 : sorted[completed - 1] / 1e6);
+        report.put("statementsPerOp", completed == 0 ? 0 : (double) statements / completed);
+        return report;
+    }
+
+    long getCompleted() {
+        return completed;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.library.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.BookService;
+import com.library.library.service.page.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pagination;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.library.library.benchmark.StatementCounter",
+        "logging.level.root=WARN",
+        "logging.level.com.library=WARN",
+        "logging.level.com.library.library.service.impl=OFF",
+        "journal.dir=target/benchmark/journal"
+})
+public class PaginationBenchmark {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final Sort BY_ID = Sort.by("id");
+
+    @Autowired
+    private BookService bookService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${benchmark.pagination.books:500000}")
+    private int books;
+    @Value("${benchmark.pagination.size:20}")
+    private int size;
+    @Value("${benchmark.pagination.depths:1,100,1000,5000,20000}")
+    private int[] depths;
+    @Value("${benchmark.pagination.warmup:200}")
+    private int warmup;
+    @Value("${benchmark.pagination.repeats:100}")
+    private int repeats;
+    @Value("${benchmark.label:local}")
+    private String label;
+    @Value("${benchmark.output.dir:target/benchmark}")
+    private String outputDir;
+
+    @Test
+    void offsetAgainstKeysetByDepth() throws Exception {
+        seedBooks();
+        for (int i = 0; i < warmup; i++) {
+            bookService.getAllBooks(PageRequest.of(i, size, BY_ID));
+            bookService.scrollBooks(KeysetCursor.encode((long) i * size), size);
+        }
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int depth : depths) {
+            int page = Math.min(depth, books / size) - 1;
+            String cursor = page == 0 ? null : KeysetCursor.encode((long) page * size);
+            assertEquals(bookService.getAllBooks(PageRequest.of(page, size, BY_ID)).getContent(), bookService.scrollBooks(cursor, size).getContent());
+
+            long[] offset = new long[repeats];
+            long[] keyset = new long[repeats];
+            long offsetStatements = 0;
+            long keysetStatements = 0;
+            for (int i = 0; i < repeats; i++) {
+                StatementCounter.reset();
+                long start = System.nanoTime();
+                bookService.getAllBooks(PageRequest.of(page, size, BY_ID));
+                offset[i] = System.nanoTime() - start;
+                offsetStatements = StatementCounter.count();
+
+                StatementCounter.reset();
+                start = System.nanoTime();
+                bookService.scrollBooks(cursor, size);
+                keyset[i] = System.nanoTime() - start;
+                keysetStatements = StatementCounter.count();
+            }
+            Arrays.sort(offset);
+            Arrays.sort(keyset);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("page", page + 1);
+            result.put("offsetP50Micros", offset[repeats / 2] / 1e3);
+            result.put("offsetP99Micros", offset[(int) (repeats * 0.99)] / 1e3);
+            result.put("offsetStatements", offsetStatements);
+            result.put("keysetP50Micros", keyset[repeats / 2] / 1e3);
+            result.put("keysetP99Micros", keyset[(int) (repeats * 0.99)] / 1e3);
+            result.put("keysetStatements", keysetStatements);
+            results.add(result);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("benchmark", "pagination");
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("books", books);
+        result.put("size", size);
+        result.put("repeats", repeats);
+        result.put("depths", results);
+        Path file = Files.createDirectories(Paths.get(outputDir)).resolve("pagination-" + label + ".json");
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+        log.warn("Pagination benchmark result written to {}", file.toAbsolutePath());
+    }
+
+    private void seedBooks() {
+        Genre[] genres = Genre.values();
+        for (int from = 1; from <= books; from += BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+            for (long id = from; id < Math.min(from + BATCH_SIZE, books + 1L); id++) {
+                rows.add(new Object[]{id, "Title " + id, "Description of title " + id, 100 + (int) (id % 400),
+                        1900 + (int) (id % 120), genres[(int) (id % genres.length)].name(), BookStatus.AVAILABLE.name()});
+            }
+            jdbcTemplate.batchUpdate("insert into book (id, title, description, pages, publication_year, genre, status) " +
+                    "values (?, ?, ?, ?, ?, ?, ?)", rows);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.library.library.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<long[]> STATEMENTS = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get()[0]++;
+        return sql;
+    }
+
+    static void reset() {
+        STATEMENTS.get()[0] = 0;
+    }
+
+    static long count() {
+        return STATEMENTS.get()[0];
+    }
+}
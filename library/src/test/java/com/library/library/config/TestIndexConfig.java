@@ -0,0 +1,16 @@
+package com.library.library.config;
+
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.geo.LibraryLocationIndex;
+import com.library.library.service.geo.PostalCodeLocator;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.index.ExistenceRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+@TestConfiguration
+@Import({AvailabilityIndex.class, ExistenceRegistry.class, LibraryLocationIndex.class, NaturalKeyCache.class,
+        PostalCodeLocator.class, SimpleMeterRegistry.class})
+public class TestIndexConfig {
+}
@@ -1,7 +1,14 @@
 package com.library.library.config;
 
+import com.library.library.service.cache.ResourceVersions;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.security.AccessTokenService;
+import com.library.library.service.security.AuthenticationCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.hateoas.client.LinkDiscoverer;
 import org.springframework.hateoas.client.LinkDiscoverers;
 import org.springframework.hateoas.mediatype.collectionjson.CollectionJsonLinkDiscoverer;
@@ -11,8 +18,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @TestConfiguration
+@Import({AuthenticationCache.class, AccessTokenService.class, ResourceVersions.class, SimpleMeterRegistry.class})
 public class TestWebConfig {
 
+    @MockBean
+    private ExistenceRegistry existenceRegistry;
+
     @Bean
     public LinkDiscoverers discoverers() {
         List<LinkDiscoverer> plugins = new ArrayList<>();
@@ -2,7 +2,20 @@ package com.library.library.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.library.config.TestWebConfig;
+import com.library.library.controller.dto.AutocompleteReportDto;
+import com.library.library.controller.dto.AvailabilityMismatchDto;
+import com.library.library.controller.dto.AvailabilityReportDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportRejectionDto;
+import com.library.library.controller.dto.ImportReportDto;
+import com.library.library.controller.dto.SearchIndexReportDto;
 import com.library.library.controller.dto.UserDto;
+import com.library.library.service.BookService;
+import com.library.library.service.ExportService;
+import com.library.library.service.ImportService;
 import com.library.library.service.LibraryService;
 import com.library.library.service.UserService;
 import com.library.library.service.impl.UserDetailsServiceImpl;
@@ -12,28 +25,40 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import javax.sql.DataSource;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Locale;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WithMockUser(roles = "ADMIN")
@@ -54,6 +79,15 @@ public class AdminControllerTest {
     @MockBean
     private LibraryService libraryService;
 
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private ExportService exportService;
+
+    @MockBean
+    private ImportService importService;
+
     @MockBean
     private UserDetailsServiceImpl userDetailsServiceImpl;
 
@@ -264,6 +298,152 @@ public class AdminControllerTest {
         verify(userService, never()).deleteUser(userDto.getEmail());
     }
 
+    @Test
+    void checkAvailabilityTest() throws Exception {
+        AvailabilityReportDto report = AvailabilityReportDto.builder()
+                .checked(1)
+                .consistent(false)
+                .repaired(true)
+                .mismatches(Collections.singletonList(AvailabilityMismatchDto.builder()
+                        .libraryId(1L)
+                        .title("TEST TITLE")
+                        .status(BookStatus.AVAILABLE)
+                        .indexed(0)
+                        .actual(1)
+                        .build()))
+                .build();
+        when(libraryService.checkAvailability(true)).thenReturn(report);
+
+        mockMvc.perform(get("/admin/availability/consistency")
+                .param("repair", "true"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consistent").value(false))
+                .andExpect(jsonPath("$.mismatches[0].actual").value(1));
+
+        verify(libraryService, only()).checkAvailability(true);
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void checkAvailabilityRoleLibrarianTest() throws Exception {
+        mockMvc.perform(get("/admin/availability/consistency"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(libraryService, never()).checkAvailability(anyBoolean());
+    }
+
+    @Test
+    void getSearchReportTest() throws Exception {
+        SearchIndexReportDto report = SearchIndexReportDto.builder()
+                .ready(true)
+                .documents(1000)
+                .terms(250)
+                .postings(4000)
+                .queries(3)
+                .p99Micros(120.5)
+                .build();
+        when(bookService.getSearchReport()).thenReturn(report);
+
+        mockMvc.perform(get("/admin/search/report"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents").value(1000))
+                .andExpect(jsonPath("$.p99Micros").value(120.5));
+
+        verify(bookService, only()).getSearchReport();
+    }
+
+    @Test
+    void getAutocompleteReportTest() throws Exception {
+        AutocompleteReportDto report = AutocompleteReportDto.builder()
+                .ready(true)
+                .keys(2000)
+                .nodes(2600)
+                .estimatedBytes(256000)
+                .bytesPerMillionKeys(128000000)
+                .p99Micros(12.5)
+                .build();
+        when(bookService.getAutocompleteReport()).thenReturn(report);
+
+        mockMvc.perform(get("/admin/autocomplete/report"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.keys").value(2000))
+                .andExpect(jsonPath("$.bytesPerMillionKeys").value(128000000))
+                .andExpect(jsonPath("$.p99Micros").value(12.5));
+
+        verify(bookService, only()).getAutocompleteReport();
+    }
+
+    @Test
+    void exportTest() throws Exception {
+        when(exportService.export(eq(ExportDataset.BOOKS), eq(ExportFormat.CSV), eq(true), any())).thenAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(3).write("id,title\r\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/admin/export/BOOKS?format=CSV&gzip=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"books.csv.gz\""))
+                .andExpect(content().string("id,title\r\n"));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void exportRoleLibrarianTest() throws Exception {
+        mockMvc.perform(get("/admin/export/BOOKS"))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(exportService, never()).export(any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void importBooksTest() throws Exception {
+        ImportReportDto report = ImportReportDto.builder()
+                .imported(2)
+                .rejected(1)
+                .chunks(1)
+                .millis(5)
+                .rowsPerSecond(400.0)
+                .rejections(Collections.singletonList(ImportRejectionDto.builder().row(3).reason("Unknown genre POEM").build()))
+                .build();
+        when(importService.importBooks(eq(ImportFormat.CSV), eq("Central"), eq(false), any())).thenReturn(report);
+
+        mockMvc.perform(post("/admin/import/books?libraryName=Central")
+                .content("title,description,pages,publicationYear,genre,author\r\n")
+                .contentType("text/csv"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejections[0].row").value(3))
+                .andExpect(jsonPath("$.rejections[0].reason").value("Unknown genre POEM"));
+
+        verify(importService, only()).importBooks(eq(ImportFormat.CSV), eq("Central"), eq(false), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void importBooksRoleLibrarianTest() throws Exception {
+        mockMvc.perform(post("/admin/import/books")
+                .content("[]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(importService, never()).importBooks(any(), any(), anyBoolean(), any());
+    }
+
     private UserDto getUserDto() throws ParseException {
         return UserDto.builder()
                 .firstName("test name")
@@ -0,0 +1,193 @@
+package com.library.library.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.config.TestWebConfig;
+import com.library.library.controller.dto.Role;
+import com.library.library.controller.dto.UserDto;
+import com.library.library.service.UserService;
+import com.library.library.service.impl.UserDetailsServiceImpl;
+import com.library.library.service.model.MyUserPrincipal;
+import com.library.library.service.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = {AuthController.class, UserController.class})
+@AutoConfigureMockMvc
+@Import(TestWebConfig.class)
+public class AuthControllerTest {
+
+    private static final String EMAIL = "test@email.com";
+    private static final String PASSWORD = "12345q";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsServiceImpl;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @MockBean
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+                .id(1L)
+                .email(EMAIL)
+                .password(passwordEncoder.encode(PASSWORD))
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build();
+        when(userDetailsServiceImpl.loadUserByUsername(EMAIL)).thenReturn(new MyUserPrincipal(user));
+    }
+
+    @Test
+    void createTokenTest() throws Exception {
+        mockMvc.perform(post("/auth/token").with(httpBasic(EMAIL, PASSWORD)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(900))
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+    }
+
+    @Test
+    void createTokenUnauthorizedTest() throws Exception {
+        mockMvc.perform(post("/auth/token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void accessTokenAuthenticatesWithoutLookupTest() throws Exception {
+        JsonNode token = createToken();
+        clearInvocations(userDetailsServiceImpl);
+        when(userService.isEmailAlreadyInUse(EMAIL)).thenReturn(true);
+        when(userService.getUser(EMAIL)).thenReturn(UserDto.builder().email(EMAIL).build());
+
+        mockMvc.perform(get("/users/" + EMAIL).header(HttpHeaders.AUTHORIZATION, bearer(token.get("accessToken").asText())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(EMAIL));
+
+        verify(userDetailsServiceImpl, never()).loadUserByUsername(any());
+    }
+
+    @Test
+    void invalidAccessTokenTest() throws Exception {
+        String accessToken = createToken().get("accessToken").asText();
+        String tampered = accessToken.substring(0, accessToken.length() - 2) + (accessToken.endsWith("AA") ? "BB" : "AA");
+
+        mockMvc.perform(get("/users/" + EMAIL).header(HttpHeaders.AUTHORIZATION, bearer(tampered)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""))
+                .andExpect(jsonPath("$.message").value("Token signature is invalid"));
+        verify(userService, never()).getUser(any());
+    }
+
+    @Test
+    void refreshTokenCannotAuthenticateTest() throws Exception {
+        String refreshToken = createToken().get("refreshToken").asText();
+
+        mockMvc.perform(get("/users/" + EMAIL).header(HttpHeaders.AUTHORIZATION, bearer(refreshToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void accessTokenCannotCreateTokenTest() throws Exception {
+        String accessToken = createToken().get("accessToken").asText();
+
+        mockMvc.perform(post("/auth/token").header(HttpHeaders.AUTHORIZATION, bearer(accessToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void refreshTokenRotatesTest() throws Exception {
+        String refreshToken = createToken().get("refreshToken").asText();
+
+        mockMvc.perform(post("/auth/token/refresh").param("refreshToken", refreshToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+        mockMvc.perform(post("/auth/token/refresh").param("refreshToken", refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void accessTokenRequestCreatesNoSessionTest() throws Exception {
+        String accessToken = createToken().get("accessToken").asText();
+        when(userService.isEmailAlreadyInUse(EMAIL)).thenReturn(true);
+        when(userService.getUser(EMAIL)).thenReturn(UserDto.builder().email(EMAIL).build());
+
+        MvcResult result = mockMvc.perform(get("/users/" + EMAIL).header(HttpHeaders.AUTHORIZATION, bearer(accessToken)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertNull(result.getRequest().getSession(false));
+    }
+
+    @Test
+    void refreshLockedAccountTest() throws Exception {
+        String refreshToken = createToken().get("refreshToken").asText();
+        when(userDetailsServiceImpl.loadUserByUsername(EMAIL)).thenReturn(new MyUserPrincipal(User.builder()
+                .id(1L)
+                .email(EMAIL)
+                .role(Role.USER)
+                .isAccountNonLocked(false)
+                .build()));
+
+        mockMvc.perform(post("/auth/token/refresh").param("refreshToken", refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void revokeAccessTokenTest() throws Exception {
+        String accessToken = createToken().get("accessToken").asText();
+
+        mockMvc.perform(post("/auth/token/revoke").param("token", accessToken))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/users/" + EMAIL).header(HttpHeaders.AUTHORIZATION, bearer(accessToken)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private JsonNode createToken() throws Exception {
+        String body = mockMvc.perform(post("/auth/token").with(httpBasic(EMAIL, PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static String bearer(String token) {
+        return "Bearer " + token;
+    }
+}
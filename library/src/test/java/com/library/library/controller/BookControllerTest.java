@@ -4,9 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.library.config.TestWebConfig;
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.FacetedBooksDto;
+import com.library.library.controller.dto.Genre;
 import com.library.library.service.AuthorService;
 import com.library.library.service.BookService;
 import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.exception.LibraryException;
 import com.library.library.service.impl.UserDetailsServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,7 +30,9 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import javax.sql.DataSource;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import static java.lang.String.format;
 import static org.mockito.ArgumentMatchers.any;
@@ -159,6 +166,73 @@ public class BookControllerTest {
                 .andExpect(jsonPath("$['content'][0].title").value(bookDto.getTitle()));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollBooksTest() throws Exception {
+        CursorPageDto<BookDto> page = CursorPageDto.<BookDto>builder()
+                .content(Collections.singletonList(bookDto))
+                .size(1)
+                .hasNext(true)
+                .nextCursor("aWQ6MTI")
+                .build();
+
+        when(bookService.scrollBooks("aWQ6MTE", 1)).thenReturn(page);
+
+        mockMvc.perform(get("/books/cursor?cursor=aWQ6MTE&size=1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value("aWQ6MTI"))
+                .andExpect(jsonPath("$['content'][0].title").value(bookDto.getTitle()));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void scrollBooksInvalidCursorTest() throws Exception {
+        when(bookService.scrollBooks("broken", 20)).thenThrow(new LibraryException("Page cursor broken is not valid"));
+
+        mockMvc.perform(get("/books/cursor?cursor=broken")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getFacetedBooksTest() throws Exception {
+        Pageable pageable = PageRequest.of(1, 5);
+        FacetedBooksDto faceted = FacetedBooksDto.builder()
+                .total(6)
+                .page(1)
+                .size(5)
+                .books(Collections.singletonList(bookDto))
+                .genres(Collections.singletonMap(Genre.FANTASY, 6L))
+                .statuses(Collections.singletonMap(BookStatus.AVAILABLE, 4L))
+                .years(Collections.singletonMap(2001, 6L))
+                .libraries(Collections.singletonMap("LVIV LIB", 6L))
+                .build();
+        Set<Genre> genres = EnumSet.of(Genre.FANTASY, Genre.DRAMA);
+        when(bookService.getFacetedBooks(genres, EnumSet.of(BookStatus.AVAILABLE), 2000, null, "LVIV LIB", pageable))
+                .thenReturn(faceted);
+
+        mockMvc.perform(get("/books/facets")
+                .param("genre", "FANTASY", "DRAMA")
+                .param("status", "AVAILABLE")
+                .param("yearFrom", "2000")
+                .param("libraryName", "LVIV LIB")
+                .param("page", "1")
+                .param("size", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(6))
+                .andExpect(jsonPath("$.books[0].title").value(bookDto.getTitle()))
+                .andExpect(jsonPath("$.genres.FANTASY").value(6))
+                .andExpect(jsonPath("$.statuses.AVAILABLE").value(4))
+                .andExpect(jsonPath("$.libraries['LVIV LIB']").value(6));
+
+        verify(bookService, only()).getFacetedBooks(genres, EnumSet.of(BookStatus.AVAILABLE), 2000, null, "LVIV LIB", pageable);
+    }
+
     @Test
     void createBookTest() throws Exception {
         when(authorService.isNicknameAlreadyInUse(authorDto.getNickname())).thenReturn(true);
@@ -0,0 +1,182 @@
+package com.library.library.controller;
+
+import com.library.library.config.TestWebConfig;
+import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.LibraryDto;
+import com.library.library.service.BookService;
+import com.library.library.service.LibraryService;
+import com.library.library.service.UserService;
+import com.library.library.service.cache.ResourceVersions;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.impl.UserDetailsServiceImpl;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = {LibraryController.class, BookController.class})
+@AutoConfigureMockMvc
+@Import(TestWebConfig.class)
+public class ConditionalGetInterceptorTest {
+
+    private static final String LIBRARY = "TEST LIBRARY";
+    private static final String TITLE = "TEST TITLE";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ExistenceRegistry existenceRegistry;
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @MockBean
+    private LibraryService libraryService;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private BookService bookService;
+    @MockBean
+    private UserDetailsServiceImpl userDetailsServiceImpl;
+    @MockBean
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        when(existenceRegistry.ids(ExistenceType.LIBRARY_NAME, LIBRARY)).thenReturn(new long[]{7L});
+        when(existenceRegistry.ids(ExistenceType.BOOK_TITLE, TITLE)).thenReturn(new long[]{1L, 2L});
+        when(libraryService.isNameAlreadyInUse(LIBRARY)).thenReturn(true);
+        when(bookService.isExistBookTitle(TITLE)).thenReturn(true);
+        when(libraryService.getLibrary(LIBRARY)).thenReturn(LibraryDto.builder().name(LIBRARY).build());
+        when(libraryService.getAllBooks(LIBRARY)).thenReturn(Collections.singleton(BookDto.builder().title(TITLE).build()));
+        when(bookService.getBook(TITLE)).thenReturn(BookDto.builder().title(TITLE).build());
+    }
+
+    @Test
+    void unchangedLibraryAnswersNotModifiedTest() throws Exception {
+        String etag = mockMvc.perform(get("/libraries/{name}", LIBRARY))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/libraries/{name}", LIBRARY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(libraryService, times(1)).getLibrary(LIBRARY);
+    }
+
+    @Test
+    void changedLibraryAnswersWithNewTagTest() throws Exception {
+        String etag = mockMvc.perform(get("/libraries/{name}", LIBRARY))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        resourceVersions.onLibraryChanged(new LibraryChangedEvent(7L, LIBRARY, LIBRARY));
+
+        String fresh = mockMvc.perform(get("/libraries/{name}", LIBRARY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, fresh);
+        verify(libraryService, times(2)).getLibrary(LIBRARY);
+    }
+
+    @Test
+    void libraryBooksFollowCirculationTest() throws Exception {
+        String etag = mockMvc.perform(get("/libraries/books/{libraryName}", LIBRARY))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String libraryTag = mockMvc.perform(get("/libraries/{name}", LIBRARY))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/libraries/books/{libraryName}", LIBRARY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        resourceVersions.onCirculation(new CirculationEvent(CirculationOperation.BORROW, 3L, 1L, 7L, TITLE, Instant.now()));
+        resourceVersions.onCatalogChanged(new CatalogChangedEvent(8L));
+
+        mockMvc.perform(get("/libraries/books/{libraryName}", LIBRARY).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/libraries/{name}", LIBRARY).header(HttpHeaders.IF_NONE_MATCH, libraryTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void libraryPageFollowsLibraryChangesTest() throws Exception {
+        String etag = mockMvc.perform(get("/libraries"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/libraries").header(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag))
+                .andExpect(status().isNotModified());
+        resourceVersions.onLibraryChanged(new LibraryChangedEvent(9L, null, "NEW LIBRARY"));
+        mockMvc.perform(get("/libraries").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void libraryPageTagFollowsQueryTest() throws Exception {
+        String etag = mockMvc.perform(get("/libraries").param("page", "0").param("size", "10").param("sort", "name"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/libraries").param("sort", "name").param("size", "10").param("page", "0")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        String nextPage = mockMvc.perform(get("/libraries").param("page", "1").param("size", "10").param("sort", "name")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertNotEquals(etag, nextPage);
+        verify(libraryService, times(2)).getPageLibraries(any());
+    }
+
+    @Test
+    void bookRequiresAuthenticationBeforeNotModifiedTest() throws Exception {
+        String etag = mockMvc.perform(get("/books/{bookTitle}", TITLE).with(user("librarian").roles("LIBRARIAN")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/books/{bookTitle}", TITLE).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/books/{bookTitle}", TITLE).header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(user("librarian").roles("LIBRARIAN")))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void unknownOrReservedNamesPassThroughTest() throws Exception {
+        mockMvc.perform(get("/libraries/{name}", "other library").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/libraries/cursor").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+
+        verify(existenceRegistry, never()).ids(ExistenceType.LIBRARY_NAME, "cursor");
+    }
+}
@@ -0,0 +1,192 @@
+package com.library.library.controller;
+
+import com.library.library.config.TestWebConfig;
+import com.library.library.controller.filter.IdempotencyFilter;
+import com.library.library.service.BookService;
+import com.library.library.service.LibraryService;
+import com.library.library.service.UserService;
+import com.library.library.service.impl.UserDetailsServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(value = {LibraryController.class, LibrarianController.class})
+@AutoConfigureMockMvc
+@Import(TestWebConfig.class)
+public class IdempotencyFilterTest {
+
+    private static final String EMAIL = "test@email.com";
+    private static final String TITLE = "TEST TITLE";
+    private static final String LIBRARY = "TEST LIBRARY";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LibraryService libraryService;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private BookService bookService;
+
+    @MockBean
+    private UserDetailsServiceImpl userDetailsServiceImpl;
+
+    @MockBean
+    private DataSource dataSource;
+
+    @Test
+    void replayDuplicateRequestTest() throws Exception {
+        givenValidParams();
+
+        mockMvc.perform(reserve("replay-key", TITLE))
+                .andExpect(status().isOk());
+        mockMvc.perform(reserve("replay-key", TITLE))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"));
+
+        verify(libraryService, times(1)).reserveBook(TITLE, EMAIL, LIBRARY);
+    }
+
+    @Test
+    void concurrentDuplicateRequestTest() throws Exception {
+        givenValidParams();
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(libraryService).reserveBook(TITLE, EMAIL, LIBRARY);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MvcResult> first = executor.submit(() -> mockMvc.perform(reserve("concurrent-key", TITLE)).andReturn());
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            Future<MvcResult> second = executor.submit(() -> mockMvc.perform(reserve("concurrent-key", TITLE)).andReturn());
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+            MvcResult replayed = second.get(5, TimeUnit.SECONDS);
+            assertEquals(200, replayed.getResponse().getStatus());
+            assertEquals("true", replayed.getResponse().getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(libraryService, times(1)).reserveBook(TITLE, EMAIL, LIBRARY);
+    }
+
+    @Test
+    void differentKeysExecuteTwiceTest() throws Exception {
+        givenValidParams();
+
+        mockMvc.perform(reserve("first-key", TITLE))
+                .andExpect(status().isOk());
+        mockMvc.perform(reserve("second-key", TITLE))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+
+        verify(libraryService, times(2)).reserveBook(TITLE, EMAIL, LIBRARY);
+    }
+
+    @Test
+    void keyReusedForDifferentRequestTest() throws Exception {
+        givenValidParams();
+        when(bookService.isExistBookTitle("OTHER TITLE")).thenReturn(true);
+
+        mockMvc.perform(reserve("reused-key", TITLE))
+                .andExpect(status().isOk());
+        mockMvc.perform(reserve("reused-key", "OTHER TITLE"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(IdempotencyFilter.IDEMPOTENCY_KEY + " was already used for a different request"));
+
+        verify(libraryService, never()).reserveBook("OTHER TITLE", EMAIL, LIBRARY);
+    }
+
+    @Test
+    void keyReusedForDifferentBodyTest() throws Exception {
+        when(libraryService.isNameAlreadyInUse(LIBRARY)).thenReturn(true);
+        String first = "[{\"userEmail\":\"" + EMAIL + "\",\"bookTitle\":\"" + TITLE + "\"}]";
+        String second = "[{\"userEmail\":\"" + EMAIL + "\",\"bookTitle\":\"OTHER TITLE\"}]";
+
+        mockMvc.perform(batchReserve("batch-key", first))
+                .andExpect(status().isOk());
+        mockMvc.perform(batchReserve("batch-key", first))
+                .andExpect(status().isOk())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"));
+        mockMvc.perform(batchReserve("batch-key", second))
+                .andExpect(status().isUnprocessableEntity());
+
+        verify(libraryService, times(1)).reserveBooks(eq(LIBRARY), any());
+    }
+
+    @Test
+    void withoutKeyNotCachedTest() throws Exception {
+        givenValidParams();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/libraries/reserve")
+                    .with(user(EMAIL).roles("USER"))
+                    .param("bookTitle", TITLE)
+                    .param("libraryName", LIBRARY))
+                    .andExpect(status().isOk());
+        }
+
+        verify(libraryService, times(2)).reserveBook(TITLE, EMAIL, LIBRARY);
+    }
+
+    private void givenValidParams() {
+        when(bookService.isExistBookTitle(TITLE)).thenReturn(true);
+        when(libraryService.isNameAlreadyInUse(LIBRARY)).thenReturn(true);
+    }
+
+    private MockHttpServletRequestBuilder batchReserve(String key, String items) {
+        return post("/librarian/libraries/batch/reserve")
+                .with(user("librarian").roles("LIBRARIAN"))
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .param("libraryName", LIBRARY)
+                .content(items)
+                .contentType(MediaType.APPLICATION_JSON);
+    }
+
+    private MockHttpServletRequestBuilder reserve(String key, String title) {
+        return post("/libraries/reserve")
+                .with(user(EMAIL).roles("USER"))
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                .param("bookTitle", title)
+                .param("libraryName", LIBRARY);
+    }
+}
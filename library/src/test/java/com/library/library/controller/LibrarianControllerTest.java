@@ -3,6 +3,8 @@ package com.library.library.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.library.library.config.TestWebConfig;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
 import com.library.library.controller.dto.LibraryDto;
 import com.library.library.controller.dto.UserDto;
 import com.library.library.service.BookService;
@@ -27,6 +29,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import javax.sql.DataSource;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 
 import static java.lang.String.format;
@@ -1084,7 +1089,7 @@ public class LibrarianControllerTest {
         when(userService.isEmailAlreadyInUse(userDto.getEmail())).thenReturn(true);
         when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
         when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
-        doNothing().when(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        doNothing().when(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         mockMvc.perform(post("/librarian/libraries/return")
                 .param("userEmail", userDto.getEmail())
@@ -1096,7 +1101,7 @@ public class LibrarianControllerTest {
         verify(userService).isEmailAlreadyInUse(userDto.getEmail());
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        verify(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
     }
 
     @Test
@@ -1112,7 +1117,7 @@ public class LibrarianControllerTest {
         verify(userService, never()).isEmailAlreadyInUse(anyString());
         verify(bookService, never()).isExistBookTitle(anyString());
         verify(libraryService, never()).isNameAlreadyInUse(anyString());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1128,7 +1133,7 @@ public class LibrarianControllerTest {
         verify(userService, never()).isEmailAlreadyInUse(anyString());
         verify(bookService, never()).isExistBookTitle(anyString());
         verify(libraryService, never()).isNameAlreadyInUse(anyString());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1151,7 +1156,7 @@ public class LibrarianControllerTest {
         verify(userService).isEmailAlreadyInUse(userDto.getEmail());
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1173,7 +1178,7 @@ public class LibrarianControllerTest {
         verify(userService).isEmailAlreadyInUse(userDto.getEmail());
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1195,7 +1200,7 @@ public class LibrarianControllerTest {
         verify(userService).isEmailAlreadyInUse(userDto.getEmail());
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1205,7 +1210,7 @@ public class LibrarianControllerTest {
         when(userService.isEmailAlreadyInUse(userDto.getEmail())).thenReturn(true);
         when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
         when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
-        doThrow(new BorrowedException(message)).when(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        doThrow(new BorrowedException(message)).when(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         mockMvc.perform(post("/librarian/libraries/return")
                 .param("userEmail", userDto.getEmail())
@@ -1218,7 +1223,117 @@ public class LibrarianControllerTest {
         verify(userService).isEmailAlreadyInUse(userDto.getEmail());
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        verify(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+    }
+
+    @Test
+    void reserveBooksControlTest() throws Exception {
+        List<CirculationItemDto> items = getCirculationItems();
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        when(libraryService.reserveBooks(libraryDto.getName(), items)).thenReturn(Arrays.asList(
+                CirculationResultDto.builder().userEmail(userDto.getEmail()).bookTitle(bookDto.getTitle()).success(true).build(),
+                CirculationResultDto.builder().userEmail("other@email.com").bookTitle(bookDto.getTitle()).success(false)
+                        .message("Available book with this title test doesn't exist in library with this name TEST").build()));
+
+        mockMvc.perform(post("/librarian/libraries/batch/reserve")
+                .param("libraryName", libraryDto.getName())
+                .content(objectMapper.writeValueAsString(items))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true))
+                .andExpect(jsonPath("$[1].success").value(false))
+                .andExpect(jsonPath("$[1].message").value("Available book with this title test doesn't exist in library with this name TEST"));
+
+        verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
+        verify(libraryService).reserveBooks(libraryDto.getName(), items);
+        verify(userService, never()).isEmailAlreadyInUse(any());
+        verify(bookService, never()).isExistBookTitle(any());
+    }
+
+    @Test
+    void borrowBooksControlTest() throws Exception {
+        List<CirculationItemDto> items = getCirculationItems();
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        when(libraryService.borrowBooks(libraryDto.getName(), items)).thenReturn(Collections.singletonList(
+                CirculationResultDto.builder().userEmail(userDto.getEmail()).bookTitle(bookDto.getTitle()).success(true).build()));
+
+        mockMvc.perform(post("/librarian/libraries/batch/borrow")
+                .param("libraryName", libraryDto.getName())
+                .content(objectMapper.writeValueAsString(items))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true));
+
+        verify(libraryService).borrowBooks(libraryDto.getName(), items);
+    }
+
+    @Test
+    void returnBooksControlTest() throws Exception {
+        List<CirculationItemDto> items = getCirculationItems();
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        when(libraryService.returnBooks(libraryDto.getName(), items)).thenReturn(Collections.singletonList(
+                CirculationResultDto.builder().userEmail(userDto.getEmail()).bookTitle(bookDto.getTitle()).success(true).build()));
+
+        mockMvc.perform(post("/librarian/libraries/batch/return")
+                .param("libraryName", libraryDto.getName())
+                .content(objectMapper.writeValueAsString(items))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].success").value(true));
+
+        verify(libraryService).returnBooks(libraryDto.getName(), items);
+    }
+
+    @Test
+    void reserveBooksControlEmptyItemsTest() throws Exception {
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+
+        mockMvc.perform(post("/librarian/libraries/batch/reserve")
+                .param("libraryName", libraryDto.getName())
+                .content("[]")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(libraryService, never()).reserveBooks(any(), any());
+    }
+
+    @Test
+    void reserveBooksControlInvalidEmailTest() throws Exception {
+        List<CirculationItemDto> items = Collections.singletonList(
+                CirculationItemDto.builder().userEmail("fgs.ds.wwe").bookTitle(bookDto.getTitle()).build());
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+
+        mockMvc.perform(post("/librarian/libraries/batch/reserve")
+                .param("libraryName", libraryDto.getName())
+                .content(objectMapper.writeValueAsString(items))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(libraryService, never()).reserveBooks(any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void reserveBooksControlRoleUserTest() throws Exception {
+        mockMvc.perform(post("/librarian/libraries/batch/reserve")
+                .param("libraryName", libraryDto.getName())
+                .content(objectMapper.writeValueAsString(getCirculationItems()))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(libraryService, never()).reserveBooks(any(), any());
+    }
+
+    private List<CirculationItemDto> getCirculationItems() {
+        return Arrays.asList(
+                CirculationItemDto.builder().userEmail(userDto.getEmail()).bookTitle(bookDto.getTitle()).build(),
+                CirculationItemDto.builder().userEmail("other@email.com").bookTitle(bookDto.getTitle()).build());
     }
 
     private LibraryDto getLibraryDto() {
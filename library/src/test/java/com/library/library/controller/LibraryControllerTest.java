@@ -2,7 +2,14 @@ package com.library.library.controller;
 
 import com.library.library.config.TestWebConfig;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookSearchHitDto;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.controller.dto.HoldDto;
 import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.dto.NearbyLibraryDto;
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
 import com.library.library.controller.dto.UserDto;
 import com.library.library.service.BookService;
 import com.library.library.service.LibraryService;
@@ -27,7 +34,6 @@ import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
-import javax.servlet.http.HttpServletRequest;
 import javax.sql.DataSource;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -38,9 +44,8 @@ import java.util.Locale;
 
 import static java.lang.String.format;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
@@ -275,6 +280,112 @@ public class LibraryControllerTest {
         verify(libraryService, never()).deleteUser(anyString(), anyString());
     }
 
+    @Test
+    @WithAnonymousUser
+    void searchBooksTest() throws Exception {
+        when(bookService.searchBooks("dragon", 5)).thenReturn(Collections.singletonList(BookSearchHitDto.builder()
+                .bookId(1L)
+                .title(bookDto.getTitle())
+                .score(2.5)
+                .build()));
+
+        mockMvc.perform(get("/libraries/books/search")
+                .param("query", "dragon")
+                .param("limit", "5"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title").value(bookDto.getTitle()))
+                .andExpect(jsonPath("$[0].score").value(2.5));
+
+        verify(bookService).searchBooks("dragon", 5);
+    }
+
+    @Test
+    @WithAnonymousUser
+    void searchBooksBlankQueryTest() throws Exception {
+        mockMvc.perform(get("/libraries/books/search")
+                .param("query", " "))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(bookService, never()).searchBooks(anyString(), anyInt());
+    }
+
+    @Test
+    @WithAnonymousUser
+    void autocompleteTest() throws Exception {
+        when(bookService.autocomplete("te", CompletionType.TITLE, 10)).thenReturn(Collections.singletonList(CompletionDto.builder()
+                .text(bookDto.getTitle())
+                .type(CompletionType.TITLE)
+                .weight(4)
+                .build()));
+
+        mockMvc.perform(get("/libraries/autocomplete")
+                .param("prefix", "te")
+                .param("type", "TITLE"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value(bookDto.getTitle()))
+                .andExpect(jsonPath("$[0].type").value("TITLE"))
+                .andExpect(jsonPath("$[0].weight").value(4));
+
+        verify(bookService).autocomplete("te", CompletionType.TITLE, 10);
+    }
+
+    @Test
+    @WithAnonymousUser
+    void suggestTest() throws Exception {
+        when(bookService.suggest("tset", SuggestionType.TITLE, 5)).thenReturn(Collections.singletonList(SuggestionDto.builder()
+                .text(bookDto.getTitle())
+                .type(SuggestionType.TITLE)
+                .distance(2)
+                .similarity(0.4)
+                .build()));
+
+        mockMvc.perform(get("/libraries/suggestions")
+                .param("query", "tset")
+                .param("type", "TITLE"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].text").value(bookDto.getTitle()))
+                .andExpect(jsonPath("$[0].type").value("TITLE"))
+                .andExpect(jsonPath("$[0].distance").value(2));
+
+        verify(bookService).suggest("tset", SuggestionType.TITLE, 5);
+    }
+
+    @Test
+    @WithAnonymousUser
+    void getNearestLibrariesTest() throws Exception {
+        when(libraryService.getNearestLibraries(bookDto.getTitle(), "79000", null, null, 3)).thenReturn(Collections.singletonList(
+                NearbyLibraryDto.builder()
+                        .library(libraryDto)
+                        .distanceKm(2.5)
+                        .build()));
+
+        mockMvc.perform(get("/libraries/nearest")
+                .param("bookTitle", bookDto.getTitle())
+                .param("postalCode", "79000")
+                .param("limit", "3"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].library.name").value(libraryDto.getName()))
+                .andExpect(jsonPath("$[0].distanceKm").value(2.5));
+    }
+
+    @Test
+    @WithAnonymousUser
+    void getNearestLibrariesInvalidCoordinatesTest() throws Exception {
+        mockMvc.perform(get("/libraries/nearest")
+                .param("bookTitle", bookDto.getTitle())
+                .param("latitude", "120")
+                .param("longitude", "24"))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+
+        verify(libraryService, never()).getNearestLibraries(any(), any(), any(), any(), anyInt());
+    }
+
     @Test
     @WithAnonymousUser
     void getAllLibrariesByBookTitleTest() throws Exception {
@@ -372,6 +483,71 @@ public class LibraryControllerTest {
         verify(libraryService, never()).getAllBooks(libraryDto.getName());
     }
 
+    @Test
+    @WithMockUser(username = "test@email.com")
+    void holdBookTest() throws Exception {
+        when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        when(libraryService.holdBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName())).thenReturn(HoldDto.builder()
+                .libraryName(libraryDto.getName())
+                .bookTitle(bookDto.getTitle())
+                .position(3)
+                .build());
+
+        mockMvc.perform(post("/libraries/holds")
+                .param("bookTitle", bookDto.getTitle())
+                .param("libraryName", libraryDto.getName()))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved").value(false))
+                .andExpect(jsonPath("$.position").value(3));
+
+        verify(libraryService).holdBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void holdBookTestRoleAdmin() throws Exception {
+        mockMvc.perform(post("/libraries/holds")
+                .param("bookTitle", bookDto.getTitle())
+                .param("libraryName", libraryDto.getName()))
+                .andDo(print())
+                .andExpect(status().isForbidden());
+
+        verify(libraryService, never()).holdBook(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @WithMockUser(username = "test@email.com")
+    void cancelHoldTest() throws Exception {
+        when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        doNothing().when(libraryService).cancelHold(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        mockMvc.perform(delete("/libraries/holds")
+                .param("bookTitle", bookDto.getTitle())
+                .param("libraryName", libraryDto.getName()))
+                .andDo(print())
+                .andExpect(status().isNoContent());
+
+        verify(libraryService).cancelHold(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+    }
+
+    @Test
+    @WithMockUser(username = "test@email.com")
+    void cancelHoldNotFoundTest() throws Exception {
+        when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
+        when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
+        doThrow(new ReservedException(format("Hold with book %s is not found", bookDto.getTitle())))
+                .when(libraryService).cancelHold(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        mockMvc.perform(delete("/libraries/holds")
+                .param("bookTitle", bookDto.getTitle())
+                .param("libraryName", libraryDto.getName()))
+                .andDo(print())
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser(username = "test@email.com")
     void reserveBookTest() throws Exception {
@@ -605,7 +781,7 @@ public class LibraryControllerTest {
     void returnBookTest() throws Exception {
         when(bookService.isExistBookTitle(bookDto.getTitle())).thenReturn(true);
         when(libraryService.isNameAlreadyInUse(libraryDto.getName())).thenReturn(true);
-        doNothing().when(libraryService).returnBook(eq(bookDto.getTitle()), eq(userDto.getEmail()), eq(libraryDto.getName()), isA(HttpServletRequest.class));
+        doNothing().when(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         mockMvc.perform(post("/libraries/return")
                 .param("userEmail", userDto.getEmail())
@@ -616,7 +792,7 @@ public class LibraryControllerTest {
 
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService).returnBook(eq(bookDto.getTitle()), eq(userDto.getEmail()), eq(libraryDto.getName()), isA(HttpServletRequest.class));
+        verify(libraryService).returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
     }
 
     @Test
@@ -632,7 +808,7 @@ public class LibraryControllerTest {
         verify(userService, never()).isEmailAlreadyInUse(anyString());
         verify(bookService, never()).isExistBookTitle(anyString());
         verify(libraryService, never()).isNameAlreadyInUse(anyString());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -648,7 +824,7 @@ public class LibraryControllerTest {
         verify(userService, never()).isEmailAlreadyInUse(anyString());
         verify(bookService, never()).isExistBookTitle(anyString());
         verify(libraryService, never()).isNameAlreadyInUse(anyString());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -664,7 +840,7 @@ public class LibraryControllerTest {
         verify(userService, never()).isEmailAlreadyInUse(anyString());
         verify(bookService, never()).isExistBookTitle(anyString());
         verify(libraryService, never()).isNameAlreadyInUse(anyString());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -685,7 +861,7 @@ public class LibraryControllerTest {
 
         verify(bookService).isExistBookTitle(bookDto.getTitle());
         verify(libraryService).isNameAlreadyInUse(libraryDto.getName());
-        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString(), any());
+        verify(libraryService, never()).returnBook(anyString(), anyString(), anyString());
     }
 
     private LibraryDto getLibraryDto() {
@@ -0,0 +1,190 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.Role;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.exception.InvalidTokenException;
+import com.library.library.service.impl.UserDetailsServiceImpl;
+import com.library.library.service.model.MyUserPrincipal;
+import com.library.library.service.model.User;
+import com.library.library.service.security.AccessToken;
+import com.library.library.service.security.AccessTokenService;
+import com.library.library.service.security.TokenPair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AccessTokenServiceTest {
+
+    private final UserDetailsServiceImpl userDetailsService = mock(UserDetailsServiceImpl.class);
+    private final AccessTokenService service = new AccessTokenService(userDetailsService, "", 900, 86400);
+
+    @BeforeEach
+    void setUp() {
+        when(userDetailsService.loadUserByUsername("test@email.com")).thenReturn(new MyUserPrincipal(user(1L, true)));
+    }
+
+    @Test
+    void verifyAccessTokenTest() {
+        //given
+        TokenPair tokens = service.issue(authenticated(1L));
+        //when
+        AccessToken actual = service.verify(tokens.getAccessToken(), AccessToken.Type.ACCESS);
+        //then
+        assertEquals(AccessToken.Type.ACCESS, actual.getType());
+        assertEquals(1L, actual.getUserId());
+        assertEquals("test@email.com", actual.getUsername());
+        assertEquals(Collections.singletonList("ROLE_USER"), actual.getAuthorities());
+        assertEquals(900, tokens.getExpiresInSeconds());
+    }
+
+    @Test
+    void verifyWrongTypeTest() {
+        TokenPair tokens = service.issue(authenticated(1L));
+
+        assertThrows(InvalidTokenException.class, () -> service.verify(tokens.getRefreshToken(), AccessToken.Type.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> service.verify(tokens.getAccessToken(), AccessToken.Type.REFRESH));
+    }
+
+    @Test
+    void verifyForeignSignatureTest() {
+        TokenPair tokens = new AccessTokenService(userDetailsService, "other-secret", 900, 86400).issue(authenticated(1L));
+
+        assertThrows(InvalidTokenException.class, () -> service.verify(tokens.getAccessToken(), AccessToken.Type.ACCESS));
+    }
+
+    @Test
+    void verifyMalformedTest() {
+        assertThrows(InvalidTokenException.class, () -> service.verify("not-a-token", AccessToken.Type.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> service.verify("@@.@@", AccessToken.Type.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> service.verify(null, AccessToken.Type.ACCESS));
+    }
+
+    @Test
+    void verifyExpiredTest() {
+        AccessTokenService expiring = new AccessTokenService(userDetailsService, "", 0, 86400);
+        TokenPair tokens = expiring.issue(authenticated(1L));
+
+        assertThrows(InvalidTokenException.class, () -> expiring.verify(tokens.getAccessToken(), AccessToken.Type.ACCESS));
+    }
+
+    @Test
+    void refreshRotatesTest() {
+        //given
+        TokenPair tokens = service.issue(authenticated(1L));
+        //when
+        TokenPair refreshed = service.refresh(tokens.getRefreshToken());
+        //then
+        assertNotEquals(tokens.getAccessToken(), refreshed.getAccessToken());
+        assertEquals(1L, service.verify(refreshed.getAccessToken(), AccessToken.Type.ACCESS).getUserId());
+        assertThrows(InvalidTokenException.class, () -> service.refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void concurrentRefreshRotatesOnceTest() throws Exception {
+        //given
+        TokenPair tokens = service.issue(authenticated(1L));
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TokenPair>> results = new ArrayList<>();
+        //when
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return service.refresh(tokens.getRefreshToken());
+            }));
+        }
+        start.countDown();
+        int refreshed = 0;
+        for (Future<TokenPair> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                refreshed++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof InvalidTokenException);
+            }
+        }
+        executor.shutdown();
+        //then
+        assertEquals(1, refreshed);
+    }
+
+    @Test
+    void refreshLockedAccountTest() {
+        //given
+        TokenPair tokens = service.issue(authenticated(1L));
+        when(userDetailsService.loadUserByUsername("test@email.com")).thenReturn(new MyUserPrincipal(user(1L, false)));
+        //then
+        assertThrows(InvalidTokenException.class, () -> service.refresh(tokens.getRefreshToken()));
+    }
+
+    @Test
+    void refreshDeletedAccountTest() {
+        //given
+        TokenPair deleted = service.issue(authenticated(1L));
+        TokenPair recreated = service.issue(authenticated(1L));
+        when(userDetailsService.loadUserByUsername("test@email.com"))
+                .thenThrow(new UsernameNotFoundException("test@email.com"))
+                .thenReturn(new MyUserPrincipal(user(3L, true)));
+        //then
+        assertThrows(InvalidTokenException.class, () -> service.refresh(deleted.getRefreshToken()));
+        assertThrows(InvalidTokenException.class, () -> service.refresh(recreated.getRefreshToken()));
+    }
+
+    @Test
+    void revokeTokenTest() {
+        //given
+        TokenPair tokens = service.issue(authenticated(1L));
+        //when
+        service.revoke(tokens.getAccessToken());
+        //then
+        assertThrows(InvalidTokenException.class, () -> service.verify(tokens.getAccessToken(), AccessToken.Type.ACCESS));
+        assertEquals(1L, service.verify(tokens.getRefreshToken(), AccessToken.Type.REFRESH).getUserId());
+    }
+
+    @Test
+    void accountChangedRevokesUserTokensTest() {
+        //given
+        TokenPair first = service.issue(authenticated(1L));
+        TokenPair second = service.issue(authenticated(2L));
+        //when
+        service.onAccountChanged(AccountChangedEvent.of(1L));
+        //then
+        assertThrows(InvalidTokenException.class, () -> service.verify(first.getAccessToken(), AccessToken.Type.ACCESS));
+        assertThrows(InvalidTokenException.class, () -> service.refresh(first.getRefreshToken()));
+        assertEquals(2L, service.verify(second.getAccessToken(), AccessToken.Type.ACCESS).getUserId());
+    }
+
+    private static Authentication authenticated(Long id) {
+        MyUserPrincipal principal = new MyUserPrincipal(user(id, true));
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private static User user(Long id, boolean nonLocked) {
+        return User.builder()
+                .id(id)
+                .email("test@email.com")
+                .role(Role.USER)
+                .isAccountNonLocked(nonLocked)
+                .build();
+    }
+}
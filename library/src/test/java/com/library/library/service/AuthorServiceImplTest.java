@@ -3,7 +3,11 @@ package com.library.library.service;
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
 import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.AuthorChangedEvent;
 import com.library.library.service.impl.AuthorServiceImpl;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.AuthorMapper;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.model.Author;
@@ -14,6 +18,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -27,6 +32,8 @@ import java.util.Set;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +43,12 @@ public class AuthorServiceImplTest {
     private AuthorServiceImpl libraryService;
     @Mock
     private AuthorRepository authorRepository;
+    @Mock
+    private ExistenceRegistry existenceRegistry;
+    @Mock
+    private NaturalKeyCache naturalKeyCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
 
     private final Book book = getBook();
@@ -53,6 +66,7 @@ public class AuthorServiceImplTest {
 
         //then
         assertEquals(authorDto, actual);
+        verify(eventPublisher).publishEvent(isA(AuthorChangedEvent.class));
     }
 
     @Test
@@ -80,7 +94,7 @@ public class AuthorServiceImplTest {
         author.setBooks(Collections.singleton(book));
         Set<BookDto> expectedBooks = BookMapper.INSTANCE.mapBookDtos(author.getBooks());
         //given
-        when(authorRepository.findAuthorByNickname(author.getNickname())).thenReturn(author);
+        when(naturalKeyCache.authorReference(author.getNickname())).thenReturn(author);
 
         //when
         Set<BookDto> actualBooks = libraryService.getAuthorBooks(author.getNickname());
@@ -92,7 +106,7 @@ public class AuthorServiceImplTest {
     @Test
     void isNicknameAlreadyInUseTest() {
         //given
-        when(authorRepository.existsAuthorByNickname(author.getNickname())).thenReturn(true);
+        when(existenceRegistry.exists(ExistenceType.AUTHOR_NICKNAME, author.getNickname())).thenReturn(true);
 
         //when
         boolean actual = libraryService.isNicknameAlreadyInUse(author.getNickname());
@@ -104,7 +118,7 @@ public class AuthorServiceImplTest {
     @Test
     void isNicknameAlreadyInUseFalseTest() {
         //given
-        when(authorRepository.existsAuthorByNickname(author.getNickname())).thenReturn(false);
+        when(existenceRegistry.exists(ExistenceType.AUTHOR_NICKNAME, author.getNickname())).thenReturn(false);
 
         //when
         boolean actual = libraryService.isNicknameAlreadyInUse(author.getNickname());
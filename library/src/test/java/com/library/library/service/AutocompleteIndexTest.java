@@ -0,0 +1,156 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.AutocompleteReportDto;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.CompletionWeight;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.search.AutocompleteIndex;
+import com.library.library.service.search.CompletionTrie;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AutocompleteIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+    @Mock
+    private LibraryRepository libraryRepository;
+
+    private AutocompleteIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new AutocompleteIndex(bookRepository, authorRepository, libraryRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void completeRanksByWeightTest() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.add("Harry Potter", 1, 5);
+        trie.add("Harry  potter", 1, 2);
+        trie.add("Hard Times", 1, 9);
+        trie.add("Hamlet", 1, 1);
+        trie.add("Dune", 1, 20);
+
+        List<String> completions = texts(trie.complete("har", 10));
+
+        assertEquals(Arrays.asList("Hard Times", "Harry Potter"), completions);
+        assertEquals(7, trie.get("HARRY POTTER").getWeight());
+        assertEquals(2, trie.get("harry potter").getReferences());
+        assertEquals(Collections.singletonList("Hard Times"), texts(trie.complete("ha", 1)));
+        assertTrue(trie.complete("harx", 10).isEmpty());
+        assertEquals(4, trie.size());
+    }
+
+    @Test
+    void removeMergesNodesTest() {
+        CompletionTrie trie = new CompletionTrie();
+        trie.add("abc", 1, 1);
+        trie.add("abd", 1, 1);
+        trie.add("ab", 1, 1);
+        int nodes = trie.nodeCount();
+
+        trie.remove("ab", 1, 1);
+        trie.remove("abd", 1, 1);
+
+        assertEquals(nodes - 2, trie.nodeCount());
+        assertEquals(Collections.singletonList("abc"), texts(trie.complete("a", 10)));
+        assertNull(trie.get("ab"));
+        trie.remove("abc", 1, 1);
+        assertEquals(1, trie.nodeCount());
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    void rebuildFromRepositoriesTest() {
+        //given
+        when(bookRepository.findTitleWeights()).thenReturn(Arrays.asList(weight("Lviv Legends", 3), weight("Lost Lake", 1)));
+        when(authorRepository.findNicknameWeights()).thenReturn(Collections.singletonList(weight("lucky", 2)));
+        when(libraryRepository.findNameWeights()).thenReturn(Collections.singletonList(weight("LVIV CENTRAL", 7)));
+
+        //when
+        index.rebuild();
+
+        //then
+        assertTrue(index.isReady());
+        List<CompletionDto> completions = index.complete("l", null, 3);
+        assertEquals(Arrays.asList("LVIV CENTRAL", "Lviv Legends", "lucky"),
+                completions.stream().map(CompletionDto::getText).collect(Collectors.toList()));
+        assertEquals(CompletionType.LIBRARY, completions.get(0).getType());
+        assertEquals(Collections.singletonList("Lost Lake"),
+                index.complete("lo", CompletionType.TITLE, 10).stream().map(CompletionDto::getText).collect(Collectors.toList()));
+        AutocompleteReportDto report = index.report();
+        assertEquals(4, report.getKeys());
+        assertEquals(2, report.getLookups());
+        assertTrue(report.getEstimatedBytes() > 0);
+        assertEquals(report.getEstimatedBytes() * 1_000_000 / 4, report.getBytesPerMillionKeys());
+    }
+
+    @Test
+    void updateIncrementallyTest() {
+        index.onBookChanged(new BookChangedEvent(1L, "Dune", null, null, false));
+        index.onBookChanged(new BookChangedEvent(2L, "Dune", null, null, false));
+        index.onBookChanged(new BookChangedEvent(3L, "Dracula", null, null, false));
+        index.onBookChanged(new BookChangedEvent(3L, "Emma", "Dracula", null, false));
+        index.onBookChanged(new BookChangedEvent(2L, "Dune", null, null, true));
+        index.onCirculation(new CirculationEvent(CirculationOperation.BORROW, 1L, 1L, 1L, "Dune", Instant.now()));
+        index.onCirculation(new CirculationEvent(CirculationOperation.RETURN, 1L, 1L, 1L, "Dune", Instant.now()));
+        index.onAuthorChanged(new AuthorChangedEvent(1L, null, "dumas", null, "Alexandre Dumas"));
+        index.onLibraryChanged(new LibraryChangedEvent(1L, null, "Dnipro"));
+        index.onLibraryChanged(new LibraryChangedEvent(1L, "Dnipro", "Kyiv"));
+        index.onLibraryChanged(new LibraryChangedEvent(2L, null, "Drohobych"));
+        index.onLibraryChanged(new LibraryChangedEvent(2L, "Drohobych", null));
+
+        List<CompletionDto> completions = index.complete("d", null, 10);
+
+        assertEquals(Arrays.asList("Dune", "dumas"), completions.stream().map(CompletionDto::getText).collect(Collectors.toList()));
+        assertEquals(2, completions.get(0).getWeight());
+        assertEquals("Emma", index.complete("e", CompletionType.TITLE, 10).get(0).getText());
+        assertEquals("Kyiv", index.complete("ky", CompletionType.LIBRARY, 10).get(0).getText());
+        assertEquals(4, index.report().getKeys());
+    }
+
+    private List<String> texts(List<CompletionTrie.Completion> completions) {
+        return completions.stream().map(CompletionTrie.Completion::getText).collect(Collectors.toList());
+    }
+
+    private CompletionWeight weight(String name, long weight) {
+        return new CompletionWeight() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getWeight() {
+                return weight;
+            }
+        };
+    }
+}
@@ -0,0 +1,174 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.AvailabilityReportDto;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.event.CatalogChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({AvailabilityIndex.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class AvailabilityIndexTest {
+
+    private static final String TITLE = "INDEXED TITLE";
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName("INDEX LIB");
+        library.setEmail("index@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void rebuildTest() {
+        saveBook(TITLE, BookStatus.AVAILABLE);
+        saveBook(TITLE, BookStatus.AVAILABLE);
+        saveBook(TITLE, BookStatus.BORROWED);
+
+        availabilityIndex.rebuild();
+
+        assertTrue(availabilityIndex.isReady());
+        assertEquals(2, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(1, availabilityIndex.count(library.getId(), TITLE, BookStatus.BORROWED));
+        assertEquals(Collections.singleton(library.getId()), availabilityIndex.librariesWithAvailable(TITLE));
+        assertTrue(availabilityIndex.containsTitle(TITLE));
+        assertFalse(availabilityIndex.containsTitle("UNKNOWN"));
+    }
+
+    @Test
+    void lookupIgnoresCaseAndTrailingSpacesTest() {
+        Book book = saveBook(TITLE, BookStatus.AVAILABLE);
+        saveBook("Indexed Title ", BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+
+        availabilityIndex.onCirculation(CirculationEvent.of(CirculationOperation.RESERVE, null, book, library));
+
+        assertEquals(1, availabilityIndex.available(library.getId(), "indexed title"));
+        assertEquals(1, availabilityIndex.count(library.getId(), "INDEXED TITLE  ", BookStatus.RESERVED));
+        assertEquals(Collections.singleton(library.getId()), availabilityIndex.librariesWithAvailable("Indexed Title"));
+        assertTrue(availabilityIndex.containsTitle("indexed title "));
+    }
+
+    @Test
+    void circulationEventsTest() {
+        Book book = saveBook(TITLE, BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+
+        availabilityIndex.onCirculation(CirculationEvent.of(CirculationOperation.RESERVE, null, book, library));
+
+        assertEquals(0, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(1, availabilityIndex.count(library.getId(), TITLE, BookStatus.RESERVED));
+        assertTrue(availabilityIndex.librariesWithAvailable(TITLE).isEmpty());
+    }
+
+    @Test
+    void concurrentCirculationEventsTest() throws Exception {
+        Book book = saveBook(TITLE, BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                availabilityIndex.onCirculation(CirculationEvent.of(CirculationOperation.RESERVE, null, book, library));
+                availabilityIndex.onCirculation(CirculationEvent.of(CirculationOperation.EXPIRE, null, book, library));
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(1, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(0, availabilityIndex.count(library.getId(), TITLE, BookStatus.RESERVED));
+    }
+
+    @Test
+    void catalogChangedTest() {
+        saveBook(TITLE, BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+        saveBook(TITLE, BookStatus.AVAILABLE);
+        saveBook("OTHER TITLE", BookStatus.RESERVED);
+
+        availabilityIndex.onCatalogChanged(new CatalogChangedEvent(library.getId()));
+
+        assertEquals(2, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(1, availabilityIndex.count(library.getId(), "OTHER TITLE", BookStatus.RESERVED));
+    }
+
+    @Test
+    void catalogChangedDropsRemovedTitlesTest() {
+        Book book = saveBook(TITLE, BookStatus.AVAILABLE);
+        saveBook("OTHER TITLE", BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+        bookRepository.delete(book);
+
+        availabilityIndex.onCatalogChanged(new CatalogChangedEvent(library.getId()));
+
+        assertFalse(availabilityIndex.containsTitle(TITLE));
+        assertEquals(1, availabilityIndex.available(library.getId(), "OTHER TITLE"));
+    }
+
+    @Test
+    void checkAndRepairTest() {
+        Book book = saveBook(TITLE, BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+        availabilityIndex.onCirculation(CirculationEvent.of(CirculationOperation.RESERVE, null, book, library));
+
+        AvailabilityReportDto report = availabilityIndex.check(true);
+
+        assertFalse(report.isConsistent());
+        assertTrue(report.isRepaired());
+        assertEquals(2, report.getMismatches().size());
+        assertEquals(1, report.getChecked());
+        assertTrue(availabilityIndex.check(false).isConsistent());
+        assertEquals(1, availabilityIndex.available(library.getId(), TITLE));
+    }
+
+    private Book saveBook(String title, BookStatus status) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setStatus(status);
+        book.setLibrary(library);
+        return bookRepository.save(book);
+    }
+}
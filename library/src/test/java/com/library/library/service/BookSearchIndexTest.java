@@ -0,0 +1,154 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookSearchHitDto;
+import com.library.library.controller.dto.SearchIndexReportDto;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.SearchDocument;
+import com.library.library.service.search.BookSearchIndex;
+import com.library.library.service.search.TextAnalyzer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex(bookRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void analyzeTest() {
+        assertEquals(Arrays.asList("dragon", "rid", "library", "box"), TextAnalyzer.analyze("The Dragons riding LIBRARIES, boxes!"));
+        assertEquals(Collections.emptyList(), TextAnalyzer.analyze(null));
+    }
+
+    @Test
+    void rebuildFromRepositoryTest() {
+        //given
+        when(bookRepository.findSearchDocuments(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(
+                document(1L, "Dragon Rider", "A boy and his dragon"),
+                document(2L, "Sea Stories", "Pirates and ships")));
+
+        //when
+        index.rebuild();
+
+        //then
+        assertTrue(index.isReady());
+        List<BookSearchHitDto> hits = index.search("dragons", 10);
+        assertEquals(1, hits.size());
+        assertEquals(1L, hits.get(0).getBookId());
+    }
+
+    @Test
+    void rankTitleMatchFirstTest() {
+        index.index(1L, "Cooking Basics", "Recipes for every dragon lover");
+        index.index(2L, "Dragon Cookbook", "Recipes from the mountains");
+        index.index(3L, "Garden Guide", "Flowers and trees");
+
+        List<BookSearchHitDto> hits = index.search("dragon recipes", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals("Dragon Cookbook", hits.get(0).getTitle());
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+    }
+
+    @Test
+    void collapseCopiesOfSameTitleTest() {
+        index.index(1L, "Dragon Rider", "A boy and his dragon");
+        index.index(2L, "Dragon Rider", "A boy and his dragon");
+        index.index(3L, "Dragon Tales", "Short stories");
+
+        List<BookSearchHitDto> hits = index.search("dragon", 10);
+
+        assertEquals(2, hits.size());
+        assertEquals(1, index.search("dragon", 1).size());
+    }
+
+    @Test
+    void updateAndDeleteIncrementallyTest() {
+        index.index(1L, "Dragon Rider", "A boy and his dragon");
+        index.index(2L, "Sea Stories", "Pirates and ships");
+
+        index.onBookChanged(new BookChangedEvent(1L, "Space Rider", "Dragon Rider", "Rockets and stars", false));
+        index.onBookChanged(new BookChangedEvent(2L, "Sea Stories", null, null, true));
+
+        assertTrue(index.search("dragon", 10).isEmpty());
+        assertTrue(index.search("pirates", 10).isEmpty());
+        assertEquals("Space Rider", index.search("rockets", 10).get(0).getTitle());
+        SearchIndexReportDto report = index.report();
+        assertEquals(1, report.getDocuments());
+        assertEquals(2, report.getDeletedDocuments());
+    }
+
+    @Test
+    void compactDeletedDocumentsTest() {
+        for (long id = 0; id < 2000; id++) {
+            index.index(id, "Title " + id, id % 2 == 0 ? "even dragon" : "odd griffin");
+        }
+        for (long id = 0; id < 1000; id++) {
+            index.remove(id);
+        }
+
+        SearchIndexReportDto report = index.report();
+        assertEquals(1000, report.getDocuments());
+        assertEquals(0, report.getDeletedDocuments());
+        assertEquals(4000, report.getPostings());
+        assertEquals(100, index.search("dragon", 100).size());
+        assertEquals("Title 1999", index.search("griffin 1999", 1).get(0).getTitle());
+    }
+
+    @Test
+    void reportQueryLatencyTest() {
+        index.index(1L, "Dragon Rider", "A boy and his dragon");
+        index.search("dragon", 10);
+        index.search("boy", 10);
+
+        SearchIndexReportDto report = index.report();
+
+        assertEquals(2, report.getQueries());
+        assertEquals(1, report.getDocuments());
+        assertTrue(report.getEstimatedBytes() > 0);
+        assertTrue(report.getMaxMicros() > 0);
+    }
+
+    private SearchDocument document(Long id, String title, String description) {
+        return new SearchDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
@@ -2,39 +2,69 @@ package com.library.library.service;
 
 import com.library.library.controller.dto.AuthorDto;
 import com.library.library.controller.dto.BookDto;
+import com.library.library.controller.dto.BookSearchHitDto;
 import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CompletionDto;
+import com.library.library.controller.dto.CompletionType;
+import com.library.library.controller.dto.CursorPageDto;
+import com.library.library.controller.dto.FacetedBooksDto;
 import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.BookChangedEvent;
 import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.exception.LibraryException;
 import com.library.library.service.impl.BookServiceImpl;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.AuthorMapper;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.model.Author;
 import com.library.library.service.model.Book;
-import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.model.Library;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.search.AutocompleteIndex;
+import com.library.library.service.search.BookSearchIndex;
+import com.library.library.service.search.FacetIndex;
+import com.library.library.service.search.FuzzyIndex;
+import com.library.library.service.search.FacetResult;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -44,7 +74,21 @@ public class BookServiceImplTest {
     @Mock
     private BookRepository bookRepository;
     @Mock
-    private AuthorRepository authorRepository;
+    private BookSearchIndex searchIndex;
+    @Mock
+    private AutocompleteIndex autocompleteIndex;
+    @Mock
+    private FacetIndex facetIndex;
+    @Mock
+    private FuzzyIndex fuzzyIndex;
+    @Mock
+    private ExistenceRegistry existenceRegistry;
+    @Mock
+    private LibraryRepository libraryRepository;
+    @Mock
+    private NaturalKeyCache naturalKeyCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
 
     private final Author author = getAuthor();
@@ -86,10 +130,49 @@ public class BookServiceImplTest {
         assertEquals(expectedPage, actualPage);
     }
 
+    @Test
+    void scrollBooksTest() {
+        Book next = getBook();
+        book.setId(11L);
+        next.setId(12L);
+        //given
+        when(bookRepository.findPageAfter(10L, PageRequest.of(0, 2))).thenReturn(Arrays.asList(book, next));
+
+        //when
+        CursorPageDto<BookDto> actual = bookService.scrollBooks(KeysetCursor.encode(10L), 1);
+
+        //then
+        assertEquals(Collections.singletonList(bookDto), actual.getContent());
+        assertEquals(1, actual.getSize());
+        assertTrue(actual.isHasNext());
+        assertEquals(KeysetCursor.encode(11L), actual.getNextCursor());
+    }
+
+    @Test
+    void scrollBooksLastPageTest() {
+        book.setId(11L);
+        //given
+        when(bookRepository.findPageAfter(0L, PageRequest.of(0, 3))).thenReturn(Collections.singletonList(book));
+
+        //when
+        CursorPageDto<BookDto> actual = bookService.scrollBooks(null, 2);
+
+        //then
+        assertEquals(Collections.singletonList(bookDto), actual.getContent());
+        assertFalse(actual.isHasNext());
+        assertNull(actual.getNextCursor());
+    }
+
+    @Test
+    void scrollBooksInvalidCursorTest() {
+        assertThrows(LibraryException.class, () -> bookService.scrollBooks("not-a-cursor", 10));
+        verifyNoInteractions(bookRepository);
+    }
+
     @Test
     void createBookTest() {
         //given
-        when(authorRepository.findAuthorByNickname(author.getNickname())).thenReturn(author);
+        when(naturalKeyCache.authorReference(author.getNickname())).thenReturn(author);
         when(bookRepository.save(book)).thenReturn(book);
 
         //when
@@ -97,6 +180,7 @@ public class BookServiceImplTest {
 
         //then
         assertEquals(bookDto, actual);
+        verify(eventPublisher).publishEvent(isA(BookChangedEvent.class));
     }
 
     @Test
@@ -188,14 +272,15 @@ public class BookServiceImplTest {
     @Test
     void isExistBookTitleTest() {
         //given
-        when(bookRepository.existsBookByTitle(bookDto.getTitle())).thenReturn(true);
+        when(existenceRegistry.exists(ExistenceType.BOOK_TITLE, bookDto.getTitle())).thenReturn(true);
 
         //when
         boolean actual = bookService.isExistBookTitle(bookDto.getTitle());
 
         //then
         assertTrue(actual);
-        verify(bookRepository, only()).existsBookByTitle(bookDto.getTitle());
+        verify(existenceRegistry, only()).exists(ExistenceType.BOOK_TITLE, bookDto.getTitle());
+        verify(bookRepository, never()).existsBookByTitle(any());
     }
 
     @Test
@@ -211,6 +296,7 @@ public class BookServiceImplTest {
         //then
         verify(bookRepository).findById(book.getId());
         verify(bookRepository).delete(book);
+        verify(eventPublisher).publishEvent(isA(BookChangedEvent.class));
     }
 
     @Test
@@ -228,6 +314,105 @@ public class BookServiceImplTest {
         verify(bookRepository, never()).delete(any());
     }
 
+    @Test
+    void searchBooksTest() {
+        List<BookSearchHitDto> hits = Collections.singletonList(BookSearchHitDto.builder()
+                .bookId(132L)
+                .title(bookDto.getTitle())
+                .score(1.5)
+                .build());
+        //given
+        when(searchIndex.search("dragon", 10)).thenReturn(hits);
+
+        //when
+        List<BookSearchHitDto> actual = bookService.searchBooks("dragon", 10);
+
+        //then
+        assertEquals(hits, actual);
+        verify(searchIndex, only()).search("dragon", 10);
+    }
+
+    @Test
+    void suggestTest() {
+        List<SuggestionDto> suggestions = Collections.singletonList(SuggestionDto.builder()
+                .text(bookDto.getTitle())
+                .type(SuggestionType.TITLE)
+                .distance(1)
+                .similarity(0.6)
+                .build());
+        //given
+        when(fuzzyIndex.suggest("tset", null, 5)).thenReturn(suggestions);
+
+        //when
+        List<SuggestionDto> actual = bookService.suggest("tset", null, 5);
+
+        //then
+        assertEquals(suggestions, actual);
+        verify(fuzzyIndex, only()).suggest("tset", null, 5);
+    }
+
+    @Test
+    void autocompleteTest() {
+        List<CompletionDto> completions = Collections.singletonList(CompletionDto.builder()
+                .text(bookDto.getTitle())
+                .type(CompletionType.TITLE)
+                .weight(3)
+                .build());
+        //given
+        when(autocompleteIndex.complete("te", CompletionType.TITLE, 5)).thenReturn(completions);
+
+        //when
+        List<CompletionDto> actual = bookService.autocomplete("te", CompletionType.TITLE, 5);
+
+        //then
+        assertEquals(completions, actual);
+        verify(autocompleteIndex, only()).complete("te", CompletionType.TITLE, 5);
+    }
+
+    @Test
+    void getFacetedBooksTest() {
+        Library library = new Library();
+        library.setId(7L);
+        library.setLibraryName("LVIV LIB");
+        book.setId(132L);
+        Pageable pageable = PageRequest.of(0, 10);
+        FacetResult result = FacetResult.builder()
+                .total(1)
+                .bookIds(Collections.singletonList(132L))
+                .genres(Collections.singletonMap(Genre.FANTASY, 1L))
+                .statuses(Collections.singletonMap(BookStatus.AVAILABLE, 1L))
+                .years(Collections.singletonMap(2001, 1L))
+                .libraries(Collections.singletonMap(7L, 1L))
+                .build();
+        //given
+        when(naturalKeyCache.library("LVIV LIB"))
+                .thenReturn(new SpelAwareProxyProjectionFactory().createProjection(LibrarySummary.class, library));
+        when(facetIndex.search(null, null, 2000, 2010, 7L, 0, 10)).thenReturn(result);
+        when(bookRepository.findAllById(result.getBookIds())).thenReturn(Collections.singletonList(book));
+        when(libraryRepository.findAllById(result.getLibraries().keySet())).thenReturn(Collections.singletonList(library));
+
+        //when
+        FacetedBooksDto actual = bookService.getFacetedBooks(null, null, 2000, 2010, "LVIV LIB", pageable);
+
+        //then
+        assertEquals(1, actual.getTotal());
+        assertEquals(Collections.singletonList(bookDto), actual.getBooks());
+        assertEquals(Collections.singletonMap("LVIV LIB", 1L), actual.getLibraries());
+        assertEquals(result.getGenres(), actual.getGenres());
+    }
+
+    @Test
+    void getFacetedBooksUnknownLibraryTest() {
+        //given
+        when(naturalKeyCache.library("NOWHERE")).thenReturn(null);
+
+        //when
+        //then
+        assertThrows(EntityNotFoundException.class,
+                () -> bookService.getFacetedBooks(null, null, null, null, "NOWHERE", PageRequest.of(0, 10)));
+        verify(facetIndex, never()).search(any(), any(), any(), any(), any(), anyLong(), anyInt());
+    }
+
     private Book getBook() {
         Book newBook = BookMapper.INSTANCE.mapBook(getBookDto());
         newBook.setAuthor(author);
@@ -0,0 +1,127 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.Role;
+import com.library.library.service.model.MyUserPrincipal;
+import com.library.library.service.model.User;
+import com.library.library.service.security.AuthenticationCache;
+import com.library.library.service.security.CachingAuthenticationProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private AuthenticationCache cache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticationCache(new SimpleMeterRegistry(), 300, 100);
+        provider = new CachingAuthenticationProvider(delegate, cache);
+    }
+
+    @Test
+    void authenticateHitSkipsDelegateTest() {
+        //given
+        when(delegate.authenticate(any())).thenReturn(authenticated(1L));
+        //when
+        provider.authenticate(request("test@email.com", "12345q"));
+        Authentication actual = provider.authenticate(request("test@email.com", "12345q"));
+        //then
+        verify(delegate).authenticate(any());
+        assertTrue(actual.isAuthenticated());
+        assertNull(actual.getCredentials());
+        assertEquals(1L, ((MyUserPrincipal) actual.getPrincipal()).getId());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void authenticateWrongPasswordMissesTest() {
+        //given
+        when(delegate.authenticate(any())).thenReturn(authenticated(1L))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+        //when
+        provider.authenticate(request("test@email.com", "12345q"));
+        //then
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(request("test@email.com", "wrong")));
+        verify(delegate, times(2)).authenticate(any());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void authenticateAfterEvictTest() {
+        //given
+        when(delegate.authenticate(any())).thenReturn(authenticated(1L));
+        provider.authenticate(request("test@email.com", "12345q"));
+        //when
+        cache.evict(Collections.singletonList(1L));
+        provider.authenticate(request("test@email.com", "12345q"));
+        //then
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void evictKeepsOtherUsersTest() {
+        //given
+        when(delegate.authenticate(any())).thenReturn(authenticated(1L), authenticated(1L), authenticated(2L));
+        provider.authenticate(request("test@email.com", "12345q"));
+        provider.authenticate(request("test@email.com", "other"));
+        provider.authenticate(request("second@email.com", "12345q"));
+        //when
+        cache.evict(Collections.singletonList(1L));
+        provider.authenticate(request("second@email.com", "12345q"));
+        //then
+        verify(delegate, times(3)).authenticate(any());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void authenticateDoesNotCacheAcrossEvictTest() {
+        //given
+        when(delegate.authenticate(any())).thenAnswer(invocation -> {
+            cache.evict(Collections.singletonList(1L));
+            return authenticated(1L);
+        });
+        //when
+        provider.authenticate(request("test@email.com", "12345q"));
+        //then
+        assertEquals(0, cache.size());
+    }
+
+    private static Authentication request(String username, String password) {
+        return new UsernamePasswordAuthenticationToken(username, password);
+    }
+
+    private static Authentication authenticated(Long id) {
+        User user = User.builder()
+                .id(id)
+                .email("test@email.com")
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build();
+        MyUserPrincipal principal = new MyUserPrincipal(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
@@ -0,0 +1,147 @@
+package com.library.library.service;
+
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.journal.CirculationJournal;
+import com.library.library.service.journal.JournalEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class CirculationJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private CirculationJournal journal;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Test
+    void appendAndReplayTest() throws Exception {
+        journal = open(16, 1024);
+        Instant now = Instant.ofEpochMilli(1_600_000_000_000L);
+
+        journal.append(new CirculationEvent(CirculationOperation.RESERVE, 1L, 2L, 3L, "TITLE", now));
+        journal.append(new CirculationEvent(CirculationOperation.EXPIRE, null, 2L, 3L, "TITLE", now));
+        awaitCommitted(2);
+
+        List<JournalEntry> entries = journal.read(0, 10);
+        assertEquals(2, entries.size());
+        assertEquals(0, entries.get(0).getSequence());
+        assertEquals(CirculationOperation.RESERVE, entries.get(0).getOperation());
+        assertEquals(1L, entries.get(0).getUserId());
+        assertEquals(2L, entries.get(0).getBookId());
+        assertEquals(3L, entries.get(0).getLibraryId());
+        assertEquals(now, entries.get(0).getTimestamp());
+        assertEquals(CirculationOperation.EXPIRE, entries.get(1).getOperation());
+        assertNull(entries.get(1).getUserId());
+    }
+
+    @Test
+    void rollSegmentsAndTailTest() throws Exception {
+        journal = open(4, 1024);
+        for (long i = 0; i < 10; i++) {
+            journal.append(new CirculationEvent(CirculationOperation.BORROW, i, i, 1L, "TITLE", Instant.now()));
+        }
+        awaitCommitted(10);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(3, files.count());
+        }
+        List<JournalEntry> tail = new ArrayList<>();
+        long next = journal.replay(3, 5, tail::add);
+        assertEquals(8, next);
+        assertEquals(5, tail.size());
+        assertEquals(3L, tail.get(0).getUserId());
+        next = journal.replay(next, Long.MAX_VALUE, tail::add);
+        assertEquals(10, next);
+        assertEquals(7, tail.size());
+        assertEquals(9L, tail.get(6).getUserId());
+    }
+
+    @Test
+    void recoverAfterRestartTest() throws Exception {
+        journal = open(4, 1024);
+        for (long i = 0; i < 6; i++) {
+            journal.append(new CirculationEvent(CirculationOperation.RETURN, i, i, 1L, "TITLE", Instant.now()));
+        }
+        awaitCommitted(6);
+        journal.close();
+
+        journal = open(4, 1024);
+        assertEquals(6, journal.committedSequence());
+        journal.append(new CirculationEvent(CirculationOperation.ADD, null, 42L, 1L, "TITLE", Instant.now()));
+        awaitCommitted(7);
+
+        List<JournalEntry> entries = journal.read(0, 100);
+        assertEquals(7, entries.size());
+        assertEquals(6, entries.get(6).getSequence());
+        assertEquals(42L, entries.get(6).getBookId());
+    }
+
+    @Test
+    void appendManyEventsTest() throws Exception {
+        int events = 200_000;
+        journal = open(65_536, events);
+        Instant now = Instant.now();
+        for (long i = 0; i < events; i++) {
+            journal.append(new CirculationEvent(CirculationOperation.RESERVE, i, i, 1L, "TITLE", now));
+        }
+        awaitCommitted(events);
+
+        long[] expected = {0};
+        journal.replay(0, Long.MAX_VALUE, entry -> assertEquals(expected[0]++, entry.getSequence()));
+        assertEquals(events, expected[0]);
+    }
+
+    @Test
+    void fullQueueWritesInlineInsteadOfDroppingTest() throws Exception {
+        int events = 20_000;
+        journal = open(65_536, 1, 0);
+        Instant now = Instant.now();
+        for (long i = 0; i < events; i++) {
+            journal.append(new CirculationEvent(CirculationOperation.BORROW, i, i, 1L, "TITLE", now));
+        }
+        awaitCommitted(events);
+
+        Set<Long> books = new HashSet<>();
+        journal.replay(0, Long.MAX_VALUE, entry -> books.add(entry.getBookId()));
+        assertEquals(events, books.size());
+    }
+
+    private CirculationJournal open(int segmentRecords, int queueCapacity) {
+        return open(segmentRecords, queueCapacity, 50);
+    }
+
+    private CirculationJournal open(int segmentRecords, int queueCapacity, long offerTimeoutMillis) {
+        return new CirculationJournal(directory.toString(), segmentRecords, queueCapacity, 4096, offerTimeoutMillis,
+                new SimpleMeterRegistry());
+    }
+
+    private void awaitCommitted(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (journal.committedSequence() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, journal.committedSequence());
+    }
+}
@@ -0,0 +1,150 @@
+package com.library.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.LibraryController;
+import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.filter.ConditionalGetInterceptor;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.cache.ResourceVersions;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.model.Library;
+import com.library.library.service.repository.LibraryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({TestIndexConfig.class, ConditionalGetInterceptor.class, HoldQueue.class, LibraryServiceImpl.class,
+        ResourceVersions.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ConditionalGetQueryCountTest {
+
+    private static final String LIBRARY_NAME = "CENTRAL";
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private ExistenceRegistry existenceRegistry;
+    @Autowired
+    private NaturalKeyCache naturalKeyCache;
+    @Autowired
+    private ConditionalGetInterceptor conditionalGetInterceptor;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+    @MockBean
+    private BookService bookService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger rendered = new AtomicInteger();
+    private Statistics statistics;
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        library = new Library();
+        library.setLibraryName(LIBRARY_NAME);
+        library.setEmail("central@lib.com");
+        library.setPhone("+380500000000");
+        library.setCountry("UKRAINE");
+        library.setCity("LVIV");
+        library.setAddress("STREET 1");
+        library.setPostalCode("79000");
+        library.setWrittenOn(Instant.now());
+        libraryRepository.save(library);
+        existenceRegistry.rebuild();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        libraryRepository.deleteAllInBatch();
+        naturalKeyCache.evictLibrary(library.getId());
+    }
+
+    @Test
+    void notModifiedLibraryRunsNoSqlTest() throws Exception {
+        //given
+        MockHttpServletResponse first = get(null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertEquals(HttpStatus.OK.value(), first.getStatus());
+        assertNotNull(etag);
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        statistics.clear();
+
+        //when
+        MockHttpServletResponse second = get(etag);
+
+        //then
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), second.getStatus());
+        assertEquals(etag, second.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, second.getContentLength());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, rendered.get());
+    }
+
+    @Test
+    void updatedLibraryIsRenderedAgainTest() throws Exception {
+        //given
+        String etag = get(null).getHeader(HttpHeaders.ETAG);
+
+        //when
+        libraryService.updateLibrary(LIBRARY_NAME, LibraryDto.builder().phone("+380500000001").build());
+        MockHttpServletResponse response = get(etag);
+
+        //then
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertTrue(response.getContentAsString().contains("+380500000001"));
+        assertEquals(2, rendered.get());
+    }
+
+    private MockHttpServletResponse get(String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/libraries/" + LIBRARY_NAME);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Collections.singletonMap("name", LIBRARY_NAME));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        LibraryController controller = new LibraryController(libraryService, bookService);
+        HandlerMethod handler = new HandlerMethod(controller, LibraryController.class.getMethod("getLibrary", String.class));
+        if (conditionalGetInterceptor.preHandle(request, response, handler)) {
+            rendered.incrementAndGet();
+            response.getWriter().write(objectMapper.writeValueAsString(controller.getLibrary(LIBRARY_NAME)));
+        }
+        return response;
+    }
+}
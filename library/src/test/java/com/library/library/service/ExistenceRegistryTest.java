@@ -0,0 +1,276 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.ExistenceReportDto;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.NaturalKey;
+import com.library.library.service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ExistenceRegistryTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private LibraryRepository libraryRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    private ExistenceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ExistenceRegistry(bookRepository, libraryRepository, authorRepository, userRepository, 0.01, 16);
+    }
+
+    @Test
+    void existsAfterRebuildWithoutQueryTest() {
+        //given
+        when(libraryRepository.findNameKeys()).thenReturn(Arrays.asList(key("Dnipro", 1L), key("Kyiv", 2L)));
+        //when
+        registry.rebuild(ExistenceType.LIBRARY_NAME);
+        //then
+        assertTrue(registry.isReady(ExistenceType.LIBRARY_NAME));
+        assertTrue(registry.exists(ExistenceType.LIBRARY_NAME, "Kyiv"));
+        assertFalse(registry.exists(ExistenceType.LIBRARY_NAME, null));
+        verify(libraryRepository, never()).existsLibraryByLibraryName(any());
+    }
+
+    @Test
+    void existsBeforeRebuildFallsBackTest() {
+        //given
+        when(userRepository.existsUserByEmail("test@email.com")).thenReturn(true);
+        //when
+        boolean actual = registry.exists(ExistenceType.USER_EMAIL, "test@email.com");
+        //then
+        assertTrue(actual);
+        assertFalse(registry.isReady(ExistenceType.USER_EMAIL));
+    }
+
+    @Test
+    void existsCaseVariantFallsBackTest() {
+        //given
+        when(authorRepository.findNicknameKeys()).thenReturn(Collections.singletonList(key("Franko", 1L)));
+        when(authorRepository.existsAuthorByNickname("franko ")).thenReturn(true);
+        registry.rebuild(ExistenceType.AUTHOR_NICKNAME);
+        //when
+        boolean actual = registry.exists(ExistenceType.AUTHOR_NICKNAME, "franko ");
+        //then
+        assertTrue(actual);
+        verify(authorRepository).existsAuthorByNickname("franko ");
+    }
+
+    @Test
+    void bookTitleKeptUntilLastCopyDeletedTest() {
+        //given
+        when(bookRepository.findTitleKeys()).thenReturn(Arrays.asList(key("Kobzar", 1L), key("Kobzar", 2L)));
+        registry.rebuild(ExistenceType.BOOK_TITLE);
+        //when
+        registry.onBookCommitted(new BookChangedEvent(1L, "Kobzar", null, null, true));
+        //then
+        assertTrue(registry.exists(ExistenceType.BOOK_TITLE, "Kobzar"));
+        registry.onBookCommitted(new BookChangedEvent(2L, "Kobzar", null, null, true));
+        assertEquals(0, report(ExistenceType.BOOK_TITLE).getKeys());
+    }
+
+    @Test
+    void renameAddsBeforeCommitAndRemovesAfterTest() {
+        //given
+        when(libraryRepository.findNameKeys()).thenReturn(Collections.singletonList(key("Dnipro", 1L)));
+        registry.rebuild(ExistenceType.LIBRARY_NAME);
+        LibraryChangedEvent rename = new LibraryChangedEvent(1L, "Dnipro", "Kyiv");
+        //when
+        registry.onLibraryWriting(rename);
+        //then
+        assertTrue(registry.exists(ExistenceType.LIBRARY_NAME, "Dnipro"));
+        assertTrue(registry.exists(ExistenceType.LIBRARY_NAME, "Kyiv"));
+        registry.onLibraryCommitted(rename);
+        assertTrue(registry.exists(ExistenceType.LIBRARY_NAME, "Kyiv"));
+        assertEquals(1, report(ExistenceType.LIBRARY_NAME).getKeys());
+    }
+
+    @Test
+    void rollbackRemovesAddedKeyTest() {
+        //given
+        registry.rebuild(ExistenceType.USER_EMAIL);
+        UserChangedEvent created = new UserChangedEvent(5L, null, "new@email.com");
+        registry.onUserWriting(created);
+        //when
+        registry.onUserRolledBack(created);
+        //then
+        assertFalse(registry.exists(ExistenceType.USER_EMAIL, "new@email.com"));
+        assertEquals(0, report(ExistenceType.USER_EMAIL).getKeys());
+    }
+
+    @Test
+    void rebuildKeepsKeyCommittedAfterSnapshotTest() {
+        //given
+        UserChangedEvent created = new UserChangedEvent(5L, null, "late@email.com");
+        registry.onUserWriting(created);
+        when(userRepository.findEmailKeys()).thenReturn(Collections.emptyList());
+        //when
+        registry.rebuild(ExistenceType.USER_EMAIL);
+        registry.onUserCommitted(created);
+        //then
+        assertTrue(registry.exists(ExistenceType.USER_EMAIL, "late@email.com"));
+        verify(userRepository, never()).existsUserByEmail(any());
+    }
+
+    @Test
+    void reportCountsFalsePositivesTest() {
+        //given
+        List<NaturalKey> keys = new ArrayList<>();
+        for (long i = 0; i < 10_000; i++) {
+            keys.add(key("library " + i, i));
+        }
+        when(libraryRepository.findNameKeys()).thenReturn(keys);
+        registry.rebuild(ExistenceType.LIBRARY_NAME);
+        //when
+        for (int i = 0; i < 10_000; i++) {
+            registry.exists(ExistenceType.LIBRARY_NAME, "missing " + i);
+        }
+        //then
+        ExistenceReportDto report = report(ExistenceType.LIBRARY_NAME);
+        assertEquals(10_000, report.getKeys());
+        assertEquals(10_000, report.getLookups());
+        assertEquals(report.getFalsePositives(), report.getDbFallbacks());
+        assertTrue(report.getObservedFpp() < 0.03, "observed fpp " + report.getObservedFpp());
+        assertTrue(report.getBytesPerMillionKeys() > 0);
+    }
+
+    @Test
+    void noFalseNegativesUnderConcurrentWritesTest() throws Exception {
+        Map<String, Long> database = new ConcurrentHashMap<>();
+        List<String> committed = new CopyOnWriteArrayList<>();
+        lenient().when(libraryRepository.findNameKeys()).thenAnswer(invocation -> database.entrySet().stream()
+                .map(entry -> key(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList()));
+        lenient().when(libraryRepository.existsLibraryByLibraryName(any())).thenReturn(false);
+        registry.rebuild(ExistenceType.LIBRARY_NAME);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong ids = new AtomicLong();
+        AtomicLong misses = new AtomicLong();
+        AtomicLong checks = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < 3; w++) {
+            futures.add(executor.submit(() -> {
+                while (running.get()) {
+                    long id = ids.incrementAndGet();
+                    String name = "library " + id;
+                    LibraryChangedEvent created = new LibraryChangedEvent(id, null, name);
+                    registry.onLibraryWriting(created);
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                        registry.onLibraryRolledBack(created);
+                        continue;
+                    }
+                    database.put(name, id);
+                    committed.add(name);
+                    registry.onLibraryCommitted(created);
+                    if (id % 3 == 0) {
+                        String renamed = "renamed " + id;
+                        LibraryChangedEvent rename = new LibraryChangedEvent(id, name, renamed);
+                        registry.onLibraryWriting(rename);
+                        database.put(renamed, id);
+                        committed.add(renamed);
+                        committed.remove(name);
+                        database.remove(name);
+                        registry.onLibraryCommitted(rename);
+                    }
+                }
+            }));
+        }
+        futures.add(executor.submit(() -> {
+            while (running.get()) {
+                registry.rebuild(ExistenceType.LIBRARY_NAME);
+            }
+        }));
+        for (int r = 0; r < 4; r++) {
+            futures.add(executor.submit(() -> {
+                while (running.get()) {
+                    int size = committed.size();
+                    if (size == 0) {
+                        continue;
+                    }
+                    String name = committed.get(ThreadLocalRandom.current().nextInt(size));
+                    boolean exists = registry.exists(ExistenceType.LIBRARY_NAME, name);
+                    checks.incrementAndGet();
+                    if (!exists && committed.contains(name)) {
+                        misses.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        TimeUnit.SECONDS.sleep(2);
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        registry.rebuild(ExistenceType.LIBRARY_NAME);
+        for (String name : committed) {
+            assertTrue(registry.exists(ExistenceType.LIBRARY_NAME, name), name);
+        }
+        assertTrue(checks.get() > 0);
+        assertEquals(0, misses.get());
+        assertEquals(database.size(), report(ExistenceType.LIBRARY_NAME).getKeys());
+    }
+
+    private ExistenceReportDto report(ExistenceType type) {
+        return registry.report().stream().filter(report -> report.getType().equals(type.toString())).findFirst().get();
+    }
+
+    private static NaturalKey key(String name, Long id) {
+        return new NaturalKey() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.library.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.ExportDataset;
+import com.library.library.controller.dto.ExportFormat;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.impl.ExportServiceImpl;
+import com.library.library.service.model.Author;
+import com.library.library.service.model.Book;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({ExportServiceImpl.class, SimpleMeterRegistry.class})
+public class ExportServiceImplTest {
+
+    private static final String TRICKY_TITLE = "War, \"Peace\"\nand more";
+
+    @Autowired
+    private ExportService exportService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setNickname("leo");
+        author.setAuthorName("Leo Tolstoy");
+        author = authorRepository.saveAndFlush(author);
+        bookRepository.saveAndFlush(book(TRICKY_TITLE));
+        bookRepository.saveAndFlush(book("Anna Karenina"));
+    }
+
+    @Test
+    void exportNdjsonTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportDataset.BOOKS, ExportFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(TRICKY_TITLE, first.get("title").asText());
+        assertEquals(1869, first.get("publication_year").asInt());
+        assertEquals("AVAILABLE", first.get("status").asText());
+        assertEquals(author.getId().longValue(), first.get("author_id").asLong());
+        assertTrue(first.get("library_id").isNull());
+        assertEquals("Anna Karenina", objectMapper.readTree(lines[1]).get("title").asText());
+    }
+
+    @Test
+    void exportCsvTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportDataset.AUTHORS, ExportFormat.CSV, false, out);
+
+        assertEquals(1, rows);
+        assertEquals("id,nickname,author_name\r\n" + author.getId() + ",leo,Leo Tolstoy\r\n", out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    void exportCsvEscapingTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportDataset.BOOKS, ExportFormat.CSV, false, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8.name());
+        assertTrue(csv.startsWith("id,title,description,pages,publication_year,genre,status,author_id,library_id\r\n"));
+        assertTrue(csv.contains(",\"War, \"\"Peace\"\"\nand more\",A novel,"));
+    }
+
+    @Test
+    void exportEmptyDatasetTest() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(ExportDataset.LOANS, ExportFormat.CSV, false, out);
+
+        assertEquals(0, rows);
+        assertEquals("id,book_id,user_id,library_id,dated,due_date\r\n", out.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    @Test
+    void exportGzipTest() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        exportService.export(ExportDataset.BOOKS, ExportFormat.NDJSON, false, plain);
+        exportService.export(ExportDataset.BOOKS, ExportFormat.NDJSON, true, compressed);
+
+        ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            byte[] buffer = new byte[4096];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                inflated.write(buffer, 0, read);
+            }
+        }
+        assertEquals(plain.toString(StandardCharsets.UTF_8.name()), inflated.toString(StandardCharsets.UTF_8.name()));
+    }
+
+    private Book book(String title) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setDescription("A novel");
+        book.setPages(864);
+        book.setPublicationYear(1869);
+        book.setGenre(Genre.DRAMA);
+        book.setStatus(BookStatus.AVAILABLE);
+        book.setAuthor(author);
+        return book;
+    }
+}
@@ -0,0 +1,186 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.CirculationOperation;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.FacetDocument;
+import com.library.library.service.search.CompressedBitmap;
+import com.library.library.service.search.FacetIndex;
+import com.library.library.service.search.FacetResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FacetIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    private FacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FacetIndex(bookRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void compressedBitmapMatchesBitSetTest() {
+        Random random = new Random(7);
+        CompressedBitmap dense = new CompressedBitmap();
+        CompressedBitmap sparse = new CompressedBitmap();
+        BitSet denseExpected = new BitSet();
+        BitSet sparseExpected = new BitSet();
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(300_000);
+            if (random.nextInt(4) > 0) {
+                dense.add(value);
+                denseExpected.set(value);
+            } else {
+                sparse.add(value * 7);
+                sparseExpected.set(value * 7);
+            }
+        }
+        for (int i = 0; i < 50_000; i++) {
+            int value = random.nextInt(300_000);
+            dense.remove(value);
+            denseExpected.clear(value);
+        }
+
+        BitSet and = (BitSet) denseExpected.clone();
+        and.and(sparseExpected);
+        BitSet or = (BitSet) denseExpected.clone();
+        or.or(sparseExpected);
+        assertEquals(denseExpected.cardinality(), dense.cardinality());
+        assertEquals(and.cardinality(), dense.andCardinality(sparse));
+        assertEquals(and, toBitSet(dense.and(sparse)));
+        assertEquals(or, toBitSet(dense.or(sparse)));
+        assertEquals(or, toBitSet(CompressedBitmap.or(Arrays.asList(dense, sparse))));
+        assertTrue(dense.contains(denseExpected.nextSetBit(0)));
+        assertFalse(dense.contains(denseExpected.nextClearBit(0)));
+    }
+
+    @Test
+    void rebuildAndCountFacetsTest() {
+        //given
+        when(bookRepository.findFacetDocuments(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(
+                document(1L, Genre.FANTASY, BookStatus.AVAILABLE, 2001, 10L),
+                document(2L, Genre.FANTASY, BookStatus.BORROWED, 2005, 10L),
+                document(3L, Genre.DRAMA, BookStatus.AVAILABLE, 2005, 20L),
+                document(4L, Genre.DETECTIVE, BookStatus.RESERVED, 1999, null)));
+
+        //when
+        index.rebuild();
+        FacetResult result = index.search(EnumSet.of(Genre.FANTASY), null, 2000, null, null, 0, 10);
+
+        //then
+        assertTrue(index.isReady());
+        assertEquals(2, result.getTotal());
+        assertEquals(Arrays.asList(1L, 2L), result.getBookIds());
+        assertEquals(Map.of(Genre.FANTASY, 2L, Genre.DRAMA, 1L), result.getGenres());
+        assertEquals(Map.of(BookStatus.AVAILABLE, 1L, BookStatus.BORROWED, 1L), result.getStatuses());
+        assertEquals(Map.of(2001, 1L, 2005, 1L), result.getYears());
+        assertEquals(Map.of(10L, 2L), result.getLibraries());
+    }
+
+    @Test
+    void pageAndFilterByLibraryTest() {
+        for (long id = 1; id <= 25; id++) {
+            index.index(document(id, Genre.HISTORICAL, BookStatus.AVAILABLE, 1990 + (int) id, id % 2 == 0 ? 10L : 20L));
+        }
+
+        FacetResult page = index.search(null, EnumSet.of(BookStatus.AVAILABLE), null, null, 10L, 5, 5);
+        FacetResult unknown = index.search(null, null, null, null, 30L, 0, 5);
+
+        assertEquals(12, page.getTotal());
+        assertEquals(Arrays.asList(12L, 14L, 16L, 18L, 20L), page.getBookIds());
+        assertEquals(Map.of(10L, 12L, 20L, 13L), page.getLibraries());
+        assertEquals(0, unknown.getTotal());
+        assertTrue(unknown.getBookIds().isEmpty());
+    }
+
+    @Test
+    void updateIncrementallyTest() {
+        index.index(document(1L, Genre.FANTASY, BookStatus.AVAILABLE, 2001, null));
+        index.index(document(2L, Genre.DRAMA, BookStatus.AVAILABLE, 2002, 10L));
+        when(bookRepository.findFacetDocument(2L)).thenReturn(Optional.of(document(2L, Genre.FANTASY, BookStatus.AVAILABLE, 2003, 10L)));
+
+        index.onCirculation(new CirculationEvent(CirculationOperation.ADD, null, 1L, 20L, "Title", Instant.now()));
+        index.onCirculation(new CirculationEvent(CirculationOperation.RESERVE, 5L, 1L, 20L, "Title", Instant.now()));
+        index.onBookChanged(new BookChangedEvent(2L, "Title", null, null, false));
+        index.onBookChanged(new BookChangedEvent(2L, "Title", null, null, true));
+
+        FacetResult result = index.search(null, null, null, null, null, 0, 10);
+        assertEquals(Collections.singletonList(1L), result.getBookIds());
+        assertEquals(Map.of(BookStatus.RESERVED, 1L), result.getStatuses());
+        assertEquals(Map.of(20L, 1L), result.getLibraries());
+        assertEquals(Map.of(Genre.FANTASY, 1L), result.getGenres());
+        assertEquals(Map.of(2001, 1L), result.getYears());
+    }
+
+    private BitSet toBitSet(CompressedBitmap bitmap) {
+        BitSet bits = new BitSet();
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(value -> {
+            values.add(value);
+            return true;
+        });
+        values.forEach(bits::set);
+        assertEquals(bits.cardinality(), bitmap.cardinality());
+        return bits;
+    }
+
+    private FacetDocument document(Long id, Genre genre, BookStatus status, Integer year, Long libraryId) {
+        return new FacetDocument() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Genre getGenre() {
+                return genre;
+            }
+
+            @Override
+            public BookStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Integer getPublicationYear() {
+                return year;
+            }
+
+            @Override
+            public Long getLibraryId() {
+                return libraryId;
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.SuggestionDto;
+import com.library.library.controller.dto.SuggestionType;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.BookChangedEvent;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.CompletionWeight;
+import com.library.library.service.search.FuzzyIndex;
+import com.library.library.service.search.TrigramIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class FuzzyIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private FuzzyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzyIndex(bookRepository, authorRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void trigramIndexRanksByEditDistanceTest() {
+        TrigramIndex trigrams = new TrigramIndex(0.3);
+        trigrams.add("The Lord of the Rings", 3);
+        trigrams.add("The Lord of the Flies", 1);
+        trigrams.add("Harry Potter", 2);
+        trigrams.add("Hamlet", 1);
+
+        List<TrigramIndex.FuzzyMatch> matches = trigrams.search("lord of the rnigs", 5);
+
+        assertEquals("The Lord of the Rings", matches.get(0).getText());
+        assertEquals(Arrays.asList("The Lord of the Rings", "The Lord of the Flies"), texts(matches));
+        assertEquals(Collections.singletonList("Harry Potter"), texts(trigrams.search("hary poter", 5)));
+        assertTrue(trigrams.search("zzzz", 5).isEmpty());
+        assertEquals(1, TrigramIndex.editDistance("tolkein", "tolkien"));
+        assertEquals(3, TrigramIndex.editDistance("kitten", "sitting"));
+        assertEquals("the lord of the rings", TrigramIndex.normalize("  The Lord-of the RINGS! "));
+    }
+
+    @Test
+    void trigramIndexCountsReferencesAndCompactsTest() {
+        TrigramIndex trigrams = new TrigramIndex(0.3);
+        trigrams.add("Dune", 2);
+        trigrams.remove("Dune", 1);
+        assertEquals(Collections.singletonList("Dune"), texts(trigrams.search("dun", 5)));
+        trigrams.remove("Dune", 1);
+        assertTrue(trigrams.search("dune", 5).isEmpty());
+
+        for (int i = 0; i < 3000; i++) {
+            trigrams.add("Volume " + i, 1);
+        }
+        for (int i = 0; i < 2500; i++) {
+            trigrams.remove("Volume " + i, 1);
+        }
+        assertEquals(500, trigrams.size());
+        assertEquals(Collections.singletonList("Volume 2999"), texts(trigrams.search("volume 2999", 1)));
+        assertTrue(trigrams.search("volume 17", 5).stream().noneMatch(match -> match.getText().equals("Volume 17")));
+    }
+
+    @Test
+    void rebuildAndSuggestAcrossTypesTest() {
+        //given
+        when(bookRepository.findTitleWeights()).thenReturn(Arrays.asList(weight("The Three Musketeers", 4), weight("Twenty Years After", 1)));
+        when(authorRepository.findAuthorNameWeights()).thenReturn(Collections.singletonList(weight("Alexandre Dumas", 1)));
+
+        //when
+        index.rebuild();
+        List<SuggestionDto> titles = index.suggest("three muskteers", SuggestionType.TITLE, 5);
+        List<SuggestionDto> authors = index.suggest("alexander duma", null, 5);
+
+        //then
+        assertTrue(index.isReady());
+        assertEquals("The Three Musketeers", titles.get(0).getText());
+        assertEquals(SuggestionType.TITLE, titles.get(0).getType());
+        assertEquals("Alexandre Dumas", authors.get(0).getText());
+        assertEquals(SuggestionType.AUTHOR, authors.get(0).getType());
+        assertEquals(2, authors.get(0).getDistance());
+    }
+
+    @Test
+    void updateIncrementallyTest() {
+        index.onBookChanged(new BookChangedEvent(1L, "Kobzar", null, null, false));
+        index.onBookChanged(new BookChangedEvent(2L, "Zakhar Berkut", null, null, false));
+        index.onBookChanged(new BookChangedEvent(2L, "Zakhar Berkut II", "Zakhar Berkut", null, false));
+        index.onBookChanged(new BookChangedEvent(1L, "Kobzar", null, null, true));
+        index.onAuthorChanged(new AuthorChangedEvent(1L, null, "franko", null, "Ivan Franko"));
+
+        assertTrue(index.suggest("kobzar", null, 5).isEmpty());
+        assertEquals(Collections.singletonList("Zakhar Berkut II"), index.suggest("zahar berkut", SuggestionType.TITLE, 5).stream()
+                .map(SuggestionDto::getText)
+                .collect(Collectors.toList()));
+        assertEquals("Ivan Franko", index.suggest("ivan frnako", SuggestionType.AUTHOR, 5).get(0).getText());
+    }
+
+    private List<String> texts(List<TrigramIndex.FuzzyMatch> matches) {
+        return matches.stream().map(TrigramIndex.FuzzyMatch::getText).collect(Collectors.toList());
+    }
+
+    private CompletionWeight weight(String name, long weight) {
+        return new CompletionWeight() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Long getWeight() {
+                return weight;
+            }
+        };
+    }
+}
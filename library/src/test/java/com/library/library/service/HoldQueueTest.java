@@ -0,0 +1,231 @@
+package com.library.library.service;
+
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
+import com.library.library.controller.dto.HoldDto;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Borrowed;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.HoldRequestRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.ReservedRepository;
+import com.library.library.service.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TestIndexConfig.class, HoldQueue.class, LibraryServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class HoldQueueTest {
+
+    private static final String TITLE = "WAITLISTED";
+    private static final String LIBRARY_NAME = "HOLD LIB";
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+    @Autowired
+    private NaturalKeyCache naturalKeyCache;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BorrowedRepository borrowedRepository;
+    @Autowired
+    private ReservedRepository reservedRepository;
+    @Autowired
+    private HoldRequestRepository holdRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName(LIBRARY_NAME);
+        library.setEmail("hold@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+    }
+
+    @AfterEach
+    void tearDown() {
+        holdRepository.deleteAllInBatch();
+        reservedRepository.deleteAllInBatch();
+        borrowedRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+        naturalKeyCache.invalidateAll();
+    }
+
+    @Test
+    void holdBookEnqueuesOnceTest() {
+        borrowAllCopies(1);
+        availabilityIndex.rebuild();
+        User waiting = saveUser("waiting@test.com");
+
+        HoldDto first = libraryService.holdBook(TITLE, waiting.getEmail(), LIBRARY_NAME);
+        HoldDto retry = libraryService.holdBook(TITLE, waiting.getEmail(), LIBRARY_NAME);
+
+        assertFalse(first.isReserved());
+        assertEquals(1, first.getPosition());
+        assertEquals(1, retry.getPosition());
+        assertEquals(1, holdRepository.count());
+    }
+
+    @Test
+    void concurrentReturnsServeQueueInOrderTest() throws Exception {
+        List<User> borrowers = borrowAllCopies(4);
+        availabilityIndex.rebuild();
+        List<User> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = saveUser("waiting" + i + "@test.com");
+            assertEquals(i + 1, libraryService.holdBook(TITLE, user.getEmail(), LIBRARY_NAME).getPosition());
+            waiting.add(user);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> returns = new ArrayList<>();
+        for (User borrower : borrowers.subList(0, 2)) {
+            returns.add(executor.submit(() -> {
+                start.await();
+                libraryService.returnBook(TITLE, borrower.getEmail(), LIBRARY_NAME);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : returns) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Set<Long> reservedUsers = new TransactionTemplate(transactionManager).execute(status -> reservedRepository.findAll().stream()
+                .map(r -> r.getUser().getId())
+                .collect(Collectors.toSet()));
+        assertEquals(Set.of(waiting.get(0).getId(), waiting.get(1).getId()), reservedUsers);
+        assertEquals(1, holdRepository.count());
+        assertEquals(0, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(2, availabilityIndex.count(library.getId(), TITLE, BookStatus.RESERVED));
+        assertTrue(availabilityIndex.check(false).isConsistent());
+    }
+
+    @Test
+    void returnSkipsWaitingUserWithReservationTest() {
+        List<User> borrowers = borrowAllCopies(2);
+        availabilityIndex.rebuild();
+        User busy = saveUser("busy@test.com");
+        User next = saveUser("next@test.com");
+        libraryService.holdBook(TITLE, busy.getEmail(), LIBRARY_NAME);
+        libraryService.holdBook(TITLE, next.getEmail(), LIBRARY_NAME);
+        Book other = saveBook("OTHER TITLE", BookStatus.AVAILABLE);
+        availabilityIndex.rebuild();
+        libraryService.reserveBook(other.getTitle(), busy.getEmail(), LIBRARY_NAME);
+
+        libraryService.returnBook(TITLE, borrowers.get(0).getEmail(), LIBRARY_NAME);
+
+        assertEquals(2, reservedRepository.count());
+        assertTrue(holdRepository.findByUserAndLibraryAndTitle(busy, library, TITLE).isPresent());
+        assertFalse(holdRepository.findByUserAndLibraryAndTitle(next, library, TITLE).isPresent());
+    }
+
+    @Test
+    void batchReturnHandsOffToQueuedUserInsideBatchTest() {
+        User borrower = borrowAllCopies(1).get(0);
+        User queued = saveUser("queued@test.com");
+        Book other = saveBook("OTHER TITLE", BookStatus.BORROWED);
+        Calendar dueDate = Calendar.getInstance();
+        dueDate.add(Calendar.DAY_OF_YEAR, 10);
+        borrowedRepository.save(new Borrowed(dueDate.getTime(), other, queued, library));
+        availabilityIndex.rebuild();
+        User next = saveUser("next@test.com");
+        libraryService.holdBook(TITLE, queued.getEmail(), LIBRARY_NAME);
+        libraryService.holdBook(TITLE, next.getEmail(), LIBRARY_NAME);
+
+        List<CirculationResultDto> results = libraryService.returnBooks(LIBRARY_NAME, Arrays.asList(
+                CirculationItemDto.builder().userEmail(borrower.getEmail()).bookTitle(TITLE).build(),
+                CirculationItemDto.builder().userEmail(queued.getEmail()).bookTitle(other.getTitle()).build()));
+
+        assertTrue(results.stream().allMatch(CirculationResultDto::isSuccess));
+        assertEquals(0, borrowedRepository.count());
+        assertFalse(holdRepository.findByUserAndLibraryAndTitle(queued, library, TITLE).isPresent());
+        assertTrue(holdRepository.findByUserAndLibraryAndTitle(next, library, TITLE).isPresent());
+        List<String> reservations = new TransactionTemplate(transactionManager).execute(status -> reservedRepository.findAll().stream()
+                .map(r -> r.getUser().getEmail() + ":" + r.getBook().getTitle())
+                .collect(Collectors.toList()));
+        assertEquals(List.of(queued.getEmail() + ":" + TITLE), reservations);
+    }
+
+    private List<User> borrowAllCopies(int copies) {
+        List<User> borrowers = new ArrayList<>();
+        for (int i = 0; i < copies; i++) {
+            User user = saveUser("borrower" + i + "@test.com");
+            Book book = saveBook(TITLE, BookStatus.BORROWED);
+            Calendar dueDate = Calendar.getInstance();
+            dueDate.add(Calendar.DAY_OF_YEAR, 10);
+            borrowedRepository.save(new Borrowed(dueDate.getTime(), book, user, library));
+            borrowers.add(user);
+        }
+        return borrowers;
+    }
+
+    private Book saveBook(String title, BookStatus status) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setStatus(status);
+        book.setLibrary(library);
+        return bookRepository.save(book);
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Petro")
+                .lastName("Smikh")
+                .email(email)
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build());
+    }
+}
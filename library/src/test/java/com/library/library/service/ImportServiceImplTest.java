@@ -0,0 +1,222 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Genre;
+import com.library.library.controller.dto.ImportFormat;
+import com.library.library.controller.dto.ImportRejectionDto;
+import com.library.library.controller.dto.ImportReportDto;
+import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.impl.ImportServiceImpl;
+import com.library.library.service.model.Author;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.sequence.IdBlockAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect", "import.chunk.size=2"})
+@Import({ImportServiceImpl.class, IdBlockAllocator.class, SimpleMeterRegistry.class, LocalValidatorFactoryBean.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ImportServiceImplTest {
+
+    private static final String DESCRIPTION = "A novel about war and peace";
+
+    @Autowired
+    private ImportService importService;
+    @Autowired
+    private IdBlockAllocator idAllocator;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AuthorRepository authorRepository;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        author = new Author();
+        author.setNickname("leo");
+        author.setAuthorName("Leo Tolstoy");
+        author = authorRepository.save(author);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        libraryRepository.deleteAll();
+    }
+
+    @Test
+    void importCsvTest() throws IOException {
+        String csv = "title,description,pages,publication_year,genre,author\r\n" +
+                "\"War, \"\"Peace\"\"\",\"" + DESCRIPTION + "\nin two lines\",1225,1869,drama,leo\r\n" +
+                "Anna Karenina," + DESCRIPTION + ",864,1878,,leo\r\n" +
+                "Unknown," + DESCRIPTION + ",100,1900,DRAMA,tolstoy\r\n" +
+                "Bad genre," + DESCRIPTION + ",100,1900,POEM,leo\r\n" +
+                "Short,Too short,100,1900,DRAMA,leo\r\n" +
+                "Pages," + DESCRIPTION + ",many,1900,DRAMA,leo\r\n" +
+                "Missing,columns\r\n";
+
+        ImportReportDto report = importService.importBooks(ImportFormat.CSV, null, false, stream(csv));
+
+        assertEquals(2, report.getImported());
+        assertEquals(5, report.getRejected());
+        assertEquals(Arrays.asList(3L, 4L, 5L, 6L, 7L), report.getRejections().stream()
+                .map(ImportRejectionDto::getRow).sorted().collect(Collectors.toList()));
+        assertEquals("Author with nickname tolstoy doesn't exist", reason(report, 3));
+        assertEquals("Unknown genre POEM", reason(report, 4));
+        assertEquals("Invalid book description. Description must be 4 words", reason(report, 5));
+        assertEquals("Book pages must be a number but was many", reason(report, 6));
+        assertEquals("Expected 6 columns but found 2", reason(report, 7));
+        Book war = bookRepository.findAll().stream().filter(book -> book.getPages() == 1225).findFirst().orElseThrow(AssertionError::new);
+        assertEquals("War, \"Peace\"", war.getTitle());
+        assertEquals(DESCRIPTION + "\nin two lines", war.getDescription());
+        assertEquals(1869, war.getPublicationYear());
+        assertEquals(Genre.DRAMA, war.getGenre());
+        assertEquals(BookStatus.AVAILABLE, war.getStatus());
+        assertEquals(author.getId(), jdbcTemplate.queryForObject("select author_id from book where id = ?", Long.class, war.getId()));
+    }
+
+    @Test
+    void importJsonArrayIntoLibraryTest() throws IOException {
+        Library library = new Library();
+        library.setLibraryName("Central");
+        library.setEmail("central@lib.com");
+        library.setAddress("LVIV");
+        library = libraryRepository.save(library);
+        String json = "[" +
+                "{\"title\": \"First\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 100, \"publicationYear\": 1901, \"author\": \"leo\"}," +
+                "{\"title\": \"Second\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 200, \"publicationYear\": 1902, \"nickname\": \"leo\", \"tags\": [\"x\"]}," +
+                "{\"title\": \"Third\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 300, \"publicationYear\": 1903, \"author\": \"leo\"}," +
+                "42]";
+
+        ImportReportDto report = importService.importBooks(ImportFormat.JSON, "Central", false, stream(json));
+
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getChunks());
+        assertEquals("Expected a JSON object but found VALUE_NUMBER_INT", reason(report, 4));
+        assertEquals(3, jdbcTemplate.queryForObject("select count(*) from book where library_id = ?", Integer.class, library.getId()));
+    }
+
+    @Test
+    void importGzippedNdjsonTest() throws IOException {
+        String ndjson = "{\"title\": \"First\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 100, \"publication_year\": 1901, \"author\": \"leo\"}\n" +
+                "{\"title\": \"Second\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 200, \"publication_year\": 1902, \"author\": \"leo\"}\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(ndjson.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportReportDto report = importService.importBooks(ImportFormat.JSON, null, true, new ByteArrayInputStream(compressed.toByteArray()));
+
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void importRejectsRowsTheDatabaseRefusesTest() throws IOException {
+        String csv = "title,description,pages,publicationYear,author\n" +
+                "Fine," + DESCRIPTION + ",100,1900,leo\n" +
+                "Long," + DESCRIPTION + " " + String.join(" ", new String[300]).replace("null", "word") + ",100,1900,leo\n";
+
+        ImportReportDto report = importService.importBooks(ImportFormat.CSV, null, false, stream(csv));
+
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(2, report.getRejections().get(0).getRow());
+        assertEquals("Fine", bookRepository.findAll().get(0).getTitle());
+    }
+
+    @Test
+    void importKeepsCommittedChunksOnMalformedJsonTest() throws IOException {
+        String ndjson = "{\"title\": \"First\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 100, \"publicationYear\": 1901, \"author\": \"leo\"}\n" +
+                "{\"title\": \"Second\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 200, \"publicationYear\": 1902, \"author\": \"leo\"}\n" +
+                "{\"title\": \"Third\", \"description\": \"" + DESCRIPTION + "\", \"pages\": 300, \"publicationYear\": 1903, \"author\": \"leo\"}\n" +
+                "{\"title\": \"Broken";
+
+        ImportReportDto report = importService.importBooks(ImportFormat.JSON, null, false, stream(ndjson));
+
+        assertEquals(3, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertTrue(reason(report, 4).startsWith("Malformed JSON, import stopped"));
+        assertEquals(3, bookRepository.count());
+    }
+
+    @Test
+    void importedIdsDoNotCollideWithGeneratedIdsTest() throws IOException {
+        String csv = "title,description,pages,publicationYear,author\n" +
+                "First," + DESCRIPTION + ",100,1900,leo\n" +
+                "Second," + DESCRIPTION + ",100,1900,leo\n";
+        importService.importBooks(ImportFormat.CSV, null, false, stream(csv));
+
+        Book book = new Book();
+        book.setTitle("Third");
+        book.setStatus(BookStatus.AVAILABLE);
+        book = bookRepository.save(book);
+        long[] block = idAllocator.allocate(3);
+
+        List<Book> books = bookRepository.findAll();
+        Set<Long> ids = books.stream().map(Book::getId).collect(Collectors.toSet());
+        assertEquals(3, ids.size());
+        assertEquals(3, block.length);
+        for (long id : block) {
+            assertFalse(ids.contains(id));
+            assertTrue(id > book.getId());
+        }
+        assertEquals(3, new HashSet<>(Arrays.asList(block[0], block[1], block[2])).size());
+    }
+
+    @Test
+    void importUnknownLibraryTest() {
+        assertThrows(EntityNotFoundException.class,
+                () -> importService.importBooks(ImportFormat.CSV, "Nowhere", false, stream("title\n")));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String reason(ImportReportDto report, long row) {
+        return report.getRejections().stream()
+                .filter(rejection -> rejection.getRow() == row)
+                .map(ImportRejectionDto::getReason)
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+}
@@ -0,0 +1,167 @@
+package com.library.library.service;
+
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.LibraryDto;
+import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.exception.EntityNotFoundException;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({TestIndexConfig.class, HoldQueue.class, LibraryServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LibraryByTitleQueryCountTest {
+
+    private static final String TITLE = "WIDELY HELD";
+    private static final int LIBRARIES = 20;
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @MockBean
+    private AvailabilityIndex availabilityIndex;
+
+    private Statistics statistics;
+    private List<Library> libraries;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        libraries = new ArrayList<>();
+        for (int i = 0; i < LIBRARIES; i++) {
+            Library library = new Library();
+            library.setLibraryName("BRANCH " + i);
+            library.setEmail("branch" + i + "@lib.com");
+            library.setPhone("+38050000" + i);
+            library.setCountry("UKRAINE");
+            library.setCity("LVIV");
+            library.setAddress("STREET " + i);
+            library.setPostalCode("790" + i);
+            library.setWrittenOn(Instant.now());
+            libraries.add(libraryRepository.save(library));
+        }
+        for (int i = 0; i < LIBRARIES; i++) {
+            Library library = libraries.get(i);
+            saveBook(TITLE, library, i % 4 == 0 ? BookStatus.BORROWED : BookStatus.AVAILABLE);
+            saveBook(TITLE, library, i % 4 == 0 ? BookStatus.RESERVED : BookStatus.AVAILABLE);
+            saveBook("ANOTHER TITLE", library, BookStatus.AVAILABLE);
+        }
+        saveBook("ONLY BORROWED", libraries.get(0), BookStatus.BORROWED);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void librariesByTitleUseSingleStatementTest() {
+        //given
+        when(availabilityIndex.isReady()).thenReturn(false);
+
+        //when
+        Set<LibraryDto> actual = libraryService.getAllLibrariesByBookTitle(TITLE);
+
+        //then
+        assertEquals(expected(), actual);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void indexedLibrariesByTitleUseSingleStatementTest() {
+        //given
+        Set<Long> libraryIds = libraries.stream()
+                .filter(library -> libraries.indexOf(library) % 4 != 0)
+                .map(Library::getId)
+                .collect(Collectors.toSet());
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.containsTitle(TITLE)).thenReturn(true);
+        when(availabilityIndex.librariesWithAvailable(TITLE)).thenReturn(libraryIds);
+
+        //when
+        Set<LibraryDto> actual = libraryService.getAllLibrariesByBookTitle(TITLE);
+
+        //then
+        assertEquals(expected(), actual);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void librariesByTitleNotAvailableTest() {
+        //given
+        when(availabilityIndex.isReady()).thenReturn(false);
+
+        //when
+        assertThrows(EntityNotFoundException.class, () -> libraryService.getAllLibrariesByBookTitle("ONLY BORROWED"));
+        assertThrows(BookNotAvailableException.class, () -> libraryService.getAllLibrariesByBookTitle("UNKNOWN"));
+
+        //then
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
+
+    private Set<LibraryDto> expected() {
+        Set<LibraryDto> expected = new HashSet<>();
+        for (int i = 0; i < LIBRARIES; i++) {
+            if (i % 4 != 0) {
+                Library library = libraries.get(i);
+                expected.add(LibraryDto.builder()
+                        .name(library.getLibraryName())
+                        .email(library.getEmail())
+                        .phone(library.getPhone())
+                        .country(library.getCountry())
+                        .city(library.getCity())
+                        .address(library.getAddress())
+                        .postalCode(library.getPostalCode())
+                        .build());
+            }
+        }
+        return expected;
+    }
+
+    private void saveBook(String title, Library library, BookStatus status) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setStatus(status);
+        book.setLibrary(library);
+        bookRepository.save(book);
+    }
+}
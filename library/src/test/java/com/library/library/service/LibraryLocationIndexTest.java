@@ -0,0 +1,148 @@
+package com.library.library.service;
+
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.geo.GeoNeighbor;
+import com.library.library.service.geo.GeoPoint;
+import com.library.library.service.geo.KdTree;
+import com.library.library.service.geo.LibraryLocationIndex;
+import com.library.library.service.geo.PostalCodeLocator;
+import com.library.library.service.repository.LibraryLocation;
+import com.library.library.service.repository.LibraryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class LibraryLocationIndexTest {
+
+    private static final GeoPoint LVIV = new GeoPoint(49.8397, 24.0297);
+
+    @Mock
+    private LibraryRepository libraryRepository;
+
+    private PostalCodeLocator postalCodeLocator;
+    private LibraryLocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        postalCodeLocator = new PostalCodeLocator(new ClassPathResource("geo/postal-codes.csv"));
+        index = new LibraryLocationIndex(libraryRepository, postalCodeLocator, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void locatePostalCodeByLongestPrefixTest() {
+        assertEquals(49.35, postalCodeLocator.locate("82100").map(GeoPoint::getLatitude).orElse(0.0), 0.01);
+        assertEquals(49.8397, postalCodeLocator.locate("82000").map(GeoPoint::getLatitude).orElse(0.0), 0.01);
+        assertFalse(postalCodeLocator.locate("00000").isPresent());
+        assertFalse(postalCodeLocator.locate(null).isPresent());
+        assertEquals(469, LVIV.distanceKm(new GeoPoint(50.4501, 30.5234)), 5);
+    }
+
+    @Test
+    void kdTreeMatchesBruteForceTest() {
+        Random random = new Random(11);
+        Map<Long, GeoPoint> points = new HashMap<>();
+        for (long id = 1; id <= 5000; id++) {
+            points.put(id, new GeoPoint(44 + random.nextDouble() * 8, 22 + random.nextDouble() * 18));
+        }
+        points.put(5001L, new GeoPoint(-33.87, 151.21));
+        KdTree tree = KdTree.build(points);
+
+        for (int query = 0; query < 200; query++) {
+            GeoPoint origin = new GeoPoint(-90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360);
+            int limit = 1 + random.nextInt(10);
+            long modulo = 1 + random.nextInt(5);
+            List<GeoNeighbor> expected = points.entrySet().stream()
+                    .filter(entry -> entry.getKey() % modulo == 0)
+                    .sorted(Comparator.comparingDouble(entry -> origin.chordSquared(entry.getValue())))
+                    .limit(limit)
+                    .map(entry -> new GeoNeighbor(entry.getKey(), origin.distanceKm(entry.getValue())))
+                    .collect(Collectors.toList());
+
+            List<GeoNeighbor> actual = tree.nearest(origin, limit, id -> id % modulo == 0);
+
+            assertEquals(expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).getDistanceKm(), actual.get(i).getDistanceKm(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void rebuildAndFindNearestTest() {
+        //given
+        when(libraryRepository.findLocations()).thenReturn(Arrays.asList(
+                location(1L, null, null, "01001"),
+                location(2L, null, null, "79000"),
+                location(3L, 48.9226, 24.7111, "01001"),
+                location(4L, null, null, "00000")));
+
+        //when
+        index.rebuild();
+        List<GeoNeighbor> all = index.nearest(LVIV, 5, Set.of(1L, 2L, 3L, 4L));
+        List<GeoNeighbor> kyiv = index.nearest(LVIV, 5, Set.of(1L));
+
+        //then
+        assertTrue(index.isReady());
+        assertEquals(Arrays.asList(2L, 3L, 1L), all.stream().map(GeoNeighbor::getLibraryId).collect(Collectors.toList()));
+        assertEquals(0, all.get(0).getDistanceKm(), 0.01);
+        assertEquals(Arrays.asList(1L), kyiv.stream().map(GeoNeighbor::getLibraryId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void updateOnLibraryChangedTest() {
+        when(libraryRepository.findLocationById(7L)).thenReturn(Optional.of(location(7L, null, null, "79005")));
+
+        index.onLibraryChanged(new LibraryChangedEvent(7L, null, "Lviv central"));
+        List<GeoNeighbor> added = index.nearest(LVIV, 3, Set.of(7L));
+        index.onLibraryChanged(new LibraryChangedEvent(7L, "Lviv central", null));
+        List<GeoNeighbor> removed = index.nearest(LVIV, 3, Set.of(7L));
+
+        assertEquals(1, added.size());
+        assertEquals(7L, added.get(0).getLibraryId());
+        assertTrue(removed.isEmpty());
+    }
+
+    private LibraryLocation location(Long id, Double latitude, Double longitude, String postalCode) {
+        return new LibraryLocation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+
+            @Override
+            public String getPostalCode() {
+                return postalCode;
+            }
+        };
+    }
+}
@@ -1,63 +1,88 @@
 package com.library.library.service;
 
+import com.library.library.controller.dto.AvailabilityReportDto;
 import com.library.library.controller.dto.BookDto;
 import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
+import com.library.library.controller.dto.HoldDto;
 import com.library.library.controller.dto.LibraryDto;
+import com.library.library.controller.dto.NearbyLibraryDto;
 import com.library.library.controller.dto.Role;
 import com.library.library.controller.dto.UserDto;
+import com.library.library.service.cache.NaturalKeyCache;
 import com.library.library.service.exception.BookNotAvailableException;
 import com.library.library.service.exception.BorrowedException;
 import com.library.library.service.exception.EntityNotFoundException;
 import com.library.library.service.exception.LibraryException;
 import com.library.library.service.exception.ReservedException;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.event.LateReturnEvent;
+import com.library.library.service.geo.GeoNeighbor;
+import com.library.library.service.geo.GeoPoint;
+import com.library.library.service.geo.LibraryLocationIndex;
+import com.library.library.service.geo.PostalCodeLocator;
 import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.BookMapper;
 import com.library.library.service.mapper.LibraryMapper;
 import com.library.library.service.mapper.UserMapper;
 import com.library.library.service.model.Book;
-import com.library.library.service.model.BookPenalty;
 import com.library.library.service.model.Borrowed;
+import com.library.library.service.model.HoldRequest;
 import com.library.library.service.model.Library;
+import com.library.library.service.model.PendingPenalty;
 import com.library.library.service.model.Reserved;
 import com.library.library.service.model.User;
-import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.BookCandidate;
 import com.library.library.service.repository.BookRepository;
 import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.HoldRequestRepository;
 import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.repository.PendingPenaltyRepository;
 import com.library.library.service.repository.ReservedRepository;
 import com.library.library.service.repository.UserRepository;
-import org.apache.catalina.connector.Connector;
-import org.apache.catalina.connector.Request;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.only;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -77,7 +102,23 @@ public class LibraryServiceImplTest {
     @Mock
     private BorrowedRepository borrowedRepository;
     @Mock
-    private BookPenaltyRepository penaltyRepository;
+    private HoldRequestRepository holdRequestRepository;
+    @Mock
+    private PendingPenaltyRepository pendingPenaltyRepository;
+    @Mock
+    private HoldQueue holdQueue;
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+    @Mock
+    private PostalCodeLocator postalCodeLocator;
+    @Mock
+    private LibraryLocationIndex locationIndex;
+    @Mock
+    private ExistenceRegistry existenceRegistry;
+    @Mock
+    private NaturalKeyCache naturalKeyCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     private final LibraryDto libraryDto = getLibraryDto();
     private final Library library = getLibrary();
@@ -98,10 +139,24 @@ public class LibraryServiceImplTest {
         assertEquals(libraryDto, actual);
     }
 
+    @Test
+    public void createLibraryLocatedByPostalCodeTest() {
+        //given
+        when(postalCodeLocator.locate(libraryDto.getPostalCode())).thenReturn(Optional.of(new GeoPoint(49.8397, 24.0297)));
+
+        //when
+        LibraryDto actual = libraryService.createLibrary(libraryDto);
+
+        //then
+        assertEquals(49.8397, actual.getLatitude());
+        assertEquals(24.0297, actual.getLongitude());
+        verify(libraryRepository).save(isA(Library.class));
+    }
+
     @Test
     public void updateLibraryNameAndAddressAndPhoneTest() {
         //given
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(libraryRepository.save(isA(Library.class))).thenReturn(library);
 
         //when
@@ -124,7 +179,7 @@ public class LibraryServiceImplTest {
         updateLibDto.setPostalCode("12345");
         Library updateLib = LibraryMapper.INSTANCE.mapLibrary(updateLibDto);
         //given
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(updateLib);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(updateLib);
         when(libraryRepository.save(isA(Library.class))).thenReturn(updateLib);
 
         //when
@@ -137,7 +192,8 @@ public class LibraryServiceImplTest {
     @Test
     void getLibraryTest() {
         //given
-        when(libraryRepository.findLibraryByLibraryName(library.getLibraryName())).thenReturn(library);
+        when(naturalKeyCache.library(library.getLibraryName()))
+                .thenReturn(new SpelAwareProxyProjectionFactory().createProjection(LibrarySummary.class, library));
 
         //when
         LibraryDto actual = libraryService.getLibrary(library.getLibraryName());
@@ -169,7 +225,7 @@ public class LibraryServiceImplTest {
     void addBookTest() {
         //given
         when(bookRepository.findBookByTitleAndLibraryIsNull(bookDto.getTitle())).thenReturn(Collections.singletonList(book));
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(libraryRepository.save(library)).thenReturn(library);
 
         //when
@@ -188,7 +244,7 @@ public class LibraryServiceImplTest {
                 () -> libraryService.addBook(libraryDto.getName(), bookDto.getTitle()));
         //then
         verify(bookRepository, only()).findBookByTitleAndLibraryIsNull(bookDto.getTitle());
-        verify(libraryRepository, never()).findLibraryByLibraryName(any());
+        verify(naturalKeyCache, never()).libraryReference(any());
         verify(libraryRepository, never()).save(any());
     }
 
@@ -196,15 +252,15 @@ public class LibraryServiceImplTest {
     void addUserTest() {
         user.setLibraries(new ArrayList<>());
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
 
         //when
         libraryService.addUser(libraryDto.getName(), userDto.getEmail());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
     }
 
     @Test
@@ -212,16 +268,16 @@ public class LibraryServiceImplTest {
         user.setLibraries(Collections.singletonList(library));
         library.setUsers(Collections.singletonList(user));
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
 
         //when
         assertThrows(LibraryException.class,
                 () -> libraryService.addUser(libraryDto.getName(), userDto.getEmail()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
     }
 
     @Test
@@ -229,90 +285,290 @@ public class LibraryServiceImplTest {
         user.setLibraries(new ArrayList<>(Collections.singletonList(library)));
         library.setUsers(new ArrayList<>(Collections.singletonList(user)));
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
 
         //when
         libraryService.deleteUser(libraryDto.getName(), userDto.getEmail());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
     }
 
     @Test
     void deleteUserLibraryExceptionTest() {
         user.setLibraries(new ArrayList<>());
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
 
         //when
         assertThrows(LibraryException.class,
                 () -> libraryService.deleteUser(libraryDto.getName(), userDto.getEmail()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
+    }
+
+    @Test
+    void getAllLibrariesByBookTitleIndexedTest() {
+        library.setId(1L);
+        //given
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.containsTitle(bookDto.getTitle())).thenReturn(true);
+        when(availabilityIndex.librariesWithAvailable(bookDto.getTitle())).thenReturn(Collections.singleton(1L));
+        when(libraryRepository.findSummariesByIds(Collections.singleton(1L))).thenReturn(Collections.singletonList(librarySummary(library)));
+
+        //when
+        Set<LibraryDto> actual = libraryService.getAllLibrariesByBookTitle(bookDto.getTitle());
+
+        //then
+        assertEquals(Collections.singleton(LibraryMapper.INSTANCE.mapLibraryDto(library)), actual);
+        verify(libraryRepository, never()).findSummariesByBookTitle(any(), any());
+    }
+
+    @Test
+    void getAllLibrariesByBookTitleIndexedNotAvailableTest() {
+        //given
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.containsTitle(bookDto.getTitle())).thenReturn(true);
+        when(availabilityIndex.librariesWithAvailable(bookDto.getTitle())).thenReturn(Collections.emptySet());
+
+        //when
+        assertThrows(EntityNotFoundException.class, () -> libraryService.getAllLibrariesByBookTitle(bookDto.getTitle()));
+
+        //then
+        verify(libraryRepository, never()).findSummariesByIds(any());
+    }
+
+    @Test
+    void getAllLibrariesByBookTitleIndexedUnknownTitleTest() {
+        //given
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.containsTitle(bookDto.getTitle())).thenReturn(false);
+
+        //when
+        assertThrows(BookNotAvailableException.class, () -> libraryService.getAllLibrariesByBookTitle(bookDto.getTitle()));
+
+        //then
+        verify(availabilityIndex, never()).librariesWithAvailable(any());
+    }
+
+    @Test
+    void holdBookAvailableTest() {
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(holdRequestRepository.findByUserAndLibraryAndTitle(user, library, bookDto.getTitle())).thenReturn(Optional.empty());
+        when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
+        when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(1L));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(1);
+        when(bookRepository.getById(1L)).thenReturn(book);
+
+        //when
+        HoldDto actual = libraryService.holdBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        assertTrue(actual.isReserved());
+        verify(reservedRepository, times(1)).save(isA(Reserved.class));
+        verify(holdRequestRepository, never()).save(any());
+    }
+
+    @Test
+    void holdBookEnqueueTest() {
+        HoldRequest hold = new HoldRequest(bookDto.getTitle(), user, library);
+        hold.setId(7L);
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(holdRequestRepository.findByUserAndLibraryAndTitle(user, library, bookDto.getTitle())).thenReturn(Optional.empty());
+        when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
+        when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(holdRequestRepository.save(isA(HoldRequest.class))).thenReturn(hold);
+        when(holdRequestRepository.countByLibraryAndTitleAndIdLessThan(library, bookDto.getTitle(), 7L)).thenReturn(2L);
+
+        //when
+        HoldDto actual = libraryService.holdBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        assertFalse(actual.isReserved());
+        assertEquals(3, actual.getPosition());
+        verify(bookRepository, never()).updateStatus(any(), any(), any());
+        verify(reservedRepository, never()).save(any());
+    }
+
+    @Test
+    void holdBookAlreadyWaitingTest() {
+        HoldRequest hold = new HoldRequest(bookDto.getTitle(), user, library);
+        hold.setId(7L);
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(holdRequestRepository.findByUserAndLibraryAndTitle(user, library, bookDto.getTitle())).thenReturn(Optional.of(hold));
+        when(holdRequestRepository.countByLibraryAndTitleAndIdLessThan(library, bookDto.getTitle(), 7L)).thenReturn(0L);
+
+        //when
+        HoldDto actual = libraryService.holdBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        assertEquals(1, actual.getPosition());
+        verify(holdRequestRepository, never()).save(any());
+        verify(reservedRepository, never()).existsReservedByUser(any());
+    }
+
+    @Test
+    void cancelHoldTest() {
+        HoldRequest hold = new HoldRequest(bookDto.getTitle(), user, library);
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(holdRequestRepository.findByUserAndLibraryAndTitle(user, library, bookDto.getTitle())).thenReturn(Optional.of(hold));
+
+        //when
+        libraryService.cancelHold(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        verify(holdRequestRepository, times(1)).delete(hold);
+    }
+
+    @Test
+    void cancelHoldNotFoundTest() {
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(holdRequestRepository.findByUserAndLibraryAndTitle(user, library, bookDto.getTitle())).thenReturn(Optional.empty());
+
+        //when
+        assertThrows(ReservedException.class,
+                () -> libraryService.cancelHold(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
+
+        //then
+        verify(holdRequestRepository, never()).delete(any());
+    }
+
+    @Test
+    void checkAvailabilityTest() {
+        AvailabilityReportDto report = AvailabilityReportDto.builder().checked(1).consistent(true).build();
+        //given
+        when(availabilityIndex.check(true)).thenReturn(report);
+
+        //when
+        AvailabilityReportDto actual = libraryService.checkAvailability(true);
+
+        //then
+        assertEquals(report, actual);
     }
 
     @Test
     void getAllLibrariesByBookTitleTest() {
-        book.setLibrary(library);
         //given
-        when(bookRepository.findBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(Collections.singletonList(book));
+        LibrarySummary summary = librarySummary(library);
+        when(libraryRepository.findSummariesByBookTitle(bookDto.getTitle(), BookStatus.AVAILABLE))
+                .thenReturn(Collections.singletonList(summary));
 
         //when
         Set<LibraryDto> actual = libraryService.getAllLibrariesByBookTitle(bookDto.getTitle());
 
         //then
-        Set<LibraryDto> expected = new HashSet<>();
-        expected.add(LibraryMapper.INSTANCE.mapLibraryDto(book.getLibrary()));
-        assertEquals(expected, actual);
+        assertEquals(Collections.singleton(LibraryMapper.INSTANCE.mapLibraryDto(library)), actual);
+        verify(bookRepository, never()).existsBookByTitleAndLibraryNotNull(any());
     }
 
     @Test
     void getAllLibrariesByBookTitleEntityNotFoundExceptionTest() {
         //given
-        book.setLibrary(null);
-        when(bookRepository.findBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(Collections.singletonList(book));
+        when(libraryRepository.findSummariesByBookTitle(bookDto.getTitle(), BookStatus.AVAILABLE)).thenReturn(Collections.emptyList());
+        when(bookRepository.existsBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(true);
         //when
         assertThrows(EntityNotFoundException.class,
                 () -> libraryService.getAllLibrariesByBookTitle(book.getTitle()));
         //then
-        verify(bookRepository, only()).findBookByTitleAndLibraryNotNull(bookDto.getTitle());
+        verify(bookRepository, only()).existsBookByTitleAndLibraryNotNull(bookDto.getTitle());
     }
 
     @Test
     void getAllLibrariesByBookTitleEmptyListTest() {
         //given
-        book.setLibrary(null);
-        when(bookRepository.findBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(Collections.emptyList());
+        when(libraryRepository.findSummariesByBookTitle(bookDto.getTitle(), BookStatus.AVAILABLE)).thenReturn(Collections.emptyList());
+        when(bookRepository.existsBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(false);
         //when
         assertThrows(BookNotAvailableException.class,
                 () -> libraryService.getAllLibrariesByBookTitle(book.getTitle()));
         //then
-        verify(bookRepository, only()).findBookByTitleAndLibraryNotNull(bookDto.getTitle());
+        verify(bookRepository, only()).existsBookByTitleAndLibraryNotNull(bookDto.getTitle());
     }
 
     @Test
-    void getAllLibrariesByBookTitleReservedTest() {
+    void getNearestLibrariesTest() {
+        library.setId(1L);
+        GeoPoint origin = new GeoPoint(49.8397, 24.0297);
+        Set<Long> libraryIds = Set.of(1L, 2L);
         //given
-        book.setLibrary(library);
-        book.setStatus(BookStatus.RESERVED);
-        when(bookRepository.findBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(Collections.singletonList(book));
+        when(postalCodeLocator.locate("79000")).thenReturn(Optional.of(origin));
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.containsTitle(bookDto.getTitle())).thenReturn(true);
+        when(availabilityIndex.librariesWithAvailable(bookDto.getTitle())).thenReturn(libraryIds);
+        when(locationIndex.nearest(origin, 5, libraryIds)).thenReturn(Collections.singletonList(new GeoNeighbor(1L, 3.5)));
+        when(libraryRepository.findSummariesByIds(Collections.singletonList(1L))).thenReturn(Collections.singletonList(librarySummary(library)));
+
+        //when
+        List<NearbyLibraryDto> actual = libraryService.getNearestLibraries(bookDto.getTitle(), "79000", null, null, 5);
+
+        //then
+        assertEquals(Collections.singletonList(NearbyLibraryDto.builder()
+                .library(LibraryMapper.INSTANCE.mapLibraryDto(library))
+                .distanceKm(3.5)
+                .build()), actual);
+    }
+
+    @Test
+    void getNearestLibrariesByCoordinatesNotAvailableTest() {
+        //given
+        when(availabilityIndex.isReady()).thenReturn(false);
+        when(libraryRepository.findIdsByBookTitle(bookDto.getTitle(), BookStatus.AVAILABLE)).thenReturn(Collections.emptyList());
+        when(bookRepository.existsBookByTitleAndLibraryNotNull(bookDto.getTitle())).thenReturn(true);
+
         //when
         assertThrows(EntityNotFoundException.class,
-                () -> libraryService.getAllLibrariesByBookTitle(book.getTitle()));
+                () -> libraryService.getNearestLibraries(bookDto.getTitle(), null, 49.8, 24.0, 5));
+
+        //then
+        verify(locationIndex, never()).nearest(any(), eq(5), any());
+    }
+
+    @Test
+    void getNearestLibrariesUnknownPostalCodeTest() {
+        //given
+        when(postalCodeLocator.locate("00000")).thenReturn(Optional.empty());
+
+        //when
+        assertThrows(EntityNotFoundException.class,
+                () -> libraryService.getNearestLibraries(bookDto.getTitle(), "00000", null, null, 5));
+
         //then
-        verify(bookRepository, only()).findBookByTitleAndLibraryNotNull(bookDto.getTitle());
-        book.setStatus(BookStatus.AVAILABLE);
+        verify(availabilityIndex, never()).librariesWithAvailable(any());
+    }
+
+    @Test
+    void getNearestLibrariesWithoutOriginTest() {
+        //when
+        assertThrows(LibraryException.class,
+                () -> libraryService.getNearestLibraries(bookDto.getTitle(), null, 49.8, null, 5));
+
+        //then
+        verify(locationIndex, never()).nearest(any(), eq(5), any());
     }
 
     @Test
     void getAllBooksTest() {
         //given
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         //when
         Set<BookDto> actual = libraryService.getAllBooks(libraryDto.getName());
         //then
@@ -323,21 +579,21 @@ public class LibraryServiceImplTest {
     @Test
     void deleteLibraryTest() {
         //given
-        when(libraryRepository.findLibraryByLibraryName(library.getLibraryName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(library.getLibraryName())).thenReturn(library);
         doNothing().when(libraryRepository).delete(library);
 
         //when
         libraryService.deleteLibrary(library.getLibraryName());
 
         //then
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(library.getLibraryName());
+        verify(naturalKeyCache, times(1)).libraryReference(library.getLibraryName());
         verify(libraryRepository, times(1)).delete(library);
     }
 
     @Test
     void isNameAlreadyInUseTest() {
         //given
-        when(libraryRepository.existsLibraryByLibraryName(library.getLibraryName())).thenReturn(true);
+        when(existenceRegistry.exists(ExistenceType.LIBRARY_NAME, library.getLibraryName())).thenReturn(true);
 
         //when
         boolean actual = libraryService.isNameAlreadyInUse(library.getLibraryName());
@@ -354,46 +610,97 @@ public class LibraryServiceImplTest {
 
     @Test
     void reserveBookTest() {
-        library.setBooks(Collections.singleton(book));
         user.setIsAccountNonLocked(true);
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
         when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(1L));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(1);
+        when(bookRepository.getById(1L)).thenReturn(book);
         when(reservedRepository.save(isA(Reserved.class))).thenReturn(new Reserved());
 
         //when
         libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
         verify(reservedRepository, times(1)).existsReservedByUser(user);
         verify(borrowedRepository, times(1)).existsBorrowedByUser(user);
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
+        verify(bookRepository, times(1)).updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED);
+        verify(reservedRepository, times(1)).save(isA(Reserved.class));
+        verify(eventPublisher, times(1)).publishEvent(isA(CirculationEvent.class));
+    }
+
+    @Test
+    void reserveBookClaimsWithoutConsultingIndexTest() {
+        user.setIsAccountNonLocked(true);
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
+        when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(1L));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(1);
+        when(bookRepository.getById(1L)).thenReturn(book);
+
+        //when
+        libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        verify(reservedRepository, times(1)).save(isA(Reserved.class));
+        verifyNoInteractions(availabilityIndex);
+    }
+
+    @Test
+    void reserveBookClaimedByAnotherUserTest() {
+        user.setIsAccountNonLocked(true);
+        //given
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
+        when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(1L, 2L));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(0);
+        when(bookRepository.updateStatus(2L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(1);
+        when(bookRepository.getById(2L)).thenReturn(book);
+        when(reservedRepository.save(isA(Reserved.class))).thenReturn(new Reserved());
+
+        //when
+        libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
+
+        //then
+        verify(bookRepository, never()).getById(1L);
+        verify(bookRepository, times(1)).getById(2L);
         verify(reservedRepository, times(1)).save(isA(Reserved.class));
     }
 
     @Test
     void reserveBookNotAvailableExceptionTest() {
-        book.setStatus(BookStatus.RESERVED);
-        library.setBooks(Collections.singleton(book));
         user.setIsAccountNonLocked(true);
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
         when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
 
         //when
         assertThrows(BookNotAvailableException.class,
                 () -> libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
         verify(reservedRepository, times(1)).existsReservedByUser(user);
         verify(borrowedRepository, times(1)).existsBorrowedByUser(user);
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
+        verify(bookRepository, never()).updateStatus(any(), any(), any());
         verify(reservedRepository, never()).save(any());
     }
 
@@ -403,7 +710,7 @@ public class LibraryServiceImplTest {
         library.setBooks(Collections.singleton(book));
         user.setIsAccountNonLocked(true);
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(reservedRepository.existsReservedByUser(user)).thenReturn(true);
 
         //when
@@ -411,17 +718,17 @@ public class LibraryServiceImplTest {
                 () -> libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
         verify(reservedRepository, times(1)).existsReservedByUser(user);
         verify(borrowedRepository, never()).existsBorrowedByUser(any());
-        verify(libraryRepository, never()).findLibraryByLibraryName(any());
+        verify(naturalKeyCache, never()).libraryReference(any());
         verify(reservedRepository, never()).save(any());
     }
 
     @Test
     void reserveBookExceptionTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
         when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(true);
 
@@ -430,42 +737,42 @@ public class LibraryServiceImplTest {
                 () -> libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
         verify(reservedRepository, times(1)).existsReservedByUser(user);
         verify(borrowedRepository, times(1)).existsBorrowedByUser(user);
-        verify(libraryRepository, never()).findLibraryByLibraryName(any());
+        verify(naturalKeyCache, never()).libraryReference(any());
         verify(reservedRepository, never()).save(any());
     }
 
     @Test
-    void reserveBookNotEqualsTitleTest34() {
-        Book newBook = book;
-        newBook.setTitle("new Title");
-        library.setBooks(Collections.singleton(newBook));
+    void reserveBookAllCopiesClaimedTest() {
         user.setIsAccountNonLocked(true);
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(reservedRepository.existsReservedByUser(user)).thenReturn(false);
         when(borrowedRepository.existsBorrowedByUser(user)).thenReturn(false);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(bookRepository.findBookIds(eq(library), eq(bookDto.getTitle()), eq(BookStatus.AVAILABLE), eq(0L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(1L));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(0);
 
         //when
         assertThrows(BookNotAvailableException.class,
                 () -> libraryService.reserveBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache).userReference(userDto.getEmail());
         verify(reservedRepository, times(1)).existsReservedByUser(user);
         verify(borrowedRepository).existsBorrowedByUser(user);
-        verify(libraryRepository).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache).libraryReference(libraryDto.getName());
         verify(reservedRepository, never()).save(isA(Reserved.class));
     }
 
     @Test
     void borrowBookTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(reservedRepository.findByUserAndLibrary(user, library)).thenReturn(Optional.of(getReserved()));
         doNothing().when(reservedRepository).delete(isA(Reserved.class));
         when(borrowedRepository.save(isA(Borrowed.class))).thenReturn(new Borrowed());
@@ -474,8 +781,8 @@ public class LibraryServiceImplTest {
         libraryService.borrowBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
         verify(reservedRepository, times(1)).findByUserAndLibrary(user, library);
         verify(reservedRepository, times(1)).delete(isA(Reserved.class));
         verify(borrowedRepository, times(1)).save(isA(Borrowed.class));
@@ -484,8 +791,8 @@ public class LibraryServiceImplTest {
     @Test
     void borrowBookReservedExceptionTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(reservedRepository.findByUserAndLibrary(user, library)).thenReturn(Optional.empty());
 
         //when
@@ -493,8 +800,8 @@ public class LibraryServiceImplTest {
                 () -> libraryService.borrowBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
         verify(reservedRepository, times(1)).findByUserAndLibrary(user, library);
         verify(reservedRepository, never()).delete(isA(Reserved.class));
         verify(borrowedRepository, never()).save(isA(Borrowed.class));
@@ -503,108 +810,173 @@ public class LibraryServiceImplTest {
     @Test
     void returnBookTest() throws Exception {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.of(getBorrowed()));
         doNothing().when(borrowedRepository).delete(isA(Borrowed.class));
 
         //when
-        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
         verify(borrowedRepository, times(1)).findBorrowedByUserAndLibrary(user, library);
         verify(borrowedRepository, times(1)).delete(isA(Borrowed.class));
-        verify(penaltyRepository, never()).save(any());
+        verify(holdQueue, times(1)).handOff(book);
+        verify(pendingPenaltyRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(isA(LateReturnEvent.class));
     }
 
     @Test
-    void returnBookPenaltyTest() throws Exception {
+    void returnBookLateTest() throws Exception {
         Borrowed borrowed = getBorrowed();
         borrowed.setDueDate(Calendar.getInstance().getTime());
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
         when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.of(borrowed));
         doNothing().when(borrowedRepository).delete(borrowed);
-        when(penaltyRepository.countAllByUser(user)).thenReturn(4);
-        when(penaltyRepository.save(isA(BookPenalty.class))).thenReturn(new BookPenalty());
 
         //when
-        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName());
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
         verify(borrowedRepository, times(1)).findBorrowedByUserAndLibrary(user, library);
         verify(borrowedRepository, times(1)).delete(borrowed);
-        verify(penaltyRepository, times(1)).save(isA(BookPenalty.class));
+        verify(pendingPenaltyRepository, times(1)).save(isA(PendingPenalty.class));
+        verify(eventPublisher, times(1)).publishEvent(isA(LateReturnEvent.class));
+        assertTrue(user.getIsAccountNonLocked());
     }
 
     @Test
-    void returnBookSetBlockTest() {
-        Borrowed borrowed = getBorrowed();
-        borrowed.setDueDate(Calendar.getInstance().getTime());
+    void returnBookBorrowedExceptionTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
-        when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.of(borrowed));
-        doNothing().when(borrowedRepository).delete(borrowed);
-        when(penaltyRepository.countAllByUser(user)).thenReturn(6);
-        when(penaltyRepository.save(isA(BookPenalty.class))).thenReturn(new BookPenalty());
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.empty());
 
         //when
-        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), new Request(new Connector()));
+        assertThrows(BorrowedException.class,
+                () -> libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName()));
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
+        verify(naturalKeyCache, times(1)).userReference(userDto.getEmail());
+        verify(naturalKeyCache, times(1)).libraryReference(libraryDto.getName());
         verify(borrowedRepository, times(1)).findBorrowedByUserAndLibrary(user, library);
-        verify(borrowedRepository, times(1)).delete(borrowed);
-        verify(penaltyRepository, times(1)).save(isA(BookPenalty.class));
+        verify(borrowedRepository, never()).delete(any());
+        verify(eventPublisher, never()).publishEvent(isA(LateReturnEvent.class));
+    }
+
+    @Test
+    void reserveBooksTest() {
+        User other = getOtherUser();
+        List<CirculationItemDto> items = Arrays.asList(getCirculationItem(user), getCirculationItem(other));
+        //given
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(userRepository.findAllByEmailIn(any())).thenReturn(Arrays.asList(user, other));
+        when(reservedRepository.findUserIds(any())).thenReturn(Collections.emptyList());
+        when(borrowedRepository.findUserIds(any())).thenReturn(Collections.emptyList());
+        when(bookRepository.findBookCandidates(eq(library), any(), eq(BookStatus.AVAILABLE)))
+                .thenReturn(Collections.singletonList(getCandidate(1L)));
+        when(bookRepository.updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED)).thenReturn(1);
+        when(bookRepository.getById(1L)).thenReturn(book);
+
+        //when
+        List<CirculationResultDto> actual = libraryService.reserveBooks(libraryDto.getName(), items);
+
+        //then
+        assertTrue(actual.get(0).isSuccess());
+        assertFalse(actual.get(1).isSuccess());
+        assertEquals(format("Available book with this title %s doesn't exist in library with this name %s",
+                bookDto.getTitle(), libraryDto.getName()), actual.get(1).getMessage());
+        verify(bookRepository, times(1)).updateStatus(1L, BookStatus.AVAILABLE, BookStatus.RESERVED);
+        verify(reservedRepository, times(1)).saveAll(any());
+        verify(reservedRepository, never()).save(any());
+    }
+
+    @Test
+    void reserveBooksUserAlreadyReservedTest() {
+        List<CirculationItemDto> items = Arrays.asList(getCirculationItem(user),
+                CirculationItemDto.builder().userEmail("missing@test.com").bookTitle(bookDto.getTitle()).build());
+        //given
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(userRepository.findAllByEmailIn(any())).thenReturn(Collections.singletonList(user));
+        when(reservedRepository.findUserIds(any())).thenReturn(Collections.singletonList(user.getId()));
+        when(borrowedRepository.findUserIds(any())).thenReturn(Collections.emptyList());
+        when(bookRepository.findBookCandidates(eq(library), any(), eq(BookStatus.AVAILABLE)))
+                .thenReturn(Collections.singletonList(getCandidate(1L)));
+
+        //when
+        List<CirculationResultDto> actual = libraryService.reserveBooks(libraryDto.getName(), items);
+
+        //then
+        assertEquals(format("User with email %s already had a book reserved", userDto.getEmail()), actual.get(0).getMessage());
+        assertEquals("User with email missing@test.com is not found", actual.get(1).getMessage());
+        verify(bookRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void borrowBooksTest() {
+        User other = getOtherUser();
+        List<CirculationItemDto> items = Arrays.asList(getCirculationItem(user), getCirculationItem(other));
+        Reserved reserved = getReserved();
+        //given
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(userRepository.findAllByEmailIn(any())).thenReturn(Arrays.asList(user, other));
+        when(reservedRepository.findAllByLibraryAndUsers(eq(library), any())).thenReturn(Collections.singletonList(reserved));
+
+        //when
+        List<CirculationResultDto> actual = libraryService.borrowBooks(libraryDto.getName(), items);
+
+        //then
+        assertTrue(actual.get(0).isSuccess());
+        assertFalse(actual.get(1).isSuccess());
+        assertEquals(BookStatus.BORROWED, book.getStatus());
+        verify(reservedRepository, times(1)).deleteAllInBatch(Collections.singletonList(reserved));
+        verify(borrowedRepository, times(1)).saveAll(any());
     }
 
     @Test
-    void returnBookSetBlockNullRequestTest() {
+    void returnBooksTest() {
         Borrowed borrowed = getBorrowed();
-        borrowed.setDueDate(Calendar.getInstance().getTime());
+        borrowed.setDueDate(new Date(System.currentTimeMillis() - 1000));
+        List<CirculationItemDto> items = Collections.singletonList(getCirculationItem(user));
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
-        when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.of(borrowed));
-        doNothing().when(borrowedRepository).delete(borrowed);
-        when(penaltyRepository.countAllByUser(user)).thenReturn(6);
-        when(penaltyRepository.save(isA(BookPenalty.class))).thenReturn(new BookPenalty());
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(userRepository.findAllByEmailIn(any())).thenReturn(Collections.singletonList(user));
+        when(borrowedRepository.findAllByLibraryAndUsers(eq(library), any())).thenReturn(Collections.singletonList(borrowed));
 
         //when
-        libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null);
+        List<CirculationResultDto> actual = libraryService.returnBooks(libraryDto.getName(), items);
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
-        verify(borrowedRepository, times(1)).findBorrowedByUserAndLibrary(user, library);
-        verify(borrowedRepository, times(1)).delete(borrowed);
-        verify(penaltyRepository, times(1)).save(isA(BookPenalty.class));
+        assertTrue(actual.get(0).isSuccess());
+        assertEquals(BookStatus.AVAILABLE, book.getStatus());
+        verify(eventPublisher, times(1)).publishEvent(isA(LateReturnEvent.class));
+        InOrder inOrder = inOrder(borrowedRepository, holdQueue);
+        inOrder.verify(borrowedRepository).deleteAllInBatch(Collections.singletonList(borrowed));
+        inOrder.verify(holdQueue).handOff(borrowed.getBook());
     }
 
     @Test
-    void returnBookBorrowedExceptionTest() {
+    void returnBooksWrongTitleTest() {
+        List<CirculationItemDto> items = Collections.singletonList(
+                CirculationItemDto.builder().userEmail(userDto.getEmail()).bookTitle("OTHER TITLE").build());
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
-        when(libraryRepository.findLibraryByLibraryName(libraryDto.getName())).thenReturn(library);
-        when(borrowedRepository.findBorrowedByUserAndLibrary(user, library)).thenReturn(Optional.empty());
+        when(naturalKeyCache.libraryReference(libraryDto.getName())).thenReturn(library);
+        when(userRepository.findAllByEmailIn(any())).thenReturn(Collections.singletonList(user));
+        when(borrowedRepository.findAllByLibraryAndUsers(eq(library), any())).thenReturn(Collections.singletonList(getBorrowed()));
 
         //when
-        assertThrows(BorrowedException.class,
-                () -> libraryService.returnBook(bookDto.getTitle(), userDto.getEmail(), libraryDto.getName(), null));
+        List<CirculationResultDto> actual = libraryService.returnBooks(libraryDto.getName(), items);
 
         //then
-        verify(userRepository, times(1)).findUserByEmail(userDto.getEmail());
-        verify(libraryRepository, times(1)).findLibraryByLibraryName(libraryDto.getName());
-        verify(borrowedRepository, times(1)).findBorrowedByUserAndLibrary(user, library);
-        verify(borrowedRepository, never()).delete(any());
-        verify(penaltyRepository, never()).save(any());
+        assertEquals("Borrowed with book OTHER TITLE is not found", actual.get(0).getMessage());
+        verify(borrowedRepository, times(1)).deleteAllInBatch(Collections.emptyList());
+        verify(eventPublisher, never()).publishEvent(isA(LateReturnEvent.class));
     }
 
     private LibraryDto getLibraryDto() {
@@ -645,7 +1017,37 @@ public class LibraryServiceImplTest {
     }
 
     private User getUser() {
-        return UserMapper.INSTANCE.mapUser(userDto);
+        User newUser = UserMapper.INSTANCE.mapUser(userDto);
+        newUser.setId(1L);
+        return newUser;
+    }
+
+    private User getOtherUser() {
+        User other = UserMapper.INSTANCE.mapUser(userDto);
+        other.setId(2L);
+        other.setEmail("other@test.com");
+        return other;
+    }
+
+    private CirculationItemDto getCirculationItem(User itemUser) {
+        return CirculationItemDto.builder()
+                .userEmail(itemUser.getEmail())
+                .bookTitle(bookDto.getTitle())
+                .build();
+    }
+
+    private BookCandidate getCandidate(Long id) {
+        return new BookCandidate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return bookDto.getTitle();
+            }
+        };
     }
 
     private Reserved getReserved() {
@@ -672,4 +1074,58 @@ public class LibraryServiceImplTest {
         calendar.add(Calendar.DAY_OF_YEAR, 2);
         return calendar;
     }
+
+    private LibrarySummary librarySummary(Library library) {
+        return new LibrarySummary() {
+            @Override
+            public Long getId() {
+                return library.getId();
+            }
+
+            @Override
+            public String getLibraryName() {
+                return library.getLibraryName();
+            }
+
+            @Override
+            public String getEmail() {
+                return library.getEmail();
+            }
+
+            @Override
+            public String getPhone() {
+                return library.getPhone();
+            }
+
+            @Override
+            public String getCountry() {
+                return library.getCountry();
+            }
+
+            @Override
+            public String getCity() {
+                return library.getCity();
+            }
+
+            @Override
+            public String getAddress() {
+                return library.getAddress();
+            }
+
+            @Override
+            public String getPostalCode() {
+                return library.getPostalCode();
+            }
+
+            @Override
+            public Double getLatitude() {
+                return library.getLatitude();
+            }
+
+            @Override
+            public Double getLongitude() {
+                return library.getLongitude();
+            }
+        };
+    }
 }
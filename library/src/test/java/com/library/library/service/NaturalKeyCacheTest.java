@@ -0,0 +1,163 @@
+package com.library.library.service;
+
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.event.AuthorChangedEvent;
+import com.library.library.service.event.LibraryChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
+import com.library.library.service.model.Author;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.AuthorRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.LibrarySummary;
+import com.library.library.service.repository.NaturalKey;
+import com.library.library.service.repository.UserRepository;
+import com.library.library.service.repository.UserSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NaturalKeyCacheTest {
+
+    @Mock
+    private LibraryRepository libraryRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private final SpelAwareProxyProjectionFactory projections = new SpelAwareProxyProjectionFactory();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NaturalKeyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new NaturalKeyCache(libraryRepository, userRepository, authorRepository, meterRegistry, 600, 100);
+    }
+
+    @Test
+    void repeatedLookupServesSnapshotTest() {
+        //given
+        LibrarySummary summary = library(1L, "Kyiv");
+        when(libraryRepository.findSummaryByLibraryName("Kyiv")).thenReturn(summary);
+        //when
+        cache.library("Kyiv");
+        cache.library("Kyiv");
+        LibrarySummary actual = cache.library("Kyiv");
+        //then
+        assertSame(summary, actual);
+        verify(libraryRepository, times(1)).findSummaryByLibraryName("Kyiv");
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "library.names").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "library.names").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void missingEntityIsNotCachedTest() {
+        //when
+        cache.user("test@email.com");
+        cache.user("test@email.com");
+        //then
+        verify(userRepository, times(2)).findSummaryByEmail("test@email.com");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void everyChangeEvictsByIdTest() {
+        //given
+        when(libraryRepository.findSummaryByLibraryName("Kyiv")).thenReturn(library(1L, "Kyiv"));
+        when(userRepository.findSummaryByEmail("test@email.com")).thenReturn(user(3L, "test@email.com"));
+        when(userRepository.findSummaryByEmail("other@email.com")).thenReturn(user(4L, "other@email.com"));
+        cache.library("Kyiv");
+        cache.user("test@email.com");
+        cache.user("other@email.com");
+        //when
+        cache.onLibraryChanged(new LibraryChangedEvent(1L, "Kyiv", "Kyiv"));
+        cache.onUserChanged(new UserChangedEvent(7L, "nobody@email.com", null));
+        //then
+        assertEquals(2, cache.size());
+        cache.onAccountChanged(AccountChangedEvent.of(3L));
+        cache.onUserChanged(new UserChangedEvent(4L, "other@email.com", "other@email.com"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void referenceResolvesCachedIdTest() {
+        //given
+        Author author = new Author();
+        when(authorRepository.findKeyByNickname("king")).thenReturn(key(5L, "king"));
+        when(authorRepository.getById(5L)).thenReturn(author);
+        //when
+        cache.authorReference("king");
+        Author actual = cache.authorReference("king");
+        //then
+        assertSame(author, actual);
+        assertNull(cache.authorReference("nobody"));
+        verify(authorRepository, times(1)).findKeyByNickname("king");
+        verify(authorRepository, times(2)).getById(5L);
+    }
+
+    @Test
+    void evictionDropsOnlyKeysOfThatIdTest() {
+        //given
+        when(authorRepository.findKeyByNickname("king")).thenReturn(key(5L, "king"));
+        when(authorRepository.findKeyByNickname("KING")).thenReturn(key(5L, "king"));
+        when(authorRepository.findKeyByNickname("rowling")).thenReturn(key(6L, "rowling"));
+        cache.authorReference("king");
+        cache.authorReference("KING");
+        cache.authorReference("rowling");
+        //when
+        cache.onAuthorChanged(new AuthorChangedEvent(5L, "king", "stephen", "Stephen King", "Stephen King"));
+        //then
+        assertEquals(1, cache.size());
+        cache.authorReference("rowling");
+        verify(authorRepository, times(1)).findKeyByNickname("rowling");
+    }
+
+    @Test
+    void changeDuringLoadIsNotCachedTest() {
+        //given
+        when(libraryRepository.findSummaryByLibraryName("Kyiv")).thenAnswer(invocation -> {
+            cache.onLibraryChanged(new LibraryChangedEvent(1L, "Kyiv", "Kyiv"));
+            return library(1L, "Kyiv");
+        });
+        //when
+        cache.library("Kyiv");
+        cache.library("Kyiv");
+        //then
+        verify(libraryRepository, times(2)).findSummaryByLibraryName("Kyiv");
+        assertEquals(0, cache.size());
+    }
+
+    private LibrarySummary library(Long id, String name) {
+        Library library = new Library();
+        library.setId(id);
+        library.setLibraryName(name);
+        return projections.createProjection(LibrarySummary.class, library);
+    }
+
+    private NaturalKey key(Long id, String name) {
+        return projections.createProjection(NaturalKey.class, Map.of("id", id, "name", name));
+    }
+
+    private UserSummary user(Long id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        return projections.createProjection(UserSummary.class, user);
+    }
+}
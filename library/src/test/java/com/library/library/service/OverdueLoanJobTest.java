@@ -0,0 +1,162 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.job.OverdueLoanJob;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.BookPenalty;
+import com.library.library.service.model.Borrowed;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.penalty.PenaltyCounters;
+import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.OverdueLoanRepository;
+import com.library.library.service.repository.PenaltyCounterRepository;
+import com.library.library.service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "overdue.detection.chunk.size=3"
+})
+@Import({OverdueLoanJob.class, PenaltyCounters.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class OverdueLoanJobTest {
+
+    @Autowired
+    private OverdueLoanJob job;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BorrowedRepository borrowedRepository;
+    @Autowired
+    private BookPenaltyRepository penaltyRepository;
+    @Autowired
+    private OverdueLoanRepository overdueLoanRepository;
+    @Autowired
+    private PenaltyCounterRepository penaltyCounterRepository;
+    @Autowired
+    private PenaltyCounters penaltyCounters;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Library library;
+    private User chronicUser;
+    private User lateUser;
+    private User punctualUser;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName("OVERDUE LIB");
+        library.setEmail("overdue@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+        chronicUser = saveUser("chronic@test.com");
+        lateUser = saveUser("late@test.com");
+        punctualUser = saveUser("punctual@test.com");
+    }
+
+    @AfterEach
+    void tearDown() {
+        overdueLoanRepository.deleteAllInBatch();
+        penaltyCounterRepository.deleteAllInBatch();
+        penaltyRepository.deleteAllInBatch();
+        borrowedRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void detectOverdueLoansTest() {
+        for (int i = 0; i < 4; i++) {
+            saveBorrowed(chronicUser, -2);
+        }
+        Book returnedBook = saveBook();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            penaltyRepository.save(new BookPenalty(daysFromNow(-30), daysFromNow(-20), bookRepository.getById(returnedBook.getId()),
+                    libraryRepository.getById(library.getId()), userRepository.getById(chronicUser.getId())));
+            penaltyCounters.record(chronicUser.getId(), daysFromNow(-20));
+        });
+        saveBorrowed(lateUser, -1);
+        saveBorrowed(punctualUser, 5);
+
+        job.detectOverdueLoans();
+
+        assertEquals(5, overdueLoanRepository.count());
+        assertFalse(userRepository.findById(chronicUser.getId()).orElseThrow().getIsAccountNonLocked());
+        assertTrue(userRepository.findById(lateUser.getId()).orElseThrow().getIsAccountNonLocked());
+        assertTrue(userRepository.findById(punctualUser.getId()).orElseThrow().getIsAccountNonLocked());
+        assertEquals(5, meterRegistry.get("overdue.detection.progress").gauge().value());
+    }
+
+    @Test
+    void detectOverdueLoansTwiceTest() {
+        saveBorrowed(lateUser, -1);
+
+        job.detectOverdueLoans();
+        assertEquals(1, meterRegistry.get("overdue.detection.progress").gauge().value());
+        job.detectOverdueLoans();
+
+        assertEquals(1, overdueLoanRepository.count());
+        assertEquals(0, meterRegistry.get("overdue.detection.progress").gauge().value());
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Petro")
+                .lastName("Smikh")
+                .email(email)
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build());
+    }
+
+    private Book saveBook() {
+        Book book = new Book();
+        book.setTitle("TEST TITLE");
+        book.setStatus(BookStatus.BORROWED);
+        book.setLibrary(library);
+        return bookRepository.save(book);
+    }
+
+    private void saveBorrowed(User user, int dueInDays) {
+        borrowedRepository.save(new Borrowed(daysFromNow(dueInDays), saveBook(), user, library));
+    }
+
+    private Date daysFromNow(int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_YEAR, days);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,141 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.job.PenaltyCounterReconciliationJob;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.BookPenalty;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.PenaltyCounter;
+import com.library.library.service.model.User;
+import com.library.library.service.penalty.PenaltyCounters;
+import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.PenaltyCounterRepository;
+import com.library.library.service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "penalty.window.months=12"
+})
+@Import({PenaltyCounterReconciliationJob.class, PenaltyCounters.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PenaltyCounterReconciliationJobTest {
+
+    @Autowired
+    private PenaltyCounterReconciliationJob job;
+    @Autowired
+    private PenaltyCounters penaltyCounters;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookPenaltyRepository penaltyRepository;
+    @Autowired
+    private PenaltyCounterRepository counterRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Library library;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName("PENALTY LIB");
+        library.setEmail("penalty@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+        user = userRepository.save(User.builder()
+                .firstName("Petro")
+                .lastName("Smikh")
+                .email("penalty@test.com")
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        counterRepository.deleteAllInBatch();
+        penaltyRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void recordAndCountWithinWindowTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            penaltyCounters.record(user.getId(), monthsAgo(0));
+            penaltyCounters.record(user.getId(), monthsAgo(0));
+            penaltyCounters.record(user.getId(), monthsAgo(11));
+            penaltyCounters.record(user.getId(), monthsAgo(13));
+        });
+
+        assertEquals(3, counterRepository.count());
+        assertEquals(3, penaltyCounters.count(user.getId()));
+    }
+
+    @Test
+    void reconcileTest() {
+        savePenalty(monthsAgo(0));
+        savePenalty(monthsAgo(0));
+        savePenalty(monthsAgo(2));
+        counterRepository.save(new PenaltyCounter(user.getId(), PenaltyCounters.period(monthsAgo(0)), 5));
+        counterRepository.save(new PenaltyCounter(user.getId(), PenaltyCounters.period(monthsAgo(5)), 1));
+
+        job.reconcile();
+
+        assertEquals(2, counterRepository.count());
+        assertEquals(3, penaltyCounters.count(user.getId()));
+        assertEquals(3, meterRegistry.get("penalty.counter.drift").gauge().value());
+
+        job.reconcile();
+
+        assertEquals(0, meterRegistry.get("penalty.counter.drift").gauge().value());
+    }
+
+    private void savePenalty(Date returnDate) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Book book = new Book();
+            book.setTitle("LATE TITLE");
+            book.setStatus(BookStatus.AVAILABLE);
+            book.setLibrary(libraryRepository.getById(library.getId()));
+            bookRepository.save(book);
+            penaltyRepository.save(new BookPenalty(returnDate, returnDate, book,
+                    libraryRepository.getById(library.getId()), userRepository.getById(user.getId())));
+        });
+    }
+
+    private Date monthsAgo(int months) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.MONTH, -months);
+        return calendar.getTime();
+    }
+}
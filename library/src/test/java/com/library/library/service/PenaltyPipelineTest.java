@@ -0,0 +1,247 @@
+package com.library.library.service;
+
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Borrowed;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.PendingPenalty;
+import com.library.library.service.model.User;
+import com.library.library.service.penalty.PenaltyCounters;
+import com.library.library.service.penalty.PenaltyPipeline;
+import com.library.library.service.repository.BookPenaltyRepository;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.BorrowedRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.PenaltyCounterRepository;
+import com.library.library.service.repository.PendingPenaltyRepository;
+import com.library.library.service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.session.SessionRegistryImpl;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "penalty.pipeline.retry.backoff.ms=10",
+        "penalty.outbox.grace.ms=0"
+})
+@Import({TestIndexConfig.class, HoldQueue.class, LibraryServiceImpl.class, PenaltyPipeline.class,
+        SessionRegistryImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PenaltyPipelineTest {
+
+    private static final String TITLE = "LATE TITLE";
+    private static final String LIBRARY_NAME = "PENALTY LIB";
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private SessionRegistry sessionRegistry;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private NaturalKeyCache naturalKeyCache;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BorrowedRepository borrowedRepository;
+    @Autowired
+    private BookPenaltyRepository penaltyRepository;
+    @Autowired
+    private PenaltyCounterRepository penaltyCounterRepository;
+    @Autowired
+    private PendingPenaltyRepository pendingPenaltyRepository;
+    @Autowired
+    private PenaltyPipeline penaltyPipeline;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @SpyBean
+    private PenaltyCounters penaltyCounters;
+
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName(LIBRARY_NAME);
+        library.setEmail("penalty@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+    }
+
+    @AfterEach
+    void tearDown() {
+        penaltyCounterRepository.deleteAllInBatch();
+        pendingPenaltyRepository.deleteAllInBatch();
+        penaltyRepository.deleteAllInBatch();
+        borrowedRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+        naturalKeyCache.invalidateAll();
+    }
+
+    @Test
+    void lateReturnEventuallyLocksAccountTest() throws Exception {
+        User user = saveUser("late@test.com");
+        recordPenalties(user, 4);
+        saveBorrowed(user, -1);
+        sessionRegistry.registerNewSession("late-session",
+                new org.springframework.security.core.userdetails.User(user.getEmail(), "password", Collections.emptyList()));
+
+        libraryService.returnBook(TITLE, user.getEmail(), LIBRARY_NAME);
+
+        await(() -> sessionRegistry.getSessionInformation("late-session").isExpired());
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+        assertEquals(1, penaltyRepository.count());
+        assertEquals(5, penaltyCounters.count(user.getId()));
+        assertEquals(0, pendingPenaltyRepository.count());
+    }
+
+    @Test
+    void lateReturnRetriedAfterFailureTest() throws Exception {
+        User user = saveUser("retry@test.com");
+        recordPenalties(user, 4);
+        saveBorrowed(user, -1);
+        double retried = meterRegistry.get("penalty.pipeline.retried").counter().count();
+        PenaltyCounters target = AopTestUtils.getUltimateTargetObject(penaltyCounters);
+        doThrow(new CannotAcquireLockException("deadlock")).doCallRealMethod()
+                .when(target).record(eq(user.getId()), any(Date.class));
+
+        libraryService.returnBook(TITLE, user.getEmail(), LIBRARY_NAME);
+
+        await(() -> !userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+        assertEquals(1, penaltyRepository.count());
+        assertEquals(retried + 1, meterRegistry.get("penalty.pipeline.retried").counter().count());
+    }
+
+    @Test
+    void exhaustedRetriesStayInOutboxUntilSweptTest() throws Exception {
+        User user = saveUser("outbox@test.com");
+        recordPenalties(user, 4);
+        saveBorrowed(user, -1);
+        double failed = meterRegistry.get("penalty.pipeline.failed").counter().count();
+        PenaltyCounters target = AopTestUtils.getUltimateTargetObject(penaltyCounters);
+        CannotAcquireLockException deadlock = new CannotAcquireLockException("deadlock");
+        doThrow(deadlock).doThrow(deadlock).doThrow(deadlock).doThrow(deadlock).doThrow(deadlock).doCallRealMethod()
+                .when(target).record(eq(user.getId()), any(Date.class));
+
+        libraryService.returnBook(TITLE, user.getEmail(), LIBRARY_NAME);
+
+        await(() -> meterRegistry.get("penalty.pipeline.failed").counter().count() == failed + 1
+                && pendingPenaltyRepository.findAll().stream().allMatch(pending -> pending.getAttempts() == 5));
+        assertEquals(0, penaltyRepository.count());
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+
+        await(() -> {
+            penaltyPipeline.sweep();
+            return pendingPenaltyRepository.count() == 0;
+        });
+        assertEquals(1, penaltyRepository.count());
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+    }
+
+    @Test
+    void sweepAppliesPenaltyLeftByCrashTest() throws Exception {
+        User user = saveUser("crash@test.com");
+        recordPenalties(user, 4);
+        saveBorrowed(user, -1);
+        Borrowed borrowed = borrowedRepository.findAll().get(0);
+        Date returnedOn = new Date();
+        pendingPenaltyRepository.save(new PendingPenalty(borrowed.getId(), user.getId(), user.getEmail(),
+                borrowed.getBook().getId(), library.getId(), borrowed.getDueDate(), returnedOn, returnedOn));
+
+        penaltyPipeline.sweep();
+        penaltyPipeline.sweep();
+
+        assertEquals(0, pendingPenaltyRepository.count());
+        assertEquals(1, penaltyRepository.count());
+        assertEquals(5, penaltyCounters.count(user.getId()));
+        assertFalse(userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+    }
+
+    @Test
+    void onTimeReturnWithoutPenaltyTest() throws Exception {
+        User user = saveUser("ontime@test.com");
+        saveBorrowed(user, 5);
+
+        libraryService.returnBook(TITLE, user.getEmail(), LIBRARY_NAME);
+
+        Thread.sleep(200);
+        assertEquals(0, pendingPenaltyRepository.count());
+        assertEquals(0, penaltyRepository.count());
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getIsAccountNonLocked());
+    }
+
+    private void recordPenalties(User user, int penalties) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < penalties; i++) {
+                penaltyCounters.record(user.getId(), new Date());
+            }
+        });
+    }
+
+    private void saveBorrowed(User user, int dueInDays) {
+        Book book = new Book();
+        book.setTitle(TITLE);
+        book.setStatus(BookStatus.BORROWED);
+        book.setLibrary(library);
+        Calendar dueDate = Calendar.getInstance();
+        dueDate.add(Calendar.DAY_OF_YEAR, dueInDays);
+        borrowedRepository.save(new Borrowed(dueDate.getTime(), bookRepository.save(book), user, library));
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Petro")
+                .lastName("Smikh")
+                .email(email)
+                .role(Role.USER)
+                .isAccountNonLocked(true)
+                .build());
+    }
+
+    private void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
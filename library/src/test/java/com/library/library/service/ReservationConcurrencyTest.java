@@ -0,0 +1,226 @@
+package com.library.library.service;
+
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.exception.BookNotAvailableException;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.index.AvailabilityIndex;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.Reserved;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.ReservedRepository;
+import com.library.library.service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@DataJpaTest(properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Import({TestIndexConfig.class, HoldQueue.class, LibraryServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReservationConcurrencyTest {
+
+    private static final String TITLE = "BESTSELLER";
+    private static final String LIBRARY_NAME = "CONCURRENT LIB";
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private NaturalKeyCache naturalKeyCache;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ReservedRepository reservedRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    private Library library;
+
+    @BeforeEach
+    void setUp() {
+        library = new Library();
+        library.setLibraryName(LIBRARY_NAME);
+        library.setEmail("concurrent@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservedRepository.deleteAll();
+        bookRepository.deleteAll();
+        userRepository.deleteAll();
+        libraryRepository.deleteAll();
+        naturalKeyCache.invalidateAll();
+    }
+
+    @Test
+    void lastCopyIsReservedExactlyOnceTest() throws Exception {
+        saveBooks(TITLE, 1);
+        List<User> users = saveUsers(16);
+
+        int reserved = reserveConcurrently(users);
+
+        assertEquals(1, reserved);
+        assertEquals(1, reservedRepository.count());
+        assertEquals(BookStatus.RESERVED, bookRepository.findAll().get(0).getStatus());
+    }
+
+    @Test
+    void everyCopyIsReservedOnceTest() throws Exception {
+        saveBooks(TITLE, 8);
+        saveBooks("ANOTHER TITLE", 8);
+        List<User> users = saveUsers(32);
+
+        int reserved = reserveConcurrently(users);
+
+        assertEquals(8, reserved);
+        assertEquals(0, availabilityIndex.available(library.getId(), TITLE));
+        assertEquals(8, availabilityIndex.count(library.getId(), TITLE, BookStatus.RESERVED));
+        assertTrue(availabilityIndex.check(false).isConsistent());
+        List<Reserved> reservations = reservedRepository.findAll();
+        Set<Long> bookIds = new TransactionTemplate(transactionManager).execute(status -> reservedRepository.findAll().stream()
+                .map(r -> r.getBook().getId())
+                .collect(Collectors.toSet()));
+        assertEquals(8, reservations.size());
+        assertEquals(8, bookIds.size());
+        assertEquals(8, bookRepository.findAll().stream()
+                .filter(b -> b.getTitle().equals(TITLE) && b.getStatus() == BookStatus.RESERVED)
+                .count());
+    }
+
+    @Test
+    void reserveThroughputComparisonTest() {
+        int reservations = 50;
+        saveBooks("OTHER TITLE", 2000);
+        saveBooks(TITLE, reservations);
+        List<User> users = saveUsers(reservations);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long legacyStart = System.nanoTime();
+        for (int i = 0; i < reservations; i++) {
+            transaction.executeWithoutResult(status -> {
+                Library lib = libraryRepository.findLibraryByLibraryName(LIBRARY_NAME);
+                lib.getBooks().stream().filter(b -> b.getTitle().equals(TITLE) && b.getStatus().equals(BookStatus.AVAILABLE))
+                        .findFirst().orElseThrow(() -> new BookNotAvailableException(TITLE))
+                        .setStatus(BookStatus.RESERVED);
+            });
+        }
+        long legacyNanos = System.nanoTime() - legacyStart;
+        bookRepository.findAll().stream()
+                .filter(b -> b.getTitle().equals(TITLE))
+                .forEach(b -> {
+                    b.setStatus(BookStatus.AVAILABLE);
+                    bookRepository.save(b);
+                });
+        availabilityIndex.rebuild();
+
+        long claimStart = System.nanoTime();
+        for (User user : users) {
+            libraryService.reserveBook(TITLE, user.getEmail(), LIBRARY_NAME);
+        }
+        long claimNanos = System.nanoTime() - claimStart;
+
+        log.info("Reserve throughput with {} copies in library: hydrate-and-scan {} ops/s, guarded update {} ops/s",
+                bookRepository.count(), opsPerSecond(reservations, legacyNanos), opsPerSecond(reservations, claimNanos));
+        assertEquals(reservations, reservedRepository.count());
+    }
+
+    private int reserveConcurrently(List<User> users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(users.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (User user : users) {
+            Callable<Boolean> reserve = () -> {
+                start.await();
+                try {
+                    libraryService.reserveBook(TITLE, user.getEmail(), LIBRARY_NAME);
+                    return true;
+                } catch (BookNotAvailableException ex) {
+                    return false;
+                }
+            };
+            results.add(executor.submit(reserve));
+        }
+        start.countDown();
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                reserved++;
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        return reserved;
+    }
+
+    private void saveBooks(String title, int count) {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Book book = new Book();
+            book.setTitle(title);
+            book.setDescription("TEST DESCRIPTION");
+            book.setStatus(BookStatus.AVAILABLE);
+            book.setLibrary(library);
+            books.add(book);
+        }
+        bookRepository.saveAll(books);
+        availabilityIndex.rebuild();
+    }
+
+    private List<User> saveUsers(int count) {
+        Set<User> users = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            users.add(User.builder()
+                    .firstName("Petro")
+                    .lastName("Smikh")
+                    .email(format("user%d@test.com", i))
+                    .role(Role.USER)
+                    .isAccountNonLocked(true)
+                    .build());
+        }
+        return userRepository.saveAll(users);
+    }
+
+    private static long opsPerSecond(int ops, long nanos) {
+        return ops * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,167 @@
+package com.library.library.service;
+
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.service.event.CirculationEvent;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.job.ReservationExpiryJob;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.ExpiredReservation;
+import com.library.library.service.repository.HoldRequestRepository;
+import com.library.library.service.repository.ReservedRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationExpiryJobTest {
+
+    @Mock
+    private ReservedRepository reservedRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private HoldRequestRepository holdRequestRepository;
+    @Mock
+    private HoldQueue holdQueue;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReservationExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReservationExpiryJob(reservedRepository, bookRepository, holdRequestRepository, holdQueue, transactionManager, eventPublisher, meterRegistry);
+        ReflectionTestUtils.setField(job, "batchSize", 2);
+        ReflectionTestUtils.setField(job, "maxBatches", 2);
+    }
+
+    @Test
+    void expireReservationsTest() {
+        List<Long> firstBatch = Arrays.asList(1L, 2L);
+        List<Long> secondBatch = Collections.singletonList(3L);
+        //given
+        when(reservedRepository.findExpired(any(Date.class), eq(0L), any(Pageable.class))).thenReturn(expired(1L, 2L));
+        when(reservedRepository.findExpired(any(Date.class), eq(2L), any(Pageable.class))).thenReturn(expired(3L));
+        when(bookRepository.lockReservedBookIds(firstBatch, BookStatus.RESERVED)).thenReturn(firstBatch);
+        when(bookRepository.lockReservedBookIds(secondBatch, BookStatus.RESERVED)).thenReturn(secondBatch);
+        when(reservedRepository.deleteByIds(firstBatch)).thenReturn(2);
+        when(reservedRepository.deleteByIds(secondBatch)).thenReturn(1);
+        when(reservedRepository.countByDueDateBefore(any(Date.class))).thenReturn(0L);
+
+        //when
+        job.expireReservations();
+
+        //then
+        verify(bookRepository, times(1)).updateStatusByIds(new HashSet<>(firstBatch), BookStatus.RESERVED, BookStatus.AVAILABLE);
+        verify(bookRepository, times(1)).updateStatusByIds(new HashSet<>(secondBatch), BookStatus.RESERVED, BookStatus.AVAILABLE);
+        verify(eventPublisher, times(3)).publishEvent(isA(CirculationEvent.class));
+        verify(holdQueue, never()).handOff(any());
+        assertEquals(3, meterRegistry.get("reservation.expiry.last.run.processed").gauge().value());
+        assertEquals(0, meterRegistry.get("reservation.expiry.backlog").gauge().value());
+    }
+
+    @Test
+    void expireReservationsSkipsUnreleasedTest() {
+        //given
+        when(reservedRepository.findExpired(any(Date.class), eq(0L), any(Pageable.class))).thenReturn(expired(1L));
+        when(bookRepository.lockReservedBookIds(Collections.singletonList(1L), BookStatus.RESERVED)).thenReturn(Collections.emptyList());
+        when(reservedRepository.deleteByIds(Collections.singletonList(1L))).thenReturn(0);
+        when(reservedRepository.countByDueDateBefore(any(Date.class))).thenReturn(0L);
+
+        //when
+        job.expireReservations();
+
+        //then
+        verify(bookRepository, never()).updateStatusByIds(any(), any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+        verify(holdRequestRepository, never()).findQueuedTitles(any());
+    }
+
+    @Test
+    void expireReservationsMaxBatchesTest() {
+        //given
+        when(reservedRepository.findExpired(any(Date.class), eq(0L), any(Pageable.class))).thenReturn(expired(1L, 2L));
+        when(reservedRepository.findExpired(any(Date.class), eq(2L), any(Pageable.class))).thenReturn(expired(3L, 4L));
+        when(reservedRepository.deleteByIds(any())).thenReturn(2);
+        when(reservedRepository.countByDueDateBefore(any(Date.class))).thenReturn(10L);
+
+        //when
+        job.expireReservations();
+
+        //then
+        verify(reservedRepository, never()).findExpired(any(Date.class), eq(4L), any(Pageable.class));
+        assertEquals(4, meterRegistry.get("reservation.expiry.processed").gauge().value());
+        assertEquals(10, meterRegistry.get("reservation.expiry.backlog").gauge().value());
+    }
+
+    @Test
+    void expireReservationsEmptyTest() {
+        //given
+        when(reservedRepository.findExpired(any(Date.class), eq(0L), any(Pageable.class))).thenReturn(Collections.emptyList());
+        when(reservedRepository.countByDueDateBefore(any(Date.class))).thenReturn(0L);
+
+        //when
+        job.expireReservations();
+
+        //then
+        verify(bookRepository, never()).lockReservedBookIds(any(), any());
+        verify(reservedRepository, never()).deleteByIds(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private List<ExpiredReservation> expired(Long... ids) {
+        return Arrays.stream(ids).map(id -> new ExpiredReservation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getUserId() {
+                return id;
+            }
+
+            @Override
+            public Long getBookId() {
+                return id;
+            }
+
+            @Override
+            public Long getLibraryId() {
+                return 1L;
+            }
+
+            @Override
+            public String getTitle() {
+                return "TEST TITLE";
+            }
+        }).collect(Collectors.toList());
+    }
+}
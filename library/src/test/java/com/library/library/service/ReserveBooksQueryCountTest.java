@@ -0,0 +1,115 @@
+package com.library.library.service;
+
+import com.library.library.config.TestIndexConfig;
+import com.library.library.controller.dto.BookStatus;
+import com.library.library.controller.dto.CirculationItemDto;
+import com.library.library.controller.dto.CirculationResultDto;
+import com.library.library.controller.dto.Role;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.hold.HoldQueue;
+import com.library.library.service.impl.LibraryServiceImpl;
+import com.library.library.service.model.Book;
+import com.library.library.service.model.Library;
+import com.library.library.service.model.User;
+import com.library.library.service.repository.BookRepository;
+import com.library.library.service.repository.LibraryRepository;
+import com.library.library.service.repository.ReservedRepository;
+import com.library.library.service.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {"spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({TestIndexConfig.class, HoldQueue.class, LibraryServiceImpl.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ReserveBooksQueryCountTest {
+
+    private static final String LIBRARY_NAME = "BATCH LIB";
+    private static final int ITEMS = 10;
+
+    @Autowired
+    private LibraryService libraryService;
+    @Autowired
+    private NaturalKeyCache naturalKeyCache;
+    @Autowired
+    private LibraryRepository libraryRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ReservedRepository reservedRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<CirculationItemDto> items;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Library library = new Library();
+        library.setLibraryName(LIBRARY_NAME);
+        library.setEmail("batch@lib.com");
+        library.setAddress("LVIV");
+        library.setWrittenOn(Instant.now());
+        library = libraryRepository.save(library);
+        items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            String email = "reader" + i + "@email.com";
+            userRepository.save(User.builder()
+                    .firstName("Petro")
+                    .lastName("Smikh")
+                    .email(email)
+                    .role(Role.USER)
+                    .isAccountNonLocked(true)
+                    .build());
+            Book book = new Book();
+            book.setTitle("TITLE " + i);
+            book.setStatus(BookStatus.AVAILABLE);
+            book.setLibrary(library);
+            bookRepository.save(book);
+            items.add(CirculationItemDto.builder().userEmail(email).bookTitle(book.getTitle()).build());
+        }
+        naturalKeyCache.library(LIBRARY_NAME);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reservedRepository.deleteAllInBatch();
+        bookRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+        libraryRepository.deleteAllInBatch();
+        naturalKeyCache.invalidateAll();
+    }
+
+    @Test
+    void reservedBooksAreNotLoadedTest() {
+        //when
+        List<CirculationResultDto> actual = libraryService.reserveBooks(LIBRARY_NAME, items);
+
+        //then
+        assertTrue(actual.stream().allMatch(CirculationResultDto::isSuccess));
+        assertEquals(0, statistics.getEntityStatistics(Book.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(Library.class.getName()).getLoadCount());
+        // users, reserved users, borrowed users and candidates, one claim and one sequence value per item, one batched insert
+        assertEquals(5 + 2 * ITEMS, statistics.getPrepareStatementCount());
+    }
+}
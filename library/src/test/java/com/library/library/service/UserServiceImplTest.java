@@ -1,21 +1,31 @@
 package com.library.library.service;
 
+import com.library.library.controller.dto.CursorPageDto;
 import com.library.library.controller.dto.Role;
 import com.library.library.controller.dto.UserDto;
+import com.library.library.service.cache.NaturalKeyCache;
+import com.library.library.service.event.AccountChangedEvent;
+import com.library.library.service.event.UserChangedEvent;
 import com.library.library.service.exception.UserAlreadyExistsException;
 import com.library.library.service.impl.UserServiceImpl;
+import com.library.library.service.index.ExistenceRegistry;
+import com.library.library.service.index.ExistenceType;
 import com.library.library.service.mapper.UserMapper;
 import com.library.library.service.model.User;
+import com.library.library.service.page.KeysetCursor;
 import com.library.library.service.repository.UserRepository;
+import com.library.library.service.repository.UserSummary;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.text.ParseException;
@@ -25,6 +35,8 @@ import java.util.List;
 import java.util.Locale;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.isA;
@@ -46,6 +58,15 @@ public class UserServiceImplTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ExistenceRegistry existenceRegistry;
+
+    @Mock
+    private NaturalKeyCache naturalKeyCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private final User user = getUser();
     private final UserDto userDto = getUserDto();
 
@@ -54,14 +75,16 @@ public class UserServiceImplTest {
 
     @Test
     void isEmailAlreadyInUseTest() {
-        when(userRepository.existsUserByEmail(userDto.getEmail())).thenReturn(true);
+        when(existenceRegistry.exists(ExistenceType.USER_EMAIL, userDto.getEmail())).thenReturn(true);
         assertTrue(userService.isEmailAlreadyInUse(userDto.getEmail()));
     }
 
     @Test
     void getUserTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(UserMapper.INSTANCE.mapUser(userDto));
+        UserSummary summary = new SpelAwareProxyProjectionFactory()
+                .createProjection(UserSummary.class, UserMapper.INSTANCE.mapUser(userDto));
+        when(naturalKeyCache.user(userDto.getEmail())).thenReturn(summary);
 
         //when
         UserDto actualUserDto = userService.getUser(userDto.getEmail());
@@ -89,6 +112,21 @@ public class UserServiceImplTest {
         assertEquals(expectedPage.getContent(), actualPage.getContent());
     }
 
+    @Test
+    public void scrollUsersTest() {
+        user.setId(7L);
+        //given
+        when(userRepository.findPageAfter(5L, PageRequest.of(0, 13))).thenReturn(Collections.singletonList(user));
+
+        //when
+        CursorPageDto<UserDto> actual = userService.scrollUsers(KeysetCursor.encode(5L), 12);
+
+        //then
+        assertEquals(Collections.singletonList(userDto), actual.getContent());
+        assertFalse(actual.isHasNext());
+        assertNull(actual.getNextCursor());
+    }
+
     @Test()
     public void createUserTest() {
         //given
@@ -101,6 +139,7 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(userDto, actual);
+        verify(eventPublisher).publishEvent(isA(UserChangedEvent.class));
     }
 
     @Test
@@ -120,7 +159,7 @@ public class UserServiceImplTest {
     @Test
     public void updateUserTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         when(passwordEncoder.encode(userDto.getPassword())).thenReturn(userDto.getPassword());
         when(userRepository.save(isA(User.class))).thenReturn(user);
 
@@ -129,8 +168,10 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(userDto, actual);
-        verify(userRepository).findUserByEmail(user.getEmail());
+        verify(naturalKeyCache).userReference(user.getEmail());
         verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(isA(AccountChangedEvent.class));
+        verify(eventPublisher).publishEvent(isA(UserChangedEvent.class));
     }
 
     @Test
@@ -142,7 +183,7 @@ public class UserServiceImplTest {
         updateUserDto.setPassword(null);
         User updateUser = UserMapper.INSTANCE.mapUser(updateUserDto);
         //given
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(updateUser);
+        when(naturalKeyCache.userReference(user.getEmail())).thenReturn(updateUser);
         when(userRepository.save(isA(User.class))).thenReturn(updateUser);
 
         //when
@@ -150,7 +191,7 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(updateUserDto, actual);
-        verify(userRepository).findUserByEmail(user.getEmail());
+        verify(naturalKeyCache).userReference(user.getEmail());
         verify(userRepository).save(updateUser);
     }
 
@@ -163,7 +204,7 @@ public class UserServiceImplTest {
         updateUserDto.setCountry(null);
         User updateUser = UserMapper.INSTANCE.mapUser(updateUserDto);
         //given
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(updateUser);
+        when(naturalKeyCache.userReference(user.getEmail())).thenReturn(updateUser);
         when(passwordEncoder.encode(userDto.getPassword())).thenReturn(userDto.getPassword());
         when(userRepository.save(isA(User.class))).thenReturn(updateUser);
 
@@ -172,7 +213,7 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(updateUserDto, actual);
-        verify(userRepository).findUserByEmail(user.getEmail());
+        verify(naturalKeyCache).userReference(user.getEmail());
         verify(userRepository).save(updateUser);
     }
 
@@ -184,7 +225,7 @@ public class UserServiceImplTest {
         updateUserDto.setPostalCode(null);
         User updateUser = UserMapper.INSTANCE.mapUser(updateUserDto);
         //given
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(updateUser);
+        when(naturalKeyCache.userReference(user.getEmail())).thenReturn(updateUser);
         when(passwordEncoder.encode(userDto.getPassword())).thenReturn(userDto.getPassword());
         when(userRepository.save(isA(User.class))).thenReturn(updateUser);
 
@@ -193,7 +234,7 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(updateUserDto, actual);
-        verify(userRepository).findUserByEmail(user.getEmail());
+        verify(naturalKeyCache).userReference(user.getEmail());
         verify(userRepository).save(updateUser);
     }
 
@@ -203,7 +244,7 @@ public class UserServiceImplTest {
         updateUserDto.setIsAccountNonLocked(null);
         User updateUser = UserMapper.INSTANCE.mapUser(updateUserDto);
         //given
-        when(userRepository.findUserByEmail(user.getEmail())).thenReturn(updateUser);
+        when(naturalKeyCache.userReference(user.getEmail())).thenReturn(updateUser);
         when(passwordEncoder.encode(userDto.getPassword())).thenReturn(userDto.getPassword());
         when(userRepository.save(isA(User.class))).thenReturn(updateUser);
 
@@ -212,22 +253,24 @@ public class UserServiceImplTest {
 
         //then
         assertEquals(updateUserDto, actual);
-        verify(userRepository).findUserByEmail(user.getEmail());
+        verify(naturalKeyCache).userReference(user.getEmail());
         verify(userRepository).save(updateUser);
     }
 
     @Test
     void deleteUserTest() {
         //given
-        when(userRepository.findUserByEmail(userDto.getEmail())).thenReturn(user);
+        when(naturalKeyCache.userReference(userDto.getEmail())).thenReturn(user);
         doNothing().when(userRepository).delete(user);
 
         //when
         userService.deleteUser(userDto.getEmail());
 
         //then
-        verify(userRepository).findUserByEmail(userDto.getEmail());
+        verify(naturalKeyCache).userReference(userDto.getEmail());
         verify(userRepository).delete(user);
+        verify(eventPublisher).publishEvent(isA(AccountChangedEvent.class));
+        verify(eventPublisher).publishEvent(isA(UserChangedEvent.class));
     }
 
     private User getUser() throws ParseException {